@@ -2,41 +2,36 @@ package de.bitbrain.braingdx.ai.pathfinding;
 
 import de.bitbrain.braingdx.ai.pathfinding.heuristics.AStarHeuristic;
 import de.bitbrain.braingdx.ai.pathfinding.heuristics.ClosestHeuristic;
-import de.bitbrain.braingdx.tmx.TiledMapContext;
+import de.bitbrain.braingdx.tmx.CollisionMap;
 import de.bitbrain.braingdx.world.GameObject;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 
 /**
  * A path finder implementation that uses the AStar heuristic based algorithm to
  * determine a path.
+ * <p>
+ * Nodes are identified by their index <code>x + y * columns</code>. The open set is an indexed
+ * binary heap and the state of each node is only valid within the search which stamped it with
+ * its generation, so no state has to be reset between searches.
  *
  * @author Kevin Glass
  */
 public class AStarPathFinder implements PathFinder {
-   /**
-    * The set of nodes that have been searched through
-    */
-   private ArrayList<Node> closed = new ArrayList<Node>();
    /**
     * The set of nodes that we do not yet consider fully searched
     */
-   private SortedList open = new SortedList();
+   private final NodeHeap open = new NodeHeap();
 
    /**
     * The map being searched
     */
-   private TiledMapContext context;
+   private CollisionMap context;
    /**
     * The maximum depth of search we're willing to accept before giving up
     */
    private short maxSearchDistance;
 
-   /**
-    * The complete set of nodes across the map
-    */
-   private Node[][] nodes;
    /**
     * True if we allow diaganol movement
     */
@@ -46,6 +41,22 @@ public class AStarPathFinder implements PathFinder {
     */
    private AStarHeuristic heuristic;
 
+   private int columns;
+   private int rows;
+   /**
+    * The path cost, parent and search depth of each node
+    */
+   private float[] costs;
+   private int[] parents;
+   private short[] depths;
+   /**
+    * Nodes which have been reached or searched through within the current search
+    */
+   private int[] visited;
+   private int[] closed;
+   private int generation;
+   private int[] steps = new int[0];
+
    /**
     * Create a path finder with the default heuristic - closest to target.
     *
@@ -53,7 +64,7 @@ public class AStarPathFinder implements PathFinder {
     * @param maxSearchDistance The maximum depth we'll search before giving up
     * @param allowDiagMovement True if the search should try diaganol movement
     */
-   public AStarPathFinder(TiledMapContext context, short maxSearchDistance, boolean allowDiagMovement) {
+   public AStarPathFinder(CollisionMap context, short maxSearchDistance, boolean allowDiagMovement) {
       this(context, maxSearchDistance, allowDiagMovement, new ClosestHeuristic());
    }
 
@@ -65,7 +76,7 @@ public class AStarPathFinder implements PathFinder {
     * @param maxSearchDistance The maximum depth we'll search before giving up
     * @param allowDiagMovement True if the search should try diaganol movement
     */
-   public AStarPathFinder(TiledMapContext context, short maxSearchDistance, boolean allowDiagMovement, AStarHeuristic heuristic) {
+   public AStarPathFinder(CollisionMap context, short maxSearchDistance, boolean allowDiagMovement, AStarHeuristic heuristic) {
       this.heuristic = heuristic;
       this.context = context;
       this.maxSearchDistance = maxSearchDistance;
@@ -73,18 +84,27 @@ public class AStarPathFinder implements PathFinder {
       refresh();
    }
 
+   /**
+    * Adapts the search state to the current size of the map.
+    */
    public void refresh() {
-      nodes = new Node[context.getNumberOfColumns()][context.getNumberOfRows()];
-      for (short x = 0; x < context.getNumberOfColumns(); x++) {
-         for (short y = 0; y < context.getNumberOfRows(); y++) {
-            nodes[x][y] = new Node(x, y);
-         }
-      }
+      columns = context.getNumberOfColumns();
+      rows = context.getNumberOfRows();
+      final int size = columns * rows;
+      costs = new float[size];
+      parents = new int[size];
+      depths = new short[size];
+      visited = new int[size];
+      closed = new int[size];
+      generation = 0;
+      open.ensureCapacity(size);
    }
 
    @Override
    public Path findPath(GameObject mover, int tx, int ty) {
-
+      if (columns != context.getNumberOfColumns() || rows != context.getNumberOfRows()) {
+         refresh();
+      }
 
       int sx = context.getPositionTranslator().toIndexX(mover.getLeft());
       int sy = context.getPositionTranslator().toIndexY(mover.getTop());
@@ -96,26 +116,28 @@ public class AStarPathFinder implements PathFinder {
 
       // initial state for A*. The closed group is empty. Only the starting
       // tile is in the open list and it's cost is zero, i.e. we're already there
-      nodes[sx][sy].cost = 0;
-      nodes[sx][sy].depth = 0;
-      closed.clear();
-      open.clear();
-      open.add(nodes[sx][sy]);
-
-      nodes[tx][ty].parent = null;
+      nextGeneration();
+      final int start = sx + sy * columns;
+      final int target = tx + ty * columns;
+      visit(start);
+      visit(target);
+      open.add(start, 0f);
 
       // while we haven't found the goal and haven't exceeded our max search depth
       int maxDepth = 0;
-      while ((maxDepth < maxSearchDistance) && (open.size() != 0)) {
+      while ((maxDepth < maxSearchDistance) && !open.isEmpty()) {
          // pull out the first node in our open list, this is determined to
          // be the most likely to be the next step based on our heuristic
-         Node current = getFirstInOpen();
-         if (current == nodes[tx][ty]) {
+         final int current = open.peek();
+         if (current == target) {
             break;
          }
 
-         removeFromOpen(current);
-         addToClosed(current);
+         open.poll();
+         closed[current] = generation;
+
+         final int cx = current % columns;
+         final int cy = current / columns;
 
          // search through all the neighbours of the current node evaluating
          // them as next steps
@@ -135,38 +157,41 @@ public class AStarPathFinder implements PathFinder {
                }
 
                // determine the location of the neighbour and evaluate it
-               int xp = x + current.x;
-               int yp = y + current.y;
+               int xp = x + cx;
+               int yp = y + cy;
 
                if (isValidLocation(mover, sx, sy, xp, yp)) {
                   // the cost to get to this node is cost the current plus the movement
                   // cost to reach this node. Note that the heursitic value is only used
-                  // in the sorted open list
-                  float nextStepCost = current.cost + getMovementCost(mover, current.x, current.y, xp, yp);
-                  Node neighbour = nodes[xp][yp];
-                  //context.pathFinderVisited(xp, yp);
+                  // in the open heap
+                  float nextStepCost = costs[current] + getMovementCost(mover, cx, cy, xp, yp);
+                  final int neighbour = xp + yp * columns;
+                  visit(neighbour);
 
                   // if the new cost we've determined for this node is lower than
                   // it has been previously makes sure the node hasn't been discarded. We've
                   // determined that there might have been a better path to get to
                   // this node so it needs to be re-evaluated
-                  if (nextStepCost < neighbour.cost) {
-                     if (inOpenList(neighbour)) {
-                        removeFromOpen(neighbour);
-                     }
-                     if (inClosedList(neighbour)) {
-                        removeFromClosed(neighbour);
-                     }
+                  final boolean cheaper = nextStepCost < costs[neighbour];
+                  if (cheaper && closed[neighbour] == generation) {
+                     closed[neighbour] = 0;
                   }
 
                   // if the node hasn't already been processed and discarded then
                   // reset it's cost to our current cost and add it as a next possible
-                  // step (i.e. to the open list)
-                  if (!inOpenList(neighbour) && !(inClosedList(neighbour))) {
-                     neighbour.cost = nextStepCost;
-                     neighbour.heuristic = getHeuristicCost(mover, xp, yp, tx, ty);
-                     maxDepth = Math.max(maxDepth, neighbour.setParent(current));
-                     addToOpen(neighbour);
+                  // step (i.e. to the open heap)
+                  final boolean inOpen = open.contains(neighbour);
+                  if ((cheaper || !inOpen) && closed[neighbour] != generation) {
+                     costs[neighbour] = nextStepCost;
+                     parents[neighbour] = current;
+                     depths[neighbour] = (short) (depths[current] + 1);
+                     maxDepth = Math.max(maxDepth, depths[neighbour]);
+                     final float f = nextStepCost + getHeuristicCost(mover, xp, yp, tx, ty);
+                     if (inOpen) {
+                        open.update(neighbour, f);
+                     } else {
+                        open.add(neighbour, f);
+                     }
                   }
                }
             }
@@ -175,91 +200,28 @@ public class AStarPathFinder implements PathFinder {
 
       // since we've got an empty open list or we've run out of search
       // there was no path. Just return null
-      if (nodes[tx][ty].parent == null) {
+      if (parents[target] < 0) {
          return null;
       }
 
       // At this point we've definitely found a path so we can uses the parent
       // references of the nodes to find out way from the target location back
       // to the start recording the nodes on the way.
+      int length = 0;
+      for (int node = target; node != start; node = parents[node]) {
+         steps = ensureSteps(steps, length + 1);
+         steps[length++] = node;
+      }
       Path path = new Path();
-      Node target = nodes[tx][ty];
-      while (target != nodes[sx][sy]) {
-         path.prependStep(target.x, target.y);
-         target = target.parent;
+      path.appendStep(sx, sy);
+      for (int i = length - 1; i >= 0; --i) {
+         path.appendStep(steps[i] % columns, steps[i] / columns);
       }
-      path.prependStep(sx, sy);
 
       // thats it, we have our path
       return path;
    }
 
-   /**
-    * Get the first element from the open list. This is the next one to be
-    * searched.
-    *
-    * @return The first element in the open list
-    */
-   protected Node getFirstInOpen() {
-      return (Node) open.first();
-   }
-
-   /**
-    * Add a node to the open list
-    *
-    * @param node The node to be added to the open list
-    */
-   protected void addToOpen(Node node) {
-      open.add(node);
-   }
-
-   /**
-    * Check if a node is in the open list
-    *
-    * @param node The node to check for
-    * @return True if the node given is in the open list
-    */
-   protected boolean inOpenList(Node node) {
-      return open.contains(node);
-   }
-
-   /**
-    * Remove a node from the open list
-    *
-    * @param node The node to remove from the open list
-    */
-   protected void removeFromOpen(Node node) {
-      open.remove(node);
-   }
-
-   /**
-    * Add a node to the closed list
-    *
-    * @param node The node to add to the closed list
-    */
-   protected void addToClosed(Node node) {
-      closed.add(node);
-   }
-
-   /**
-    * Check if the node supplied is in the closed list
-    *
-    * @param node The node to search for
-    * @return True if the node specified is in the closed list
-    */
-   protected boolean inClosedList(Node node) {
-      return closed.contains(node);
-   }
-
-   /**
-    * Remove a node from the closed list
-    *
-    * @param node The node to remove from the closed list
-    */
-   protected void removeFromClosed(Node node) {
-      closed.remove(node);
-   }
-
    /**
     * Check if a given location is valid for the supplied mover
     *
@@ -319,143 +281,30 @@ public class AStarPathFinder implements PathFinder {
    }
 
    /**
-    * A simple sorted list
-    *
-    * @author kevin
+    * Initialises the state of the given node, in case it has not been reached within the current search yet.
     */
-   private class SortedList {
-      /**
-       * The list of elements
-       */
-      @SuppressWarnings("rawtypes")
-      private ArrayList list = new ArrayList();
-
-      /**
-       * Retrieve the first element from the list
-       *
-       * @return The first element from the list
-       */
-      public Object first() {
-         return list.get(0);
-      }
-
-      /**
-       * Empty the list
-       */
-      public void clear() {
-         list.clear();
-      }
-
-      /**
-       * Add an element to the list - causes sorting
-       *
-       * @param o The element to add
-       */
-      @SuppressWarnings("unchecked")
-      public void add(Object o) {
-         list.add(o);
-         Collections.sort(list);
-      }
-
-      /**
-       * Remove an element from the list
-       *
-       * @param o The element to remove
-       */
-      public void remove(Object o) {
-         list.remove(o);
-      }
-
-      /**
-       * Get the number of elements in the list
-       *
-       * @return The number of element in the list
-       */
-      public int size() {
-         return list.size();
-      }
-
-      /**
-       * Check if an element is in the list
-       *
-       * @param o The element to search for
-       * @return True if the element is in the list
-       */
-      public boolean contains(Object o) {
-         return list.contains(o);
+   private void visit(int node) {
+      if (visited[node] != generation) {
+         visited[node] = generation;
+         costs[node] = 0f;
+         parents[node] = -1;
+         depths[node] = 0;
       }
    }
 
-   /**
-    * A single node in the search graph
-    */
-   private class Node implements Comparable<Object> {
-      /**
-       * The x coordinate of the node
-       */
-      private short x;
-      /**
-       * The y coordinate of the node
-       */
-      private short y;
-      /**
-       * The path cost for this node
-       */
-      private float cost;
-      /**
-       * The parent of this node, how we reached it in the search
-       */
-      private Node parent;
-      /**
-       * The heuristic cost of this node
-       */
-      private float heuristic;
-      /**
-       * The search depth of this node
-       */
-      private short depth;
-
-      /**
-       * Create a new node
-       *
-       * @param x The x coordinate of the node
-       * @param y The y coordinate of the node
-       */
-      public Node(short x, short y) {
-         this.x = x;
-         this.y = y;
-      }
-
-      /**
-       * Set the parent of this node
-       *
-       * @param parent The parent node which lead us to this node
-       * @return The depth we have no reached in searching
-       */
-      public short setParent(Node parent) {
-         depth = (short) (parent.depth + 1);
-         this.parent = parent;
-
-         return depth;
+   private void nextGeneration() {
+      if (++generation == Integer.MAX_VALUE) {
+         Arrays.fill(visited, 0);
+         Arrays.fill(closed, 0);
+         generation = 1;
       }
+      open.clear();
+   }
 
-      /**
-       * @see Comparable#compareTo(Object)
-       */
-      @Override
-      public int compareTo(Object other) {
-         Node o = (Node) other;
-
-         float f = heuristic + cost;
-         float of = o.heuristic + o.cost;
-
-         if (f < of) {
-            return -1;
-         } else if (f > of) {
-            return 1;
-         } else {
-            return 0;
-         }
+   private static int[] ensureSteps(int[] steps, int length) {
+      if (steps.length < length) {
+         return Arrays.copyOf(steps, Math.max(length, steps.length * 2));
       }
+      return steps;
    }
 }
@@ -0,0 +1,273 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Abstraction of a single layer of a tile map for hierarchical path finding. The layer is
+ * partitioned into square clusters. Wherever two neighbouring clusters share an opening, cells
+ * on both sides of it become entrances which are connected by a transition, and the distances
+ * between all entrances of a cluster are known.
+ * <p>
+ * Clusters are rebuilt lazily via {@link #update(ClusterSearch)} after a cell changed, only the
+ * ones depending on that cell are rebuilt.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+class ClusterGraph {
+
+   /**
+    * Openings wider than this get a transition at both of their ends instead of a single one in
+    * their middle.
+    */
+   static final int MAX_ENTRANCE_WIDTH = 6;
+
+   private final ClusterSearch.Walkable walkable;
+   private final boolean allowDiagMovement;
+   private final int columns;
+   private final int rows;
+   private final int clusterSize;
+   private final int clusterColumns;
+   private final int clusterRows;
+   private final Cluster[] clusters;
+
+   ClusterGraph(int columns, int rows, int clusterSize, boolean allowDiagMovement, ClusterSearch.Walkable walkable) {
+      this.walkable = walkable;
+      this.allowDiagMovement = allowDiagMovement;
+      this.columns = columns;
+      this.rows = rows;
+      this.clusterSize = clusterSize;
+      this.clusterColumns = (columns + clusterSize - 1) / clusterSize;
+      this.clusterRows = (rows + clusterSize - 1) / clusterSize;
+      this.clusters = new Cluster[clusterColumns * clusterRows];
+      for (int j = 0; j < clusterRows; ++j) {
+         for (int i = 0; i < clusterColumns; ++i) {
+            final int left = i * clusterSize;
+            final int top = j * clusterSize;
+            clusters[i + j * clusterColumns] = new Cluster(left, top,
+                  Math.min(clusterSize, columns - left), Math.min(clusterSize, rows - top));
+         }
+      }
+   }
+
+   /**
+    * @return the index of the cluster containing the given cell
+    */
+   int clusterIndexOf(int tileX, int tileY) {
+      return tileX / clusterSize + (tileY / clusterSize) * clusterColumns;
+   }
+
+   Cluster getCluster(int clusterIndex) {
+      return clusters[clusterIndex];
+   }
+
+   /**
+    * Marks all clusters depending on the given cell for being rebuilt. Besides its own cluster
+    * these are all clusters with a cell next to it, since their transitions might change.
+    */
+   void invalidate(int tileX, int tileY) {
+      for (int x = Math.max(0, tileX - 1); x <= Math.min(columns - 1, tileX + 1); ++x) {
+         for (int y = Math.max(0, tileY - 1); y <= Math.min(rows - 1, tileY + 1); ++y) {
+            clusters[clusterIndexOf(x, y)].dirty = true;
+         }
+      }
+   }
+
+   /**
+    * Marks all clusters for being rebuilt.
+    */
+   void invalidateAll() {
+      for (Cluster cluster : clusters) {
+         cluster.dirty = true;
+      }
+   }
+
+   /**
+    * Rebuilds all clusters which have been invalidated since the last update.
+    */
+   void update(ClusterSearch search) {
+      for (Cluster cluster : clusters) {
+         if (cluster.dirty) {
+            build(cluster, search);
+         }
+      }
+   }
+
+   /**
+    * Collects the targets of all transitions leaving the given entrance of the cluster, which
+    * are at most eight.
+    *
+    * @return the number of targets stored in the given array
+    */
+   int getTransitions(int clusterIndex, int cell, int[] out) {
+      final Cluster cluster = clusters[clusterIndex];
+      int count = 0;
+      for (int t = 0; t < cluster.transitionCount; ++t) {
+         if (cluster.transitions[t * 2] == cell) {
+            out[count++] = cluster.transitions[t * 2 + 1];
+         }
+      }
+      return count;
+   }
+
+   private void build(Cluster cluster, ClusterSearch search) {
+      cluster.transitionCount = 0;
+      cluster.entranceCount = 0;
+      final int right = cluster.left + cluster.width - 1;
+      final int bottom = cluster.top + cluster.height - 1;
+      if (cluster.left > 0) {
+         addOpenings(cluster, cluster.left, cluster.top, 0, 1, cluster.height, -1, 0);
+      }
+      if (right < columns - 1) {
+         addOpenings(cluster, right, cluster.top, 0, 1, cluster.height, 1, 0);
+      }
+      if (cluster.top > 0) {
+         addOpenings(cluster, cluster.left, cluster.top, 1, 0, cluster.width, 0, -1);
+      }
+      if (bottom < rows - 1) {
+         addOpenings(cluster, cluster.left, bottom, 1, 0, cluster.width, 0, 1);
+      }
+      if (allowDiagMovement) {
+         for (int x = cluster.left; x <= right; ++x) {
+            addDiagonalTransitions(cluster, x, cluster.top);
+            if (bottom != cluster.top) {
+               addDiagonalTransitions(cluster, x, bottom);
+            }
+         }
+         for (int y = cluster.top + 1; y < bottom; ++y) {
+            addDiagonalTransitions(cluster, cluster.left, y);
+            if (right != cluster.left) {
+               addDiagonalTransitions(cluster, right, y);
+            }
+         }
+      }
+
+      final int count = cluster.entranceCount;
+      if (cluster.distances.length < count * count) {
+         cluster.distances = new float[count * count];
+      }
+      if (count > 1) {
+         search.load(cluster.left, cluster.top, cluster.width, cluster.height, walkable);
+         for (int a = 0; a < count; ++a) {
+            search.expand(cluster.entrances[a] % columns, cluster.entrances[a] / columns);
+            for (int b = 0; b < count; ++b) {
+               cluster.distances[a * count + b] = search.getDistance(cluster.entrances[b] % columns, cluster.entrances[b] / columns);
+            }
+         }
+      }
+      cluster.dirty = false;
+   }
+
+   /**
+    * Finds the openings along one side of the cluster, starting at the given cell and following
+    * the given step direction. The corresponding cell of the neighbouring cluster is offset by
+    * the given cross direction. Both clusters find the same openings, so their transitions match.
+    */
+   private void addOpenings(Cluster cluster, int x, int y, int stepX, int stepY, int length, int crossX, int crossY) {
+      int openingStart = -1;
+      for (int k = 0; k <= length; ++k) {
+         final int ax = x + stepX * k;
+         final int ay = y + stepY * k;
+         final boolean open = k < length && walkable.isWalkable(ax, ay) && walkable.isWalkable(ax + crossX, ay + crossY);
+         if (open && openingStart < 0) {
+            openingStart = k;
+         } else if (!open && openingStart >= 0) {
+            final int end = k - 1;
+            if (end - openingStart + 1 > MAX_ENTRANCE_WIDTH) {
+               addTransition(cluster, x + stepX * openingStart, y + stepY * openingStart, crossX, crossY);
+               addTransition(cluster, x + stepX * end, y + stepY * end, crossX, crossY);
+            } else {
+               final int middle = (openingStart + end) / 2;
+               addTransition(cluster, x + stepX * middle, y + stepY * middle, crossX, crossY);
+            }
+            openingStart = -1;
+         }
+      }
+   }
+
+   /**
+    * Adds transitions for diagonal moves from the given cell into other clusters which cannot be
+    * replaced by orthogonal moves, since both cells next to the diagonal are blocked.
+    */
+   private void addDiagonalTransitions(Cluster cluster, int x, int y) {
+      if (!walkable.isWalkable(x, y)) {
+         return;
+      }
+      for (int dx = -1; dx < 2; dx += 2) {
+         for (int dy = -1; dy < 2; dy += 2) {
+            final int xp = x + dx;
+            final int yp = y + dy;
+            if (xp < 0 || yp < 0 || xp >= columns || yp >= rows || cluster.contains(xp, yp)) {
+               continue;
+            }
+            if (walkable.isWalkable(xp, yp) && !walkable.isWalkable(xp, y) && !walkable.isWalkable(x, yp)) {
+               addTransition(cluster, x, y, dx, dy);
+            }
+         }
+      }
+   }
+
+   private void addTransition(Cluster cluster, int x, int y, int offsetX, int offsetY) {
+      if (cluster.transitions.length < (cluster.transitionCount + 1) * 2) {
+         cluster.transitions = Arrays.copyOf(cluster.transitions, Math.max(16, cluster.transitions.length * 2));
+      }
+      final int cell = x + y * columns;
+      cluster.transitions[cluster.transitionCount * 2] = cell;
+      cluster.transitions[cluster.transitionCount * 2 + 1] = (x + offsetX) + (y + offsetY) * columns;
+      ++cluster.transitionCount;
+      if (cluster.indexOf(cell) < 0) {
+         if (cluster.entrances.length == cluster.entranceCount) {
+            cluster.entrances = Arrays.copyOf(cluster.entrances, Math.max(8, cluster.entrances.length * 2));
+         }
+         cluster.entrances[cluster.entranceCount++] = cell;
+      }
+   }
+
+   static class Cluster {
+
+      final int left;
+      final int top;
+      final int width;
+      final int height;
+      /**
+       * Cell indices of all entrances and the distances between each pair of them at index
+       * a * entranceCount + b, {@link Float#MAX_VALUE} if there is no connection within the cluster
+       */
+      int[] entrances = new int[0];
+      int entranceCount;
+      float[] distances = new float[0];
+      /**
+       * Pairs of cell indices, an entrance of this cluster and the cell it leads to
+       */
+      int[] transitions = new int[0];
+      int transitionCount;
+      boolean dirty = true;
+
+      Cluster(int left, int top, int width, int height) {
+         this.left = left;
+         this.top = top;
+         this.width = width;
+         this.height = height;
+      }
+
+      boolean contains(int tileX, int tileY) {
+         return tileX >= left && tileY >= top && tileX < left + width && tileY < top + height;
+      }
+
+      /**
+       * @return the index of the given cell within the entrances of this cluster or -1
+       */
+      int indexOf(int cell) {
+         for (int i = 0; i < entranceCount; ++i) {
+            if (entrances[i] == cell) {
+               return i;
+            }
+         }
+         return -1;
+      }
+
+      float getDistance(int from, int to) {
+         return distances[from * entranceCount + to];
+      }
+   }
+}
@@ -0,0 +1,193 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Searches within a rectangular area of a tile map, usually a single cluster of a
+ * {@link ClusterGraph}. The walkability of the area is loaded once via
+ * {@link #load(int, int, int, int, Walkable)}, so any number of searches can be done on it
+ * without querying the map again.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+class ClusterSearch {
+
+   interface Walkable {
+
+      boolean isWalkable(int tileX, int tileY);
+   }
+
+   static final float DIAGONAL_COST = (float) Math.sqrt(2.0);
+
+   /**
+    * Scales the heuristic slightly, so equal estimates prefer locations closer to the target
+    * instead of exploring all of them.
+    */
+   static final float TIE_BREAKER = 1.001f;
+
+   private final NodeHeap open = new NodeHeap();
+   private final boolean allowDiagMovement;
+
+   private int left;
+   private int top;
+   private int width;
+   private int height;
+   private boolean[] walkable = new boolean[0];
+   private float[] costs = new float[0];
+   private int[] parents = new int[0];
+   private int[] visited = new int[0];
+   private int[] closed = new int[0];
+   private int generation;
+   private int[] steps = new int[0];
+
+   ClusterSearch(boolean allowDiagMovement) {
+      this.allowDiagMovement = allowDiagMovement;
+   }
+
+   /**
+    * Loads the walkability of the given area, which is used by all following searches.
+    */
+   void load(int left, int top, int width, int height, Walkable walkable) {
+      this.left = left;
+      this.top = top;
+      this.width = width;
+      this.height = height;
+      final int size = width * height;
+      if (this.walkable.length < size) {
+         this.walkable = new boolean[size];
+         costs = new float[size];
+         parents = new int[size];
+         visited = new int[size];
+         closed = new int[size];
+         generation = 0;
+         open.ensureCapacity(size);
+      }
+      for (int y = 0; y < height; ++y) {
+         for (int x = 0; x < width; ++x) {
+            this.walkable[x + y * width] = walkable.isWalkable(left + x, top + y);
+         }
+      }
+   }
+
+   /**
+    * Determines the distance from the given location to every location of the loaded area,
+    * available via {@link #getDistance(int, int)} afterwards. The given location itself is
+    * always considered walkable.
+    */
+   void expand(int sx, int sy) {
+      search(sx, sy, -1, -1);
+   }
+
+   /**
+    * @return the distance to the given location, determined by the last search or
+    * {@link Float#MAX_VALUE} if it has not been reached
+    */
+   float getDistance(int tileX, int tileY) {
+      if (!contains(tileX, tileY)) {
+         return Float.MAX_VALUE;
+      }
+      final int node = indexOf(tileX, tileY);
+      return visited[node] == generation ? costs[node] : Float.MAX_VALUE;
+   }
+
+   /**
+    * Searches a shortest path within the loaded area and appends all of its steps, excluding
+    * the starting location, to the given path.
+    *
+    * @return false if there is no path within the loaded area
+    */
+   boolean appendPath(int sx, int sy, int tx, int ty, Path path) {
+      if (!search(sx, sy, tx, ty)) {
+         return false;
+      }
+      final int start = indexOf(sx, sy);
+      int length = 0;
+      for (int node = indexOf(tx, ty); node != start; node = parents[node]) {
+         if (steps.length == length) {
+            steps = Arrays.copyOf(steps, Math.max(16, length * 2));
+         }
+         steps[length++] = node;
+      }
+      for (int i = length - 1; i >= 0; --i) {
+         path.appendStep(left + steps[i] % width, top + steps[i] / width);
+      }
+      return true;
+   }
+
+   boolean contains(int tileX, int tileY) {
+      return tileX >= left && tileY >= top && tileX < left + width && tileY < top + height;
+   }
+
+   float distance(int x, int y, int tx, int ty) {
+      final int dx = Math.abs(tx - x);
+      final int dy = Math.abs(ty - y);
+      if (allowDiagMovement) {
+         return Math.max(dx, dy) + (DIAGONAL_COST - 1f) * Math.min(dx, dy);
+      }
+      return dx + dy;
+   }
+
+   /**
+    * Runs A* towards the given target or Dijkstra over the whole area, if the target is negative.
+    */
+   private boolean search(int sx, int sy, int tx, int ty) {
+      if (++generation == Integer.MAX_VALUE) {
+         Arrays.fill(visited, 0);
+         Arrays.fill(closed, 0);
+         generation = 1;
+      }
+      open.clear();
+      if (!contains(sx, sy) || (tx >= 0 && !contains(tx, ty))) {
+         return false;
+      }
+      final int start = indexOf(sx, sy);
+      final int target = tx >= 0 ? indexOf(tx, ty) : -1;
+      visited[start] = generation;
+      costs[start] = 0f;
+      parents[start] = -1;
+      open.add(start, 0f);
+      while (!open.isEmpty()) {
+         final int current = open.poll();
+         if (current == target) {
+            return true;
+         }
+         closed[current] = generation;
+         final int cx = current % width;
+         final int cy = current / width;
+         for (int dx = -1; dx < 2; ++dx) {
+            for (int dy = -1; dy < 2; ++dy) {
+               if ((dx == 0 && dy == 0) || (!allowDiagMovement && dx != 0 && dy != 0)) {
+                  continue;
+               }
+               final int x = cx + dx;
+               final int y = cy + dy;
+               if (x < 0 || y < 0 || x >= width || y >= height) {
+                  continue;
+               }
+               final int neighbour = x + y * width;
+               if (closed[neighbour] == generation || !walkable[neighbour]) {
+                  continue;
+               }
+               final float cost = costs[current] + (dx != 0 && dy != 0 ? DIAGONAL_COST : 1f);
+               if (visited[neighbour] != generation || cost < costs[neighbour]) {
+                  visited[neighbour] = generation;
+                  costs[neighbour] = cost;
+                  parents[neighbour] = current;
+                  final float f = target < 0 ? cost : cost + TIE_BREAKER * distance(left + x, top + y, tx, ty);
+                  if (open.contains(neighbour)) {
+                     open.update(neighbour, f);
+                  } else {
+                     open.add(neighbour, f);
+                  }
+               }
+            }
+         }
+      }
+      return target < 0;
+   }
+
+   private int indexOf(int tileX, int tileY) {
+      return (tileX - left) + (tileY - top) * width;
+   }
+}
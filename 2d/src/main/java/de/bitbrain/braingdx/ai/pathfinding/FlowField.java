@@ -0,0 +1,451 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import de.bitbrain.braingdx.behavior.movement.Orientation;
+import de.bitbrain.braingdx.tmx.CollisionListener;
+import de.bitbrain.braingdx.tmx.CollisionMap;
+import de.bitbrain.braingdx.world.GameObject;
+
+import java.util.Arrays;
+
+/**
+ * Guides any number of movers towards a single target cell, e.g. enemies chasing the player.
+ * For each layer an integration field holds the number of orthogonal steps from every cell to
+ * the target and a direction field holds the step towards the target, so a mover only has to
+ * look up its direction via {@link #directionAt(int, int, int)} in constant time instead of
+ * searching a path. Directions are orthogonal, so they can be passed to
+ * {@link de.bitbrain.braingdx.movement.RasteredMovementBehavior#move(Orientation)}.
+ * <p>
+ * The fields of a layer are built with a single breadth first search on its first query (or
+ * {@link #update()}). Afterwards moving the target and collision changes are repaired on the next
+ * query by raising and lowering only the cells whose distance changed. Only static collisions
+ * block, since the fields are shared by all movers and the positions of moving objects change
+ * too often to be worth repairing for. The target cell is always considered walkable and blocked
+ * cells point towards their closest walkable neighbour.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class FlowField implements CollisionListener, Disposable {
+
+   /**
+    * The distance of cells without a way to the target
+    */
+   public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+   private static final Orientation[] ORIENTATIONS = Orientation.values();
+   private static final int[] DX = new int[ORIENTATIONS.length];
+   private static final int[] DY = new int[ORIENTATIONS.length];
+
+   static {
+      for (int d = 0; d < ORIENTATIONS.length; ++d) {
+         DX[d] = ORIENTATIONS[d].getXFactor();
+         DY[d] = ORIENTATIONS[d].getYFactor();
+      }
+   }
+
+   private final CollisionMap context;
+   private final IntMap<Field> fields = new IntMap<Field>();
+   private final NodeHeap open = new NodeHeap();
+   private final IntArray pending = new IntArray();
+   private final IntArray touched = new IntArray();
+   private int[] queue;
+
+   private int columns;
+   private int rows;
+   private int tx = -1;
+   private int ty = -1;
+   /**
+    * The cell index of the target or -1 if it is outside of the map
+    */
+   private int target = -1;
+
+   public FlowField(CollisionMap context) {
+      this.context = context;
+      refresh();
+      context.addCollisionListener(this);
+   }
+
+   /**
+    * Adapts the fields to the current size of the map and discards the fields of all layers.
+    */
+   public void refresh() {
+      columns = context.getNumberOfColumns();
+      rows = context.getNumberOfRows();
+      queue = new int[columns * rows];
+      open.ensureCapacity(columns * rows);
+      target = isInside(tx, ty) ? tx + ty * columns : -1;
+      fields.clear();
+   }
+
+   /**
+    * Sets the cell all directions lead to. The fields are repaired on their next query.
+    */
+   public void setTarget(int tileX, int tileY) {
+      tx = tileX;
+      ty = tileY;
+      target = isInside(tx, ty) ? tx + ty * columns : -1;
+   }
+
+   /**
+    * Sets the cell of the given object as target.
+    */
+   public void setTarget(GameObject target) {
+      setTarget(context.getPositionTranslator().toIndexX(target.getLeft()),
+            context.getPositionTranslator().toIndexY(target.getTop()));
+   }
+
+   public int getTargetX() {
+      return tx;
+   }
+
+   public int getTargetY() {
+      return ty;
+   }
+
+   /**
+    * Brings the fields of all queried layers up to date ahead of time, e.g. once per frame
+    * before movers query their directions.
+    */
+   public void update() {
+      if (columns != context.getNumberOfColumns() || rows != context.getNumberOfRows()) {
+         refresh();
+      }
+      for (Field field : fields.values()) {
+         field.validate();
+      }
+   }
+
+   /**
+    * @return the direction towards the target on the first layer
+    */
+   public Orientation directionAt(int tileX, int tileY) {
+      return directionAt(tileX, tileY, 0);
+   }
+
+   /**
+    * @return the direction of the next step towards the target or null if the cell is the
+    * target or there is no way to it
+    */
+   public Orientation directionAt(int tileX, int tileY, int layerIndex) {
+      if (!isInside(tileX, tileY)) {
+         return null;
+      }
+      final byte direction = obtainField(layerIndex).directions[tileX + tileY * columns];
+      return direction < 0 ? null : ORIENTATIONS[direction];
+   }
+
+   /**
+    * @return the direction towards the target from the cell and layer of the given mover
+    */
+   public Orientation directionAt(GameObject mover) {
+      return directionAt(context.getPositionTranslator().toIndexX(mover.getLeft()),
+            context.getPositionTranslator().toIndexY(mover.getTop()), context.layerIndexOf(mover));
+   }
+
+   /**
+    * @return the number of steps from the cell to the target or {@link #UNREACHABLE}
+    */
+   public int getDistance(int tileX, int tileY, int layerIndex) {
+      if (!isInside(tileX, tileY)) {
+         return UNREACHABLE;
+      }
+      return obtainField(layerIndex).costs[tileX + tileY * columns];
+   }
+
+   @Override
+   public void onCollisionChange(int tileX, int tileY, int layerIndex) {
+      Field field = fields.get(layerIndex);
+      if (field != null && field.loaded && isInside(tileX, tileY)
+            && context.isStaticCollision(tileX, tileY, layerIndex) != field.blocked[tileX + tileY * columns]) {
+         field.changes.add(tileX + tileY * columns);
+         if (field.changes.size > field.costs.length / 4) {
+            // reloading all collisions is cheaper than tracking most of them
+            field.loaded = false;
+            field.changes.clear();
+         }
+      }
+   }
+
+   @Override
+   public void dispose() {
+      context.removeCollisionListener(this);
+      fields.clear();
+   }
+
+   private Field obtainField(int layerIndex) {
+      if (columns != context.getNumberOfColumns() || rows != context.getNumberOfRows()) {
+         refresh();
+      }
+      Field field = fields.get(layerIndex);
+      if (field == null) {
+         field = new Field(layerIndex);
+         fields.put(layerIndex, field);
+      }
+      field.validate();
+      return field;
+   }
+
+   private boolean isInside(int tileX, int tileY) {
+      return tileX >= 0 && tileY >= 0 && tileX < columns && tileY < rows;
+   }
+
+   /**
+    * Integration and direction field of a single layer
+    */
+   private class Field {
+
+      private final int layer;
+      private final int[] costs = new int[columns * rows];
+      private final byte[] directions = new byte[columns * rows];
+      private final boolean[] blocked = new boolean[columns * rows];
+      /**
+       * The cells whose collision changed since the last update
+       */
+      private final IntArray changes = new IntArray();
+      private boolean loaded;
+      /**
+       * The cell index of the target the distances currently lead to
+       */
+      private int reached = -1;
+
+      Field(int layer) {
+         this.layer = layer;
+      }
+
+      void validate() {
+         if (!loaded) {
+            for (int y = 0; y < rows; ++y) {
+               for (int x = 0; x < columns; ++x) {
+                  blocked[x + y * columns] = context.isStaticCollision(x, y, layer);
+               }
+            }
+            loaded = true;
+            build();
+         } else if (reached != target || changes.size > 0) {
+            repair();
+         }
+      }
+
+      private void build() {
+         Arrays.fill(costs, UNREACHABLE);
+         if (target >= 0) {
+            // uniform step costs, so a breadth first search suffices
+            int head = 0;
+            int tail = 0;
+            costs[target] = 0;
+            queue[tail++] = target;
+            while (head < tail) {
+               final int current = queue[head++];
+               final int x = current % columns;
+               final int y = current / columns;
+               for (int d = 0; d < DX.length; ++d) {
+                  final int neighbour = neighbourOf(x, y, d);
+                  if (neighbour >= 0 && isWalkable(neighbour) && costs[neighbour] == UNREACHABLE) {
+                     costs[neighbour] = costs[current] + 1;
+                     queue[tail++] = neighbour;
+                  }
+               }
+            }
+         }
+         updateDirections();
+         reached = target;
+         changes.clear();
+      }
+
+      /**
+       * Lowers the distances from a new target first, then raises the distance of all cells which
+       * lost their way to the target to {@link #UNREACHABLE} and finally lowers the distance of
+       * these cells and of all cells which gained a shorter way again, starting from their
+       * neighbours with a valid distance. Cells whose distance does not change are not visited.
+       */
+      private void repair() {
+         pending.clear();
+         touched.clear();
+         open.clear();
+         for (int i = 0; i < changes.size; ++i) {
+            final int cell = changes.get(i);
+            final boolean collision = context.isStaticCollision(cell % columns, cell / columns, layer);
+            if (collision != blocked[cell]) {
+               blocked[cell] = collision;
+               touched.add(cell);
+            }
+         }
+         changes.clear();
+         final int changed = touched.size;
+         final int previous = reached;
+         reached = target;
+         if (target < 0) {
+            build();
+            return;
+         }
+         if (previous != target) {
+            costs[target] = 0;
+            touched.add(target);
+            enqueue(target);
+            lower();
+            if (previous >= 0) {
+               touched.add(previous);
+               raise(previous);
+            }
+         }
+         for (int i = 0; i < changed; ++i) {
+            final int cell = touched.get(i);
+            if (isWalkable(cell)) {
+               pending.add(cell);
+            } else if (costs[cell] != UNREACHABLE) {
+               raise(cell);
+            }
+         }
+         for (int i = 0; i < pending.size; ++i) {
+            final int cell = pending.get(i);
+            if (!isWalkable(cell)) {
+               continue;
+            }
+            final int cost = cell == target ? 0 : lowestNeighbourCost(cell);
+            if (cost != UNREACHABLE) {
+               costs[cell] = cell == target ? 0 : cost + 1;
+               enqueue(cell);
+            }
+         }
+         lower();
+         if (touched.size > costs.length / 4) {
+            updateDirections();
+            return;
+         }
+         for (int i = 0; i < touched.size; ++i) {
+            final int cell = touched.get(i);
+            final int x = cell % columns;
+            final int y = cell / columns;
+            updateDirection(x, y);
+            for (int d = 0; d < DX.length; ++d) {
+               if (neighbourOf(x, y, d) >= 0) {
+                  updateDirection(x + DX[d], y + DY[d]);
+               }
+            }
+         }
+      }
+
+      /**
+       * Spreads the distances of the queued cells to all neighbours which get a shorter way.
+       */
+      private void lower() {
+         while (!open.isEmpty()) {
+            final int current = open.poll();
+            final int x = current % columns;
+            final int y = current / columns;
+            for (int d = 0; d < DX.length; ++d) {
+               final int neighbour = neighbourOf(x, y, d);
+               if (neighbour >= 0 && isWalkable(neighbour) && costs[current] + 1 < costs[neighbour]) {
+                  costs[neighbour] = costs[current] + 1;
+                  touched.add(neighbour);
+                  enqueue(neighbour);
+               }
+            }
+         }
+      }
+
+      private void updateDirections() {
+         for (int y = 0; y < rows; ++y) {
+            for (int x = 0; x < columns; ++x) {
+               updateDirection(x, y);
+            }
+         }
+      }
+
+      /**
+       * Marks the given cell and all cells which are only reachable via it as unreachable and
+       * adds them to the pending cells.
+       */
+      private void raise(int cell) {
+         costs[cell] = UNREACHABLE;
+         int next = pending.size;
+         pending.add(cell);
+         while (next < pending.size) {
+            final int current = pending.get(next++);
+            final int x = current % columns;
+            final int y = current / columns;
+            for (int d = 0; d < DX.length; ++d) {
+               final int neighbour = neighbourOf(x, y, d);
+               if (neighbour >= 0 && isWalkable(neighbour) && neighbour != target
+                     && costs[neighbour] != UNREACHABLE && !isSupported(neighbour)) {
+                  costs[neighbour] = UNREACHABLE;
+                  touched.add(neighbour);
+                  pending.add(neighbour);
+               }
+            }
+         }
+      }
+
+      /**
+       * @return true if the cell still has a neighbour which is one step closer to the target
+       */
+      private boolean isSupported(int cell) {
+         final int x = cell % columns;
+         final int y = cell / columns;
+         for (int d = 0; d < DX.length; ++d) {
+            final int neighbour = neighbourOf(x, y, d);
+            if (neighbour >= 0 && isWalkable(neighbour) && costs[neighbour] == costs[cell] - 1) {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      private int lowestNeighbourCost(int cell) {
+         final int x = cell % columns;
+         final int y = cell / columns;
+         int lowest = UNREACHABLE;
+         for (int d = 0; d < DX.length; ++d) {
+            final int neighbour = neighbourOf(x, y, d);
+            if (neighbour >= 0 && isWalkable(neighbour) && costs[neighbour] < lowest) {
+               lowest = costs[neighbour];
+            }
+         }
+         return lowest;
+      }
+
+      /**
+       * Points the cell towards its neighbour with the lowest distance, if it is lower than the
+       * distance of the cell itself.
+       */
+      private void updateDirection(int x, int y) {
+         final int cell = x + y * columns;
+         byte direction = -1;
+         if (cell != target) {
+            int lowest = isWalkable(cell) ? costs[cell] : UNREACHABLE;
+            for (int d = 0; d < DX.length; ++d) {
+               final int neighbour = neighbourOf(x, y, d);
+               if (neighbour >= 0 && isWalkable(neighbour) && costs[neighbour] < lowest) {
+                  lowest = costs[neighbour];
+                  direction = (byte) d;
+               }
+            }
+         }
+         directions[cell] = direction;
+      }
+
+      private void enqueue(int cell) {
+         if (open.contains(cell)) {
+            open.update(cell, costs[cell]);
+         } else {
+            open.add(cell, costs[cell]);
+         }
+      }
+
+      private boolean isWalkable(int cell) {
+         return !blocked[cell] || cell == target;
+      }
+
+      /**
+       * @return the index of the neighbour in the given direction or -1 if it is outside of the map
+       */
+      private int neighbourOf(int x, int y, int direction) {
+         x += DX[direction];
+         y += DY[direction];
+         return isInside(x, y) ? x + y * columns : -1;
+      }
+   }
+}
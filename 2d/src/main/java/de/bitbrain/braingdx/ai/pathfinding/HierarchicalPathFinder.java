@@ -0,0 +1,434 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntMap;
+import de.bitbrain.braingdx.tmx.CollisionListener;
+import de.bitbrain.braingdx.tmx.CollisionMap;
+import de.bitbrain.braingdx.world.GameObject;
+
+import java.util.Arrays;
+
+/**
+ * A path finder implementation for large maps based on hierarchical path-finding A* (HPA*).
+ * Each layer is partitioned into clusters, see {@link ClusterGraph}. A search first finds a
+ * route between the entrances of the clusters and then only refines the clusters along that
+ * route, so its cost mainly depends on the number of clusters along the route and there is no
+ * maximum search distance. Found paths are near optimal.
+ * <p>
+ * The abstraction of a layer is built on its first search (or {@link #warmUp(int)}) from the
+ * static collisions of the map only (see {@link CollisionMap#isStaticCollision(int, int, int)}),
+ * so moving objects do not cause clusters to be rebuilt. Whenever a cell changes its static
+ * collision, only the clusters depending on it are rebuilt on the next search. Collisions of
+ * objects are only considered when connecting start and target and when refining the route
+ * into single steps. In case objects block the refined route, the whole map is searched by a
+ * {@link JumpPointPathFinder} instead. The cells occupied by the mover itself are treated as
+ * walkable like for {@link AStarPathFinder}.
+ * <p>
+ * The path finder registers itself as {@link CollisionListener} of the context, it has to be
+ * disposed via {@link #dispose()} in order to be unregistered again.
+ * <p>
+ * The abstraction assumes movers which cover a single cell, searches for larger movers are
+ * done by a {@link JumpPointPathFinder} instead.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class HierarchicalPathFinder implements PathFinder, CollisionListener, Disposable {
+
+   public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+   private final CollisionMap context;
+   private final int clusterSize;
+   private final boolean allowDiagMovement;
+   private final IntMap<ClusterGraph> graphs = new IntMap<ClusterGraph>();
+   /**
+    * The static collisions each abstraction has been built from, per layer
+    */
+   private final IntMap<boolean[]> staticCollisions = new IntMap<boolean[]>();
+   private final ClusterSearch search;
+   private final NodeHeap open = new NodeHeap();
+   private JumpPointPathFinder fallback;
+
+   private int columns;
+   private int rows;
+   /**
+    * The route cost and parent of each abstract node, identified by its cell index
+    */
+   private float[] costs;
+   private int[] parents;
+   private int[] visited;
+   private int[] closed;
+   private int generation;
+   /**
+    * Edges connecting start and target of the current search with the abstraction
+    */
+   private int[] edgeSources = new int[0];
+   private int[] edgeTargets = new int[0];
+   private float[] edgeCosts = new float[0];
+   private int edgeCount;
+   private final int[] transitions = new int[8];
+   private int[] route = new int[0];
+
+   // state of the current search
+   private GameObject mover;
+   private int layer;
+   private int sx;
+   private int sy;
+   private int tx;
+   private int ty;
+   private final ClusterSearch.Walkable moverWalkable = new ClusterSearch.Walkable() {
+      @Override
+      public boolean isWalkable(int tileX, int tileY) {
+         return (tileX == sx && tileY == sy) || !context.isExclusiveCollision(tileX, tileY, layer, mover);
+      }
+   };
+
+   /**
+    * Create a path finder with clusters of {@link #DEFAULT_CLUSTER_SIZE} cells.
+    *
+    * @param context           The context to be used
+    * @param allowDiagMovement True if the search should try diagonal movement
+    */
+   public HierarchicalPathFinder(CollisionMap context, boolean allowDiagMovement) {
+      this(context, DEFAULT_CLUSTER_SIZE, allowDiagMovement);
+   }
+
+   /**
+    * @param context           The context to be used
+    * @param clusterSize       The width and height of a cluster in cells
+    * @param allowDiagMovement True if the search should try diagonal movement
+    */
+   public HierarchicalPathFinder(CollisionMap context, int clusterSize, boolean allowDiagMovement) {
+      if (clusterSize < 2) {
+         throw new IllegalArgumentException("Cluster size has to be at least 2 but was " + clusterSize);
+      }
+      this.context = context;
+      this.clusterSize = clusterSize;
+      this.allowDiagMovement = allowDiagMovement;
+      this.search = new ClusterSearch(allowDiagMovement);
+      refresh();
+      context.addCollisionListener(this);
+   }
+
+   /**
+    * Adapts the search state to the current size of the map and discards the abstraction of
+    * all layers.
+    */
+   public void refresh() {
+      columns = context.getNumberOfColumns();
+      rows = context.getNumberOfRows();
+      final int size = columns * rows;
+      costs = new float[size];
+      parents = new int[size];
+      visited = new int[size];
+      closed = new int[size];
+      generation = 0;
+      open.ensureCapacity(size);
+      graphs.clear();
+      staticCollisions.clear();
+   }
+
+   /**
+    * Builds the abstraction of the given layer ahead of time, so the first search on it does not
+    * have to.
+    */
+   public void warmUp(int layerIndex) {
+      obtainGraph(layerIndex).update(search);
+   }
+
+   /**
+    * Marks the abstraction of all layers for being rebuilt, e.g. after collisions have been
+    * changed without notifying collision listeners.
+    */
+   public void invalidate() {
+      for (IntMap.Entry<ClusterGraph> entry : graphs.entries()) {
+         readStaticCollisions(entry.key, staticCollisions.get(entry.key));
+         entry.value.invalidateAll();
+      }
+   }
+
+   /**
+    * Rebuilds the clusters depending on the given cell on the next search, in case its static
+    * collision has changed. Changes caused by moving objects are ignored.
+    */
+   @Override
+   public void onCollisionChange(int tileX, int tileY, int layerIndex) {
+      ClusterGraph graph = graphs.get(layerIndex);
+      if (graph == null || !isInside(tileX, tileY)) {
+         return;
+      }
+      final boolean[] collisions = staticCollisions.get(layerIndex);
+      final int index = tileX + tileY * columns;
+      final boolean collision = context.isStaticCollision(tileX, tileY, layerIndex);
+      if (collisions[index] != collision) {
+         collisions[index] = collision;
+         graph.invalidate(tileX, tileY);
+      }
+   }
+
+   /**
+    * Unregisters this path finder from the collision listeners of the context and discards the
+    * abstraction of all layers.
+    */
+   @Override
+   public void dispose() {
+      context.removeCollisionListener(this);
+      graphs.clear();
+      staticCollisions.clear();
+   }
+
+   @Override
+   public Path findPath(GameObject mover, int tx, int ty) {
+      if (columns != context.getNumberOfColumns() || rows != context.getNumberOfRows()) {
+         refresh();
+      }
+      if (mover.getWidth() >= 2 * context.getCellWidth() || mover.getHeight() >= 2 * context.getCellHeight()) {
+         return obtainFallback().findPath(mover, tx, ty);
+      }
+      this.mover = mover;
+      this.layer = context.layerIndexOf(mover);
+      this.sx = context.getPositionTranslator().toIndexX(mover.getLeft());
+      this.sy = context.getPositionTranslator().toIndexY(mover.getTop());
+      this.tx = tx;
+      this.ty = ty;
+      try {
+         // like AStarPathFinder there is no path if the mover already is at the target
+         if (!isInside(sx, sy) || !isInside(tx, ty) || (sx == tx && sy == ty)
+               || context.isExclusiveCollision(tx, ty, layer, mover)) {
+            return null;
+         }
+         ClusterGraph graph = obtainGraph(layer);
+         graph.update(search);
+         return search(graph);
+      } finally {
+         this.mover = null;
+      }
+   }
+
+   private ClusterGraph obtainGraph(int layerIndex) {
+      ClusterGraph graph = graphs.get(layerIndex);
+      if (graph == null) {
+         final boolean[] collisions = new boolean[columns * rows];
+         readStaticCollisions(layerIndex, collisions);
+         graph = new ClusterGraph(columns, rows, clusterSize, allowDiagMovement, new ClusterSearch.Walkable() {
+            @Override
+            public boolean isWalkable(int tileX, int tileY) {
+               return !collisions[tileX + tileY * columns];
+            }
+         });
+         graphs.put(layerIndex, graph);
+         staticCollisions.put(layerIndex, collisions);
+      }
+      return graph;
+   }
+
+   private void readStaticCollisions(int layerIndex, boolean[] collisions) {
+      for (int y = 0; y < rows; ++y) {
+         for (int x = 0; x < columns; ++x) {
+            collisions[x + y * columns] = context.isStaticCollision(x, y, layerIndex);
+         }
+      }
+   }
+
+   private JumpPointPathFinder obtainFallback() {
+      if (fallback == null) {
+         fallback = new JumpPointPathFinder(context, allowDiagMovement);
+      }
+      return fallback;
+   }
+
+   private Path search(ClusterGraph graph) {
+      final int start = sx + sy * columns;
+      final int target = tx + ty * columns;
+      final int startCluster = graph.clusterIndexOf(sx, sy);
+      final int targetCluster = graph.clusterIndexOf(tx, ty);
+
+      // insert start and target into the abstraction. The start might be blocked for other
+      // movers, so it directly connects to the neighbouring clusters as well
+      edgeCount = 0;
+      connect(graph, start, startCluster, targetCluster);
+      for (int x = -1; x < 2; x++) {
+         for (int y = -1; y < 2; y++) {
+            if ((x == 0 && y == 0) || (!allowDiagMovement && x != 0 && y != 0)) {
+               continue;
+            }
+            final int xp = sx + x;
+            final int yp = sy + y;
+            if (isInside(xp, yp) && graph.clusterIndexOf(xp, yp) != startCluster && moverWalkable.isWalkable(xp, yp)) {
+               final int neighbour = xp + yp * columns;
+               addEdge(start, neighbour, x != 0 && y != 0 ? ClusterSearch.DIAGONAL_COST : 1f);
+               connect(graph, neighbour, graph.clusterIndexOf(xp, yp), targetCluster);
+            }
+         }
+      }
+      final ClusterGraph.Cluster cluster = graph.getCluster(targetCluster);
+      search.load(cluster.left, cluster.top, cluster.width, cluster.height, moverWalkable);
+      search.expand(tx, ty);
+      for (int i = 0; i < cluster.entranceCount; ++i) {
+         final int entrance = cluster.entrances[i];
+         final float distance = search.getDistance(entrance % columns, entrance / columns);
+         if (entrance != target && distance != Float.MAX_VALUE) {
+            addEdge(entrance, target, distance);
+         }
+      }
+
+      // search the abstraction
+      nextGeneration();
+      visit(start);
+      open.add(start, 0f);
+      while (!open.isEmpty()) {
+         final int current = open.poll();
+         if (current == target) {
+            final Path path = refine(graph, target);
+            // the abstraction does not know about objects, search around them on the whole map
+            return path != null ? path : obtainFallback().findPath(mover, tx, ty);
+         }
+         closed[current] = generation;
+         final int cx = current % columns;
+         final int cy = current / columns;
+         final int clusterIndex = graph.clusterIndexOf(cx, cy);
+         final ClusterGraph.Cluster currentCluster = graph.getCluster(clusterIndex);
+         final int entranceIndex = currentCluster.indexOf(current);
+         if (entranceIndex >= 0) {
+            for (int i = 0; i < currentCluster.entranceCount; ++i) {
+               final float distance = currentCluster.getDistance(entranceIndex, i);
+               if (i != entranceIndex && distance != Float.MAX_VALUE) {
+                  relax(current, currentCluster.entrances[i], distance);
+               }
+            }
+            final int count = graph.getTransitions(clusterIndex, current, transitions);
+            for (int i = 0; i < count; ++i) {
+               final boolean diagonal = transitions[i] % columns != cx && transitions[i] / columns != cy;
+               relax(current, transitions[i], diagonal ? ClusterSearch.DIAGONAL_COST : 1f);
+            }
+         }
+         for (int i = 0; i < edgeCount; ++i) {
+            if (edgeSources[i] == current) {
+               relax(current, edgeTargets[i], edgeCosts[i]);
+            }
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Connects the given cell with all entrances of its cluster and with the target, in case it
+    * belongs to the same cluster.
+    */
+   private void connect(ClusterGraph graph, int cell, int clusterIndex, int targetCluster) {
+      final ClusterGraph.Cluster cluster = graph.getCluster(clusterIndex);
+      search.load(cluster.left, cluster.top, cluster.width, cluster.height, moverWalkable);
+      search.expand(cell % columns, cell / columns);
+      for (int i = 0; i < cluster.entranceCount; ++i) {
+         final int entrance = cluster.entrances[i];
+         final float distance = search.getDistance(entrance % columns, entrance / columns);
+         if (entrance != cell && distance != Float.MAX_VALUE) {
+            addEdge(cell, entrance, distance);
+         }
+      }
+      if (clusterIndex == targetCluster) {
+         final float distance = search.getDistance(tx, ty);
+         if (distance != Float.MAX_VALUE) {
+            addEdge(cell, tx + ty * columns, distance);
+         }
+      }
+   }
+
+   private void addEdge(int source, int target, float cost) {
+      if (edgeSources.length == edgeCount) {
+         final int capacity = Math.max(16, edgeCount * 2);
+         edgeSources = Arrays.copyOf(edgeSources, capacity);
+         edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+         edgeCosts = Arrays.copyOf(edgeCosts, capacity);
+      }
+      edgeSources[edgeCount] = source;
+      edgeTargets[edgeCount] = target;
+      edgeCosts[edgeCount] = cost;
+      ++edgeCount;
+   }
+
+   private void relax(int current, int node, float edgeCost) {
+      if (closed[node] == generation) {
+         return;
+      }
+      final float cost = costs[current] + edgeCost;
+      if (visited[node] != generation || cost < costs[node]) {
+         visit(node);
+         costs[node] = cost;
+         parents[node] = current;
+         final float f = cost + ClusterSearch.TIE_BREAKER * search.distance(node % columns, node / columns, tx, ty);
+         if (open.contains(node)) {
+            open.update(node, f);
+         } else {
+            open.add(node, f);
+         }
+      }
+   }
+
+   /**
+    * Turns the route through the abstraction into single steps. Consecutive nodes within the
+    * same cluster are connected by a search within that cluster, all others are neighbours.
+    * Unlike the abstraction, the refinement respects the collisions of objects.
+    *
+    * @return the path or null in case objects block the route
+    */
+   private Path refine(ClusterGraph graph, int target) {
+      int length = 0;
+      for (int node = target; node != -1; node = parents[node]) {
+         if (route.length == length) {
+            route = Arrays.copyOf(route, Math.max(16, length * 2));
+         }
+         route[length++] = node;
+      }
+      Path path = new Path();
+      path.appendStep(sx, sy);
+      int loadedCluster = -1;
+      for (int i = length - 1; i > 0; --i) {
+         final int fromX = route[i] % columns;
+         final int fromY = route[i] / columns;
+         final int toX = route[i - 1] % columns;
+         final int toY = route[i - 1] / columns;
+         final int clusterIndex = graph.clusterIndexOf(fromX, fromY);
+         if (clusterIndex != graph.clusterIndexOf(toX, toY)) {
+            if (!moverWalkable.isWalkable(toX, toY)) {
+               return null;
+            }
+            path.appendStep(toX, toY);
+            continue;
+         }
+         if (clusterIndex != loadedCluster) {
+            final ClusterGraph.Cluster cluster = graph.getCluster(clusterIndex);
+            search.load(cluster.left, cluster.top, cluster.width, cluster.height, moverWalkable);
+            loadedCluster = clusterIndex;
+         }
+         if (!search.appendPath(fromX, fromY, toX, toY, path)) {
+            return null;
+         }
+      }
+      return path;
+   }
+
+   private boolean isInside(int x, int y) {
+      return x >= 0 && y >= 0 && x < columns && y < rows;
+   }
+
+   /**
+    * Initialises the state of the given node, in case it has not been reached within the current search yet.
+    */
+   private void visit(int node) {
+      if (visited[node] != generation) {
+         visited[node] = generation;
+         costs[node] = 0f;
+         parents[node] = -1;
+      }
+   }
+
+   private void nextGeneration() {
+      if (++generation == Integer.MAX_VALUE) {
+         Arrays.fill(visited, 0);
+         Arrays.fill(closed, 0);
+         generation = 1;
+      }
+      open.clear();
+   }
+}
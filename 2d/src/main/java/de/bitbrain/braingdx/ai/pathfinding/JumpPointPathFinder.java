@@ -0,0 +1,394 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import de.bitbrain.braingdx.tmx.CollisionMap;
+import de.bitbrain.braingdx.world.GameObject;
+
+import java.util.Arrays;
+
+/**
+ * A path finder implementation based on jump point search. Tile maps do not provide movement
+ * costs, so every step costs the same and most nodes an A* search would expand are symmetric
+ * alternatives of each other. Jump point search skips them by jumping along straight and
+ * diagonal lines until it reaches a node with a forced neighbour, which makes searches over
+ * open areas orders of magnitude cheaper.
+ * <p>
+ * Locations are valid the same way as for {@link AStarPathFinder}: all cells covered by the
+ * mover (at least one) must not be an exclusive collision. Diagonal moves are allowed as long
+ * as the diagonal location itself is valid. Found paths are shortest paths and contain every
+ * single step between start and target, including a step for the initial location.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class JumpPointPathFinder implements PathFinder {
+
+   private static final float DIAGONAL_COST = (float) Math.sqrt(2.0);
+
+   private final NodeHeap open = new NodeHeap();
+   private final CollisionMap context;
+   private final boolean allowDiagMovement;
+
+   private int columns;
+   private int rows;
+   /**
+    * The path cost and parent jump point of each node
+    */
+   private float[] costs;
+   private int[] parents;
+   /**
+    * Nodes which have been reached or searched through within the current search
+    */
+   private int[] visited;
+   private int[] closed;
+   private int generation;
+   private int[] jumpPoints = new int[0];
+   private final int[] neighbours = new int[16];
+
+   // state of the current search
+   private GameObject mover;
+   private int layer;
+   private int widthCells;
+   private int heightCells;
+   private int sx;
+   private int sy;
+   private int tx;
+   private int ty;
+
+   /**
+    * @param context           The context to be used
+    * @param allowDiagMovement True if the search should try diagonal movement
+    */
+   public JumpPointPathFinder(CollisionMap context, boolean allowDiagMovement) {
+      this.context = context;
+      this.allowDiagMovement = allowDiagMovement;
+      refresh();
+   }
+
+   /**
+    * Adapts the search state to the current size of the map.
+    */
+   public void refresh() {
+      columns = context.getNumberOfColumns();
+      rows = context.getNumberOfRows();
+      final int size = columns * rows;
+      costs = new float[size];
+      parents = new int[size];
+      visited = new int[size];
+      closed = new int[size];
+      generation = 0;
+      open.ensureCapacity(size);
+   }
+
+   @Override
+   public Path findPath(GameObject mover, int tx, int ty) {
+      if (columns != context.getNumberOfColumns() || rows != context.getNumberOfRows()) {
+         refresh();
+      }
+      this.mover = mover;
+      this.layer = context.layerIndexOf(mover);
+      this.widthCells = Math.max(1, (int) Math.floor(mover.getWidth() / context.getCellWidth()));
+      this.heightCells = Math.max(1, (int) Math.floor(mover.getHeight() / context.getCellHeight()));
+      this.sx = context.getPositionTranslator().toIndexX(mover.getLeft());
+      this.sy = context.getPositionTranslator().toIndexY(mover.getTop());
+      this.tx = tx;
+      this.ty = ty;
+      try {
+         // like AStarPathFinder there is no path if the mover already is at the target
+         if (!isInside(sx, sy) || (sx == tx && sy == ty) || !isValidLocation(tx, ty)) {
+            return null;
+         }
+         return search();
+      } finally {
+         this.mover = null;
+      }
+   }
+
+   private Path search() {
+      nextGeneration();
+      final int start = sx + sy * columns;
+      final int target = tx + ty * columns;
+      visit(start);
+      open.add(start, 0f);
+
+      while (!open.isEmpty()) {
+         final int current = open.poll();
+         if (current == target) {
+            return buildPath(start, target);
+         }
+         closed[current] = generation;
+
+         final int cx = current % columns;
+         final int cy = current / columns;
+         final int count = allowDiagMovement ? collectDiagonalNeighbours(current, cx, cy) : collectNeighbours(current, cx, cy);
+         for (int i = 0; i < count; i += 2) {
+            final int dx = neighbours[i];
+            final int dy = neighbours[i + 1];
+            final int jumpPoint = allowDiagMovement ? jumpDiagonal(cx + dx, cy + dy, dx, dy) : jump(cx + dx, cy + dy, dx, dy);
+            if (jumpPoint < 0 || closed[jumpPoint] == generation) {
+               continue;
+            }
+            final int jx = jumpPoint % columns;
+            final int jy = jumpPoint / columns;
+            final float cost = costs[current] + distance(cx, cy, jx, jy);
+            final boolean reached = visited[jumpPoint] == generation;
+            if (!reached || cost < costs[jumpPoint]) {
+               visit(jumpPoint);
+               costs[jumpPoint] = cost;
+               parents[jumpPoint] = current;
+               // equal estimates prefer jump points closer to the target, otherwise open
+               // areas with lots of equal estimates would be searched breadth first
+               final float h = distance(jx, jy, tx, ty);
+               if (open.contains(jumpPoint)) {
+                  open.update(jumpPoint, cost + h, h);
+               } else {
+                  open.add(jumpPoint, cost + h, h);
+               }
+            }
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Collects the directions to search from the given node when moving orthogonally only. Only
+    * the start node searches all directions, every other node prunes the neighbours which can be
+    * reached at least as cheap without passing it.
+    *
+    * @return the number of collected coordinates, two per direction
+    */
+   private int collectNeighbours(int node, int x, int y) {
+      int count = 0;
+      final int parent = parents[node];
+      if (parent < 0) {
+         count = addNeighbour(count, x, y, 1, 0);
+         count = addNeighbour(count, x, y, -1, 0);
+         count = addNeighbour(count, x, y, 0, 1);
+         return addNeighbour(count, x, y, 0, -1);
+      }
+      final int dx = Integer.signum(x - parent % columns);
+      final int dy = Integer.signum(y - parent / columns);
+      if (dx != 0) {
+         count = addNeighbour(count, x, y, 0, -1);
+         count = addNeighbour(count, x, y, 0, 1);
+         return addNeighbour(count, x, y, dx, 0);
+      }
+      count = addNeighbour(count, x, y, -1, 0);
+      count = addNeighbour(count, x, y, 1, 0);
+      return addNeighbour(count, x, y, 0, dy);
+   }
+
+   /**
+    * Collects the directions to search from the given node when moving diagonally as well.
+    *
+    * @return the number of collected coordinates, two per direction
+    */
+   private int collectDiagonalNeighbours(int node, int x, int y) {
+      int count = 0;
+      final int parent = parents[node];
+      if (parent < 0) {
+         for (int dx = -1; dx < 2; ++dx) {
+            for (int dy = -1; dy < 2; ++dy) {
+               if (dx != 0 || dy != 0) {
+                  count = addNeighbour(count, x, y, dx, dy);
+               }
+            }
+         }
+         return count;
+      }
+      final int dx = Integer.signum(x - parent % columns);
+      final int dy = Integer.signum(y - parent / columns);
+      if (dx != 0 && dy != 0) {
+         count = addNeighbour(count, x, y, 0, dy);
+         count = addNeighbour(count, x, y, dx, 0);
+         count = addNeighbour(count, x, y, dx, dy);
+         // forced neighbours
+         if (!isValidLocation(x - dx, y)) {
+            count = addNeighbour(count, x, y, -dx, dy);
+         }
+         if (!isValidLocation(x, y - dy)) {
+            count = addNeighbour(count, x, y, dx, -dy);
+         }
+      } else if (dx == 0) {
+         count = addNeighbour(count, x, y, 0, dy);
+         if (!isValidLocation(x + 1, y)) {
+            count = addNeighbour(count, x, y, 1, dy);
+         }
+         if (!isValidLocation(x - 1, y)) {
+            count = addNeighbour(count, x, y, -1, dy);
+         }
+      } else {
+         count = addNeighbour(count, x, y, dx, 0);
+         if (!isValidLocation(x, y + 1)) {
+            count = addNeighbour(count, x, y, dx, 1);
+         }
+         if (!isValidLocation(x, y - 1)) {
+            count = addNeighbour(count, x, y, dx, -1);
+         }
+      }
+      return count;
+   }
+
+   private int addNeighbour(int count, int x, int y, int dx, int dy) {
+      if (isValidLocation(x + dx, y + dy)) {
+         neighbours[count++] = dx;
+         neighbours[count++] = dy;
+      }
+      return count;
+   }
+
+   /**
+    * Moves orthogonally into the given direction until a jump point is reached. Vertical moves
+    * stop as soon as a horizontal move from the current location would reach a jump point,
+    * since there is no diagonal move which could cover it.
+    *
+    * @return the index of the jump point or -1 if there is none in that direction
+    */
+   private int jump(int x, int y, int dx, int dy) {
+      while (isValidLocation(x, y)) {
+         if (x == tx && y == ty) {
+            return x + y * columns;
+         }
+         if (dx != 0) {
+            if ((isValidLocation(x, y - 1) && !isValidLocation(x - dx, y - 1))
+                  || (isValidLocation(x, y + 1) && !isValidLocation(x - dx, y + 1))) {
+               return x + y * columns;
+            }
+         } else {
+            if ((isValidLocation(x - 1, y) && !isValidLocation(x - 1, y - dy))
+                  || (isValidLocation(x + 1, y) && !isValidLocation(x + 1, y - dy))) {
+               return x + y * columns;
+            }
+            if (jump(x + 1, y, 1, 0) >= 0 || jump(x - 1, y, -1, 0) >= 0) {
+               return x + y * columns;
+            }
+         }
+         x += dx;
+         y += dy;
+      }
+      return -1;
+   }
+
+   /**
+    * Moves into the given direction, which might be diagonal, until a jump point is reached.
+    * Diagonal moves stop as soon as one of their orthogonal components would reach a jump point.
+    *
+    * @return the index of the jump point or -1 if there is none in that direction
+    */
+   private int jumpDiagonal(int x, int y, int dx, int dy) {
+      while (isValidLocation(x, y)) {
+         if (x == tx && y == ty) {
+            return x + y * columns;
+         }
+         if (dx != 0 && dy != 0) {
+            if ((isValidLocation(x - dx, y + dy) && !isValidLocation(x - dx, y))
+                  || (isValidLocation(x + dx, y - dy) && !isValidLocation(x, y - dy))) {
+               return x + y * columns;
+            }
+            if (jumpDiagonal(x + dx, y, dx, 0) >= 0 || jumpDiagonal(x, y + dy, 0, dy) >= 0) {
+               return x + y * columns;
+            }
+         } else if (dx != 0) {
+            if ((isValidLocation(x + dx, y + 1) && !isValidLocation(x, y + 1))
+                  || (isValidLocation(x + dx, y - 1) && !isValidLocation(x, y - 1))) {
+               return x + y * columns;
+            }
+         } else {
+            if ((isValidLocation(x + 1, y + dy) && !isValidLocation(x + 1, y))
+                  || (isValidLocation(x - 1, y + dy) && !isValidLocation(x - 1, y))) {
+               return x + y * columns;
+            }
+         }
+         x += dx;
+         y += dy;
+      }
+      return -1;
+   }
+
+   /**
+    * Check if a given location is valid for the current mover. Its initial location is always
+    * valid.
+    *
+    * @param x The x coordinate of the location to check
+    * @param y The y coordinate of the location to check
+    * @return True if the location is valid for the current mover
+    */
+   protected boolean isValidLocation(int x, int y) {
+      if (!isInside(x, y)) {
+         return false;
+      }
+      if (x == sx && y == sy) {
+         return true;
+      }
+      for (int xAddition = 0; xAddition < widthCells; ++xAddition) {
+         for (int yAddition = 0; yAddition < heightCells; ++yAddition) {
+            if (context.isExclusiveCollision(x + xAddition, y + yAddition, layer, mover)) {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   private boolean isInside(int x, int y) {
+      return x >= 0 && y >= 0 && x < columns && y < rows;
+   }
+
+   private float distance(int x, int y, int targetX, int targetY) {
+      final int dx = Math.abs(targetX - x);
+      final int dy = Math.abs(targetY - y);
+      if (allowDiagMovement) {
+         return Math.max(dx, dy) + (DIAGONAL_COST - 1f) * Math.min(dx, dy);
+      }
+      return dx + dy;
+   }
+
+   /**
+    * Expands the jump points from the start to the target into single steps. Consecutive jump
+    * points always lie on a straight or diagonal line.
+    */
+   private Path buildPath(int start, int target) {
+      int length = 0;
+      for (int node = target; node != start; node = parents[node]) {
+         if (jumpPoints.length == length) {
+            jumpPoints = Arrays.copyOf(jumpPoints, Math.max(16, length * 2));
+         }
+         jumpPoints[length++] = node;
+      }
+      Path path = new Path();
+      int x = sx;
+      int y = sy;
+      path.appendStep(x, y);
+      for (int i = length - 1; i >= 0; --i) {
+         final int jx = jumpPoints[i] % columns;
+         final int jy = jumpPoints[i] / columns;
+         final int dx = Integer.signum(jx - x);
+         final int dy = Integer.signum(jy - y);
+         while (x != jx || y != jy) {
+            x += dx;
+            y += dy;
+            path.appendStep(x, y);
+         }
+      }
+      return path;
+   }
+
+   /**
+    * Initialises the state of the given node, in case it has not been reached within the current search yet.
+    */
+   private void visit(int node) {
+      if (visited[node] != generation) {
+         visited[node] = generation;
+         costs[node] = 0f;
+         parents[node] = -1;
+      }
+   }
+
+   private void nextGeneration() {
+      if (++generation == Integer.MAX_VALUE) {
+         Arrays.fill(visited, 0);
+         Arrays.fill(closed, 0);
+         generation = 1;
+      }
+      open.clear();
+   }
+}
@@ -0,0 +1,177 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of node indices, used as open set of path finders. Nodes with equal
+ * keys are polled by their tie breaker first and then in the order they have been added or
+ * updated.
+ * <p>
+ * Membership is tracked via generation stamps, so {@link #clear()} runs in constant time
+ * regardless of the number of nodes.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+class NodeHeap {
+
+   private int[] heap = new int[0];
+   private int[] positions = new int[0];
+   private int[] generations = new int[0];
+   private float[] keys = new float[0];
+   private float[] tieBreakers = new float[0];
+   private int[] sequences = new int[0];
+   private int generation = 1;
+   private int sequence;
+   private int size;
+
+   /**
+    * Resizes the heap to hold the nodes 0 to capacity - 1 and clears it.
+    */
+   void ensureCapacity(int capacity) {
+      if (positions.length < capacity) {
+         heap = new int[capacity];
+         positions = new int[capacity];
+         generations = new int[capacity];
+         keys = new float[capacity];
+         tieBreakers = new float[capacity];
+         sequences = new int[capacity];
+         generation = 1;
+      }
+      clear();
+   }
+
+   void clear() {
+      size = 0;
+      sequence = 0;
+      if (++generation == Integer.MAX_VALUE) {
+         Arrays.fill(generations, 0);
+         generation = 1;
+      }
+   }
+
+   int size() {
+      return size;
+   }
+
+   boolean isEmpty() {
+      return size == 0;
+   }
+
+   boolean contains(int node) {
+      return generations[node] == generation;
+   }
+
+   float getKey(int node) {
+      return keys[node];
+   }
+
+   void add(int node, float key) {
+      add(node, key, 0f);
+   }
+
+   /**
+    * @param tieBreaker orders nodes with equal keys, lower first
+    */
+   void add(int node, float key, float tieBreaker) {
+      generations[node] = generation;
+      keys[node] = key;
+      tieBreakers[node] = tieBreaker;
+      sequences[node] = sequence++;
+      heap[size] = node;
+      positions[node] = size;
+      siftUp(size++);
+   }
+
+   /**
+    * Changes the key of a node which is contained in this heap, e.g. after a cheaper
+    * path to it has been found. The node is ordered as if it had been added again.
+    */
+   void update(int node, float key) {
+      update(node, key, 0f);
+   }
+
+   void update(int node, float key, float tieBreaker) {
+      keys[node] = key;
+      tieBreakers[node] = tieBreaker;
+      sequences[node] = sequence++;
+      final int position = positions[node];
+      siftUp(position);
+      siftDown(positions[node]);
+   }
+
+   int peek() {
+      return heap[0];
+   }
+
+   int poll() {
+      final int node = heap[0];
+      removeAt(0);
+      return node;
+   }
+
+   void remove(int node) {
+      if (contains(node)) {
+         removeAt(positions[node]);
+      }
+   }
+
+   private void removeAt(int position) {
+      final int node = heap[position];
+      generations[node] = 0;
+      --size;
+      if (position != size) {
+         final int moved = heap[size];
+         heap[position] = moved;
+         positions[moved] = position;
+         siftUp(position);
+         siftDown(positions[moved]);
+      }
+   }
+
+   private void siftUp(int position) {
+      final int node = heap[position];
+      while (position > 0) {
+         final int parent = (position - 1) >>> 1;
+         if (!less(node, heap[parent])) {
+            break;
+         }
+         heap[position] = heap[parent];
+         positions[heap[position]] = position;
+         position = parent;
+      }
+      heap[position] = node;
+      positions[node] = position;
+   }
+
+   private void siftDown(int position) {
+      final int node = heap[position];
+      final int half = size >>> 1;
+      while (position < half) {
+         int child = (position << 1) + 1;
+         final int right = child + 1;
+         if (right < size && less(heap[right], heap[child])) {
+            child = right;
+         }
+         if (!less(heap[child], node)) {
+            break;
+         }
+         heap[position] = heap[child];
+         positions[heap[position]] = position;
+         position = child;
+      }
+      heap[position] = node;
+      positions[node] = position;
+   }
+
+   private boolean less(int a, int b) {
+      final float keyA = keys[a];
+      final float keyB = keys[b];
+      if (keyA != keyB) {
+         return keyA < keyB;
+      }
+      final float tieBreakerA = tieBreakers[a];
+      final float tieBreakerB = tieBreakers[b];
+      return tieBreakerA < tieBreakerB || (tieBreakerA == tieBreakerB && sequences[a] < sequences[b]);
+   }
+}
@@ -0,0 +1,15 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import de.bitbrain.braingdx.tmx.CollisionMap;
+
+/**
+ * Creates path finders for a given context, e.g. one for each worker thread of a
+ * {@link PathRequestQueue}.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public interface PathFinderFactory {
+
+   PathFinder create(CollisionMap context);
+}
@@ -0,0 +1,131 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import de.bitbrain.braingdx.tmx.CollisionSnapshot;
+import de.bitbrain.braingdx.world.GameObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pending search of a {@link PathRequestQueue}. Its result is null if there is no path to the
+ * target.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class PathRequest implements Future<Path> {
+
+   static final int PENDING = 0;
+   static final int RUNNING = 1;
+   static final int DONE = 2;
+   static final int CANCELLED = 3;
+
+   final PathRequestQueue queue;
+   final GameObject mover;
+   final long handle;
+   final int tx;
+   final int ty;
+   final List<PathRequestQueue.Callback> callbacks = new ArrayList<PathRequestQueue.Callback>(1);
+   final AtomicInteger state = new AtomicInteger(PENDING);
+   private final CountDownLatch done = new CountDownLatch(1);
+   volatile Path path;
+   private volatile Throwable failure;
+
+   // detached state of the mover for searches on worker threads
+   GameObject moverCopy;
+   int layer;
+   CollisionSnapshot snapshot;
+
+   PathRequest(PathRequestQueue queue, GameObject mover, int tx, int ty) {
+      this.queue = queue;
+      this.mover = mover;
+      this.handle = mover.getHandle();
+      this.tx = tx;
+      this.ty = ty;
+   }
+
+   public GameObject getMover() {
+      return mover;
+   }
+
+   public int getTargetX() {
+      return tx;
+   }
+
+   public int getTargetY() {
+      return ty;
+   }
+
+   @Override
+   public boolean cancel(boolean mayInterruptIfRunning) {
+      if (!state.compareAndSet(PENDING, CANCELLED)) {
+         return false;
+      }
+      queue.remove(this);
+      done.countDown();
+      return true;
+   }
+
+   @Override
+   public boolean isCancelled() {
+      return state.get() == CANCELLED;
+   }
+
+   @Override
+   public boolean isDone() {
+      return state.get() >= DONE;
+   }
+
+   /**
+    * Waits for the search to complete. Requests of synchronous queues are searched immediately
+    * when called from the thread which updates the queue, any other thread waits for
+    * {@link PathRequestQueue#update()}.
+    *
+    * @throws ExecutionException in case the search failed
+    */
+   @Override
+   public Path get() throws InterruptedException, ExecutionException {
+      queue.await(this);
+      done.await();
+      return result();
+   }
+
+   @Override
+   public Path get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      queue.await(this);
+      if (!done.await(timeout, unit)) {
+         throw new TimeoutException("No path found for " + mover + " within " + timeout + " " + unit);
+      }
+      return result();
+   }
+
+   void setResult(Path path, Throwable failure) {
+      this.path = path;
+      this.failure = failure;
+   }
+
+   /**
+    * Releases all threads waiting for the result, which has to be set before.
+    */
+   void complete() {
+      state.set(DONE);
+      done.countDown();
+   }
+
+   private Path result() throws ExecutionException {
+      if (isCancelled()) {
+         throw new CancellationException();
+      }
+      if (failure != null) {
+         throw new ExecutionException(failure);
+      }
+      return path;
+   }
+}
@@ -0,0 +1,292 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import com.badlogic.gdx.utils.Disposable;
+import de.bitbrain.braingdx.tmx.TiledMapContext;
+import de.bitbrain.braingdx.world.GameObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queues path requests, so many movers can request paths in the same frame without
+ * stalling it. Each request returns a {@link PathRequest}, which is a {@link java.util.concurrent.Future}
+ * of the path and optionally notifies a {@link Callback}. A request for the same mover and
+ * target as a pending request is coalesced with it and returns the pending request.
+ * <p>
+ * A queue either searches synchronously or on worker threads:
+ * <ul>
+ * <li>Synchronous queues search within {@link #update()} until the time budget of the frame is
+ * spent, at least one request per frame. They share a single path finder.</li>
+ * <li>Asynchronous queues search on worker threads, each with its own path finder. A search
+ * never touches the live map or mover: it runs on the {@link de.bitbrain.braingdx.tmx.CollisionSnapshot}
+ * and a copy of the mover taken on request.</li>
+ * </ul>
+ * In both cases requests must be made and cancelled from the thread which updates the map and
+ * calls {@link #update()} once per frame. Callbacks are notified on that thread as well, while
+ * {@link PathRequest#get()} may be called from any thread. Requests of synchronous queues are
+ * only searched on the updating thread: {@link PathRequest#get()} searches right away when
+ * called from that thread, any other thread waits for the search within {@link #update()}.
+ * <p>
+ * A search which fails with an exception completes its request exceptionally:
+ * {@link PathRequest#get()} throws an {@link java.util.concurrent.ExecutionException} and
+ * callbacks are notified without a path.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class PathRequestQueue implements Disposable {
+
+   public interface Callback {
+
+      /**
+       * @param request the completed request
+       * @param path    the found path or null if there is no path to the target
+       */
+      void onPathFound(PathRequest request, Path path);
+   }
+
+   private final PathFinder pathFinder;
+   private final long frameBudget;
+
+   private final TiledMapContext context;
+   private final ExecutorService executor;
+   private final ThreadLocal<Worker> workers;
+
+   private final Map<Key, PathRequest> pending = new LinkedHashMap<Key, PathRequest>();
+   private final Queue<PathRequest> completed = new ConcurrentLinkedQueue<PathRequest>();
+   /**
+    * The thread which updates a synchronous queue, the only one which searches
+    */
+   private volatile Thread updateThread = Thread.currentThread();
+
+   /**
+    * Creates a queue which searches synchronously within {@link #update()}.
+    *
+    * @param pathFinder  the path finder to search with
+    * @param frameBudget the time in milliseconds which may be spent on searches per frame
+    */
+   public PathRequestQueue(PathFinder pathFinder, float frameBudget) {
+      if (frameBudget < 0f) {
+         throw new IllegalArgumentException("Frame budget must not be negative: " + frameBudget);
+      }
+      this.pathFinder = pathFinder;
+      this.frameBudget = (long) (frameBudget * 1000000L);
+      this.context = null;
+      this.executor = null;
+      this.workers = null;
+   }
+
+   /**
+    * Creates a queue which searches on worker threads over collision snapshots of the given context.
+    *
+    * @param context          the context to take collision snapshots from
+    * @param factory          creates the path finder of each worker
+    * @param numberOfWorkers  the number of worker threads
+    */
+   public PathRequestQueue(TiledMapContext context, final PathFinderFactory factory, int numberOfWorkers) {
+      if (numberOfWorkers < 1) {
+         throw new IllegalArgumentException("At least one worker is required: " + numberOfWorkers);
+      }
+      this.pathFinder = null;
+      this.frameBudget = 0L;
+      this.context = context;
+      this.executor = Executors.newFixedThreadPool(numberOfWorkers, new ThreadFactory() {
+         private final AtomicInteger count = new AtomicInteger();
+
+         @Override
+         public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "path-finder-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+         }
+      });
+      this.workers = new ThreadLocal<Worker>() {
+         @Override
+         protected Worker initialValue() {
+            return new Worker(factory);
+         }
+      };
+   }
+
+   public PathRequest request(GameObject mover, int tx, int ty) {
+      return request(mover, tx, ty, null);
+   }
+
+   /**
+    * Requests a path for the mover to the given target.
+    *
+    * @param callback notified once the path has been found, may be null
+    * @return a new request or the pending request for the same mover and target
+    */
+   public PathRequest request(GameObject mover, int tx, int ty, Callback callback) {
+      final Key key = new Key(mover.getHandle(), tx, ty);
+      PathRequest request = pending.get(key);
+      if (request == null || request.state.get() != PathRequest.PENDING) {
+         request = new PathRequest(this, mover, tx, ty);
+         pending.put(key, request);
+         if (executor != null) {
+            submit(request);
+         }
+      }
+      if (callback != null) {
+         request.callbacks.add(callback);
+      }
+      return request;
+   }
+
+   /**
+    * Searches pending requests within the frame budget of synchronous queues and notifies the
+    * callbacks of all completed requests.
+    */
+   public void update() {
+      updateThread = Thread.currentThread();
+      if (executor == null) {
+         final long deadline = System.nanoTime() + frameBudget;
+         do {
+            if (pending.isEmpty()) {
+               break;
+            }
+            process(pending.values().iterator().next());
+         } while (System.nanoTime() < deadline);
+      }
+      PathRequest request;
+      while ((request = completed.poll()) != null) {
+         remove(request);
+         deliver(request);
+      }
+   }
+
+   /**
+    * @return the number of requests which have not been completed yet
+    */
+   public int getPendingCount() {
+      return pending.size();
+   }
+
+   /**
+    * Cancels all pending requests and stops the worker threads.
+    */
+   @Override
+   public void dispose() {
+      for (PathRequest request : new ArrayList<PathRequest>(pending.values())) {
+         request.cancel(false);
+      }
+      if (executor != null) {
+         executor.shutdownNow();
+      }
+      completed.clear();
+   }
+
+   void await(PathRequest request) {
+      if (executor == null && Thread.currentThread() == updateThread) {
+         process(request);
+      }
+   }
+
+   void remove(PathRequest request) {
+      final Key key = new Key(request.handle, request.tx, request.ty);
+      if (pending.get(key) == request) {
+         pending.remove(key);
+      }
+   }
+
+   private void process(PathRequest request) {
+      if (!request.state.compareAndSet(PathRequest.PENDING, PathRequest.RUNNING)) {
+         return;
+      }
+      remove(request);
+      try {
+         request.setResult(pathFinder.findPath(request.mover, request.tx, request.ty), null);
+      } catch (RuntimeException e) {
+         request.setResult(null, e);
+      }
+      request.complete();
+      deliver(request);
+   }
+
+   private void submit(final PathRequest request) {
+      GameObject copy = new GameObject();
+      copy.setPosition(request.mover.getLeft(), request.mover.getTop());
+      copy.setDimensions(request.mover.getWidth(), request.mover.getHeight());
+      request.moverCopy = copy;
+      request.layer = context.layerIndexOf(request.mover);
+      request.snapshot = context.createCollisionSnapshot();
+      executor.execute(new Runnable() {
+         @Override
+         public void run() {
+            if (!request.state.compareAndSet(PathRequest.PENDING, PathRequest.RUNNING)) {
+               return;
+            }
+            try {
+               request.setResult(workers.get().search(request), null);
+            } catch (Throwable e) {
+               request.setResult(null, e);
+            }
+            request.snapshot = null;
+            // queued before waiting threads are released, so the next update notifies callbacks
+            completed.add(request);
+            request.complete();
+         }
+      });
+   }
+
+   private void deliver(PathRequest request) {
+      for (int i = 0; i < request.callbacks.size(); ++i) {
+         request.callbacks.get(i).onPathFound(request, request.path);
+      }
+   }
+
+   private static class Worker {
+
+      private final SnapshotCollisionMap context = new SnapshotCollisionMap();
+      private final PathFinderFactory factory;
+      private PathFinder pathFinder;
+
+      Worker(PathFinderFactory factory) {
+         this.factory = factory;
+      }
+
+      Path search(PathRequest request) {
+         context.use(request.snapshot, request.handle, request.layer);
+         // created on first use, since path finders query the dimensions of the map
+         if (pathFinder == null) {
+            pathFinder = factory.create(context);
+         }
+         return pathFinder.findPath(request.moverCopy, request.tx, request.ty);
+      }
+   }
+
+   private static class Key {
+
+      private final long handle;
+      private final int tx;
+      private final int ty;
+
+      Key(long handle, int tx, int ty) {
+         this.handle = handle;
+         this.tx = tx;
+         this.ty = ty;
+      }
+
+      @Override
+      public boolean equals(Object object) {
+         if (!(object instanceof Key)) {
+            return false;
+         }
+         Key other = (Key) object;
+         return handle == other.handle && tx == other.tx && ty == other.ty;
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * (31 * (int) (handle ^ (handle >>> 32)) + tx) + ty;
+      }
+   }
+}
@@ -0,0 +1,147 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import com.badlogic.gdx.math.Vector2;
+import de.bitbrain.braingdx.tmx.CollisionListener;
+import de.bitbrain.braingdx.tmx.CollisionMap;
+import de.bitbrain.braingdx.tmx.CollisionSnapshot;
+import de.bitbrain.braingdx.tmx.PositionTranslator;
+import de.bitbrain.braingdx.world.GameObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exposes a {@link CollisionSnapshot} as {@link CollisionMap}, so path finders can search on it
+ * from a worker thread without touching the live map or any live object. The snapshot is
+ * exchanged before each search via {@link #use(CollisionSnapshot, long, int)}, which also
+ * provides the handle and layer of the mover, since the mover passed to the path finder is a
+ * detached copy. Collision listeners get notified about all cells which differ from the
+ * previous snapshot.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+class SnapshotCollisionMap implements CollisionMap, CollisionListener {
+
+   private final List<CollisionListener> collisionListeners = new ArrayList<CollisionListener>();
+   private final PositionTranslator translator = new PositionTranslator() {
+      @Override
+      public Vector2 toWorld(float mapX, float mapY) {
+         return new Vector2(mapX, mapY);
+      }
+
+      @Override
+      public Vector2 toWorld(int indexX, int indexY) {
+         return new Vector2(indexX * getCellWidth(), indexY * getCellHeight());
+      }
+
+      @Override
+      public Vector2 toMap(float worldX, float worldY) {
+         return new Vector2(worldX, worldY);
+      }
+
+      @Override
+      public Vector2 toMap(int indexX, int indexY) {
+         return new Vector2(indexX * getCellWidth(), indexY * getCellHeight());
+      }
+
+      @Override
+      public int toIndexX(float worldX) {
+         return (int) Math.floor(worldX / getCellWidth());
+      }
+
+      @Override
+      public int toIndexY(float worldY) {
+         return (int) Math.floor(worldY / getCellHeight());
+      }
+   };
+
+   private CollisionSnapshot snapshot;
+   private long handle;
+   private int layer;
+
+   /**
+    * @param snapshot the collisions to search on
+    * @param handle   the handle of the mover, whose own collisions are ignored
+    * @param layer    the layer of the mover
+    */
+   void use(CollisionSnapshot snapshot, long handle, int layer) {
+      this.handle = handle;
+      this.layer = layer;
+      if (this.snapshot == snapshot) {
+         return;
+      }
+      final CollisionSnapshot previous = this.snapshot;
+      this.snapshot = snapshot;
+      if (previous == null || collisionListeners.isEmpty()
+            || previous.getNumberOfColumns() != snapshot.getNumberOfColumns()
+            || previous.getNumberOfRows() != snapshot.getNumberOfRows()
+            || previous.getNumberOfLayers() != snapshot.getNumberOfLayers()) {
+         // path finders refresh themselves on changed dimensions
+         return;
+      }
+      snapshot.diff(previous, this);
+   }
+
+   @Override
+   public void onCollisionChange(int tileX, int tileY, int layerIndex) {
+      for (int i = 0; i < collisionListeners.size(); ++i) {
+         collisionListeners.get(i).onCollisionChange(tileX, tileY, layerIndex);
+      }
+   }
+
+   @Override
+   public void addCollisionListener(CollisionListener listener) {
+      collisionListeners.add(listener);
+   }
+
+   @Override
+   public void removeCollisionListener(CollisionListener listener) {
+      collisionListeners.remove(listener);
+   }
+
+   @Override
+   public boolean isCollision(int tileX, int tileY, int layer) {
+      return snapshot.isCollision(tileX, tileY, layer);
+   }
+
+   @Override
+   public boolean isStaticCollision(int tileX, int tileY, int layer) {
+      return snapshot.isStaticCollision(tileX, tileY, layer);
+   }
+
+   @Override
+   public boolean isExclusiveCollision(int tileX, int tileY, int layer, GameObject source) {
+      return snapshot.isExclusiveCollision(tileX, tileY, layer, handle);
+   }
+
+   @Override
+   public int layerIndexOf(GameObject object) {
+      return layer;
+   }
+
+   @Override
+   public int getNumberOfRows() {
+      return snapshot.getNumberOfRows();
+   }
+
+   @Override
+   public int getNumberOfColumns() {
+      return snapshot.getNumberOfColumns();
+   }
+
+   @Override
+   public PositionTranslator getPositionTranslator() {
+      return translator;
+   }
+
+   @Override
+   public float getCellWidth() {
+      return snapshot.getCellWidth();
+   }
+
+   @Override
+   public float getCellHeight() {
+      return snapshot.getCellHeight();
+   }
+}
@@ -1,6 +1,6 @@
 package de.bitbrain.braingdx.ai.pathfinding.heuristics;
 
-import de.bitbrain.braingdx.tmx.TiledMapContext;
+import de.bitbrain.braingdx.tmx.CollisionMap;
 import de.bitbrain.braingdx.world.GameObject;
 
 /**
@@ -26,5 +26,5 @@ public interface AStarHeuristic {
     * @param ty      Teh y coordinate of the target location
     * @return The cost associated with the given tile
     */
-   float getCost(TiledMapContext context, GameObject target, int x, int y, int tx, int ty);
+   float getCost(CollisionMap context, GameObject target, int x, int y, int tx, int ty);
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package de.bitbrain.braingdx.ai.pathfinding.heuristics;
 
-import de.bitbrain.braingdx.tmx.TiledMapContext;
+import de.bitbrain.braingdx.tmx.CollisionMap;
 import de.bitbrain.braingdx.world.GameObject;
 
 /**
@@ -13,7 +13,7 @@ import de.bitbrain.braingdx.world.GameObject;
 public class ClosestSquaredHeuristic implements AStarHeuristic {
 
    @Override
-   public float getCost(TiledMapContext context, GameObject target, int x, int y, int tx, int ty) {
+   public float getCost(CollisionMap context, GameObject target, int x, int y, int tx, int ty) {
       float dx = tx - x;
       float dy = ty - y;
 
@@ -1,6 +1,6 @@
 package de.bitbrain.braingdx.ai.pathfinding.heuristics;
 
-import de.bitbrain.braingdx.tmx.TiledMapContext;
+import de.bitbrain.braingdx.tmx.CollisionMap;
 import de.bitbrain.braingdx.world.GameObject;
 
 /**
@@ -25,7 +25,7 @@ public class ManhattanHeuristic implements AStarHeuristic {
    }
 
    @Override
-   public float getCost(TiledMapContext context, GameObject target, int x, int y, int tx, int ty) {
+   public float getCost(CollisionMap context, GameObject target, int x, int y, int tx, int ty) {
       return minimumCost * (Math.abs(x - tx) + Math.abs(y - ty));
    }
 }
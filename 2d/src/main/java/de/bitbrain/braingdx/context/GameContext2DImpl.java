@@ -194,12 +194,22 @@ public class GameContext2DImpl extends GameContextImpl implements GameContext2D,
          @Override
          public void render(Batch batch, float delta) {
          }
+
+         @Override
+         public boolean isDirty() {
+            return false;
+         }
       });
       pipeline.put(RenderPipeIds.FOREGROUND, new RenderLayer2D() {
          @Override
          public void render(Batch batch, float delta) {
             // noOp
          }
+
+         @Override
+         public boolean isDirty() {
+            return false;
+         }
       });
       pipeline.put(RenderPipeIds.WORLD, new GameObjectRenderLayer(context.getRenderManager()));
       pipeline.put(RenderPipeIds.LIGHTING, new LightingManagerRenderLayer(lightingManager));
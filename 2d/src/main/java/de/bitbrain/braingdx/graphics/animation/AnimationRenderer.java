@@ -6,9 +6,10 @@ import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
+import de.bitbrain.braingdx.graphics.GameObjectRenderManager.BatchKeyProvider;
 import de.bitbrain.braingdx.graphics.renderer.GameObject2DRenderer;
 import de.bitbrain.braingdx.util.Enabler;
-import de.bitbrain.braingdx.util.Factory;
+import de.bitbrain.braingdx.world.AttributeKey;
 import de.bitbrain.braingdx.world.GameObject;
 
 /**
@@ -23,7 +24,7 @@ import de.bitbrain.braingdx.world.GameObject;
  * @author Miguel Gonzalez Sanchez
  * @since 0.4.0
  */
-public class AnimationRenderer extends GameObject2DRenderer {
+public class AnimationRenderer extends GameObject2DRenderer implements BatchKeyProvider {
 
    private static final Enabler<GameObject> DEFAULT_ENABLER = new Enabler<GameObject>() {
       @Override
@@ -39,19 +40,14 @@ public class AnimationRenderer extends GameObject2DRenderer {
       }
    };
 
-   private class AnimationState {
+   private static class AnimationState {
       public float stateTime;
    }
 
-   private final Factory<AnimationState> animationStateFactory = new Factory<AnimationState>() {
-
-      @Override
-      public AnimationState create() {
-         return new AnimationState();
-      }
-   };
+   private static final AttributeKey<AnimationState> ANIMATION_STATE = AttributeKey.create("animationState", AnimationState.class);
 
    private final AnimationConfig config;
+   private final AnimationSpriteSheet spriteSheet;
    private final AnimationCache animationCache;
    private final Sprite sprite;
    private final AnimationTypeResolver<GameObject> animationTypeResolver;
@@ -74,6 +70,7 @@ public class AnimationRenderer extends GameObject2DRenderer {
 
    public AnimationRenderer(AnimationSpriteSheet spriteSheet, AnimationConfig config, AnimationTypeResolver<GameObject> animationTypeResolver, Enabler<GameObject> animationEnabler) {
       this.config = config;
+      this.spriteSheet = spriteSheet;
       this.animationCache = new AnimationCache(spriteSheet, config);
       this.sprite = new Sprite();
       this.animationTypeResolver = animationTypeResolver;
@@ -94,6 +91,11 @@ public class AnimationRenderer extends GameObject2DRenderer {
       }
    }
 
+   @Override
+   public Object getBatchKey(GameObject object) {
+      return spriteSheet.getTexture();
+   }
+
    public AnimationRenderer offset(float x, float y) {
       this.offset.set(x, y);
       return this;
@@ -111,7 +113,11 @@ public class AnimationRenderer extends GameObject2DRenderer {
 
    private TextureRegion retrieveRegionFor(GameObject object, float delta) {
       Object currentAnimationType = animationTypeResolver.getAnimationType(object);
-      AnimationState state = object.getOrSetAttribute(AnimationState.class, animationStateFactory);
+      AnimationState state = object.getAttribute(ANIMATION_STATE);
+      if (state == null) {
+         state = new AnimationState();
+         object.setAttribute(ANIMATION_STATE, state);
+      }
       Animation<TextureRegion> animation = animationCache.getAnimation(currentAnimationType);
       AnimationFrames frames = config.getFrames(currentAnimationType);
       if (state.stateTime == 0f) {
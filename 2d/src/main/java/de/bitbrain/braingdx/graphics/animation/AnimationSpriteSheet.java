@@ -23,6 +23,7 @@ public class AnimationSpriteSheet {
 
    private final Map<String, TextureRegion[]> textureRegionCache = new HashMap<String, TextureRegion[]>();
    private final TextureRegion[][] textureRegions;
+   private final Texture texture;
 
    public AnimationSpriteSheet(String assetId, int tileSize) {
       this(Asset.get(assetId, Texture.class), tileSize);
@@ -33,6 +34,7 @@ public class AnimationSpriteSheet {
    }
 
    public AnimationSpriteSheet(Texture texture, int tileSize) {
+      this.texture = texture;
       textureRegions = TextureRegion.split(
             texture,
             tileSize,
@@ -41,6 +43,7 @@ public class AnimationSpriteSheet {
    }
 
    public AnimationSpriteSheet(Texture texture, int tileWidth, int tileHeight) {
+      this.texture = texture;
       textureRegions = TextureRegion.split(
             texture,
             tileWidth,
@@ -48,6 +51,10 @@ public class AnimationSpriteSheet {
       );
    }
 
+   public Texture getTexture() {
+      return texture;
+   }
+
    public TextureRegion[] getFrames(int startX, int startY, int endX, int endY) {
       String cacheKey = getCacheKey(startX, startY, endX, endY);
       TextureRegion[] cachedData = textureRegionCache.get(cacheKey);
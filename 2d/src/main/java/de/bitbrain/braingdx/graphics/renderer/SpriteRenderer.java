@@ -20,6 +20,7 @@ import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.math.Vector2;
 import de.bitbrain.braingdx.assets.Asset;
+import de.bitbrain.braingdx.graphics.GameObjectRenderManager.BatchKeyProvider;
 import de.bitbrain.braingdx.world.GameObject;
 
 /**
@@ -29,7 +30,7 @@ import de.bitbrain.braingdx.world.GameObject;
  * @version 1.0.0
  * @since 1.0.0
  */
-public class SpriteRenderer extends GameObject2DRenderer {
+public class SpriteRenderer extends GameObject2DRenderer implements BatchKeyProvider {
 
    private final Vector2 offset = new Vector2();
    private final Vector2 rotationalOffset = new Vector2();
@@ -70,6 +71,11 @@ public class SpriteRenderer extends GameObject2DRenderer {
       return this;
    }
 
+   @Override
+   public Object getBatchKey(GameObject object) {
+      return sprite != null ? sprite.getTexture() : null;
+   }
+
    @Override
    public void render(GameObject object, Batch batch, float delta) {
       rotationalOffset.setAngle(object.getRotation() - 90f);
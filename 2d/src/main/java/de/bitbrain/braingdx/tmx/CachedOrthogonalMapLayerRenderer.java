@@ -0,0 +1,258 @@
+package de.bitbrain.braingdx.tmx;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+import com.badlogic.gdx.utils.Disposable;
+import de.bitbrain.braingdx.graphics.renderer.GameObject2DRenderer;
+import de.bitbrain.braingdx.world.GameObject;
+
+/**
+ * Renders {@link TiledMapTileLayer} instances from chunks of {@value #CHUNK_SIZE}x{@value #CHUNK_SIZE}
+ * tiles which are baked into a {@link SpriteCache} each. Chunks are only rebuilt once tiles
+ * within them change, so a visible chunk usually costs a single draw call per texture.
+ * Animation frames are picked up automatically, cells which are replaced at runtime have
+ * to be reported via {@link #invalidate(int, int)}.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+class CachedOrthogonalMapLayerRenderer extends GameObject2DRenderer implements Disposable {
+
+   static final int CHUNK_SIZE = 32;
+
+   private static final int VERTEX_SIZE = 5;
+   private static final int SPRITE_SIZE = VERTEX_SIZE * 4;
+
+   private final TiledMapTileLayer layer;
+   private final OrthographicCamera camera;
+   private final float[] vertices = new float[SPRITE_SIZE];
+   private final Color tmpColor = new Color();
+   private TileChunk[] chunks;
+   private int chunkColumns;
+   private int chunkRows;
+   private float packedColor;
+
+   CachedOrthogonalMapLayerRenderer(int layerIndex, TiledMap map, OrthographicCamera camera) {
+      this.layer = (TiledMapTileLayer) map.getLayers().get(layerIndex);
+      this.camera = camera;
+   }
+
+   @Override
+   public void render(GameObject object, Batch batch, float delta) {
+      if (chunks == null) {
+         createChunks();
+      }
+      OrthogonalMapLayerRenderer.updateAnimationBaseTime();
+      updateColor(batch);
+
+      final float chunkWidth = CHUNK_SIZE * layer.getTileWidth();
+      final float chunkHeight = CHUNK_SIZE * layer.getTileHeight();
+      final float viewWidth = camera.zoom * (camera.viewportWidth * Math.abs(camera.up.y) + camera.viewportHeight * Math.abs(camera.up.x));
+      final float viewHeight = camera.zoom * (camera.viewportHeight * Math.abs(camera.up.y) + camera.viewportWidth * Math.abs(camera.up.x));
+      final float viewLeft = camera.position.x - viewWidth / 2f - layer.getRenderOffsetX();
+      final float viewBottom = camera.position.y - viewHeight / 2f + layer.getRenderOffsetY();
+      final int startColumn = Math.max(0, (int) Math.floor(viewLeft / chunkWidth));
+      final int endColumn = Math.min(chunkColumns - 1, (int) Math.floor((viewLeft + viewWidth) / chunkWidth));
+      final int startRow = Math.max(0, (int) Math.floor(viewBottom / chunkHeight));
+      final int endRow = Math.min(chunkRows - 1, (int) Math.floor((viewBottom + viewHeight) / chunkHeight));
+      if (startColumn > endColumn || startRow > endRow) {
+         return;
+      }
+
+      batch.end();
+      Gdx.gl.glEnable(GL20.GL_BLEND);
+      Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+      for (int row = startRow; row <= endRow; ++row) {
+         for (int column = startColumn; column <= endColumn; ++column) {
+            TileChunk chunk = chunks[row * chunkColumns + column];
+            if (chunk.synchronize(layer)) {
+               rebuild(chunk);
+            }
+            if (chunk.cacheId != -1) {
+               chunk.cache.setProjectionMatrix(camera.combined);
+               chunk.cache.begin();
+               chunk.cache.draw(chunk.cacheId);
+               chunk.cache.end();
+            }
+         }
+      }
+      batch.begin();
+   }
+
+   /**
+    * Rebuilds the chunk which contains the given cell before it gets rendered the next time.
+    */
+   void invalidate(int tileX, int tileY) {
+      if (chunks == null || tileX < 0 || tileY < 0 || tileX >= layer.getWidth() || tileY >= layer.getHeight()) {
+         return;
+      }
+      chunks[(tileY / CHUNK_SIZE) * chunkColumns + tileX / CHUNK_SIZE].invalidate();
+   }
+
+   @Override
+   public void dispose() {
+      if (chunks != null) {
+         for (TileChunk chunk : chunks) {
+            chunk.dispose();
+         }
+         chunks = null;
+      }
+   }
+
+   private void createChunks() {
+      chunkColumns = (layer.getWidth() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+      chunkRows = (layer.getHeight() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+      chunks = new TileChunk[chunkColumns * chunkRows];
+      for (int row = 0; row < chunkRows; ++row) {
+         for (int column = 0; column < chunkColumns; ++column) {
+            final int startX = column * CHUNK_SIZE;
+            final int startY = row * CHUNK_SIZE;
+            chunks[row * chunkColumns + column] = new TileChunk(startX, startY,
+                  Math.min(CHUNK_SIZE, layer.getWidth() - startX),
+                  Math.min(CHUNK_SIZE, layer.getHeight() - startY));
+         }
+      }
+   }
+
+   /**
+    * Tiles are tinted by the batch color and the layer opacity, which are baked into
+    * the chunks. All chunks have to be rebuilt once either of them changes.
+    */
+   private void updateColor(Batch batch) {
+      tmpColor.set(batch.getColor());
+      tmpColor.a *= layer.getOpacity();
+      final float color = tmpColor.toFloatBits();
+      if (color != packedColor) {
+         packedColor = color;
+         for (TileChunk chunk : chunks) {
+            chunk.invalidate();
+         }
+      }
+   }
+
+   private void rebuild(TileChunk chunk) {
+      final int tileCount = chunk.getTileCount();
+      if (tileCount == 0) {
+         chunk.cacheId = -1;
+         return;
+      }
+      if (chunk.cache == null || chunk.capacity < tileCount) {
+         chunk.dispose();
+         chunk.capacity = tileCount;
+         chunk.cache = createCache(tileCount);
+      }
+      chunk.cache.clear();
+      chunk.cache.beginCache();
+      for (int y = chunk.startY; y < chunk.startY + chunk.height; ++y) {
+         for (int x = chunk.startX; x < chunk.startX + chunk.width; ++x) {
+            final Cell cell = layer.getCell(x, y);
+            final TiledMapTile tile = cell != null ? cell.getTile() : null;
+            if (tile != null && tile.getTextureRegion() != null) {
+               computeVertices(cell, tile, x * layer.getTileWidth(), y * layer.getTileHeight());
+               chunk.cache.add(tile.getTextureRegion().getTexture(), vertices, 0, SPRITE_SIZE);
+            }
+         }
+      }
+      chunk.cacheId = chunk.cache.endCache();
+   }
+
+   /**
+    * Creates a cache which uses the default shader of {@link SpriteCache}.
+    */
+   SpriteCache createCache(int size) {
+      return new SpriteCache(size, true);
+   }
+
+   /**
+    * Computes the vertices of a single cell the same way
+    * {@link com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer} does.
+    */
+   private void computeVertices(Cell cell, TiledMapTile tile, float x, float y) {
+      final TextureRegion region = tile.getTextureRegion();
+      final float x1 = x + tile.getOffsetX() + layer.getRenderOffsetX();
+      final float y1 = y + tile.getOffsetY() - layer.getRenderOffsetY();
+      final float x2 = x1 + region.getRegionWidth();
+      final float y2 = y1 + region.getRegionHeight();
+      final float u1 = region.getU();
+      final float v1 = region.getV2();
+      final float u2 = region.getU2();
+      final float v2 = region.getV();
+
+      vertices[0] = x1;
+      vertices[1] = y1;
+      vertices[2] = packedColor;
+      vertices[3] = u1;
+      vertices[4] = v1;
+
+      vertices[5] = x1;
+      vertices[6] = y2;
+      vertices[7] = packedColor;
+      vertices[8] = u1;
+      vertices[9] = v2;
+
+      vertices[10] = x2;
+      vertices[11] = y2;
+      vertices[12] = packedColor;
+      vertices[13] = u2;
+      vertices[14] = v2;
+
+      vertices[15] = x2;
+      vertices[16] = y1;
+      vertices[17] = packedColor;
+      vertices[18] = u2;
+      vertices[19] = v1;
+
+      if (cell.getFlipHorizontally()) {
+         swap(3, 13);
+         swap(8, 18);
+      }
+      if (cell.getFlipVertically()) {
+         swap(4, 14);
+         swap(9, 19);
+      }
+      switch (cell.getRotation()) {
+         case Cell.ROTATE_90:
+            rotate(4, 9, 14, 19);
+            rotate(3, 8, 13, 18);
+            break;
+         case Cell.ROTATE_180:
+            swap(3, 13);
+            swap(8, 18);
+            swap(4, 14);
+            swap(9, 19);
+            break;
+         case Cell.ROTATE_270:
+            rotate(4, 19, 14, 9);
+            rotate(3, 18, 13, 8);
+            break;
+         default:
+            break;
+      }
+   }
+
+   private void swap(int a, int b) {
+      final float temp = vertices[a];
+      vertices[a] = vertices[b];
+      vertices[b] = temp;
+   }
+
+   /**
+    * Shifts the values at the given indices by one: a takes b, b takes c, c takes d and d takes a.
+    */
+   private void rotate(int a, int b, int c, int d) {
+      final float temp = vertices[a];
+      vertices[a] = vertices[b];
+      vertices[b] = vertices[c];
+      vertices[c] = vertices[d];
+      vertices[d] = temp;
+   }
+}
@@ -11,9 +11,12 @@ class CollisionCalculator {
    }
 
    public static void updateCollision(GameObject gameObject, boolean collision, int tileX, int tileY, int currentLayerIndex, State state) {
-      state.getState(tileX, tileY, currentLayerIndex).setCollision(collision);
-      state.getState(tileX, tileY, currentLayerIndex).setFingerprint(
-            collision ? gameObject.getId() : null
-      );
+      State.CellState cellState = state.getState(tileX, tileY, currentLayerIndex);
+      long fingerprint = collision ? gameObject.getHandle() : 0;
+      if (cellState.isCollision() != collision || cellState.getFingerprint() != fingerprint) {
+         cellState.setCollision(collision);
+         cellState.setFingerprint(fingerprint);
+         state.notifyCollisionChange(tileX, tileY, currentLayerIndex);
+      }
    }
 }
@@ -0,0 +1,18 @@
+package de.bitbrain.braingdx.tmx;
+
+/**
+ * Gets notified whenever the collision of a single cell changes, e.g. since an object moved
+ * onto or away from it.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public interface CollisionListener {
+
+   /**
+    * @param tileX      the horizontal tile index
+    * @param tileY      the vertical tile index
+    * @param layerIndex the index of the layer the cell belongs to
+    */
+   void onCollisionChange(int tileX, int tileY, int layerIndex);
+}
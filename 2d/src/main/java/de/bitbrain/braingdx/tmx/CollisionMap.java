@@ -0,0 +1,62 @@
+package de.bitbrain.braingdx.tmx;
+
+import de.bitbrain.braingdx.world.GameObject;
+
+/**
+ * The collisions of a tiled map and its dimensions, which is all path finders need to know
+ * about a map. Implemented by {@link TiledMapContext} for the live map and by path finding
+ * internals for {@link CollisionSnapshot}s.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public interface CollisionMap {
+
+   int getNumberOfRows();
+
+   int getNumberOfColumns();
+
+   float getCellWidth();
+
+   float getCellHeight();
+
+   PositionTranslator getPositionTranslator();
+
+   int layerIndexOf(GameObject object);
+
+   /**
+    * Determines the collision on tiled index and layer.
+    *
+    * @param tileX the horizontal tile index
+    * @param tileY the vertical tile index
+    * @param layer the tile layer
+    */
+   boolean isCollision(int tileX, int tileY, int layer);
+
+   /**
+    * Determines the collision of the map itself on tiled index and layer, ignoring collisions
+    * caused by game objects.
+    *
+    * @param tileX the horizontal tile index
+    * @param tileY the vertical tile index
+    * @param layer the tile layer
+    */
+   boolean isStaticCollision(int tileX, int tileY, int layer);
+
+   /**
+    * Determines the collision on tiled index and layer, excluding the source object.
+    *
+    * @param tileX  the horizontal tile index
+    * @param tileY  the vertical tile index
+    * @param layer  the tile layer
+    * @param source the source to ignore the collision on
+    */
+   boolean isExclusiveCollision(int tileX, int tileY, int layer, GameObject source);
+
+   /**
+    * Adds a listener which gets notified whenever the collision of a cell changes.
+    */
+   void addCollisionListener(CollisionListener listener);
+
+   void removeCollisionListener(CollisionListener listener);
+}
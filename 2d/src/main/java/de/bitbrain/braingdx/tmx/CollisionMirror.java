@@ -0,0 +1,83 @@
+package de.bitbrain.braingdx.tmx;
+
+import java.util.Arrays;
+
+/**
+ * Mirrors the collisions of a {@link State} in chunks, kept up to date via collision
+ * notifications, so {@link CollisionSnapshot}s can be created without querying every cell.
+ * Chunks are copied on write: a snapshot shares all chunks of the mirror, a chunk is only copied
+ * once it changes while being shared. A snapshot is only recreated after collisions have
+ * changed, which copies the references to the chunks but no cells.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+class CollisionMirror implements CollisionListener {
+
+   private final State state;
+   private final int columns;
+   private final int rows;
+   private final boolean[][] collisions;
+   private final long[][] fingerprints;
+   /**
+    * Chunks which are referenced by the current snapshot and have to be copied before writing
+    */
+   private final boolean[] shared;
+   private CollisionSnapshot snapshot;
+
+   CollisionMirror(State state) {
+      this.state = state;
+      this.columns = state.getMapIndexWidth();
+      this.rows = state.getMapIndexHeight();
+      final int size = columns * rows * state.getNumberOfLayers();
+      final int chunks = CollisionSnapshot.chunkCountOf(size);
+      this.collisions = new boolean[chunks][];
+      this.fingerprints = new long[chunks][];
+      this.shared = new boolean[chunks];
+      for (int chunk = 0; chunk < chunks; ++chunk) {
+         final int chunkSize = Math.min(CollisionSnapshot.CHUNK_SIZE, size - (chunk << CollisionSnapshot.CHUNK_SHIFT));
+         collisions[chunk] = new boolean[chunkSize];
+         fingerprints[chunk] = new long[chunkSize];
+      }
+      for (int layer = 0; layer < state.getNumberOfLayers(); ++layer) {
+         for (int y = 0; y < rows; ++y) {
+            for (int x = 0; x < columns; ++x) {
+               onCollisionChange(x, y, layer);
+            }
+         }
+      }
+      state.addCollisionListener(this);
+   }
+
+   @Override
+   public void onCollisionChange(int tileX, int tileY, int layerIndex) {
+      State.CellState cellState = state.getState(tileX, tileY, layerIndex);
+      final int index = tileX + tileY * columns + layerIndex * columns * rows;
+      final int chunk = index >> CollisionSnapshot.CHUNK_SHIFT;
+      final int offset = index & CollisionSnapshot.CHUNK_MASK;
+      if (collisions[chunk][offset] == cellState.isCollision() && fingerprints[chunk][offset] == cellState.getFingerprint()) {
+         return;
+      }
+      if (shared[chunk]) {
+         collisions[chunk] = collisions[chunk].clone();
+         fingerprints[chunk] = fingerprints[chunk].clone();
+         shared[chunk] = false;
+      }
+      collisions[chunk][offset] = cellState.isCollision();
+      fingerprints[chunk][offset] = cellState.getFingerprint();
+      snapshot = null;
+   }
+
+   CollisionSnapshot snapshot() {
+      if (snapshot == null) {
+         snapshot = new CollisionSnapshot(columns, rows, state.getNumberOfLayers(), state.getCellWidth(),
+               state.getCellHeight(), collisions.clone(), fingerprints.clone());
+         Arrays.fill(shared, true);
+      }
+      return snapshot;
+   }
+
+   void dispose() {
+      state.removeCollisionListener(this);
+   }
+}
@@ -0,0 +1,200 @@
+package de.bitbrain.braingdx.tmx;
+
+import java.util.Arrays;
+
+/**
+ * Immutable copy of the collisions of all cells of a tiled map at a given point in time. As it
+ * never changes, it can safely be read from any thread, e.g. by path finders running on worker
+ * threads.
+ * <p>
+ * Cells are stored in chunks of 1024 cells. Consecutive snapshots of a
+ * {@link TiledMapContext} share all chunks without changes, so creating a snapshot only copies
+ * the chunks which changed since the previous one, and {@link #diff(CollisionSnapshot, CollisionListener)}
+ * only compares those.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public final class CollisionSnapshot {
+
+   static final int CHUNK_SHIFT = 10;
+   static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+   static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+   private final int columns;
+   private final int rows;
+   private final int numberOfLayers;
+   private final float cellWidth;
+   private final float cellHeight;
+   private final boolean[][] collisions;
+   private final long[][] fingerprints;
+
+   /**
+    * Creates a new snapshot, copying the given cells. Cells are ordered by layer first, then by
+    * row and then by column: the cell (x, y, layer) is located at
+    * {@code x + y * columns + layer * columns * rows}.
+    *
+    * @param collisions   the collision of each cell
+    * @param fingerprints the handle of the object causing the collision of each cell
+    */
+   public CollisionSnapshot(int columns, int rows, int numberOfLayers, float cellWidth, float cellHeight,
+                            boolean[] collisions, long[] fingerprints) {
+      final int size = columns * rows * numberOfLayers;
+      if (collisions.length != size || fingerprints.length != size) {
+         throw new IllegalArgumentException("Expected " + size + " cells but got " + collisions.length
+               + " collisions and " + fingerprints.length + " fingerprints.");
+      }
+      this.columns = columns;
+      this.rows = rows;
+      this.numberOfLayers = numberOfLayers;
+      this.cellWidth = cellWidth;
+      this.cellHeight = cellHeight;
+      final int chunks = chunkCountOf(size);
+      this.collisions = new boolean[chunks][];
+      this.fingerprints = new long[chunks][];
+      for (int chunk = 0; chunk < chunks; ++chunk) {
+         final int from = chunk << CHUNK_SHIFT;
+         final int to = Math.min(size, from + CHUNK_SIZE);
+         this.collisions[chunk] = Arrays.copyOfRange(collisions, from, to);
+         this.fingerprints[chunk] = Arrays.copyOfRange(fingerprints, from, to);
+      }
+   }
+
+   /**
+    * Creates a snapshot which shares the given chunks, which must not change anymore.
+    */
+   CollisionSnapshot(int columns, int rows, int numberOfLayers, float cellWidth, float cellHeight,
+                     boolean[][] collisions, long[][] fingerprints) {
+      this.columns = columns;
+      this.rows = rows;
+      this.numberOfLayers = numberOfLayers;
+      this.cellWidth = cellWidth;
+      this.cellHeight = cellHeight;
+      this.collisions = collisions;
+      this.fingerprints = fingerprints;
+   }
+
+   static int chunkCountOf(int size) {
+      return (size + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+   }
+
+   public int getNumberOfColumns() {
+      return columns;
+   }
+
+   public int getNumberOfRows() {
+      return rows;
+   }
+
+   public int getNumberOfLayers() {
+      return numberOfLayers;
+   }
+
+   public float getCellWidth() {
+      return cellWidth;
+   }
+
+   public float getCellHeight() {
+      return cellHeight;
+   }
+
+   /**
+    * @return true if the cell collides or does not exist
+    */
+   public boolean isCollision(int tileX, int tileY, int layer) {
+      return !verifyIndex(tileX, tileY) || collisionAt(indexOf(tileX, tileY, layer));
+   }
+
+   /**
+    * @return true if the cell collides because of the map itself rather than an object or does not exist
+    */
+   public boolean isStaticCollision(int tileX, int tileY, int layer) {
+      if (!verifyIndex(tileX, tileY)) {
+         return true;
+      }
+      final int index = indexOf(tileX, tileY, layer);
+      return collisionAt(index) && fingerprintAt(index) == 0;
+   }
+
+   /**
+    * @return true if the cell collides because of another object than the one with given handle
+    */
+   public boolean isExclusiveCollision(int tileX, int tileY, int layer, long handle) {
+      if (!verifyIndex(tileX, tileY)) {
+         return true;
+      }
+      final int index = indexOf(tileX, tileY, layer);
+      return collisionAt(index) && !isFingerprint(index, handle);
+   }
+
+   /**
+    * @return true if the cell collides because of the object with given handle
+    */
+   public boolean isInclusiveCollision(int tileX, int tileY, int layer, long handle) {
+      if (!verifyIndex(tileX, tileY)) {
+         return true;
+      }
+      final int index = indexOf(tileX, tileY, layer);
+      return collisionAt(index) && isFingerprint(index, handle);
+   }
+
+   /**
+    * @return the handle of the object which caused the collision of the cell
+    */
+   public long getFingerprint(int tileX, int tileY, int layer) {
+      return verifyIndex(tileX, tileY) ? fingerprintAt(indexOf(tileX, tileY, layer)) : 0L;
+   }
+
+   /**
+    * Notifies the given listener about all cells which differ from the given snapshot of the
+    * same map. Only chunks which are not shared between both snapshots are compared.
+    *
+    * @throws IllegalArgumentException in case the dimensions of both snapshots differ
+    */
+   public void diff(CollisionSnapshot previous, CollisionListener listener) {
+      if (previous.columns != columns || previous.rows != rows || previous.numberOfLayers != numberOfLayers) {
+         throw new IllegalArgumentException("Snapshots of different dimensions can not be compared.");
+      }
+      final int layerSize = columns * rows;
+      for (int chunk = 0; chunk < collisions.length; ++chunk) {
+         final boolean[] collisionChunk = collisions[chunk];
+         final long[] fingerprintChunk = fingerprints[chunk];
+         final boolean[] previousCollisions = previous.collisions[chunk];
+         final long[] previousFingerprints = previous.fingerprints[chunk];
+         if (collisionChunk == previousCollisions && fingerprintChunk == previousFingerprints) {
+            continue;
+         }
+         for (int i = 0; i < collisionChunk.length; ++i) {
+            if (collisionChunk[i] != previousCollisions[i] || fingerprintChunk[i] != previousFingerprints[i]) {
+               final int index = (chunk << CHUNK_SHIFT) + i;
+               final int cell = index % layerSize;
+               listener.onCollisionChange(cell % columns, cell / columns, index / layerSize);
+            }
+         }
+      }
+   }
+
+   private boolean collisionAt(int index) {
+      return collisions[index >> CHUNK_SHIFT][index & CHUNK_MASK];
+   }
+
+   private long fingerprintAt(int index) {
+      return fingerprints[index >> CHUNK_SHIFT][index & CHUNK_MASK];
+   }
+
+   private boolean isFingerprint(int index, long handle) {
+      final long fingerprint = fingerprintAt(index);
+      return fingerprint != 0 && fingerprint == handle;
+   }
+
+   private int indexOf(int tileX, int tileY, int layer) {
+      if (layer < 0 || layer >= numberOfLayers) {
+         throw new TiledMapException("Invalid state! Layer with index=" + layer + " does not exist. Highest is " + numberOfLayers);
+      }
+      return tileX + tileY * columns + layer * columns * rows;
+   }
+
+   private boolean verifyIndex(int indexX, int indexY) {
+      return indexX >= 0 && indexY >= 0 && indexX < columns && indexY < rows;
+   }
+}
@@ -15,6 +15,9 @@
 
 package de.bitbrain.braingdx.tmx;
 
+import de.bitbrain.braingdx.world.AttributeKey;
+import de.bitbrain.braingdx.world.AttributeKey.IntKey;
+
 /**
  * Contains constants for TMX.
  *
@@ -31,12 +34,12 @@ interface Constants {
    String ORIENTATION = "orientation";
    String TYPE = "type";
    String COLLISION = "collision";
-   String LAYER_INDEX = "tmx_layer_index";
-   String LAST_LAYER_INDEX = "tmx_last_layer_index";
+   IntKey LAYER_INDEX = AttributeKey.createInt("tmx_layer_index", -1);
+   IntKey LAST_LAYER_INDEX = AttributeKey.createInt("tmx_last_layer_index", -1);
    String COLOR = "color";
    String STICKY = "sticky";
    String PRODUCER = "producer";
    String TRIGGER_ENTERONLY = "trigger.enteronly";
-   Object LAST_TILE_X = "lastTileX";
-   Object LAST_TILE_Y = "lastTileY";
+   IntKey LAST_TILE_X = AttributeKey.createInt("lastTileX", 0);
+   IntKey LAST_TILE_Y = AttributeKey.createInt("lastTileY", 0);
 }
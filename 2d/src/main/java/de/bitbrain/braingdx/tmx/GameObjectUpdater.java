@@ -20,7 +20,6 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Vector2;
 import de.bitbrain.braingdx.behavior.BehaviorAdapter;
 import de.bitbrain.braingdx.event.GameEventManager;
-import de.bitbrain.braingdx.util.Factory;
 import de.bitbrain.braingdx.world.GameObject;
 
 /**
@@ -34,54 +33,6 @@ class GameObjectUpdater extends BehaviorAdapter {
 
    private static final String FALSE = "false";
 
-   private class IndexXFactory implements Factory<Integer> {
-
-      float value;
-
-      private final PositionTranslator positionTranslator;
-
-      public IndexXFactory(PositionTranslator positionTranslator) {
-         this.positionTranslator = positionTranslator;
-      }
-
-      @Override
-      public Integer create() {
-         return positionTranslator.toIndexX(value);
-      }
-   }
-
-   private class IndexYFactory implements Factory<Integer> {
-
-      float value;
-
-      private final PositionTranslator positionTranslator;
-
-      public IndexYFactory(PositionTranslator positionTranslator) {
-         this.positionTranslator = positionTranslator;
-      }
-
-      @Override
-      public Integer create() {
-         return positionTranslator.toIndexY(value);
-      }
-   }
-
-   private class LayerIndexFactory implements Factory<Integer> {
-
-      GameObject object;
-
-      @Override
-      public Integer create() {
-         return context.lastLayerIndexOf(object);
-      }
-   }
-
-   private final IndexXFactory indexXFactory;
-
-   private final IndexYFactory indexYFactory;
-
-   private final LayerIndexFactory layerIndexFactory = new LayerIndexFactory();
-
    private final TiledMapContext context;
 
    private final State state;
@@ -101,8 +52,6 @@ class GameObjectUpdater extends BehaviorAdapter {
       this.state = state;
       this.gameEventManager = gameEventManager;
       this.positionTranslator = positionTranslator;
-      this.indexXFactory = new IndexXFactory(positionTranslator);
-      this.indexYFactory = new IndexYFactory(positionTranslator);
    }
 
    @Override
@@ -137,18 +86,24 @@ class GameObjectUpdater extends BehaviorAdapter {
       // and last position is not occupied
       Vector2 lastPosition = object.getLastPosition();
       currentPosition.set(object.getLeft(), object.getTop());
-      layerIndexFactory.object = object;
-      int lastLayerIndex = object.getOrSetAttribute(Constants.LAST_LAYER_INDEX, layerIndexFactory);
+      if (!object.hasAttribute(Constants.LAST_LAYER_INDEX)) {
+         object.setAttribute(Constants.LAST_LAYER_INDEX, context.lastLayerIndexOf(object));
+      }
+      int lastLayerIndex = object.getAttribute(Constants.LAST_LAYER_INDEX);
       int currentLayerIndex = context.layerIndexOf(object);
       if (lastLayerIndex != currentLayerIndex || !currentPosition.equals(lastPosition)) {
          if (Gdx.app.getLogLevel() == Application.LOG_DEBUG) {
             Gdx.app.debug("TiledMapAPI", "Updating collision of " + object);
          }
          // Object has moved, now check if last position is already occupied
-         indexXFactory.value = lastPosition.x;
-         int lastTileX = object.getOrSetAttribute(Constants.LAST_TILE_X, indexXFactory);
-         indexYFactory.value = lastPosition.y;
-         int lastTileY = object.getOrSetAttribute(Constants.LAST_TILE_Y, indexYFactory);
+         if (!object.hasAttribute(Constants.LAST_TILE_X)) {
+            object.setAttribute(Constants.LAST_TILE_X, positionTranslator.toIndexX(lastPosition.x));
+         }
+         int lastTileX = object.getAttribute(Constants.LAST_TILE_X);
+         if (!object.hasAttribute(Constants.LAST_TILE_Y)) {
+            object.setAttribute(Constants.LAST_TILE_Y, positionTranslator.toIndexY(lastPosition.y));
+         }
+         int lastTileY = object.getAttribute(Constants.LAST_TILE_Y);
          GameObject occupant = context.getGameObjectAt(lastTileX, lastTileY, lastLayerIndex);
 
          // clear last collision
@@ -201,7 +156,7 @@ class GameObjectUpdater extends BehaviorAdapter {
 
    private void updateLayerIndex(GameObject object) {
       if (object.hasAttribute(Constants.LAYER_INDEX)) {
-         int layerIndex = (Integer) object.getAttribute(Constants.LAYER_INDEX);
+         int layerIndex = object.getAttribute(Constants.LAYER_INDEX);
          object.setAttribute(Constants.LAST_LAYER_INDEX, layerIndex);
       }
    }
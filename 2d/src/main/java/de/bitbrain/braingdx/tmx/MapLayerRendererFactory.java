@@ -28,7 +28,7 @@ import de.bitbrain.braingdx.graphics.GameObjectRenderManager.GameObjectRenderer;
  */
 public interface MapLayerRendererFactory {
 
-   GameObjectRenderer create(int index, TiledMap tiledMap, Camera camera);
+   GameObjectRenderer create(int index, TiledMap tiledMap, Camera camera, TiledMapConfig config);
 
    GameObjectRenderer createDebug(TiledMapContext context, State state, Camera camera);
 }
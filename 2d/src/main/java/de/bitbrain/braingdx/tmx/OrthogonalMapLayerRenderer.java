@@ -15,6 +15,7 @@
 
 package de.bitbrain.braingdx.tmx;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.maps.tiled.TiledMap;
@@ -37,6 +38,7 @@ class OrthogonalMapLayerRenderer extends GameObject2DRenderer {
    private final OrthographicCamera camera;
    private final TiledMap map;
    private OrthogonalTiledMapRenderer renderer;
+   private static long animationFrameId = -1;
 
    OrthogonalMapLayerRenderer(int layerIndex, TiledMap map, OrthographicCamera camera) {
       layer = (TiledMapTileLayer) map.getLayers().get(layerIndex);
@@ -49,9 +51,21 @@ class OrthogonalMapLayerRenderer extends GameObject2DRenderer {
       if (renderer == null) {
          renderer = new OrthogonalTiledMapRenderer(map, batch);
       }
-      AnimatedTiledMapTile.updateAnimationBaseTime();
+      updateAnimationBaseTime();
       renderer.setView(camera);
       renderer.renderTileLayer(layer);
    }
 
+   /**
+    * Updates the animation time of animated tiles once per frame, no matter
+    * how many layers are rendered.
+    */
+   static void updateAnimationBaseTime() {
+      final long frameId = Gdx.graphics.getFrameId();
+      if (frameId != animationFrameId) {
+         animationFrameId = frameId;
+         AnimatedTiledMapTile.updateAnimationBaseTime();
+      }
+   }
+
 }
@@ -14,10 +14,13 @@ import de.bitbrain.braingdx.world.GameObject;
 public class OrthogonalMapLayerRendererFactory implements MapLayerRendererFactory {
 
    @Override
-   public GameObjectRenderer create(int index, TiledMap tiledMap, Camera camera) {
+   public GameObjectRenderer create(int index, TiledMap tiledMap, Camera camera, TiledMapConfig config) {
       if (!(camera instanceof OrthographicCamera)) {
          throw new RuntimeException("OrthographicCamera must be provided for Orthographic TiledMaps!");
       }
+      if (config.isTileCaching()) {
+         return new CachedOrthogonalMapLayerRenderer(index, tiledMap, (OrthographicCamera) camera);
+      }
       return new OrthogonalMapLayerRenderer(index, tiledMap, (OrthographicCamera) camera);
    }
 
@@ -17,6 +17,7 @@ package de.bitbrain.braingdx.tmx;
 
 import com.badlogic.gdx.maps.MapProperties;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -34,6 +35,7 @@ class State {
    private List<String> layerIds = Collections.emptyList();
    private Integer[][] heightMap;
    private final Map<String, CellState> stateMap = new HashMap<String, CellState>();
+   private final List<CollisionListener> collisionListeners = new ArrayList<CollisionListener>();
    private int mapIndexHeight;
    private int mapIndexWidth;
    private float cellWidth = 1f;
@@ -92,16 +94,8 @@ class State {
       if (layerIndex >= numberOfLayers) {
          throw new TiledMapException("Invalid state! Layer with index=" + layerIndex + " does not exist. Highest is " + numberOfLayers);
       }
-      if (tileX >= getMapIndexWidth()) {
-         tileX = getMapIndexWidth() - 1;
-      } else if (tileX < 0) {
-         tileX = 0;
-      }
-      if (tileY >= getMapIndexHeight()) {
-         tileY = getMapIndexHeight() - 1;
-      } else if (tileY < 0) {
-         tileY = 0;
-      }
+      tileX = clampX(tileX);
+      tileY = clampY(tileY);
       String key = layerIndex +"_" + tileX + "_" + tileY;
       CellState state = stateMap.get(key);
       if (state == null) {
@@ -111,6 +105,26 @@ class State {
       return state;
    }
 
+   public void addCollisionListener(CollisionListener listener) {
+      collisionListeners.add(listener);
+   }
+
+   public void removeCollisionListener(CollisionListener listener) {
+      collisionListeners.remove(listener);
+   }
+
+   /**
+    * Notifies all collision listeners about a changed cell. Indices are clamped the same way
+    * as for {@link #getState(int, int, int)}.
+    */
+   public void notifyCollisionChange(int tileX, int tileY, int layerIndex) {
+      tileX = clampX(tileX);
+      tileY = clampY(tileY);
+      for (int i = 0; i < collisionListeners.size(); ++i) {
+         collisionListeners.get(i).onCollisionChange(tileX, tileY, layerIndex);
+      }
+   }
+
    public void setIndexDimensions(int indexX, int indexY) {
       this.mapIndexWidth = indexX;
       this.mapIndexHeight = indexY;
@@ -120,15 +134,30 @@ class State {
       heightMap = null;
       layerIds = Collections.emptyList();
       stateMap.clear();
+      collisionListeners.clear();
    }
 
    public int getNumberOfLayers() {
       return this.numberOfLayers;
    }
 
+   private int clampX(int tileX) {
+      if (tileX >= getMapIndexWidth()) {
+         return getMapIndexWidth() - 1;
+      }
+      return tileX < 0 ? 0 : tileX;
+   }
+
+   private int clampY(int tileY) {
+      if (tileY >= getMapIndexHeight()) {
+         return getMapIndexHeight() - 1;
+      }
+      return tileY < 0 ? 0 : tileY;
+   }
+
    public static class CellState {
       private boolean collision;
-      private Object fingerprint;
+      private long fingerprint;
       private MapProperties properties;
 
       public boolean isCollision() {
@@ -139,12 +168,19 @@ class State {
          this.collision = collision;
       }
 
-      public void setFingerprint(String fingerprint) {
+      /**
+       * @param fingerprint handle of the object causing the collision, 0 to clear it
+       */
+      public void setFingerprint(long fingerprint) {
          this.fingerprint = fingerprint;
       }
 
-      public boolean isFingerprint(Object fingerprint) {
-         return this.fingerprint != null && this.fingerprint.equals(fingerprint);
+      public long getFingerprint() {
+         return fingerprint;
+      }
+
+      public boolean isFingerprint(long fingerprint) {
+         return this.fingerprint != 0 && this.fingerprint == fingerprint;
       }
 
       public MapProperties getProperties() {
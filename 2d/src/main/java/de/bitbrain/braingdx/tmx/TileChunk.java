@@ -0,0 +1,117 @@
+package de.bitbrain.braingdx.tmx;
+
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Rectangular region of a {@link TiledMapTileLayer} which remembers the texture regions
+ * it has been built with. This allows to detect changes within the region: animated tiles
+ * are tracked on every synchronization, all other cells are only compared again once the
+ * chunk has been invalidated, e.g. because cells have been replaced at runtime.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+class TileChunk {
+
+   final int startX;
+   final int startY;
+   final int width;
+   final int height;
+
+   SpriteCache cache;
+   int cacheId = -1;
+   int capacity;
+
+   private final TextureRegion[] regions;
+   private final IntArray animatedCells = new IntArray();
+   private int tileCount;
+   private boolean valid;
+
+   TileChunk(int startX, int startY, int width, int height) {
+      this.startX = startX;
+      this.startY = startY;
+      this.width = width;
+      this.height = height;
+      this.regions = new TextureRegion[width * height];
+   }
+
+   /**
+    * Compares the current cells of the layer with the state this chunk has been
+    * synchronized with the last time. Only animated cells are compared unless the chunk
+    * has been invalidated.
+    *
+    * @param layer the layer this chunk belongs to
+    * @return true if any tile within this chunk has changed since the last call
+    */
+   boolean synchronize(TiledMapTileLayer layer) {
+      if (!valid) {
+         scan(layer);
+         valid = true;
+         return true;
+      }
+      boolean changed = false;
+      for (int i = 0; i < animatedCells.size; ++i) {
+         final int index = animatedCells.get(i);
+         final Cell cell = layer.getCell(startX + index % width, startY + index / width);
+         final TiledMapTile tile = cell != null ? cell.getTile() : null;
+         final TextureRegion region = tile != null ? tile.getTextureRegion() : null;
+         if (regions[index] != region) {
+            tileCount += (region != null ? 1 : 0) - (regions[index] != null ? 1 : 0);
+            regions[index] = region;
+            changed = true;
+         }
+      }
+      return changed;
+   }
+
+   /**
+    * Forces the chunk to compare all of its cells and to report a change on the next
+    * synchronization.
+    */
+   void invalidate() {
+      valid = false;
+   }
+
+   /**
+    * @return the number of non-empty cells as of the last synchronization
+    */
+   int getTileCount() {
+      return tileCount;
+   }
+
+   void dispose() {
+      if (cache != null) {
+         cache.dispose();
+         cache = null;
+      }
+      cacheId = -1;
+      capacity = 0;
+   }
+
+   private void scan(TiledMapTileLayer layer) {
+      animatedCells.clear();
+      int count = 0;
+      for (int y = 0; y < height; ++y) {
+         for (int x = 0; x < width; ++x) {
+            final int index = y * width + x;
+            final Cell cell = layer.getCell(startX + x, startY + y);
+            final TiledMapTile tile = cell != null ? cell.getTile() : null;
+            final TextureRegion region = tile != null ? tile.getTextureRegion() : null;
+            regions[index] = region;
+            if (tile instanceof AnimatedTiledMapTile) {
+               animatedCells.add(index);
+            }
+            if (region != null) {
+               count++;
+            }
+         }
+      }
+      tileCount = count;
+   }
+}
@@ -18,7 +18,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Contains naming configuration for TMX maps.
+ * Contains naming and rendering configuration for TMX maps.
  *
  * @author Miguel Gonzalez Sanchez
  * @version 1.0.0
@@ -27,6 +27,7 @@ import java.util.Map;
 public class TiledMapConfig {
 
    private final Map<String, String> translations = new HashMap<String, String>();
+   private boolean tileCaching;
 
    public TiledMapConfig translate(String key, String newKey) {
       translations.put(key, newKey);
@@ -37,4 +38,22 @@ public class TiledMapConfig {
       String newKey = translations.get(key);
       return newKey != null ? newKey : key;
    }
+
+   /**
+    * Enables caching of tile layers. Tiles are baked into static chunks which only get
+    * rebuilt once tiles within them change. Animations are picked up automatically, cells
+    * which are replaced at runtime have to be reported via
+    * {@link TiledMapContext#invalidateTile(int, int, int)}. Disabled by default.
+    *
+    * @param enabled true to cache tile layers
+    * @return this config
+    */
+   public TiledMapConfig tileCaching(boolean enabled) {
+      this.tileCaching = enabled;
+      return this;
+   }
+
+   public boolean isTileCaching() {
+      return tileCaching;
+   }
 }
@@ -8,7 +8,7 @@ import de.bitbrain.braingdx.event.GameEventFactory;
 import de.bitbrain.braingdx.movement.TiledCollisionResolver;
 import de.bitbrain.braingdx.world.GameObject;
 
-public interface TiledMapContext extends TiledCollisionResolver, Disposable {
+public interface TiledMapContext extends TiledCollisionResolver, CollisionMap, Disposable {
 
    TiledMap getTiledMap();
 
@@ -34,6 +34,12 @@ public interface TiledMapContext extends TiledCollisionResolver, Disposable {
 
    MapProperties getPropertiesAt(int tileX, int tileY, int layer);
 
+   /**
+    * Notifies cached tile layers (see {@link TiledMapConfig#tileCaching(boolean)}) that the
+    * cell at the given position has been replaced or modified at runtime.
+    */
+   void invalidateTile(int tileX, int tileY, int layer);
+
    PositionTranslator getPositionTranslator();
 
    float getCellWidth();
@@ -48,4 +54,10 @@ public interface TiledMapContext extends TiledCollisionResolver, Disposable {
 
    void setDebug(boolean enabled);
 
+   /**
+    * Creates an immutable copy of the current collisions of all layers, which can be read from
+    * any thread. Consecutive calls return the same snapshot as long as no collision changed.
+    */
+   CollisionSnapshot createCollisionSnapshot();
+
 }
@@ -109,8 +109,8 @@ public class TiledMapContextFactory {
          if (mapLayer instanceof TiledMapTileLayer) {
             lastTileLayerIndex++;
             populateStaticMapData(lastTileLayerIndex, (TiledMapTileLayer) mapLayer, state, config);
-            lastLayerId = handleTiledMapTileLayer(context, (TiledMapTileLayer) mapLayer, i, tiledMap, camera, rendererFactory,
-                  config);
+            lastLayerId = handleTiledMapTileLayer(context, (TiledMapTileLayer) mapLayer, i, lastTileLayerIndex, tiledMap,
+                  camera, rendererFactory, config);
             layerIds.add(lastLayerId);
          } else {
             // Not a tiledlayer so consider it as an object layer
@@ -242,10 +242,14 @@ public class TiledMapContextFactory {
       return id;
    }
 
-   private String handleTiledMapTileLayer(final TiledMapContext context, TiledMapTileLayer layer, final int index, TiledMap tiledMap, Camera camera,
+   private String handleTiledMapTileLayer(final TiledMapContextImpl context, TiledMapTileLayer layer, final int index,
+                                          int tileLayerIndex, TiledMap tiledMap, Camera camera,
                                           MapLayerRendererFactory rendererFactory, TiledMapConfig config) {
       final int numberOfRows = tiledMap.getProperties().get(config.get(Constants.HEIGHT), Integer.class);
-      GameObjectRenderer<?> renderer = rendererFactory.create(index, tiledMap, camera);
+      GameObjectRenderer<?> renderer = rendererFactory.create(index, tiledMap, camera, config);
+      if (renderer instanceof CachedOrthogonalMapLayerRenderer) {
+         context.setTileCache(tileLayerIndex, (CachedOrthogonalMapLayerRenderer) renderer);
+      }
       final String id = UUID.randomUUID().toString();
       renderManager.register(id, renderer);
       GameObject layerObject = gameWorld.addObject(id, new Mutator<GameObject>() {
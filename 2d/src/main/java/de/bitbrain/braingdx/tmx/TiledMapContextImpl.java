@@ -2,7 +2,9 @@ package de.bitbrain.braingdx.tmx;
 
 import com.badlogic.gdx.maps.MapProperties;
 import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
 import de.bitbrain.braingdx.ai.pathfinding.AStarPathFinder;
 import de.bitbrain.braingdx.ai.pathfinding.PathFinder;
 import de.bitbrain.braingdx.behavior.BehaviorManager;
@@ -23,9 +25,12 @@ public class TiledMapContextImpl implements TiledMapContext {
    private final GameObjectUpdater gameObjectUpdater;
    private final BehaviorManager behaviorManager;
    private final PositionTranslator positionTranslator;
+   private final Array<GameObject> queryResult = new Array<GameObject>();
+   private final IntMap<CachedOrthogonalMapLayerRenderer> tileCaches = new IntMap<CachedOrthogonalMapLayerRenderer>();
    private boolean debug;
 
    private PathFinder pathFinder;
+   private CollisionMirror collisionMirror;
 
    public TiledMapContextImpl(
          TiledMap tiledMap,
@@ -85,17 +90,13 @@ public class TiledMapContextImpl implements TiledMapContext {
 
    @Override
    public int layerIndexOf(GameObject object) {
-      if (object.hasAttribute(Constants.LAYER_INDEX)) {
-         return (Integer) object.getAttribute(Constants.LAYER_INDEX);
-      } else {
-         return -1;
-      }
+      return object.getAttribute(Constants.LAYER_INDEX);
    }
 
    @Override
    public int lastLayerIndexOf(GameObject object) {
       if (object.hasAttribute(Constants.LAST_LAYER_INDEX)) {
-         return (Integer) object.getAttribute(Constants.LAST_LAYER_INDEX);
+         return object.getAttribute(Constants.LAST_LAYER_INDEX);
       } else {
          return layerIndexOf(object);
       }
@@ -121,17 +122,22 @@ public class TiledMapContextImpl implements TiledMapContext {
 
    @Override
    public GameObject getGameObjectAt(int tileX, int tileY, int layer) {
-      Array<GameObject> objects = gameWorld.getObjects();
-      for (int i = 0; i < objects.size; ++i) {
-         GameObject worldObject = objects.get(i);
+      Vector2 cell = positionTranslator.toWorld(tileX, tileY);
+      queryResult.clear();
+      gameWorld.queryRect(cell.x, cell.y, getCellWidth(), getCellHeight(), queryResult);
+      GameObject result = null;
+      for (int i = 0; i < queryResult.size; ++i) {
+         GameObject worldObject = queryResult.get(i);
          int objectTileX = positionTranslator.toIndexX(worldObject.getLeft());
          int objectTileY = positionTranslator.toIndexY(worldObject.getTop());
          int layerIndex = layerIndexOf(worldObject);
          if (objectTileX == tileX && objectTileY == tileY && layer == layerIndex) {
-            return worldObject;
+            result = worldObject;
+            break;
          }
       }
-      return null;
+      queryResult.clear();
+      return result;
    }
 
    @Override
@@ -139,6 +145,18 @@ public class TiledMapContextImpl implements TiledMapContext {
       return state.getState(tileX, tileY, layer).getProperties();
    }
 
+   @Override
+   public void invalidateTile(int tileX, int tileY, int layer) {
+      CachedOrthogonalMapLayerRenderer tileCache = tileCaches.get(layer);
+      if (tileCache != null) {
+         tileCache.invalidate(tileX, tileY);
+      }
+   }
+
+   void setTileCache(int layer, CachedOrthogonalMapLayerRenderer renderer) {
+      tileCaches.put(layer, renderer);
+   }
+
    @Override
    public PositionTranslator getPositionTranslator() {
       return positionTranslator;
@@ -174,6 +192,24 @@ public class TiledMapContextImpl implements TiledMapContext {
       this.debug = enabled;
    }
 
+   @Override
+   public void addCollisionListener(CollisionListener listener) {
+      state.addCollisionListener(listener);
+   }
+
+   @Override
+   public void removeCollisionListener(CollisionListener listener) {
+      state.removeCollisionListener(listener);
+   }
+
+   @Override
+   public CollisionSnapshot createCollisionSnapshot() {
+      if (collisionMirror == null) {
+         collisionMirror = new CollisionMirror(state);
+      }
+      return collisionMirror.snapshot();
+   }
+
    @Override
    public boolean isCollision(int tileX, int tileY, int layer) {
       if (!verifyIndex(tileX, tileY)) {
@@ -182,13 +218,22 @@ public class TiledMapContextImpl implements TiledMapContext {
       return state.getState(tileX, tileY, layer).isCollision();
    }
 
+   @Override
+   public boolean isStaticCollision(int tileX, int tileY, int layer) {
+      if (!verifyIndex(tileX, tileY)) {
+         return true;
+      }
+      State.CellState cellState = state.getState(tileX, tileY, layer);
+      return cellState.isCollision() && cellState.getFingerprint() == 0;
+   }
+
    @Override
    public boolean isExclusiveCollision(int tileX, int tileY, int layer, GameObject source) {
       if (!verifyIndex(tileX, tileY)) {
          return true;
       }
       return state.getState(tileX, tileY, layer).isCollision()
-            && !state.getState(tileX, tileY, layer).isFingerprint(source.getId());
+            && !state.getState(tileX, tileY, layer).isFingerprint(source.getHandle());
    }
 
    @Override
@@ -197,7 +242,7 @@ public class TiledMapContextImpl implements TiledMapContext {
          return true;
       }
       return state.getState(tileX, tileY, layer).isCollision()
-            && state.getState(tileX, tileY, layer).isFingerprint(source.getId());
+            && state.getState(tileX, tileY, layer).isFingerprint(source.getHandle());
    }
 
    @Override
@@ -225,7 +270,7 @@ public class TiledMapContextImpl implements TiledMapContext {
          return true;
       }
       return state.getState(tileX, tileY, layer).isCollision()
-            && !state.getState(tileX, tileY, layer).isFingerprint(object.getId());
+            && !state.getState(tileX, tileY, layer).isFingerprint(object.getHandle());
    }
 
    @Override
@@ -236,7 +281,7 @@ public class TiledMapContextImpl implements TiledMapContext {
          return true;
       }
       return state.getState(tileX, tileY, layer).isCollision()
-            && state.getState(tileX, tileY, layer).isFingerprint(object.getId());
+            && state.getState(tileX, tileY, layer).isFingerprint(object.getHandle());
    }
 
    @Override
@@ -253,6 +298,11 @@ public class TiledMapContextImpl implements TiledMapContext {
          gameWorld.clearGroup(id);
          renderManager.unregister(id);
       }
+      if (collisionMirror != null) {
+         collisionMirror.dispose();
+         collisionMirror = null;
+      }
+      tileCaches.clear();
       state.clear();
       behaviorManager.remove(gameObjectUpdater);
    }
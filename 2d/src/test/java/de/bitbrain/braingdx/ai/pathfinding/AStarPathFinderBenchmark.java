@@ -0,0 +1,76 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import de.bitbrain.braingdx.world.GameObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the sorted list based {@link LegacyAStarPathFinder} with the indexed heap of
+ * {@link AStarPathFinder}, with {@link JumpPointPathFinder} and with {@link HierarchicalPathFinder}
+ * on maze maps, searching from one corner to the opposite one.
+ * <p>
+ * Run via the main method from within the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class AStarPathFinderBenchmark {
+
+   @Param({"256", "1024"})
+   private int size;
+
+   private GameObject mover;
+   private PathFinder legacy;
+   private PathFinder indexedHeap;
+   private PathFinder jumpPoint;
+   private PathFinder hierarchical;
+   private int targetX;
+   private int targetY;
+
+   @Setup
+   public void setup() {
+      GridTiledMapContext context = GridTiledMapContext.maze(size, size, 42L);
+      legacy = new LegacyAStarPathFinder(context, Short.MAX_VALUE, false);
+      indexedHeap = new AStarPathFinder(context, Short.MAX_VALUE, false);
+      jumpPoint = new JumpPointPathFinder(context, false);
+      hierarchical = new HierarchicalPathFinder(context, false);
+      mover = AStarPathFinderTest.mover(1, 1);
+      targetX = size - 3;
+      targetY = size - 3;
+      context.setCollision(targetX, targetY, false);
+      ((HierarchicalPathFinder) hierarchical).warmUp(0);
+   }
+
+   @Benchmark
+   public Path legacy() {
+      return legacy.findPath(mover, targetX, targetY);
+   }
+
+   @Benchmark
+   public Path indexedHeap() {
+      return indexedHeap.findPath(mover, targetX, targetY);
+   }
+
+   @Benchmark
+   public Path jumpPoint() {
+      return jumpPoint.findPath(mover, targetX, targetY);
+   }
+
+   @Benchmark
+   public Path hierarchical() {
+      return hierarchical.findPath(mover, targetX, targetY);
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder()
+            .include(AStarPathFinderBenchmark.class.getSimpleName())
+            .build()).run();
+   }
+}
@@ -0,0 +1,83 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import de.bitbrain.braingdx.world.GameObject;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AStarPathFinderTest {
+
+   @Test
+   public void testFindPath_SameAsLegacyImplementation() {
+      assertSameAsLegacy(false);
+   }
+
+   @Test
+   public void testFindPath_SameAsLegacyImplementation_Diagonal() {
+      assertSameAsLegacy(true);
+   }
+
+   @Test
+   public void testFindPath_BlockedTarget() {
+      GridTiledMapContext context = new GridTiledMapContext(8, 8);
+      context.setCollision(5, 5, true);
+      AStarPathFinder finder = new AStarPathFinder(context, (short) 100, false);
+      assertThat(finder.findPath(mover(1, 1), 5, 5)).isNull();
+   }
+
+   @Test
+   public void testFindPath_UnreachableTarget() {
+      GridTiledMapContext context = new GridTiledMapContext(8, 8);
+      for (int y = 0; y < 8; ++y) {
+         context.setCollision(4, y, true);
+      }
+      AStarPathFinder finder = new AStarPathFinder(context, (short) 100, false);
+      assertThat(finder.findPath(mover(1, 1), 6, 6)).isNull();
+      // subsequent searches are not affected by previous ones
+      Path path = finder.findPath(mover(1, 1), 3, 6);
+      assertThat(path).isNotNull();
+      assertThat(path.getX(path.getLength() - 1)).isEqualTo(3);
+      assertThat(path.getY(path.getLength() - 1)).isEqualTo(6);
+   }
+
+   @Test
+   public void testFindPath_StartsAtMover() {
+      GridTiledMapContext context = new GridTiledMapContext(8, 8);
+      AStarPathFinder finder = new AStarPathFinder(context, (short) 100, false);
+      Path path = finder.findPath(mover(2, 3), 2, 6);
+      assertThat(path.getLength()).isEqualTo(4);
+      assertThat(path.getX(0)).isEqualTo(2);
+      assertThat(path.getY(0)).isEqualTo(3);
+   }
+
+   private static void assertSameAsLegacy(boolean diagonal) {
+      GridTiledMapContext context = GridTiledMapContext.maze(41, 41, 7L);
+      AStarPathFinder finder = new AStarPathFinder(context, Short.MAX_VALUE, diagonal);
+      LegacyAStarPathFinder legacy = new LegacyAStarPathFinder(context, Short.MAX_VALUE, diagonal);
+      Random random = new Random(13L);
+      for (int i = 0; i < 30; ++i) {
+         GameObject mover = mover(1 + 2 * random.nextInt(20), 1 + 2 * random.nextInt(20));
+         int tx = 1 + 2 * random.nextInt(20);
+         int ty = 1 + 2 * random.nextInt(20);
+         Path expected = legacy.findPath(mover, tx, ty);
+         Path actual = finder.findPath(mover, tx, ty);
+         if (expected == null) {
+            assertThat(actual).isNull();
+            continue;
+         }
+         assertThat(actual.getLength()).isEqualTo(expected.getLength());
+         for (int step = 0; step < expected.getLength(); ++step) {
+            assertThat(actual.getStep(step)).isEqualTo(expected.getStep(step));
+         }
+      }
+   }
+
+   static GameObject mover(int tileX, int tileY) {
+      GameObject mover = new GameObject();
+      mover.setDimensions(1f, 1f);
+      mover.setPosition(tileX, tileY);
+      return mover;
+   }
+}
@@ -0,0 +1,184 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import de.bitbrain.braingdx.behavior.movement.Orientation;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static de.bitbrain.braingdx.ai.pathfinding.AStarPathFinderTest.mover;
+import static de.bitbrain.braingdx.ai.pathfinding.JumpPointPathFinderTest.obstacles;
+import static de.bitbrain.braingdx.ai.pathfinding.JumpPointPathFinderTest.shortestDistance;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlowFieldTest {
+
+   @Test
+   public void testDirectionAt_FollowsShortestPath() {
+      GridTiledMapContext context = GridTiledMapContext.maze(41, 41, 7L);
+      FlowField field = new FlowField(context);
+      field.setTarget(39, 1);
+      for (int x = 0; x < 41; ++x) {
+         for (int y = 0; y < 41; ++y) {
+            if (context.isCollision(x, y, 0) || (x == 39 && y == 1)) {
+               continue;
+            }
+            float expected = shortestDistance(context, x, y, 39, 1, false);
+            assertThat(field.getDistance(x, y, 0)).isEqualTo((int) expected);
+            assertThat(follow(context, field, x, y)).isEqualTo((int) expected);
+         }
+      }
+   }
+
+   @Test
+   public void testDirectionAt_Target() {
+      GridTiledMapContext context = new GridTiledMapContext(8, 8);
+      FlowField field = new FlowField(context);
+      assertThat(field.directionAt(2, 2)).isNull();
+      field.setTarget(mover(4, 4));
+      assertThat(field.directionAt(4, 4)).isNull();
+      assertThat(field.directionAt(3, 4)).isEqualTo(Orientation.RIGHT);
+      assertThat(field.directionAt(5, 4)).isEqualTo(Orientation.LEFT);
+      assertThat(field.directionAt(4, 3)).isEqualTo(Orientation.UP);
+      assertThat(field.directionAt(4, 5)).isEqualTo(Orientation.DOWN);
+      assertThat(field.directionAt(mover(4, 7))).isEqualTo(Orientation.DOWN);
+      assertThat(field.directionAt(-1, 4)).isNull();
+   }
+
+   @Test
+   public void testDirectionAt_Unreachable() {
+      GridTiledMapContext context = new GridTiledMapContext(8, 8);
+      for (int y = 0; y < 8; ++y) {
+         context.setCollision(4, y, true);
+      }
+      FlowField field = new FlowField(context);
+      field.setTarget(6, 6);
+      assertThat(field.directionAt(1, 1)).isNull();
+      assertThat(field.getDistance(1, 1, 0)).isEqualTo(FlowField.UNREACHABLE);
+      assertThat(field.directionAt(7, 7)).isNotNull();
+   }
+
+   @Test
+   public void testDirectionAt_OccupiedCells() {
+      GridTiledMapContext context = new GridTiledMapContext(8, 8);
+      // the target stands on a blocked cell
+      context.setCollision(6, 1, true);
+      context.setCollision(2, 1, true);
+      FlowField field = new FlowField(context);
+      field.setTarget(6, 1);
+      assertThat(field.getDistance(3, 1, 0)).isEqualTo(3);
+      assertThat(field.directionAt(2, 1)).isEqualTo(Orientation.RIGHT);
+      assertThat(field.directionAt(1, 1)).isEqualTo(Orientation.DOWN);
+   }
+
+   @Test
+   public void testCollisionChange_SameAsRebuild() {
+      GridTiledMapContext context = obstacles(40, 40, 3L);
+      context.setCollision(20, 20, false);
+      FlowField field = new FlowField(context);
+      field.setTarget(20, 20);
+      field.update();
+      Random random = new Random(5L);
+      for (int round = 0; round < 30; ++round) {
+         for (int i = 0; i < 1 + random.nextInt(8); ++i) {
+            int x = random.nextInt(40);
+            int y = random.nextInt(40);
+            context.setCollision(x, y, !context.isCollision(x, y, 0));
+         }
+         FlowField expected = new FlowField(context);
+         expected.setTarget(20, 20);
+         assertSameField(context, field, expected);
+      }
+   }
+
+   @Test
+   public void testSetTarget_SameAsRebuild() {
+      GridTiledMapContext context = obstacles(40, 40, 3L);
+      FlowField field = new FlowField(context);
+      field.setTarget(1, 1);
+      field.update();
+      context.setCollision(10, 10, !context.isCollision(10, 10, 0));
+      field.setTarget(30, 25);
+      context.setCollision(11, 10, !context.isCollision(11, 10, 0));
+      FlowField expected = new FlowField(context);
+      expected.setTarget(30, 25);
+      assertSameField(context, field, expected);
+   }
+
+   @Test
+   public void testDirectionAt_IgnoresMovers() {
+      GridTiledMapContext context = obstacles(20, 20, 9L);
+      context.setCollision(10, 10, false);
+      FlowField expected = new FlowField(context);
+      expected.setTarget(10, 10);
+      expected.update();
+      FlowField field = new FlowField(context);
+      field.setTarget(10, 10);
+      field.update();
+      for (int x = 0; x < 20; ++x) {
+         if (!context.isCollision(x, 12, 0)) {
+            context.occupy(x, 12, mover(x, 12));
+         }
+      }
+      assertSameField(context, field, expected);
+      FlowField rebuilt = new FlowField(context);
+      rebuilt.setTarget(10, 10);
+      assertSameField(context, rebuilt, expected);
+   }
+
+   @Test
+   public void testSetTarget_MovingTargetSameAsRebuild() {
+      GridTiledMapContext context = obstacles(40, 40, 11L);
+      FlowField field = new FlowField(context);
+      field.setTarget(20, 20);
+      field.update();
+      Random random = new Random(13L);
+      int x = 20;
+      int y = 20;
+      for (int round = 0; round < 40; ++round) {
+         if (round % 10 == 9) {
+            // jump across the map or leave it
+            x = random.nextInt(44) - 2;
+            y = random.nextInt(44) - 2;
+         } else {
+            Orientation direction = Orientation.values()[random.nextInt(Orientation.values().length)];
+            x = Math.max(0, Math.min(39, x + direction.getXFactor()));
+            y = Math.max(0, Math.min(39, y + direction.getYFactor()));
+         }
+         field.setTarget(x, y);
+         if (round % 3 == 0) {
+            int cx = random.nextInt(40);
+            int cy = random.nextInt(40);
+            context.setCollision(cx, cy, !context.isCollision(cx, cy, 0));
+         }
+         FlowField expected = new FlowField(context);
+         expected.setTarget(x, y);
+         assertSameField(context, field, expected);
+      }
+   }
+
+   private static void assertSameField(GridTiledMapContext context, FlowField actual, FlowField expected) {
+      for (int x = 0; x < context.getNumberOfColumns(); ++x) {
+         for (int y = 0; y < context.getNumberOfRows(); ++y) {
+            assertThat(actual.getDistance(x, y, 0)).isEqualTo(expected.getDistance(x, y, 0));
+            assertThat(actual.directionAt(x, y)).isEqualTo(expected.directionAt(x, y));
+         }
+      }
+   }
+
+   /**
+    * Follows the directions from the given cell to the target and returns the number of steps.
+    */
+   private static int follow(GridTiledMapContext context, FlowField field, int x, int y) {
+      int steps = 0;
+      Orientation direction;
+      while ((direction = field.directionAt(x, y)) != null) {
+         x += direction.getXFactor();
+         y += direction.getYFactor();
+         assertThat(context.isCollision(x, y, 0)).isFalse();
+         assertThat(++steps).isLessThan(41 * 41);
+      }
+      assertThat(x).isEqualTo(field.getTargetX());
+      assertThat(y).isEqualTo(field.getTargetY());
+      return steps;
+   }
+}
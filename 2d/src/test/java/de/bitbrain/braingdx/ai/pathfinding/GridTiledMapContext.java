@@ -0,0 +1,322 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.math.Vector2;
+import de.bitbrain.braingdx.event.GameEventFactory;
+import de.bitbrain.braingdx.tmx.CollisionListener;
+import de.bitbrain.braingdx.tmx.CollisionSnapshot;
+import de.bitbrain.braingdx.tmx.PositionTranslator;
+import de.bitbrain.braingdx.tmx.TiledMapContext;
+import de.bitbrain.braingdx.world.GameObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Single layer {@link TiledMapContext} backed by a collision grid with cells of size 1. Cells
+ * occupied via {@link #occupy(int, int, GameObject)} collide because of that object, all others
+ * are static collisions.
+ */
+class GridTiledMapContext implements TiledMapContext {
+
+   private final boolean[][] collisions;
+   private final long[][] fingerprints;
+   private final int columns;
+   private final int rows;
+   private final Vector2 tmp = new Vector2();
+   private final List<CollisionListener> collisionListeners = new ArrayList<CollisionListener>();
+   private final PositionTranslator translator = new PositionTranslator() {
+      @Override
+      public Vector2 toWorld(float mapX, float mapY) {
+         return tmp.set(mapX, mapY);
+      }
+
+      @Override
+      public Vector2 toWorld(int indexX, int indexY) {
+         return tmp.set(indexX, indexY);
+      }
+
+      @Override
+      public Vector2 toMap(float worldX, float worldY) {
+         return tmp.set(worldX, worldY);
+      }
+
+      @Override
+      public Vector2 toMap(int indexX, int indexY) {
+         return tmp.set(indexX, indexY);
+      }
+
+      @Override
+      public int toIndexX(float worldX) {
+         return (int) Math.floor(worldX);
+      }
+
+      @Override
+      public int toIndexY(float worldY) {
+         return (int) Math.floor(worldY);
+      }
+   };
+
+   GridTiledMapContext(int columns, int rows) {
+      this.columns = columns;
+      this.rows = rows;
+      this.collisions = new boolean[columns][rows];
+      this.fingerprints = new long[columns][rows];
+   }
+
+   /**
+    * Creates a maze on a grid with odd dimensions: cells with even coordinates are walls, the
+    * maze is carved by a randomized depth first search and additional walls are opened, so
+    * multiple routes exist.
+    */
+   static GridTiledMapContext maze(int columns, int rows, long seed) {
+      GridTiledMapContext context = new GridTiledMapContext(columns, rows);
+      for (int x = 0; x < columns; ++x) {
+         for (int y = 0; y < rows; ++y) {
+            context.collisions[x][y] = true;
+         }
+      }
+      Random random = new Random(seed);
+      int[] stack = new int[columns * rows];
+      int size = 0;
+      context.collisions[1][1] = false;
+      stack[size++] = 1 + columns;
+      int[] directions = {2, 0, -2, 0, 0, 2, 0, -2};
+      while (size > 0) {
+         final int cell = stack[size - 1];
+         final int cx = cell % columns;
+         final int cy = cell / columns;
+         int candidates = 0;
+         int chosen = -1;
+         for (int d = 0; d < 4; ++d) {
+            int nx = cx + directions[d * 2];
+            int ny = cy + directions[d * 2 + 1];
+            if (nx > 0 && ny > 0 && nx < columns - 1 && ny < rows - 1 && context.collisions[nx][ny]
+                  && random.nextInt(++candidates) == 0) {
+               chosen = d;
+            }
+         }
+         if (chosen < 0) {
+            --size;
+            continue;
+         }
+         int nx = cx + directions[chosen * 2];
+         int ny = cy + directions[chosen * 2 + 1];
+         context.collisions[(cx + nx) / 2][(cy + ny) / 2] = false;
+         context.collisions[nx][ny] = false;
+         stack[size++] = nx + ny * columns;
+      }
+      for (int i = 0; i < columns * rows / 20; ++i) {
+         int x = 1 + random.nextInt(columns - 2);
+         int y = 1 + random.nextInt(rows - 2);
+         if ((x + y) % 2 == 1) {
+            context.collisions[x][y] = false;
+         }
+      }
+      return context;
+   }
+
+   void setCollision(int tileX, int tileY, boolean collision) {
+      collisions[tileX][tileY] = collision;
+      fingerprints[tileX][tileY] = 0L;
+      for (CollisionListener listener : collisionListeners) {
+         listener.onCollisionChange(tileX, tileY, 0);
+      }
+   }
+
+   /**
+    * Lets the given object collide at the given cell, like a moving object does.
+    */
+   void occupy(int tileX, int tileY, GameObject object) {
+      collisions[tileX][tileY] = true;
+      fingerprints[tileX][tileY] = object.getHandle();
+      for (CollisionListener listener : collisionListeners) {
+         listener.onCollisionChange(tileX, tileY, 0);
+      }
+   }
+
+   @Override
+   public void addCollisionListener(CollisionListener listener) {
+      collisionListeners.add(listener);
+   }
+
+   @Override
+   public void removeCollisionListener(CollisionListener listener) {
+      collisionListeners.remove(listener);
+   }
+
+   @Override
+   public CollisionSnapshot createCollisionSnapshot() {
+      boolean[] cells = new boolean[columns * rows];
+      long[] handles = new long[cells.length];
+      for (int x = 0; x < columns; ++x) {
+         for (int y = 0; y < rows; ++y) {
+            cells[x + y * columns] = collisions[x][y];
+            handles[x + y * columns] = fingerprints[x][y];
+         }
+      }
+      return new CollisionSnapshot(columns, rows, 1, 1f, 1f, cells, handles);
+   }
+
+   @Override
+   public boolean isCollision(int tileX, int tileY, int layer) {
+      return tileX < 0 || tileY < 0 || tileX >= columns || tileY >= rows || collisions[tileX][tileY];
+   }
+
+   @Override
+   public boolean isStaticCollision(int tileX, int tileY, int layer) {
+      return isCollision(tileX, tileY, layer) && !isOccupied(tileX, tileY);
+   }
+
+   @Override
+   public boolean isExclusiveCollision(int tileX, int tileY, int layer, GameObject source) {
+      return isCollision(tileX, tileY, layer)
+            && !(isOccupied(tileX, tileY) && fingerprints[tileX][tileY] == source.getHandle());
+   }
+
+   @Override
+   public boolean isInclusiveCollision(int tileX, int tileY, int layer, GameObject source) {
+      return isOccupied(tileX, tileY) && fingerprints[tileX][tileY] == source.getHandle();
+   }
+
+   @Override
+   public boolean isCollision(float x, float y, int layer) {
+      return isCollision(translator.toIndexX(x), translator.toIndexY(y), layer);
+   }
+
+   @Override
+   public boolean isExclusiveCollision(GameObject object) {
+      return isExclusiveCollision(object.getLeft(), object.getTop(), 0, object);
+   }
+
+   @Override
+   public boolean isInclusiveCollision(GameObject object) {
+      return false;
+   }
+
+   @Override
+   public boolean isExclusiveCollision(float x, float y, int layer, GameObject object) {
+      return isExclusiveCollision(translator.toIndexX(x), translator.toIndexY(y), layer, object);
+   }
+
+   @Override
+   public boolean isInclusiveCollision(float x, float y, int layer, GameObject object) {
+      return false;
+   }
+
+   @Override
+   public boolean isCollision(GameObject object, int tileOffsetX, int tileOffsetY) {
+      return isCollision(translator.toIndexX(object.getLeft()) + tileOffsetX,
+            translator.toIndexY(object.getTop()) + tileOffsetY, 0);
+   }
+
+   @Override
+   public TiledMap getTiledMap() {
+      return null;
+   }
+
+   @Override
+   public PathFinder getPathFinder() {
+      return null;
+   }
+
+   @Override
+   public void setEventFactory(GameEventFactory eventFactory) {
+   }
+
+   @Override
+   public int highestZIndexAt(int tileX, int tileY) {
+      return 0;
+   }
+
+   @Override
+   public int highestZIndexAt(float x, float y) {
+      return 0;
+   }
+
+   @Override
+   public int layerIndexOf(GameObject object) {
+      return 0;
+   }
+
+   @Override
+   public int lastLayerIndexOf(GameObject object) {
+      return 0;
+   }
+
+   @Override
+   public int getNumberOfRows() {
+      return rows;
+   }
+
+   @Override
+   public int getNumberOfColumns() {
+      return columns;
+   }
+
+   @Override
+   public void setLayerIndex(GameObject object, int layerIndex) {
+   }
+
+   @Override
+   public GameObject getGameObjectAt(int tileX, int tileY, int layer) {
+      return null;
+   }
+
+   @Override
+   public MapProperties getPropertiesAt(int tileX, int tileY, int layer) {
+      return null;
+   }
+
+   @Override
+   public void invalidateTile(int tileX, int tileY, int layer) {
+   }
+
+   @Override
+   public PositionTranslator getPositionTranslator() {
+      return translator;
+   }
+
+   @Override
+   public float getCellWidth() {
+      return 1f;
+   }
+
+   @Override
+   public float getCellHeight() {
+      return 1f;
+   }
+
+   @Override
+   public float getWorldWidth() {
+      return columns;
+   }
+
+   @Override
+   public float getWorldHeight() {
+      return rows;
+   }
+
+   @Override
+   public boolean isDebug() {
+      return false;
+   }
+
+   @Override
+   public void setDebug(boolean enabled) {
+   }
+
+   @Override
+   public void dispose() {
+   }
+
+   int getCollisionListenerCount() {
+      return collisionListeners.size();
+   }
+
+   private boolean isOccupied(int tileX, int tileY) {
+      return tileX >= 0 && tileY >= 0 && tileX < columns && tileY < rows && fingerprints[tileX][tileY] != 0L;
+   }
+}
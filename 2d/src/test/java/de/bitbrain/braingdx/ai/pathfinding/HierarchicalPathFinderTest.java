@@ -0,0 +1,142 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import de.bitbrain.braingdx.world.GameObject;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static de.bitbrain.braingdx.ai.pathfinding.AStarPathFinderTest.mover;
+import static de.bitbrain.braingdx.ai.pathfinding.JumpPointPathFinderTest.assertContinuous;
+import static de.bitbrain.braingdx.ai.pathfinding.JumpPointPathFinderTest.obstacles;
+import static de.bitbrain.braingdx.ai.pathfinding.JumpPointPathFinderTest.shortestDistance;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HierarchicalPathFinderTest {
+
+   @Test
+   public void testFindPath_Maze() {
+      assertValidPaths(GridTiledMapContext.maze(61, 61, 7L), false);
+   }
+
+   @Test
+   public void testFindPath_Maze_Diagonal() {
+      assertValidPaths(GridTiledMapContext.maze(61, 61, 7L), true);
+   }
+
+   @Test
+   public void testFindPath_Obstacles() {
+      assertValidPaths(obstacles(60, 60, 3L), false);
+   }
+
+   @Test
+   public void testFindPath_Obstacles_Diagonal() {
+      assertValidPaths(obstacles(60, 60, 3L), true);
+   }
+
+   @Test
+   public void testFindPath_BeyondSearchDistanceOfAStar() {
+      GridTiledMapContext context = new GridTiledMapContext(300, 3);
+      assertThat(new AStarPathFinder(context, (short) 100, false).findPath(mover(0, 1), 299, 1)).isNull();
+      Path path = new HierarchicalPathFinder(context, false).findPath(mover(0, 1), 299, 1);
+      assertThat(path.getLength()).isEqualTo(300);
+      assertContinuous(context, path, mover(0, 1), false);
+   }
+
+   @Test
+   public void testFindPath_CollisionChange() {
+      GridTiledMapContext context = new GridTiledMapContext(32, 32);
+      HierarchicalPathFinder finder = new HierarchicalPathFinder(context, 8, false);
+      assertThat(finder.findPath(mover(2, 2), 29, 2)).isNotNull();
+      // wall with a single gap at the bottom
+      for (int y = 0; y < 31; ++y) {
+         context.setCollision(16, y, true);
+      }
+      Path path = finder.findPath(mover(2, 2), 29, 2);
+      assertThat(path.contains(16, 31)).isTrue();
+      assertContinuous(context, path, mover(2, 2), false);
+      context.setCollision(16, 31, true);
+      assertThat(finder.findPath(mover(2, 2), 29, 2)).isNull();
+   }
+
+   @Test
+   public void testFindPath_DiagonalAcrossClusterCorner() {
+      GridTiledMapContext context = new GridTiledMapContext(8, 8);
+      // only the top left and the bottom right cluster are open, touching at their corners
+      for (int x = 0; x < 8; ++x) {
+         for (int y = 0; y < 8; ++y) {
+            context.setCollision(x, y, (x < 4) != (y < 4));
+         }
+      }
+      assertThat(new HierarchicalPathFinder(context, 4, false).findPath(mover(1, 1), 6, 6)).isNull();
+      Path path = new HierarchicalPathFinder(context, 4, true).findPath(mover(1, 1), 6, 6);
+      assertThat(path.getLength()).isEqualTo(6);
+      assertContinuous(context, path, mover(1, 1), true);
+   }
+
+   @Test
+   public void testFindPath_MoverBlocksOnlyEntrance() {
+      GridTiledMapContext context = new GridTiledMapContext(8, 4);
+      for (int y = 0; y < 4; ++y) {
+         context.setCollision(3, y, y != 1);
+      }
+      // the mover occupies the doorway between both clusters
+      GameObject mover = mover(3, 1);
+      context.occupy(3, 1, mover);
+      HierarchicalPathFinder finder = new HierarchicalPathFinder(context, 4, false);
+      Path path = finder.findPath(mover, 6, 1);
+      assertThat(path.getLength()).isEqualTo(4);
+   }
+
+   @Test
+   public void testFindPath_SearchesAroundObjectsBlockingTheRoute() {
+      GridTiledMapContext context = new GridTiledMapContext(16, 16);
+      // wall with a gap at the top and at the bottom
+      for (int y = 0; y < 16; ++y) {
+         context.setCollision(8, y, y != 1 && y != 14);
+      }
+      HierarchicalPathFinder finder = new HierarchicalPathFinder(context, 4, false);
+      assertThat(finder.findPath(mover(2, 1), 13, 1).contains(8, 1)).isTrue();
+      context.occupy(8, 1, mover(8, 1));
+      Path path = finder.findPath(mover(2, 1), 13, 1);
+      assertThat(path.contains(8, 14)).isTrue();
+      assertContinuous(context, path, mover(2, 1), false);
+      context.occupy(8, 14, mover(8, 14));
+      assertThat(finder.findPath(mover(2, 1), 13, 1)).isNull();
+      // the doorway is free again once the object left it
+      context.setCollision(8, 1, false);
+      assertThat(finder.findPath(mover(2, 1), 13, 1).contains(8, 1)).isTrue();
+   }
+
+   @Test
+   public void testDispose_RemovesCollisionListener() {
+      GridTiledMapContext context = new GridTiledMapContext(8, 8);
+      HierarchicalPathFinder finder = new HierarchicalPathFinder(context, 4, false);
+      assertThat(context.getCollisionListenerCount()).isEqualTo(1);
+      finder.dispose();
+      assertThat(context.getCollisionListenerCount()).isZero();
+   }
+
+   private static void assertValidPaths(GridTiledMapContext context, boolean diagonal) {
+      HierarchicalPathFinder finder = new HierarchicalPathFinder(context, 8, diagonal);
+      Random random = new Random(13L);
+      for (int i = 0; i < 40; ++i) {
+         GameObject mover = mover(random.nextInt(context.getNumberOfColumns()), random.nextInt(context.getNumberOfRows()));
+         int sx = (int) mover.getLeft();
+         int sy = (int) mover.getTop();
+         int tx = random.nextInt(context.getNumberOfColumns());
+         int ty = random.nextInt(context.getNumberOfRows());
+         if (context.isCollision(sx, sy, 0) || (sx == tx && sy == ty)) {
+            continue;
+         }
+         float shortest = shortestDistance(context, sx, sy, tx, ty, diagonal);
+         Path path = finder.findPath(mover, tx, ty);
+         if (shortest == Float.MAX_VALUE) {
+            assertThat(path).isNull();
+            continue;
+         }
+         assertThat(path).isNotNull();
+         assertThat(path.getStep(path.getLength() - 1)).isEqualTo(path.new Step(tx, ty));
+         assertThat(assertContinuous(context, path, mover, diagonal)).isGreaterThanOrEqualTo(shortest - 0.001f);
+      }
+   }
+}
@@ -0,0 +1,187 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import de.bitbrain.braingdx.world.GameObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static de.bitbrain.braingdx.ai.pathfinding.AStarPathFinderTest.mover;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class JumpPointPathFinderTest {
+
+   private static final float DIAGONAL_COST = (float) Math.sqrt(2.0);
+
+   @Test
+   public void testFindPath_ShortestPath_Maze() {
+      assertShortestPaths(GridTiledMapContext.maze(41, 41, 7L), false);
+   }
+
+   @Test
+   public void testFindPath_ShortestPath_Maze_Diagonal() {
+      assertShortestPaths(GridTiledMapContext.maze(41, 41, 7L), true);
+   }
+
+   @Test
+   public void testFindPath_ShortestPath_Obstacles() {
+      assertShortestPaths(obstacles(48, 48, 3L), false);
+   }
+
+   @Test
+   public void testFindPath_ShortestPath_Obstacles_Diagonal() {
+      assertShortestPaths(obstacles(48, 48, 3L), true);
+   }
+
+   @Test
+   public void testFindPath_OpenArea_ExpandsSteps() {
+      GridTiledMapContext context = new GridTiledMapContext(32, 32);
+      JumpPointPathFinder finder = new JumpPointPathFinder(context, true);
+      Path path = finder.findPath(mover(1, 1), 21, 11);
+      assertThat(path.getLength()).isEqualTo(21);
+      assertThat(path.getStep(0)).isEqualTo(path.new Step(1, 1));
+      assertThat(path.getStep(20)).isEqualTo(path.new Step(21, 11));
+      assertContinuous(context, path, mover(1, 1), true);
+   }
+
+   @Test
+   public void testFindPath_BlockedTarget() {
+      GridTiledMapContext context = new GridTiledMapContext(8, 8);
+      context.setCollision(5, 5, true);
+      JumpPointPathFinder finder = new JumpPointPathFinder(context, false);
+      assertThat(finder.findPath(mover(1, 1), 5, 5)).isNull();
+   }
+
+   @Test
+   public void testFindPath_UnreachableTarget() {
+      GridTiledMapContext context = new GridTiledMapContext(8, 8);
+      for (int y = 0; y < 8; ++y) {
+         context.setCollision(4, y, true);
+      }
+      JumpPointPathFinder finder = new JumpPointPathFinder(context, true);
+      assertThat(finder.findPath(mover(1, 1), 6, 6)).isNull();
+      Path path = finder.findPath(mover(1, 1), 3, 6);
+      assertThat(path).isNotNull();
+      assertThat(path.getStep(path.getLength() - 1)).isEqualTo(path.new Step(3, 6));
+   }
+
+   @Test
+   public void testFindPath_MultiTileMover() {
+      GridTiledMapContext context = new GridTiledMapContext(10, 10);
+      // wall with a gap of a single cell at (5, 5)
+      for (int y = 0; y < 10; ++y) {
+         if (y != 5) {
+            context.setCollision(5, y, true);
+         }
+      }
+      JumpPointPathFinder finder = new JumpPointPathFinder(context, false);
+      assertThat(finder.findPath(mover(1, 1), 8, 8)).isNotNull();
+      GameObject large = mover(1, 1);
+      large.setDimensions(2f, 2f);
+      assertThat(finder.findPath(large, 7, 7)).isNull();
+      // widen the gap
+      context.setCollision(5, 6, false);
+      Path path = finder.findPath(large, 7, 7);
+      assertThat(path).isNotNull();
+      assertContinuous(context, path, large, false);
+   }
+
+   private static void assertShortestPaths(GridTiledMapContext context, boolean diagonal) {
+      JumpPointPathFinder finder = new JumpPointPathFinder(context, diagonal);
+      Random random = new Random(13L);
+      for (int i = 0; i < 40; ++i) {
+         GameObject mover = mover(random.nextInt(context.getNumberOfColumns()), random.nextInt(context.getNumberOfRows()));
+         int sx = (int) mover.getLeft();
+         int sy = (int) mover.getTop();
+         int tx = random.nextInt(context.getNumberOfColumns());
+         int ty = random.nextInt(context.getNumberOfRows());
+         if (context.isCollision(sx, sy, 0) || (sx == tx && sy == ty)) {
+            continue;
+         }
+         float expected = shortestDistance(context, sx, sy, tx, ty, diagonal);
+         Path path = finder.findPath(mover, tx, ty);
+         if (expected == Float.MAX_VALUE) {
+            assertThat(path).isNull();
+            continue;
+         }
+         assertThat(path).isNotNull();
+         assertThat(path.getStep(path.getLength() - 1)).isEqualTo(path.new Step(tx, ty));
+         assertThat(assertContinuous(context, path, mover, diagonal)).isCloseTo(expected, within(0.001f));
+      }
+   }
+
+   /**
+    * Asserts that each step of the path is a valid move and returns its total cost.
+    */
+   static float assertContinuous(GridTiledMapContext context, Path path, GameObject mover, boolean diagonal) {
+      assertThat(path.getX(0)).isEqualTo((int) mover.getLeft());
+      assertThat(path.getY(0)).isEqualTo((int) mover.getTop());
+      float cost = 0f;
+      for (int i = 1; i < path.getLength(); ++i) {
+         int dx = Math.abs(path.getX(i) - path.getX(i - 1));
+         int dy = Math.abs(path.getY(i) - path.getY(i - 1));
+         assertThat(dx).isLessThanOrEqualTo(1);
+         assertThat(dy).isLessThanOrEqualTo(1);
+         assertThat(dx + dy).isGreaterThan(0).isLessThanOrEqualTo(diagonal ? 2 : 1);
+         for (int x = 0; x < mover.getWidth(); ++x) {
+            for (int y = 0; y < mover.getHeight(); ++y) {
+               assertThat(context.isCollision(path.getX(i) + x, path.getY(i) + y, 0)).isFalse();
+            }
+         }
+         cost += dx + dy == 2 ? DIAGONAL_COST : 1f;
+      }
+      return cost;
+   }
+
+   static float shortestDistance(GridTiledMapContext context, int sx, int sy, int tx, int ty, boolean diagonal) {
+      final int columns = context.getNumberOfColumns();
+      final int rows = context.getNumberOfRows();
+      float[] distances = new float[columns * rows];
+      boolean[] done = new boolean[columns * rows];
+      Arrays.fill(distances, Float.MAX_VALUE);
+      distances[sx + sy * columns] = 0f;
+      while (true) {
+         int current = -1;
+         for (int i = 0; i < distances.length; ++i) {
+            if (!done[i] && distances[i] != Float.MAX_VALUE && (current < 0 || distances[i] < distances[current])) {
+               current = i;
+            }
+         }
+         if (current < 0) {
+            return Float.MAX_VALUE;
+         }
+         if (current == tx + ty * columns) {
+            return distances[current];
+         }
+         done[current] = true;
+         for (int dx = -1; dx < 2; ++dx) {
+            for (int dy = -1; dy < 2; ++dy) {
+               if ((dx == 0 && dy == 0) || (!diagonal && dx != 0 && dy != 0)) {
+                  continue;
+               }
+               int x = current % columns + dx;
+               int y = current / columns + dy;
+               if (x < 0 || y < 0 || x >= columns || y >= rows || context.isCollision(x, y, 0)) {
+                  continue;
+               }
+               float distance = distances[current] + (dx != 0 && dy != 0 ? DIAGONAL_COST : 1f);
+               if (distance < distances[x + y * columns]) {
+                  distances[x + y * columns] = distance;
+               }
+            }
+         }
+      }
+   }
+
+   static GridTiledMapContext obstacles(int columns, int rows, long seed) {
+      GridTiledMapContext context = new GridTiledMapContext(columns, rows);
+      Random random = new Random(seed);
+      for (int x = 0; x < columns; ++x) {
+         for (int y = 0; y < rows; ++y) {
+            context.setCollision(x, y, random.nextFloat() < 0.3f);
+         }
+      }
+      return context;
+   }
+}
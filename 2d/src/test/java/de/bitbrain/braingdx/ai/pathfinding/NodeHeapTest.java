@@ -0,0 +1,84 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NodeHeapTest {
+
+   private NodeHeap heap;
+
+   @Before
+   public void beforeTest() {
+      heap = new NodeHeap();
+      heap.ensureCapacity(16);
+   }
+
+   @Test
+   public void testPoll_OrderedByKey() {
+      heap.add(3, 5f);
+      heap.add(7, 1f);
+      heap.add(1, 3f);
+      heap.add(9, 2f);
+      assertThat(heap.poll()).isEqualTo(7);
+      assertThat(heap.poll()).isEqualTo(9);
+      assertThat(heap.poll()).isEqualTo(1);
+      assertThat(heap.poll()).isEqualTo(3);
+      assertThat(heap.isEmpty()).isTrue();
+   }
+
+   @Test
+   public void testPoll_EqualKeysInInsertionOrder() {
+      for (int node = 10; node >= 0; --node) {
+         heap.add(node, 1f);
+      }
+      for (int node = 10; node >= 0; --node) {
+         assertThat(heap.poll()).isEqualTo(node);
+      }
+   }
+
+   @Test
+   public void testPoll_EqualKeysByTieBreaker() {
+      heap.add(4, 2f, 3f);
+      heap.add(5, 2f, 1f);
+      heap.add(6, 1f, 9f);
+      heap.add(7, 2f, 1f);
+      assertThat(heap.poll()).isEqualTo(6);
+      assertThat(heap.poll()).isEqualTo(5);
+      assertThat(heap.poll()).isEqualTo(7);
+      assertThat(heap.poll()).isEqualTo(4);
+   }
+
+   @Test
+   public void testUpdate() {
+      heap.add(1, 1f);
+      heap.add(2, 2f);
+      heap.add(3, 3f);
+      heap.update(3, 0.5f);
+      assertThat(heap.peek()).isEqualTo(3);
+      // updated nodes are ordered after nodes with equal keys
+      heap.update(3, 1f);
+      assertThat(heap.poll()).isEqualTo(1);
+      assertThat(heap.poll()).isEqualTo(3);
+   }
+
+   @Test
+   public void testRemove() {
+      heap.add(1, 1f);
+      heap.add(2, 2f);
+      heap.add(3, 3f);
+      heap.remove(1);
+      assertThat(heap.contains(1)).isFalse();
+      assertThat(heap.size()).isEqualTo(2);
+      assertThat(heap.poll()).isEqualTo(2);
+   }
+
+   @Test
+   public void testClear() {
+      heap.add(1, 1f);
+      heap.clear();
+      assertThat(heap.contains(1)).isFalse();
+      assertThat(heap.isEmpty()).isTrue();
+   }
+}
@@ -0,0 +1,227 @@
+package de.bitbrain.braingdx.ai.pathfinding;
+
+import de.bitbrain.braingdx.tmx.CollisionMap;
+import de.bitbrain.braingdx.world.GameObject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static de.bitbrain.braingdx.ai.pathfinding.AStarPathFinderTest.mover;
+import static de.bitbrain.braingdx.ai.pathfinding.JumpPointPathFinderTest.assertContinuous;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PathRequestQueueTest {
+
+   private PathRequestQueue queue;
+
+   @After
+   public void afterTest() {
+      if (queue != null) {
+         queue.dispose();
+      }
+   }
+
+   @Test
+   public void testUpdate_NotifiesCallback() {
+      GridTiledMapContext context = new GridTiledMapContext(16, 16);
+      queue = new PathRequestQueue(new JumpPointPathFinder(context, false), 10f);
+      PathRequestQueue.Callback callback = mock(PathRequestQueue.Callback.class);
+      PathRequest request = queue.request(mover(1, 1), 10, 12, callback);
+      assertThat(request.isDone()).isFalse();
+      verify(callback, never()).onPathFound(any(PathRequest.class), any(Path.class));
+      queue.update();
+      assertThat(request.isDone()).isTrue();
+      assertThat(queue.getPendingCount()).isZero();
+      verify(callback).onPathFound(eq(request), any(Path.class));
+   }
+
+   @Test
+   public void testUpdate_NotifiesCallbackWithoutPath() {
+      GridTiledMapContext context = new GridTiledMapContext(16, 16);
+      context.setCollision(10, 12, true);
+      queue = new PathRequestQueue(new JumpPointPathFinder(context, false), 10f);
+      PathRequestQueue.Callback callback = mock(PathRequestQueue.Callback.class);
+      PathRequest request = queue.request(mover(1, 1), 10, 12, callback);
+      queue.update();
+      verify(callback).onPathFound(eq(request), (Path) isNull());
+   }
+
+   @Test
+   public void testRequest_CoalescesIdenticalRequests() {
+      PathFinder finder = mock(PathFinder.class);
+      queue = new PathRequestQueue(finder, 10f);
+      GameObject mover = mover(1, 1);
+      PathRequestQueue.Callback first = mock(PathRequestQueue.Callback.class);
+      PathRequestQueue.Callback second = mock(PathRequestQueue.Callback.class);
+      PathRequest request = queue.request(mover, 10, 12, first);
+      assertThat(queue.request(mover, 10, 12, second)).isSameAs(request);
+      assertThat(queue.request(mover, 10, 13)).isNotSameAs(request);
+      assertThat(queue.request(mover(1, 1), 10, 12)).isNotSameAs(request);
+      assertThat(queue.getPendingCount()).isEqualTo(3);
+      queue.update();
+      verify(finder).findPath(mover, 10, 12);
+      verify(first).onPathFound(eq(request), (Path) isNull());
+      verify(second).onPathFound(eq(request), (Path) isNull());
+      // completed requests are not coalesced anymore
+      assertThat(queue.request(mover, 10, 12)).isNotSameAs(request);
+   }
+
+   @Test
+   public void testUpdate_SearchesAtLeastOneRequestPerFrame() {
+      PathFinder finder = mock(PathFinder.class);
+      queue = new PathRequestQueue(finder, 0f);
+      for (int i = 0; i < 3; ++i) {
+         queue.request(mover(i, 0), 5, 5);
+      }
+      queue.update();
+      assertThat(queue.getPendingCount()).isEqualTo(2);
+      queue.update();
+      queue.update();
+      assertThat(queue.getPendingCount()).isZero();
+      verify(finder, times(3)).findPath(any(GameObject.class), anyInt(), anyInt());
+   }
+
+   @Test
+   public void testGet_SearchesImmediately() throws Exception {
+      GridTiledMapContext context = new GridTiledMapContext(16, 16);
+      queue = new PathRequestQueue(new JumpPointPathFinder(context, false), 10f);
+      PathRequestQueue.Callback callback = mock(PathRequestQueue.Callback.class);
+      PathRequest request = queue.request(mover(1, 1), 10, 12, callback);
+      Path path = request.get();
+      assertThat(path.getLength()).isEqualTo(21);
+      assertThat(queue.getPendingCount()).isZero();
+      verify(callback).onPathFound(request, path);
+   }
+
+   @Test
+   public void testUpdate_CompletesFailedSearchExceptionally() throws Exception {
+      PathFinder finder = mock(PathFinder.class);
+      IllegalStateException failure = new IllegalStateException("broken finder");
+      when(finder.findPath(any(GameObject.class), anyInt(), anyInt())).thenThrow(failure);
+      // a budget large enough for both requests, even if the first failure is slow
+      queue = new PathRequestQueue(finder, 1000f);
+      PathRequestQueue.Callback callback = mock(PathRequestQueue.Callback.class);
+      PathRequest request = queue.request(mover(1, 1), 10, 12, callback);
+      PathRequest next = queue.request(mover(2, 2), 10, 12);
+      queue.update();
+      assertThat(request.isDone()).isTrue();
+      assertThat(next.isDone()).isTrue();
+      verify(callback).onPathFound(eq(request), (Path) isNull());
+      try {
+         request.get();
+         fail("Expected an ExecutionException");
+      } catch (ExecutionException e) {
+         assertThat(e.getCause()).isSameAs(failure);
+      }
+   }
+
+   @Test
+   public void testGet_OtherThreadsWaitForUpdate() throws Exception {
+      PathFinder finder = mock(PathFinder.class);
+      queue = new PathRequestQueue(finder, 10f);
+      final PathRequest request = queue.request(mover(1, 1), 10, 12);
+      final AtomicReference<Object> result = new AtomicReference<Object>();
+      Thread thread = new Thread(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               request.get(50, TimeUnit.MILLISECONDS);
+               result.set("searched");
+            } catch (Exception e) {
+               result.set(e);
+            }
+         }
+      });
+      thread.start();
+      thread.join();
+      assertThat(result.get()).isInstanceOf(TimeoutException.class);
+      verify(finder, never()).findPath(any(GameObject.class), anyInt(), anyInt());
+      queue.update();
+      assertThat(request.get(0, TimeUnit.MILLISECONDS)).isNull();
+      verify(finder).findPath(any(GameObject.class), anyInt(), anyInt());
+   }
+
+   @Test
+   public void testCancel() {
+      PathFinder finder = mock(PathFinder.class);
+      queue = new PathRequestQueue(finder, 10f);
+      PathRequestQueue.Callback callback = mock(PathRequestQueue.Callback.class);
+      PathRequest request = queue.request(mover(1, 1), 10, 12, callback);
+      assertThat(request.cancel(false)).isTrue();
+      assertThat(request.isCancelled()).isTrue();
+      assertThat(request.isDone()).isTrue();
+      assertThat(queue.getPendingCount()).isZero();
+      queue.update();
+      verify(finder, never()).findPath(any(GameObject.class), anyInt(), anyInt());
+      verify(callback, never()).onPathFound(any(PathRequest.class), any(Path.class));
+      assertThat(request.cancel(false)).isFalse();
+   }
+
+   @Test
+   public void testWorkers_SearchOnSnapshot() throws Exception {
+      GridTiledMapContext context = new GridTiledMapContext(16, 16);
+      queue = new PathRequestQueue(context, new PathFinderFactory() {
+         @Override
+         public PathFinder create(CollisionMap context) {
+            return new HierarchicalPathFinder(context, 4, false);
+         }
+      }, 2);
+      PathRequestQueue.Callback callback = mock(PathRequestQueue.Callback.class);
+      GameObject mover = mover(1, 1);
+      PathRequest request = queue.request(mover, 14, 1, callback);
+      // changes after the request do not affect its search
+      for (int y = 0; y < 16; ++y) {
+         context.setCollision(8, y, true);
+      }
+      mover.setPosition(2, 2);
+      Path path = request.get(5, TimeUnit.SECONDS);
+      assertThat(path.getStep(0)).isEqualTo(path.new Step(1, 1));
+      assertThat(path.getStep(path.getLength() - 1)).isEqualTo(path.new Step(14, 1));
+      verify(callback, never()).onPathFound(any(PathRequest.class), any(Path.class));
+      queue.update();
+      verify(callback).onPathFound(request, path);
+      assertThat(queue.getPendingCount()).isZero();
+      // later requests see the wall
+      assertThat(queue.request(mover, 14, 1).get(5, TimeUnit.SECONDS)).isNull();
+   }
+
+   @Test
+   public void testWorkers_ManyRequests() throws Exception {
+      GridTiledMapContext context = GridTiledMapContext.maze(41, 41, 7L);
+      queue = new PathRequestQueue(context, new PathFinderFactory() {
+         @Override
+         public PathFinder create(CollisionMap context) {
+            return new JumpPointPathFinder(context, true);
+         }
+      }, 4);
+      JumpPointPathFinder finder = new JumpPointPathFinder(context, true);
+      PathRequest[] requests = new PathRequest[50];
+      for (int i = 0; i < requests.length; ++i) {
+         requests[i] = queue.request(mover(1 + 2 * (i % 20), 1 + 2 * (i / 20)), 39, 39);
+      }
+      for (PathRequest request : requests) {
+         Path path = request.get(5, TimeUnit.SECONDS);
+         Path expected = finder.findPath(request.getMover(), 39, 39);
+         if (expected == null) {
+            assertThat(path).isNull();
+            continue;
+         }
+         assertThat(path.getLength()).isEqualTo(expected.getLength());
+         assertContinuous(context, path, request.getMover(), true);
+      }
+   }
+}
@@ -0,0 +1,100 @@
+package de.bitbrain.braingdx.graphics.renderer;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import de.bitbrain.braingdx.graphics.BatchResolver;
+import de.bitbrain.braingdx.graphics.GameObjectRenderManager;
+import de.bitbrain.braingdx.utils.GdxUtils;
+import de.bitbrain.braingdx.world.GameObject;
+import de.bitbrain.braingdx.world.GameWorld;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class SpriteRendererBatchingTest {
+
+   private GameWorld world;
+   private GameObjectRenderManager renderManager;
+   private FlushCounter flushCounter;
+
+   @Before
+   public void beforeTest() {
+      GdxUtils.mockApplicationContext();
+      world = new GameWorld();
+      flushCounter = new FlushCounter();
+      final Batch batch = mock(Batch.class);
+      Mockito.doAnswer(flushCounter).when(batch)
+            .draw(Mockito.any(Texture.class), Mockito.any(float[].class), Mockito.anyInt(), Mockito.anyInt());
+      renderManager = new GameObjectRenderManager(world, new BatchResolver<Batch>() {
+         @Override
+         public void beforeRender() {
+         }
+
+         @Override
+         public Class<Batch> getBatchClass() {
+            return Batch.class;
+         }
+
+         @Override
+         public Batch getBatch() {
+            return batch;
+         }
+
+         @Override
+         public void begin() {
+         }
+
+         @Override
+         public void end() {
+         }
+      });
+      renderManager.register("a", new SpriteRenderer(mock(Texture.class)));
+      renderManager.register("b", new SpriteRenderer(mock(Texture.class)));
+      for (int i = 0; i < 10; ++i) {
+         GameObject object = world.addObject();
+         object.setType(i % 2 == 0 ? "a" : "b");
+         object.setDimensions(16, 16);
+      }
+      world.update(0f);
+   }
+
+   @Test
+   public void testMixedSprites_FlushOnEveryTextureChange() {
+      renderManager.render(0f);
+      assertThat(flushCounter.flushes).isEqualTo(9);
+      assertThat(renderManager.getBatchSwitches()).isEqualTo(9);
+   }
+
+   @Test
+   public void testMixedSprites_TextureBatching() {
+      renderManager.setTextureBatchingEnabled(true);
+      renderManager.render(0f);
+      assertThat(flushCounter.flushes).isEqualTo(1);
+      assertThat(renderManager.getBatchSwitches()).isEqualTo(1);
+      assertThat(renderManager.getRenderedCount()).isEqualTo(10);
+   }
+
+   /**
+    * Counts flushes the same way a sprite batch does: whenever the texture changes.
+    */
+   private static class FlushCounter implements Answer<Void> {
+
+      Texture lastTexture;
+      int flushes;
+
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+         Texture texture = (Texture) invocation.getArguments()[0];
+         if (lastTexture != null && texture != lastTexture) {
+            flushes++;
+         }
+         lastTexture = texture;
+         return null;
+      }
+   }
+}
@@ -0,0 +1,95 @@
+package de.bitbrain.braingdx.tmx;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class CachedOrthogonalMapLayerRendererTest {
+
+   private final List<SpriteCache> caches = new ArrayList<SpriteCache>();
+   private CachedOrthogonalMapLayerRenderer renderer;
+   private Batch batch;
+
+   @Before
+   public void beforeTest() {
+      Gdx.gl = mock(GL20.class);
+      Gdx.graphics = mock(Graphics.class);
+      // two chunks, only the first one is visible
+      TiledMapTileLayer layer = new TiledMapTileLayer(40, 8, 16, 16);
+      StaticTiledMapTile tile = new StaticTiledMapTile(new TextureRegion(mock(Texture.class)));
+      for (int x = 0; x < 40; ++x) {
+         for (int y = 0; y < 8; ++y) {
+            layer.setCell(x, y, new Cell().setTile(tile));
+         }
+      }
+      TiledMap map = new TiledMap();
+      map.getLayers().add(layer);
+      OrthographicCamera camera = new OrthographicCamera();
+      camera.viewportWidth = 100f;
+      camera.viewportHeight = 100f;
+      camera.position.set(50f, 50f, 0f);
+      batch = mock(Batch.class);
+      when(batch.getColor()).thenReturn(Color.WHITE);
+      renderer = new CachedOrthogonalMapLayerRenderer(0, map, camera) {
+         @Override
+         SpriteCache createCache(int size) {
+            SpriteCache cache = mock(SpriteCache.class);
+            when(cache.endCache()).thenReturn(7);
+            caches.add(cache);
+            return cache;
+         }
+      };
+   }
+
+   @Test
+   public void testRender_BuildsAndDrawsVisibleChunk() {
+      renderer.render(null, batch, 0f);
+      assertThat(caches).hasSize(1);
+      SpriteCache cache = caches.get(0);
+      verify(cache, times(32 * 8)).add(Matchers.any(Texture.class), Matchers.any(float[].class), eq(0), eq(20));
+      verify(cache).draw(7);
+      verify(batch).end();
+      verify(batch).begin();
+   }
+
+   @Test
+   public void testRender_ReusesChunk() {
+      renderer.render(null, batch, 0f);
+      renderer.render(null, batch, 0f);
+      SpriteCache cache = caches.get(0);
+      verify(cache, times(1)).beginCache();
+      verify(cache, times(2)).draw(7);
+   }
+
+   @Test
+   public void testRender_RebuildsInvalidatedChunk() {
+      renderer.render(null, batch, 0f);
+      SpriteCache cache = caches.get(0);
+      renderer.invalidate(35, 2);
+      renderer.render(null, batch, 0f);
+      verify(cache, times(1)).beginCache();
+      renderer.invalidate(3, 3);
+      renderer.render(null, batch, 0f);
+      verify(cache, times(2)).beginCache();
+      assertThat(caches).hasSize(1);
+   }
+}
@@ -0,0 +1,61 @@
+package de.bitbrain.braingdx.tmx;
+
+import de.bitbrain.braingdx.world.GameObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class CollisionCalculatorTest {
+
+   private State state;
+   private CollisionListener listener;
+
+   @Before
+   public void beforeTest() {
+      state = new State();
+      state.setIndexDimensions(4, 4);
+      state.setNumberOfLayers(2);
+      listener = mock(CollisionListener.class);
+      state.addCollisionListener(listener);
+   }
+
+   @Test
+   public void testUpdateCollision_NotifiesListeners() {
+      GameObject object = new GameObject();
+      CollisionCalculator.updateCollision(object, true, 2, 3, 1, state);
+      assertThat(state.getState(2, 3, 1).isCollision()).isTrue();
+      assertThat(state.getState(2, 3, 1).isFingerprint(object.getHandle())).isTrue();
+      CollisionCalculator.updateCollision(object, false, 2, 3, 1, state);
+      assertThat(state.getState(2, 3, 1).isCollision()).isFalse();
+      verify(listener, times(2)).onCollisionChange(2, 3, 1);
+   }
+
+   @Test
+   public void testUpdateCollision_Unchanged() {
+      GameObject object = new GameObject();
+      CollisionCalculator.updateCollision(object, false, 1, 1, 0, state);
+      CollisionCalculator.updateCollision(object, true, 1, 1, 0, state);
+      CollisionCalculator.updateCollision(object, true, 1, 1, 0, state);
+      verify(listener).onCollisionChange(1, 1, 0);
+      verifyNoMoreInteractions(listener);
+   }
+
+   @Test
+   public void testUpdateCollision_OtherObject() {
+      CollisionCalculator.updateCollision(new GameObject(), true, 1, 1, 0, state);
+      CollisionCalculator.updateCollision(new GameObject(), true, 1, 1, 0, state);
+      verify(listener, times(2)).onCollisionChange(1, 1, 0);
+   }
+
+   @Test
+   public void testRemoveCollisionListener() {
+      state.removeCollisionListener(listener);
+      CollisionCalculator.updateCollision(new GameObject(), true, 1, 1, 0, state);
+      verifyNoMoreInteractions(listener);
+   }
+}
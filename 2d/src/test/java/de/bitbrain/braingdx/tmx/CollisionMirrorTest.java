@@ -0,0 +1,106 @@
+package de.bitbrain.braingdx.tmx;
+
+import de.bitbrain.braingdx.world.GameObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class CollisionMirrorTest {
+
+   private State state;
+
+   @Before
+   public void beforeTest() {
+      state = new State();
+      state.setIndexDimensions(4, 3);
+      state.setNumberOfLayers(2);
+      state.setCellWidth(16f);
+      state.setCellHeight(8f);
+   }
+
+   @Test
+   public void testSnapshot_CopiesState() {
+      GameObject object = new GameObject();
+      state.getState(1, 2, 1).setCollision(true);
+      state.getState(1, 2, 1).setFingerprint(object.getHandle());
+      state.getState(3, 0, 0).setCollision(true);
+      CollisionSnapshot snapshot = new CollisionMirror(state).snapshot();
+      assertThat(snapshot.getNumberOfColumns()).isEqualTo(4);
+      assertThat(snapshot.getNumberOfRows()).isEqualTo(3);
+      assertThat(snapshot.getNumberOfLayers()).isEqualTo(2);
+      assertThat(snapshot.getCellWidth()).isEqualTo(16f);
+      assertThat(snapshot.getCellHeight()).isEqualTo(8f);
+      assertThat(snapshot.isCollision(1, 2, 1)).isTrue();
+      assertThat(snapshot.isCollision(1, 2, 0)).isFalse();
+      assertThat(snapshot.isCollision(3, 0, 0)).isTrue();
+      assertThat(snapshot.isCollision(-1, 0, 0)).isTrue();
+      assertThat(snapshot.isCollision(4, 0, 0)).isTrue();
+      assertThat(snapshot.isExclusiveCollision(1, 2, 1, object.getHandle())).isFalse();
+      assertThat(snapshot.isInclusiveCollision(1, 2, 1, object.getHandle())).isTrue();
+      assertThat(snapshot.isExclusiveCollision(3, 0, 0, object.getHandle())).isTrue();
+      assertThat(snapshot.isInclusiveCollision(3, 0, 0, object.getHandle())).isFalse();
+   }
+
+   @Test
+   public void testSnapshot_UpdatedOnCollisionChange() {
+      CollisionMirror mirror = new CollisionMirror(state);
+      CollisionSnapshot snapshot = mirror.snapshot();
+      assertThat(mirror.snapshot()).isSameAs(snapshot);
+      CollisionCalculator.updateCollision(new GameObject(), true, 2, 1, 0, state);
+      CollisionSnapshot updated = mirror.snapshot();
+      assertThat(updated).isNotSameAs(snapshot);
+      assertThat(updated.isCollision(2, 1, 0)).isTrue();
+      // previous snapshots never change
+      assertThat(snapshot.isCollision(2, 1, 0)).isFalse();
+   }
+
+   @Test
+   public void testSnapshot_DiffReportsChangedCellsOnly() {
+      state.setIndexDimensions(64, 40);
+      CollisionMirror mirror = new CollisionMirror(state);
+      CollisionSnapshot first = mirror.snapshot();
+      GameObject object = new GameObject();
+      CollisionCalculator.updateCollision(object, true, 2, 1, 0, state);
+      CollisionCalculator.updateCollision(object, true, 63, 39, 1, state);
+      CollisionSnapshot second = mirror.snapshot();
+      CollisionCalculator.updateCollision(object, false, 2, 1, 0, state);
+      CollisionSnapshot third = mirror.snapshot();
+      CollisionListener listener = mock(CollisionListener.class);
+      second.diff(first, listener);
+      verify(listener).onCollisionChange(2, 1, 0);
+      verify(listener).onCollisionChange(63, 39, 1);
+      verifyNoMoreInteractions(listener);
+      // snapshots stay unchanged although they share chunks with the mirror
+      assertThat(second.isCollision(2, 1, 0)).isTrue();
+      assertThat(third.isCollision(2, 1, 0)).isFalse();
+      assertThat(third.isInclusiveCollision(63, 39, 1, object.getHandle())).isTrue();
+      assertThat(first.isCollision(63, 39, 1)).isFalse();
+   }
+
+   @Test
+   public void testSnapshot_NotRecreatedWithoutChange() {
+      CollisionMirror mirror = new CollisionMirror(state);
+      CollisionSnapshot snapshot = mirror.snapshot();
+      // notified without an actual change
+      mirror.onCollisionChange(2, 1, 0);
+      assertThat(mirror.snapshot()).isSameAs(snapshot);
+   }
+
+   @Test
+   public void testDispose_StopsUpdates() {
+      CollisionMirror mirror = new CollisionMirror(state);
+      CollisionSnapshot snapshot = mirror.snapshot();
+      mirror.dispose();
+      CollisionCalculator.updateCollision(new GameObject(), true, 2, 1, 0, state);
+      assertThat(mirror.snapshot()).isSameAs(snapshot);
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testCreateSnapshot_InvalidNumberOfCells() {
+      new CollisionSnapshot(4, 3, 1, 1f, 1f, new boolean[12], new long[11]);
+   }
+}
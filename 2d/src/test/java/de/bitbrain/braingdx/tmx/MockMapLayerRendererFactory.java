@@ -24,7 +24,7 @@ import static org.mockito.Mockito.mock;
 public class MockMapLayerRendererFactory implements MapLayerRendererFactory {
 
    @Override
-   public GameObjectRenderer create(int index, TiledMap tiledMap, Camera camera) {
+   public GameObjectRenderer create(int index, TiledMap tiledMap, Camera camera, TiledMapConfig config) {
       return mock(GameObjectRenderer.class);
    }
 
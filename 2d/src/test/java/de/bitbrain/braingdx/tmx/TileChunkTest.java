@@ -0,0 +1,96 @@
+package de.bitbrain.braingdx.tmx;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.utils.Array;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class TileChunkTest {
+
+   private TiledMapTileLayer layer;
+   private StaticTiledMapTile grass;
+   private StaticTiledMapTile water;
+
+   @Before
+   public void beforeTest() {
+      layer = new TiledMapTileLayer(8, 8, 16, 16);
+      grass = new StaticTiledMapTile(new TextureRegion(mock(Texture.class)));
+      water = new StaticTiledMapTile(new TextureRegion(mock(Texture.class)));
+      for (int x = 0; x < 4; ++x) {
+         for (int y = 0; y < 4; ++y) {
+            layer.setCell(x, y, new Cell().setTile(grass));
+         }
+      }
+   }
+
+   @Test
+   public void testSynchronize_InitiallyChanged() {
+      TileChunk chunk = new TileChunk(0, 0, 4, 4);
+      assertThat(chunk.synchronize(layer)).isTrue();
+      assertThat(chunk.getTileCount()).isEqualTo(16);
+      assertThat(chunk.synchronize(layer)).isFalse();
+   }
+
+   @Test
+   public void testSynchronize_ReplacedTile() {
+      TileChunk chunk = new TileChunk(0, 0, 4, 4);
+      TileChunk other = new TileChunk(4, 0, 4, 4);
+      chunk.synchronize(layer);
+      other.synchronize(layer);
+      layer.getCell(2, 3).setTile(water);
+      // only animated cells are compared unless the chunk got invalidated
+      assertThat(chunk.synchronize(layer)).isFalse();
+      chunk.invalidate();
+      assertThat(chunk.synchronize(layer)).isTrue();
+      assertThat(other.synchronize(layer)).isFalse();
+   }
+
+   @Test
+   public void testSynchronize_AddedAndRemovedCells() {
+      TileChunk chunk = new TileChunk(0, 0, 4, 4);
+      chunk.synchronize(layer);
+      layer.setCell(1, 1, null);
+      chunk.invalidate();
+      assertThat(chunk.synchronize(layer)).isTrue();
+      assertThat(chunk.getTileCount()).isEqualTo(15);
+      layer.setCell(1, 1, new Cell().setTile(grass));
+      chunk.invalidate();
+      assertThat(chunk.synchronize(layer)).isTrue();
+      assertThat(chunk.getTileCount()).isEqualTo(16);
+   }
+
+   @Test
+   public void testSynchronize_AnimatedCells() {
+      final StaticTiledMapTile[] frame = new StaticTiledMapTile[]{grass};
+      AnimatedTiledMapTile animated = new AnimatedTiledMapTile(1f, new Array<StaticTiledMapTile>(new StaticTiledMapTile[]{grass, water})) {
+         @Override
+         public TextureRegion getTextureRegion() {
+            return frame[0].getTextureRegion();
+         }
+      };
+      layer.getCell(1, 2).setTile(animated);
+      TileChunk chunk = new TileChunk(0, 0, 4, 4);
+      assertThat(chunk.synchronize(layer)).isTrue();
+      assertThat(chunk.synchronize(layer)).isFalse();
+      frame[0] = water;
+      assertThat(chunk.synchronize(layer)).isTrue();
+      assertThat(chunk.getTileCount()).isEqualTo(16);
+      assertThat(chunk.synchronize(layer)).isFalse();
+   }
+
+   @Test
+   public void testInvalidate() {
+      TileChunk chunk = new TileChunk(0, 0, 4, 4);
+      chunk.synchronize(layer);
+      chunk.invalidate();
+      assertThat(chunk.synchronize(layer)).isTrue();
+   }
+}
@@ -28,6 +28,7 @@ import de.bitbrain.braingdx.graphics.GameCamera;
 import de.bitbrain.braingdx.graphics.postprocessing.effects.*;
 import de.bitbrain.braingdx.screens.AbstractScreen;
 import de.bitbrain.braingdx.tweens.*;
+import de.bitbrain.braingdx.util.ShaderLoader;
 import de.bitbrain.braingdx.util.StringRandomizer;
 import de.bitbrain.braingdx.util.ValueProvider;
 import de.bitbrain.braingdx.world.GameObject;
@@ -55,6 +56,7 @@ public abstract class BrainGdxGame extends Game {
    public void dispose() {
       super.dispose();
       BitmapFontBaker.dispose();
+      ShaderLoader.dispose();
    }
 
    protected abstract GameAssetLoader getAssetLoader();
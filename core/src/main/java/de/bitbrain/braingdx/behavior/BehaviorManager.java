@@ -16,18 +16,28 @@
 package de.bitbrain.braingdx.behavior;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.LongMap;
 import de.bitbrain.braingdx.util.Updateable;
 import de.bitbrain.braingdx.world.GameObject;
 import de.bitbrain.braingdx.world.GameWorld;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Manages behavior of game objects.
+ * <p>
+ * Parallel updates are disabled by default. Once enabled via {@link #enableParallelUpdates()},
+ * {@link ParallelBehavior} instances are no longer updated per object but for all
+ * updateable objects at once, partitioned across worker threads.
  *
  * @author Miguel Gonzalez Sanchez
  * @version 1.0.0
@@ -38,26 +48,38 @@ public class BehaviorManager {
 
    private final List<Updateable> updateables;
 
-   private final Map<String, List<Behavior>> localBehaviors;
+   private final LongMap<List<Behavior>> localBehaviors;
 
    private final GameWorld world;
 
+   /**
+    * batches smaller than this are updated on the calling thread
+    */
+   private static final int MIN_PARALLEL_BATCH_SIZE = 64;
+
+   private final List<Runnable> deferred = new ArrayList<Runnable>();
+   private final List<Runnable> deferredBuffer = new ArrayList<Runnable>();
+   private final Array<Partition> partitions = new Array<Partition>();
+   private final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+   private ExecutorService executor;
+   private boolean ownsExecutor;
+
    public BehaviorManager(GameWorld world) {
       this.world = world;
       globalBehaviors = new ArrayList<Behavior>();
       updateables = new ArrayList<Updateable>();
-      localBehaviors = new HashMap<String, List<Behavior>>();
+      localBehaviors = new LongMap<List<Behavior>>();
    }
 
    public void apply(final Behavior behavior, final GameObject source) {
-      final String id = source.getId();
+      final long handle = source.getHandle();
       Gdx.app.postRunnable(new Runnable() {
          @Override
          public void run() {
-            List<Behavior> behaviors = localBehaviors.get(id);
+            List<Behavior> behaviors = localBehaviors.get(handle);
             if (behaviors == null) {
                behaviors = new ArrayList<Behavior>();
-               localBehaviors.put(id, behaviors);
+               localBehaviors.put(handle, behaviors);
             }
             behaviors.add(behavior);
             if (behavior instanceof Updateable) {
@@ -96,11 +118,11 @@ public class BehaviorManager {
    }
 
    public void remove(final GameObject source, final Behavior behavior) {
-      final String id = source.getId();
+      final long handle = source.getHandle();
       Gdx.app.postRunnable(new Runnable() {
          @Override
          public void run() {
-            List<Behavior> behaviors = localBehaviors.get(id);
+            List<Behavior> behaviors = localBehaviors.get(handle);
             if (behaviors != null && behaviors.contains(behavior)) {
                behaviors.remove(behavior);
                behavior.onDetach(source);
@@ -110,11 +132,11 @@ public class BehaviorManager {
    }
 
    public void remove(final GameObject source) {
-      final String id = source.getId();
+      final long handle = source.getHandle();
       Gdx.app.postRunnable(new Runnable() {
          @Override
          public void run() {
-            List<Behavior> behaviors = localBehaviors.remove(id);
+            List<Behavior> behaviors = localBehaviors.remove(handle);
             if (behaviors != null) {
                for (Behavior behavior : behaviors) {
                   if (behavior instanceof Updateable) {
@@ -136,24 +158,177 @@ public class BehaviorManager {
       }
    }
 
+   /**
+    * Enables parallel updates of {@link ParallelBehavior} instances on a dedicated
+    * pool which uses all available processors.
+    */
+   public void enableParallelUpdates() {
+      int processors = Runtime.getRuntime().availableProcessors();
+      enableParallelUpdates(Executors.newFixedThreadPool(processors, new ThreadFactory() {
+         @Override
+         public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "braingdx-behavior-worker");
+            thread.setDaemon(true);
+            return thread;
+         }
+      }), processors);
+      ownsExecutor = true;
+   }
+
+   /**
+    * Enables parallel updates of {@link ParallelBehavior} instances on the given executor.
+    *
+    * @param executor   the executor to run partitions on
+    * @param partitions the number of partitions objects get split into
+    */
+   public void enableParallelUpdates(ExecutorService executor, int partitions) {
+      if (executor == null) {
+         throw new IllegalArgumentException("Executor must not be null!");
+      }
+      if (partitions < 1) {
+         throw new IllegalArgumentException("At least one partition is required but was " + partitions);
+      }
+      disableParallelUpdates();
+      this.executor = executor;
+      this.partitions.clear();
+      for (int i = 0; i < partitions; ++i) {
+         this.partitions.add(new Partition());
+      }
+   }
+
+   /**
+    * Disables parallel updates. {@link ParallelBehavior} instances are updated on the
+    * calling thread again.
+    */
+   public void disableParallelUpdates() {
+      if (executor != null && ownsExecutor) {
+         executor.shutdown();
+      }
+      executor = null;
+      ownsExecutor = false;
+      partitions.clear();
+   }
+
+   public boolean isParallelUpdateEnabled() {
+      return executor != null;
+   }
+
+   /**
+    * Defers the given mutation until the current parallel update has finished. Outside
+    * of parallel updates, the mutation is carried out after the next one. Thread-safe.
+    *
+    * @param mutation the mutation to carry out
+    */
+   public void defer(Runnable mutation) {
+      synchronized (deferred) {
+         deferred.add(mutation);
+      }
+   }
+
+   /**
+    * Updates all {@link ParallelBehavior} instances for the given objects. Does nothing
+    * unless parallel updates are enabled. Deferred mutations are carried out once all
+    * partitions have been updated.
+    *
+    * @param objects the objects to update
+    * @param delta   current frame delta
+    */
+   public void updateParallel(Array<GameObject> objects, float delta) {
+      if (executor == null) {
+         return;
+      }
+      if (objects.size < MIN_PARALLEL_BATCH_SIZE || partitions.size == 1) {
+         updateParallel(objects, 0, objects.size, delta);
+      } else {
+         int partitionSize = (objects.size + partitions.size - 1) / partitions.size;
+         futures.clear();
+         for (int i = 1; i < partitions.size; ++i) {
+            Partition partition = partitions.get(i);
+            partition.set(objects, Math.min(i * partitionSize, objects.size), Math.min((i + 1) * partitionSize, objects.size), delta);
+            futures.add(executor.submit(partition));
+         }
+         updateParallel(objects, 0, Math.min(partitionSize, objects.size), delta);
+         awaitPartitions();
+      }
+      runDeferred();
+   }
+
+   private void updateParallel(Array<GameObject> objects, int start, int end, float delta) {
+      for (int i = start; i < end; ++i) {
+         GameObject source = objects.get(i);
+         for (int j = 0; j < globalBehaviors.size(); ++j) {
+            Behavior behavior = globalBehaviors.get(j);
+            if (behavior instanceof ParallelBehavior) {
+               behavior.update(source, delta);
+            }
+         }
+         List<Behavior> behaviors = localBehaviors.get(source.getHandle());
+         if (behaviors != null) {
+            for (int j = 0; j < behaviors.size(); ++j) {
+               Behavior behavior = behaviors.get(j);
+               if (behavior instanceof ParallelBehavior) {
+                  behavior.update(source, delta);
+               }
+            }
+         }
+      }
+   }
+
+   private void awaitPartitions() {
+      try {
+         for (int i = 0; i < futures.size(); ++i) {
+            futures.get(i).get();
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new GdxRuntimeException("Interrupted while updating behaviors in parallel", e);
+      } catch (ExecutionException e) {
+         throw new GdxRuntimeException("Unable to update behaviors in parallel", e.getCause());
+      } finally {
+         futures.clear();
+      }
+   }
+
+   private void runDeferred() {
+      synchronized (deferred) {
+         if (deferred.isEmpty()) {
+            return;
+         }
+         deferredBuffer.addAll(deferred);
+         deferred.clear();
+      }
+      for (int i = 0; i < deferredBuffer.size(); ++i) {
+         deferredBuffer.get(i).run();
+      }
+      deferredBuffer.clear();
+   }
+
    public void updateGlobally(GameObject source, float delta) {
+      final boolean parallel = executor != null;
       for (int i = 0; i < globalBehaviors.size(); ++i) {
-         globalBehaviors.get(i).update(source, delta);
+         Behavior behavior = globalBehaviors.get(i);
+         if (!parallel || !(behavior instanceof ParallelBehavior)) {
+            behavior.update(source, delta);
+         }
       }
    }
 
    public void updateLocally(GameObject source, float delta) {
-      List<Behavior> behaviors = localBehaviors.get(source.getId());
+      List<Behavior> behaviors = localBehaviors.get(source.getHandle());
       if (behaviors != null) {
+         final boolean parallel = executor != null;
          for (int i = 0; i < behaviors.size(); ++i) {
-            behaviors.get(i).update(source, delta);
+            Behavior behavior = behaviors.get(i);
+            if (!parallel || !(behavior instanceof ParallelBehavior)) {
+               behavior.update(source, delta);
+            }
          }
       }
 
    }
 
    public void updateLocallyCompared(GameObject source, GameObject target, float delta) {
-      List<Behavior> behaviors = localBehaviors.get(source.getId());
+      List<Behavior> behaviors = localBehaviors.get(source.getHandle());
       if (behaviors != null) {
          for (int i = 0; i < behaviors.size(); ++i) {
             behaviors.get(i).update(source, target, delta);
@@ -168,9 +343,9 @@ public class BehaviorManager {
    }
 
    public void clear() {
-      for (Entry<String, List<Behavior>> behaviors : localBehaviors.entrySet()) {
-         for (Behavior behavior : behaviors.getValue()) {
-            behavior.onDetach(world.getObjectById(behaviors.getKey()));
+      for (LongMap.Entry<List<Behavior>> behaviors : localBehaviors.entries()) {
+         for (Behavior behavior : behaviors.value) {
+            behavior.onDetach(world.getObjectByHandle(behaviors.key));
          }
       }
       localBehaviors.clear();
@@ -182,15 +357,35 @@ public class BehaviorManager {
    }
 
    public int getLocalCount() {
-      return localBehaviors.size();
+      return localBehaviors.size;
    }
 
    public void onStatusChange(GameObject source, boolean updateable) {
-      List<Behavior> behaviors = localBehaviors.get(source.getId());
+      List<Behavior> behaviors = localBehaviors.get(source.getHandle());
       if (behaviors != null) {
          for (Behavior behavior : behaviors) {
             behavior.onStatusChange(source, updateable);
          }
       }
    }
+
+   private class Partition implements Callable<Void> {
+
+      private Array<GameObject> objects;
+      private int start, end;
+      private float delta;
+
+      void set(Array<GameObject> objects, int start, int end, float delta) {
+         this.objects = objects;
+         this.start = start;
+         this.end = end;
+         this.delta = delta;
+      }
+
+      @Override
+      public Void call() {
+         updateParallel(objects, start, end, delta);
+         return null;
+      }
+   }
 }
@@ -1,5 +1,6 @@
 package de.bitbrain.braingdx.behavior;
 
+import com.badlogic.gdx.utils.Array;
 import de.bitbrain.braingdx.util.Updateable;
 import de.bitbrain.braingdx.world.GameObject;
 import de.bitbrain.braingdx.world.GameWorld.GameWorldListener;
@@ -18,6 +19,11 @@ public class BehaviorManagerAdapter extends GameWorldListener implements Updatea
       behaviorManager.updateLocally(object, delta);
    }
 
+   @Override
+   public void onUpdateAll(Array<GameObject> objects, float delta) {
+      behaviorManager.updateParallel(objects, delta);
+   }
+
    @Override
    public void onUpdate(GameObject object, GameObject other, float delta) {
       behaviorManager.updateLocallyCompared(object, other, delta);
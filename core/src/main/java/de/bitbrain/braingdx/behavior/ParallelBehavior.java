@@ -0,0 +1,19 @@
+package de.bitbrain.braingdx.behavior;
+
+/**
+ * Marks a behavior as thread-safe. Once parallel updates are enabled on the
+ * {@link BehaviorManager}, {@link #update(de.bitbrain.braingdx.world.GameObject, float)}
+ * of such behaviors is called from worker threads, partitioned by game object.
+ * <p>
+ * Implementations may only modify the game object they are updated for. Changes to its
+ * bounds or id are recorded per worker thread and applied to the {@link de.bitbrain.braingdx.world.GameWorld}
+ * on the update thread once the parallel update has finished. Any other access to the world
+ * (queries, lookups by id, adding or removing objects or behaviors) has to be deferred via
+ * {@link BehaviorManager#defer(Runnable)}, which runs it on the calling thread once the
+ * parallel update has finished.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public interface ParallelBehavior extends Behavior {
+}
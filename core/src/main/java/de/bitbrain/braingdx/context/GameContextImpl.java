@@ -4,8 +4,11 @@ import aurelienribon.tweenengine.TweenManager;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
 import de.bitbrain.braingdx.BrainGdxGame;
 import de.bitbrain.braingdx.GameSettings;
 import de.bitbrain.braingdx.audio.AudioManager;
@@ -14,6 +17,7 @@ import de.bitbrain.braingdx.behavior.BehaviorManager;
 import de.bitbrain.braingdx.behavior.BehaviorManagerAdapter;
 import de.bitbrain.braingdx.debug.DebugMetric;
 import de.bitbrain.braingdx.debug.DebugPanel;
+import de.bitbrain.braingdx.event.GameEventListener;
 import de.bitbrain.braingdx.event.GameEventManager;
 import de.bitbrain.braingdx.event.GameEventManagerImpl;
 import de.bitbrain.braingdx.graphics.BatchResolver;
@@ -22,6 +26,8 @@ import de.bitbrain.braingdx.graphics.GameObjectRenderManager;
 import de.bitbrain.braingdx.graphics.event.GraphicsSettingsChangeEvent;
 import de.bitbrain.braingdx.graphics.pipeline.CombinedRenderPipeline;
 import de.bitbrain.braingdx.graphics.pipeline.RenderPipeline;
+import de.bitbrain.braingdx.graphics.pipeline.RenderPipelineProfiler;
+import de.bitbrain.braingdx.graphics.pipeline.RenderPipelineProfiler.PipeStatistics;
 import de.bitbrain.braingdx.graphics.postprocessing.ShaderManager;
 import de.bitbrain.braingdx.graphics.shader.ShaderConfig;
 import de.bitbrain.braingdx.input.InputManager;
@@ -32,6 +38,7 @@ import de.bitbrain.braingdx.tweens.SharedTweenManager;
 import de.bitbrain.braingdx.util.ArgumentFactory;
 import de.bitbrain.braingdx.util.Resizeable;
 import de.bitbrain.braingdx.util.Updateable;
+import de.bitbrain.braingdx.util.RollingPercentiles;
 import de.bitbrain.braingdx.util.ViewportFactory;
 import de.bitbrain.braingdx.world.GameWorld;
 
@@ -61,6 +68,7 @@ public class GameContextImpl implements GameContext, Disposable, Resizeable {
    private boolean paused;
    private boolean debug;
    private final DebugPanel debugPanel;
+   private GLProfiler glProfiler;
 
    public GameContextImpl(
          ShaderConfig shaderConfig,
@@ -235,7 +243,12 @@ public class GameContextImpl implements GameContext, Disposable, Resizeable {
       tweenManager.killAll();
       eventManager.clear();
       renderPipeline.dispose();
+      shaderManager.dispose();
+      if (glProfiler != null) {
+         glProfiler.disable();
+      }
       renderManager.dispose();
+      behaviorManager.disableParallelUpdates();
       updateableList.clear();
    }
 
@@ -249,7 +262,10 @@ public class GameContextImpl implements GameContext, Disposable, Resizeable {
       gameCamera.update(delta);
       world.update(paused ? 0f : delta);
       stage.act(delta);
-      debugStage.act(delta);
+      if (debug) {
+         // the debug stage is only rendered in debug mode
+         debugStage.act(delta);
+      }
       renderPipeline.render(delta);
    }
 
@@ -281,6 +297,22 @@ public class GameContextImpl implements GameContext, Disposable, Resizeable {
    @Override
    public void setDebug(boolean enabled) {
       this.debug = enabled;
+      if (renderPipeline instanceof CombinedRenderPipeline) {
+         CombinedRenderPipeline pipeline = (CombinedRenderPipeline) renderPipeline;
+         pipeline.setProfilingEnabled(enabled);
+         pipeline.getProfiler().setGpuTimingEnabled(enabled);
+         if (enabled && glProfiler == null) {
+            glProfiler = new GLProfiler(Gdx.graphics);
+            pipeline.getProfiler().setGLProfiler(glProfiler);
+         }
+      }
+      if (glProfiler != null) {
+         if (enabled) {
+            glProfiler.enable();
+         } else {
+            glProfiler.disable();
+         }
+      }
    }
 
    @Override
@@ -293,6 +325,7 @@ public class GameContextImpl implements GameContext, Disposable, Resizeable {
       gameCamera.resize(width, height);
       stage.getViewport().update(width, height, true);
       debugStage.getViewport().update(width, height, true);
+      updateRenderScale();
       renderPipeline.resize(width, height);
       eventManager.publish(new GraphicsSettingsChangeEvent());
    }
@@ -307,10 +340,34 @@ public class GameContextImpl implements GameContext, Disposable, Resizeable {
       this.backgroundColor = color;
    }
 
+   /**
+    * Composes layers at the same resolution post processing effects are created for.
+    */
+   private void updateRenderScale() {
+      if (renderPipeline instanceof CombinedRenderPipeline) {
+         ((CombinedRenderPipeline) renderPipeline).setRenderScale(settings.getGraphics().getRenderScale());
+      }
+   }
+
+   private RenderPipelineProfiler getRenderPipelineProfiler() {
+      if (renderPipeline instanceof CombinedRenderPipeline) {
+         return ((CombinedRenderPipeline) renderPipeline).getProfiler();
+      }
+      return null;
+   }
+
    private void wire() {
       world.addListener(new BehaviorManagerAdapter(behaviorManager));
       inputManager.register(stage);
       Gdx.input.setInputProcessor(inputManager.getMultiplexer());
+      renderManager.setCamera(gameCamera);
+      updateRenderScale();
+      eventManager.register(new GameEventListener<GraphicsSettingsChangeEvent>() {
+         @Override
+         public void onEvent(GraphicsSettingsChangeEvent event) {
+            updateRenderScale();
+         }
+      }, GraphicsSettingsChangeEvent.class);
 
       // Setup Debug UI
       debugPanel.addMetric("fps", new DebugMetric() {
@@ -332,6 +389,27 @@ public class GameContextImpl implements GameContext, Disposable, Resizeable {
             return String.valueOf(getGameWorld().getObjects(null, true).size);
          }
       });
+      debugPanel.addMetric("rendered game objects", new DebugMetric() {
+         @Override
+         public String getCurrentValue() {
+            return String.valueOf(getRenderManager().getRenderedCount());
+         }
+      });
+      debugPanel.addMetric("culled game objects", new DebugMetric() {
+         @Override
+         public String getCurrentValue() {
+            return String.valueOf(getRenderManager().getCulledCount());
+         }
+      });
+      debugPanel.addMetric("batch switches", new DebugMetric() {
+         @Override
+         public String getCurrentValue() {
+            return String.valueOf(getRenderManager().getBatchSwitches());
+         }
+      });
+      debugPanel.addMetric("render pipes (p50/p95 ms)", new PipeTimesMetric(false));
+      debugPanel.addMetric("render pipes GPU (p50/p95 ms)", new PipeTimesMetric(true));
+      debugPanel.addMetric("render pipes (flushes/texture bindings)", new PipeCountsMetric());
       debugPanel.addMetric("global behaviors", new DebugMetric() {
          @Override
          public String getCurrentValue() {
@@ -379,4 +457,108 @@ public class GameContextImpl implements GameContext, Disposable, Resizeable {
          }
       });
    }
+
+   /**
+    * Shows the 50th and 95th percentile of the time of each render pipe. The value is only
+    * formatted again after it changed at the displayed precision.
+    */
+   private class PipeTimesMetric implements DebugMetric {
+
+      private final boolean gpu;
+      private final IntArray displayed = new IntArray();
+      private final IntArray current = new IntArray();
+      private final Array<String> displayedPipeIds = new Array<String>();
+      private final StringBuilder builder = new StringBuilder();
+      private String value = "";
+
+      PipeTimesMetric(boolean gpu) {
+         this.gpu = gpu;
+      }
+
+      @Override
+      public String getCurrentValue() {
+         RenderPipelineProfiler profiler = getRenderPipelineProfiler();
+         if (profiler == null || (gpu && !profiler.isGpuTimingSupported())) {
+            return "N/A";
+         }
+         Array<String> pipeIds = profiler.getPipeIds();
+         current.clear();
+         for (int i = 0; i < pipeIds.size; ++i) {
+            PipeStatistics statistics = profiler.getStatistics(pipeIds.get(i));
+            RollingPercentiles times = gpu ? statistics.getGpuTime() : statistics.getCpuTime();
+            current.add(Math.round(times.getPercentile(50) * 100f));
+            current.add(Math.round(times.getPercentile(95) * 100f));
+         }
+         if (current.equals(displayed) && pipeIds.equals(displayedPipeIds)) {
+            return value;
+         }
+         displayed.clear();
+         displayed.addAll(current);
+         displayedPipeIds.clear();
+         displayedPipeIds.addAll(pipeIds);
+         builder.setLength(0);
+         for (int i = 0; i < pipeIds.size; ++i) {
+            builder.append(pipeIds.get(i)).append('=');
+            appendHundredths(current.get(i * 2));
+            builder.append('/');
+            appendHundredths(current.get(i * 2 + 1));
+            builder.append(' ');
+         }
+         value = builder.toString().trim();
+         return value;
+      }
+
+      private void appendHundredths(int hundredths) {
+         builder.append(hundredths / 100).append('.');
+         final int fraction = hundredths % 100;
+         if (fraction < 10) {
+            builder.append('0');
+         }
+         builder.append(fraction);
+      }
+   }
+
+   /**
+    * Shows the latest flushes and texture bindings of each render pipe. The value is only
+    * formatted again after it changed.
+    */
+   private class PipeCountsMetric implements DebugMetric {
+
+      private final IntArray displayed = new IntArray();
+      private final IntArray current = new IntArray();
+      private final Array<String> displayedPipeIds = new Array<String>();
+      private final StringBuilder builder = new StringBuilder();
+      private String value = "";
+
+      @Override
+      public String getCurrentValue() {
+         RenderPipelineProfiler profiler = getRenderPipelineProfiler();
+         if (profiler == null) {
+            return "";
+         }
+         Array<String> pipeIds = profiler.getPipeIds();
+         current.clear();
+         for (int i = 0; i < pipeIds.size; ++i) {
+            PipeStatistics statistics = profiler.getStatistics(pipeIds.get(i));
+            current.add((int) statistics.getFlushes().getLatest());
+            current.add((int) statistics.getTextureBindings().getLatest());
+         }
+         if (current.equals(displayed) && pipeIds.equals(displayedPipeIds)) {
+            return value;
+         }
+         displayed.clear();
+         displayed.addAll(current);
+         displayedPipeIds.clear();
+         displayedPipeIds.addAll(pipeIds);
+         builder.setLength(0);
+         for (int i = 0; i < pipeIds.size; ++i) {
+            builder.append(pipeIds.get(i)).append('=')
+                  .append(current.get(i * 2)).append('/')
+                  .append(current.get(i * 2 + 1))
+                  .append(' ');
+         }
+         value = builder.toString().trim();
+         return value;
+      }
+   }
 }
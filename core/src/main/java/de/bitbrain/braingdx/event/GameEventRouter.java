@@ -2,12 +2,12 @@ package de.bitbrain.braingdx.event;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.LongMap;
 import de.bitbrain.braingdx.behavior.BehaviorAdapter;
 import de.bitbrain.braingdx.world.GameObject;
 import de.bitbrain.braingdx.world.GameWorld;
 
-import java.util.*;
-
 /**
  * An event router which manages object collisions and detects events happening in the
  * world. It then publishes events depending on the event configuration.
@@ -30,8 +30,8 @@ public class GameEventRouter extends BehaviorAdapter {
    private final GameWorld gameWorld;
    private Rectangle sourceRect, targetRect;
    private GameEventFactory eventFactory;
-   private Set<String> eventIds = new HashSet<String>();
-   private Map<String, List<String>> enterMap = new HashMap<String, List<String>>();
+   private LongMap<GameObject> consumedEvents = new LongMap<GameObject>();
+   private LongMap<LongArray> enterMap = new LongMap<LongArray>();
    private Object[] identifiers;
    private final GameEventInfoExtractor extractor;
 
@@ -72,22 +72,26 @@ public class GameEventRouter extends BehaviorAdapter {
       sourceRect.set(source.getLeft(), source.getTop(), source.getWidth(), source.getHeight());
       targetRect.set(target.getLeft(), target.getTop(), target.getWidth(), target.getHeight());
 
+      final long sourceHandle = source.getHandle();
+      final long targetHandle = target.getHandle();
+
       if (sourceRect.contains(targetRect) || sourceRect.overlaps(targetRect)) {
          if (extractor.isTriggerOnEnter(source)) {
-            if (!enterMap.containsKey(source.getId()) || !enterMap.get(source.getId()).contains(target.getId())) {
+            LongArray entered = enterMap.get(sourceHandle);
+            if (entered == null || !entered.contains(targetHandle)) {
                return;
             } else {
-               enterMap.get(source.getId()).remove(target.getId());
+               entered.removeValue(targetHandle);
             }
          }
 
-         if (eventIds.contains(source.getId())) {
+         if (consumedEvents.containsKey(sourceHandle)) {
             // Event already consumed!
             gameWorld.remove(source);
-            enterMap.remove(source.getId());
+            enterMap.remove(sourceHandle);
             return;
          }
-         eventIds.add(source.getId());
+         consumedEvents.put(sourceHandle, source);
          // Source is the event!
          GameEvent event = eventFactory.create(source, target);
          if (event != null) {
@@ -96,18 +100,17 @@ public class GameEventRouter extends BehaviorAdapter {
             Gdx.app.log("WARN", "Unable to publish event for " + source + "! Not supported by EventFactory!");
          }
       } else if (extractor.isTriggerOnEnter(source) && target.hasMoved()) {
-         if (!enterMap.containsKey(source.getId())) {
-            enterMap.put(source.getId(), new ArrayList<String>());
+         LongArray entered = enterMap.get(sourceHandle);
+         if (entered == null) {
+            entered = new LongArray();
+            enterMap.put(sourceHandle, entered);
          }
-         List<String> objects = enterMap.get(source.getId());
-         if (!objects.contains(target.getId())) {
-            objects.add(target.getId());
+         if (!entered.contains(targetHandle)) {
+            entered.add(targetHandle);
          }
       }
       if (extractor.isSticky(source)) {
-         if (eventIds.contains(source.getId())) {
-            eventIds.remove(source.getId());
-         }
+         consumedEvents.remove(sourceHandle);
       }
 
    }
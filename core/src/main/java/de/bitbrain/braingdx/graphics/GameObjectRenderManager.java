@@ -15,9 +15,15 @@
 
 package de.bitbrain.braingdx.graphics;
 
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.Sort;
 import de.bitbrain.braingdx.util.ZIndexComparator;
 import de.bitbrain.braingdx.world.GameObject;
 import de.bitbrain.braingdx.world.GameWorld;
@@ -28,6 +34,18 @@ import java.util.Map;
 
 /**
  * Handles rendering of game objects
+ * <p>
+ * Objects are rendered from a render list which is owned by this manager. The list keeps
+ * its order between frames, so it only has to be re-sorted where the order actually changed.
+ * <p>
+ * With texture batching enabled, objects of equal render order are additionally grouped by
+ * batch resolver and by the batch key of their renderer (see {@link BatchKeyProvider}),
+ * which avoids flushing the batch whenever consecutive objects use different textures.
+ * <p>
+ * Culling is opt-in: once a camera is set and culling has been enabled via
+ * {@link #setCullingEnabled(boolean)}, only objects whose rendered bounds (including offset,
+ * scale and rotation) overlap the camera view are rendered, independent of which objects are
+ * currently updateable. Large worlds retrieve candidates from their spatial index.
  *
  * @author Miguel Gonzalez Sanchez
  * @version 1.0.0
@@ -37,10 +55,37 @@ public class GameObjectRenderManager implements Disposable {
 
    private final GameWorld gameWorld;
    private Comparator<GameObject> comparator = new ZIndexComparator();
-   private final Map<Object, GameObjectRenderer<?>> rendererMap = new HashMap<Object, GameObjectRenderer<?>>();
+   private final Map<Object, RenderEntry> rendererMap = new HashMap<Object, RenderEntry>();
    private final Map<Class<?>, BatchResolver<?>> batchResolverMap = new HashMap<Class<?>, BatchResolver<?>>();
    private final BatchResolver<?>[] allbatchResolvers;
 
+   /**
+    * below this ratio of misplaced objects the render list is fixed via insertion sort
+    */
+   private static final int INSERTION_SORT_RATIO = 32;
+   private static final int MIN_INSERTION_SORT_THRESHOLD = 16;
+
+   private final Array<GameObject> renderList = new Array<GameObject>(true, 200, GameObject.class);
+   private final LongArray renderHandles = new LongArray(200);
+   /**
+    * The render entry of each object of the render list, resolved once per frame
+    */
+   private final Array<RenderEntry> renderEntries = new Array<RenderEntry>(true, 200, RenderEntry.class);
+   private final LongMap<GameObject> renderedObjects = new LongMap<GameObject>();
+
+   private final ObjectIntMap<Object> batchKeyIds = new ObjectIntMap<Object>();
+   private final IntArray groupIds = new IntArray();
+   private boolean textureBatchingEnabled;
+   private int renderedCount;
+   private int batchSwitches;
+
+   private GameCamera camera;
+   private boolean cullingEnabled;
+   private float cullingPadding;
+   private final Array<GameObject> visibleList = new Array<GameObject>(true, 200, GameObject.class);
+   private final LongMap<GameObject> visibleObjects = new LongMap<GameObject>();
+   private int culledCount;
+
    public GameObjectRenderManager(GameWorld gameWorld, BatchResolver<?> ... resolvers) {
       this.gameWorld = gameWorld;
       this.allbatchResolvers = resolvers;
@@ -66,6 +111,90 @@ public class GameObjectRenderManager implements Disposable {
       this.comparator = comparator;
    }
 
+   /**
+    * @return the objects to render in render order as of the last call of {@link #render(float)}
+    */
+   public Array<GameObject> getRenderList() {
+      return renderList;
+   }
+
+   /**
+    * Enables grouping of objects with equal render order by batch resolver and batch key.
+    * Disabled by default.
+    *
+    * @param enabled true to group objects of equal render order
+    */
+   public void setTextureBatchingEnabled(boolean enabled) {
+      this.textureBatchingEnabled = enabled;
+   }
+
+   public boolean isTextureBatchingEnabled() {
+      return textureBatchingEnabled;
+   }
+
+   /**
+    * @return the number of objects rendered within the last frame
+    */
+   public int getRenderedCount() {
+      return renderedCount;
+   }
+
+   /**
+    * Provides the number of times the batch resolver or the batch key changed between
+    * consecutively rendered objects within the last frame. For sprite batches, this
+    * corresponds to the number of flushes caused by rendering game objects.
+    *
+    * @return the number of batch switches within the last frame
+    */
+   public int getBatchSwitches() {
+      return batchSwitches;
+   }
+
+   /**
+    * Sets the camera whose view is used to cull objects before rendering them.
+    *
+    * @param camera the camera or null to render all updateable objects
+    */
+   public void setCamera(GameCamera camera) {
+      this.camera = camera;
+   }
+
+   /**
+    * Enables culling of objects outside of the camera view. Disabled by default, has
+    * no effect as long as no camera is set. Objects are tested against their rendered
+    * bounds, but worlds which use their spatial index only provide candidates by their
+    * plain bounds: objects which are offset or scaled beyond those have to be covered
+    * by {@link #setCullingPadding(float)}, otherwise they might disappear too early.
+    *
+    * @param enabled true to cull objects outside of the camera view
+    */
+   public void setCullingEnabled(boolean enabled) {
+      this.cullingEnabled = enabled;
+   }
+
+   public boolean isCullingEnabled() {
+      return cullingEnabled;
+   }
+
+   /**
+    * Extends the camera view by the given amount on each side when culling. Useful for
+    * renderers which draw beyond the bounds of their game objects, e.g. particle effects
+    * or lights. For worlds which use their spatial index this also has to cover objects
+    * which are offset or scaled up, since the index only knows about their plain bounds.
+    *
+    * @param padding the padding in world units, 0 by default
+    */
+   public void setCullingPadding(float padding) {
+      this.cullingPadding = padding;
+   }
+
+   /**
+    * @return the number of objects within the world which have not been considered for rendering within the last frame
+    */
+   public int getCulledCount() {
+      return culledCount;
+   }
+
    public void beforeRender() {
       for (BatchResolver<?> resolver : allbatchResolvers) {
          resolver.beforeRender();
@@ -73,24 +202,251 @@ public class GameObjectRenderManager implements Disposable {
    }
 
    public void render(float delta) {
-      Array<GameObject> objects = gameWorld.getObjects(comparator, true);
+      updateRenderList();
+      resolveRenderEntries();
+      if (textureBatchingEnabled) {
+         groupRenderList();
+      }
+      Array<GameObject> objects = renderList;
+      RenderEntry[] entries = renderEntries.items;
+      renderedCount = 0;
+      batchSwitches = 0;
+      BatchResolver<?> lastResolver = null;
+      Object lastBatchKey = null;
       for (int i = 0; i < objects.size; ++i) {
          GameObject object = objects.get(i);
-         final GameObjectRenderer renderer = rendererMap.get(object.getType());
-         if (renderer != null) {
-            BatchResolver<?> batchResolver = batchResolverMap.get(renderer.getBatchClass());
+         final RenderEntry entry = entries[i];
+         if (entry != null) {
+            BatchResolver<?> batchResolver = entry.batchResolver;
             if (batchResolver == null) {
                throw new GdxRuntimeException("Unable to render type=" + object.getType()
-                     + "! Renderer=" + renderer + " provided but no batch resolver registered.");
+                     + "! Renderer=" + entry.renderer + " provided but no batch resolver registered.");
+            }
+            Object batchKey = entry.getBatchKey(object);
+            if (renderedCount > 0 && (batchResolver != lastResolver || batchKey != lastBatchKey)) {
+               batchSwitches++;
             }
-            renderer.render(object, batchResolver.getBatch(), delta);
+            lastResolver = batchResolver;
+            lastBatchKey = batchKey;
+            ((GameObjectRenderer) entry.renderer).render(object, batchResolver.getBatch(), delta);
+            renderedCount++;
+         }
+      }
+   }
+
+   private void resolveRenderEntries() {
+      renderEntries.clear();
+      GameObject[] items = renderList.items;
+      for (int i = 0; i < renderList.size; ++i) {
+         renderEntries.add(rendererMap.get(items[i].getType()));
+      }
+   }
+
+   /**
+    * Groups consecutive objects of equal render order by batch resolver and batch key.
+    * Groups are numbered by first appearance, so the grouping is stable between frames.
+    */
+   private void groupRenderList() {
+      GameObject[] items = renderList.items;
+      batchKeyIds.clear();
+      int start = 0;
+      while (start < renderList.size) {
+         int end = start + 1;
+         while (end < renderList.size && (comparator == null || comparator.compare(items[start], items[end]) == 0)) {
+            end++;
+         }
+         if (end - start > 1) {
+            groupBand(items, start, end);
+         }
+         start = end;
+      }
+   }
+
+   private void groupBand(GameObject[] items, int start, int end) {
+      groupIds.clear();
+      RenderEntry[] entries = renderEntries.items;
+      for (int i = start; i < end; ++i) {
+         groupIds.add(getGroupId(entries[i], items[i]));
+      }
+      int[] ids = groupIds.items;
+      long[] handles = renderHandles.items;
+      for (int i = 1; i < groupIds.size; ++i) {
+         int id = ids[i];
+         GameObject object = items[start + i];
+         long handle = handles[start + i];
+         RenderEntry entry = entries[start + i];
+         int j = i - 1;
+         while (j >= 0 && ids[j] > id) {
+            ids[j + 1] = ids[j];
+            items[start + j + 1] = items[start + j];
+            handles[start + j + 1] = handles[start + j];
+            entries[start + j + 1] = entries[start + j];
+            j--;
+         }
+         ids[j + 1] = id;
+         items[start + j + 1] = object;
+         handles[start + j + 1] = handle;
+         entries[start + j + 1] = entry;
+      }
+   }
+
+   private int getGroupId(RenderEntry entry, GameObject object) {
+      if (entry == null) {
+         return -1;
+      }
+      Object batchKey = entry.getBatchKey(object);
+      // objects without batch key are kept in place relative to each other
+      Object key = batchKey != null ? batchKey : entry;
+      int id = batchKeyIds.get(key, -1);
+      if (id == -1) {
+         id = batchKeyIds.size;
+         batchKeyIds.put(key, id);
+      }
+      return entry.batchResolverIndex * (1 << 20) + id;
+   }
+
+   /**
+    * Synchronizes the render list with the updateable objects of the world. Objects keep
+    * their relative order from the previous frame, new objects get appended.
+    */
+   private void updateRenderList() {
+      final boolean culling = cullingEnabled && camera != null;
+      Array<GameObject> objects;
+      if (culling) {
+         objects = retrieveVisibleObjects();
+      } else {
+         objects = gameWorld.getObjects(null, true);
+         culledCount = 0;
+      }
+      int size = 0;
+      for (int i = 0; i < renderList.size; ++i) {
+         GameObject object = renderList.get(i);
+         long handle = renderHandles.get(i);
+         boolean retained = culling ? visibleObjects.containsKey(handle) : gameWorld.isUpdateable(object);
+         if (object.getHandle() == handle && retained) {
+            renderList.set(size, object);
+            renderHandles.set(size, handle);
+            size++;
+         } else {
+            renderedObjects.remove(handle);
+         }
+      }
+      renderList.truncate(size);
+      renderHandles.setSize(size);
+      for (int i = 0; i < objects.size; ++i) {
+         GameObject object = objects.get(i);
+         long handle = object.getHandle();
+         if (!renderedObjects.containsKey(handle)) {
+            renderedObjects.put(handle, object);
+            renderList.add(object);
+            renderHandles.add(handle);
+         }
+      }
+      sortRenderList();
+   }
+
+   /**
+    * Retrieves all objects whose rendered bounds overlap the (padded) camera view.
+    */
+   private Array<GameObject> retrieveVisibleObjects() {
+      final float left = camera.getLeft() - cullingPadding;
+      final float top = camera.getTop() - cullingPadding;
+      final float width = camera.getScaledCameraWidth() + cullingPadding * 2f;
+      final float height = camera.getScaledCameraHeight() + cullingPadding * 2f;
+      visibleList.clear();
+      visibleObjects.clear();
+      if (gameWorld.isSpatialIndexEnabled()) {
+         gameWorld.queryRect(left, top, width, height, visibleList);
+      } else {
+         visibleList.addAll(gameWorld.getObjects());
+      }
+      int size = 0;
+      for (int i = 0; i < visibleList.size; ++i) {
+         GameObject object = visibleList.get(i);
+         if (isVisible(object, left, top, left + width, top + height)) {
+            visibleList.set(size++, object);
+            visibleObjects.put(object.getHandle(), object);
+         }
+      }
+      visibleList.truncate(size);
+      culledCount = gameWorld.size() - size;
+      return visibleList;
+   }
+
+   /**
+    * Checks if the rendered bounds of the object overlap the given area. The object is
+    * rotated around its origin, or around its center in case no origin is set.
+    */
+   private static boolean isVisible(GameObject object, float left, float top, float right, float bottom) {
+      final boolean hasOrigin = object.getOriginX() != 0f || object.getOriginY() != 0f;
+      final float originX = hasOrigin ? object.getOriginX() : object.getWidth() / 2f;
+      final float originY = hasOrigin ? object.getOriginY() : object.getHeight() / 2f;
+      float centerX = (object.getWidth() / 2f - originX) * object.getScaleX();
+      float centerY = (object.getHeight() / 2f - originY) * object.getScaleY();
+      float extentX = Math.abs(object.getWidth() * object.getScaleX()) / 2f;
+      float extentY = Math.abs(object.getHeight() * object.getScaleY()) / 2f;
+      final float rotation = object.getRotation();
+      if (rotation != 0f) {
+         final float cos = MathUtils.cosDeg(rotation);
+         final float sin = MathUtils.sinDeg(rotation);
+         final float rotatedCenterX = centerX * cos - centerY * sin;
+         centerY = centerX * sin + centerY * cos;
+         centerX = rotatedCenterX;
+         final float rotatedExtentX = Math.abs(cos) * extentX + Math.abs(sin) * extentY;
+         extentY = Math.abs(sin) * extentX + Math.abs(cos) * extentY;
+         extentX = rotatedExtentX;
+      }
+      centerX += object.getLeft() + object.getOffsetX() + originX;
+      centerY += object.getTop() + object.getOffsetY() + originY;
+      return centerX + extentX >= left && centerX - extentX <= right
+            && centerY + extentY >= top && centerY - extentY <= bottom;
+   }
+
+   private void sortRenderList() {
+      if (comparator == null || renderList.size < 2) {
+         return;
+      }
+      GameObject[] items = renderList.items;
+      int misplaced = 0;
+      for (int i = 1; i < renderList.size; ++i) {
+         if (comparator.compare(items[i - 1], items[i]) > 0) {
+            misplaced++;
+         }
+      }
+      if (misplaced == 0) {
+         return;
+      }
+      if (misplaced <= Math.max(MIN_INSERTION_SORT_THRESHOLD, renderList.size / INSERTION_SORT_RATIO)) {
+         for (int i = 1; i < renderList.size; ++i) {
+            GameObject object = items[i];
+            long handle = renderHandles.items[i];
+            int j = i - 1;
+            while (j >= 0 && comparator.compare(items[j], object) > 0) {
+               items[j + 1] = items[j];
+               renderHandles.items[j + 1] = renderHandles.items[j];
+               j--;
+            }
+            items[j + 1] = object;
+            renderHandles.items[j + 1] = handle;
+         }
+      } else {
+         Sort.instance().sort(items, comparator, 0, renderList.size);
+         for (int i = 0; i < renderList.size; ++i) {
+            renderHandles.items[i] = items[i].getHandle();
          }
       }
    }
 
    public void register(Object gameObjectType, GameObjectRenderer<?> renderer) {
       if (!rendererMap.containsKey(gameObjectType)) {
-         rendererMap.put(gameObjectType, renderer);
+         BatchResolver<?> batchResolver = batchResolverMap.get(renderer.getBatchClass());
+         int batchResolverIndex = 0;
+         for (int i = 0; i < allbatchResolvers.length; ++i) {
+            if (allbatchResolvers[i] == batchResolver) {
+               batchResolverIndex = i;
+            }
+         }
+         rendererMap.put(gameObjectType, new RenderEntry(renderer, batchResolver, batchResolverIndex));
       }
    }
 
@@ -100,12 +456,18 @@ public class GameObjectRenderManager implements Disposable {
 
    @Override
    public void dispose() {
-      for (GameObjectRenderer renderer : rendererMap.values()) {
-         if (renderer instanceof Disposable) {
-            ((Disposable) renderer).dispose();
+      for (RenderEntry entry : rendererMap.values()) {
+         if (entry.renderer instanceof Disposable) {
+            ((Disposable) entry.renderer).dispose();
          }
       }
       rendererMap.clear();
+      renderList.clear();
+      renderHandles.clear();
+      renderEntries.clear();
+      renderedObjects.clear();
+      visibleList.clear();
+      visibleObjects.clear();
    }
 
    public interface GameObjectRenderer<BatchType> {
@@ -113,7 +475,35 @@ public class GameObjectRenderManager implements Disposable {
       void render(GameObject object, BatchType batchType, float delta);
    }
 
-   static class CombinedGameObjectRenderer<BatchType> implements GameObjectRenderer<BatchType> {
+   /**
+    * Can be implemented by renderers to expose what they are going to draw with, usually
+    * a texture or atlas page. Objects with the same batch key can be drawn without
+    * flushing the batch in between.
+    */
+   public interface BatchKeyProvider {
+      Object getBatchKey(GameObject object);
+   }
+
+   private static class RenderEntry {
+
+      final GameObjectRenderer<?> renderer;
+      final BatchKeyProvider batchKeyProvider;
+      final BatchResolver<?> batchResolver;
+      final int batchResolverIndex;
+
+      RenderEntry(GameObjectRenderer<?> renderer, BatchResolver<?> batchResolver, int batchResolverIndex) {
+         this.renderer = renderer;
+         this.batchKeyProvider = renderer instanceof BatchKeyProvider ? (BatchKeyProvider) renderer : null;
+         this.batchResolver = batchResolver;
+         this.batchResolverIndex = batchResolverIndex;
+      }
+
+      Object getBatchKey(GameObject object) {
+         return batchKeyProvider != null ? batchKeyProvider.getBatchKey(object) : null;
+      }
+   }
+
+   static class CombinedGameObjectRenderer<BatchType> implements GameObjectRenderer<BatchType>, BatchKeyProvider {
 
       private final GameObjectRenderer<BatchType>[] renderers;
 
@@ -133,6 +523,22 @@ public class GameObjectRenderManager implements Disposable {
          }
       }
 
+      @Override
+      public Object getBatchKey(GameObject object) {
+         Object batchKey = null;
+         for (int i = 0; i < renderers.length; ++i) {
+            if (!(renderers[i] instanceof BatchKeyProvider)) {
+               return null;
+            }
+            Object key = ((BatchKeyProvider) renderers[i]).getBatchKey(object);
+            if (key == null || (batchKey != null && batchKey != key)) {
+               return null;
+            }
+            batchKey = key;
+         }
+         return batchKey;
+      }
+
    }
 
 }
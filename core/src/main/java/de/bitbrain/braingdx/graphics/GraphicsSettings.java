@@ -5,6 +5,7 @@ import com.badlogic.gdx.Preferences;
 import de.bitbrain.braingdx.GameSettings;
 import de.bitbrain.braingdx.event.GameEventManager;
 import de.bitbrain.braingdx.graphics.event.GraphicsSettingsChangeEvent;
+import de.bitbrain.braingdx.graphics.postprocessing.filters.DualKawaseBlur;
 import de.bitbrain.braingdx.graphics.postprocessing.filters.RadialBlur;
 
 import static com.badlogic.gdx.math.MathUtils.floor;
@@ -14,10 +15,12 @@ public class GraphicsSettings {
    public static final String ID = "graphics";
 
    private static final String RADIAL_BLUR_QUALITY = "radialBlurQuality";
+   private static final String BLOOM_QUALITY = "bloomQuality";
    private static final String RENDER_SCALE = "renderScale";
    private static final String PARTICLE_MULTIPLIER = "particleMultiplier";
 
    private RadialBlur.Quality radialBlurQuality;
+   private DualKawaseBlur.Quality bloomQuality;
    private float renderScale;
    private float particleMultiplier;
 
@@ -28,6 +31,8 @@ public class GraphicsSettings {
       Preferences prefs = getPreferences();
       String radialBlurName = prefs.getString(RADIAL_BLUR_QUALITY, RadialBlur.Quality.Medium.name());
       radialBlurQuality = radialBlurName == null ? RadialBlur.Quality.Normal : RadialBlur.Quality.valueOf(radialBlurName);
+      String bloomQualityName = prefs.getString(BLOOM_QUALITY, DualKawaseBlur.Quality.Normal.name());
+      bloomQuality = bloomQualityName == null ? DualKawaseBlur.Quality.Normal : DualKawaseBlur.Quality.valueOf(bloomQualityName);
       renderScale = prefs.getFloat(RENDER_SCALE, 1f);
       particleMultiplier = prefs.getFloat(PARTICLE_MULTIPLIER, 1f);
    }
@@ -35,6 +40,7 @@ public class GraphicsSettings {
    public void save() {
       Preferences prefs = getPreferences();
       prefs.putString(RADIAL_BLUR_QUALITY, radialBlurQuality.name());
+      prefs.putString(BLOOM_QUALITY, bloomQuality.name());
       prefs.putFloat(RENDER_SCALE, renderScale);
       prefs.putFloat(PARTICLE_MULTIPLIER, particleMultiplier);
       prefs.flush();
@@ -67,6 +73,19 @@ public class GraphicsSettings {
       return this;
    }
 
+   /**
+    * @return the quality of bloom effects which blur along a mip chain
+    */
+   public DualKawaseBlur.Quality getBloomQuality() {
+      return bloomQuality;
+   }
+
+   public GraphicsSettings setBloomQuality(DualKawaseBlur.Quality quality) {
+      this.bloomQuality = quality;
+      gameEventManager.publish(new GraphicsSettingsChangeEvent());
+      return this;
+   }
+
    public float getRenderScale() {
       return renderScale;
    }
@@ -0,0 +1,64 @@
+package de.bitbrain.braingdx.graphics;
+
+import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+/**
+ * Wraps a {@link BatchResolver} in order to provide the number of flushes of its batch.
+ * Flushes are known for {@link SpriteBatch} and {@link PolygonSpriteBatch}, every flush
+ * results in a draw call.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class ProfilingBatchResolver<T> implements BatchResolver<T> {
+
+   private final BatchResolver<T> resolver;
+
+   public ProfilingBatchResolver(BatchResolver<T> resolver) {
+      this.resolver = resolver;
+   }
+
+   public BatchResolver<T> getResolver() {
+      return resolver;
+   }
+
+   /**
+    * @return the total number of flushes of the batch so far or 0 if the batch does not provide them
+    */
+   public int getFlushCount() {
+      T batch = resolver.getBatch();
+      if (batch instanceof SpriteBatch) {
+         return ((SpriteBatch) batch).totalRenderCalls;
+      }
+      if (batch instanceof PolygonSpriteBatch) {
+         return ((PolygonSpriteBatch) batch).totalRenderCalls;
+      }
+      return 0;
+   }
+
+   @Override
+   public void beforeRender() {
+      resolver.beforeRender();
+   }
+
+   @Override
+   public Class<T> getBatchClass() {
+      return resolver.getBatchClass();
+   }
+
+   @Override
+   public T getBatch() {
+      return resolver.getBatch();
+   }
+
+   @Override
+   public void begin() {
+      resolver.begin();
+   }
+
+   @Override
+   public void end() {
+      resolver.end();
+   }
+}
@@ -0,0 +1,218 @@
+package de.bitbrain.braingdx.graphics;
+
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import de.bitbrain.braingdx.graphics.postprocessing.utils.PingPongBuffer;
+
+/**
+ * Shares frame buffers of equal size between render passes. Buffers are leased via
+ * {@link #obtainFrameBuffer(int, int)} or {@link #obtainPingPongBuffer(int, int)} and have
+ * to be handed back via {@link #free(FrameBuffer)} or {@link #free(PingPongBuffer)} as soon
+ * as their content is no longer needed, so subsequent passes of the same frame can reuse them.
+ * <p>
+ * {@link #endFrame()} has to be called once per frame. It takes back buffers which are still
+ * leased and disposes buffers which have not been used for {@value #EVICTION_FRAMES} frames,
+ * e.g. after the screen has been resized.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class RenderTargetPool implements Disposable {
+
+   static final int EVICTION_FRAMES = 60;
+
+   private final FrameBufferFactory factory;
+   private final ObjectMap<FrameBuffer, Target> targets = new ObjectMap<FrameBuffer, Target>();
+   private final LongMap<Array<Target>> freeTargets = new LongMap<Array<Target>>();
+   private final Array<Target> leasedTargets = new Array<Target>(false, 8);
+   private final Array<PingPongBuffer> leasedPingPongBuffers = new Array<PingPongBuffer>(false, 4);
+   private final Array<PingPongBuffer> freePingPongBuffers = new Array<PingPongBuffer>(false, 4);
+   private int width;
+   private int height;
+   private long frame;
+
+   public RenderTargetPool(FrameBufferFactory factory) {
+      this.factory = factory;
+   }
+
+   /**
+    * Sets the size of buffers which are obtained without explicit size.
+    */
+   public void setSize(int width, int height) {
+      this.width = width;
+      this.height = height;
+   }
+
+   public int getWidth() {
+      return width;
+   }
+
+   public int getHeight() {
+      return height;
+   }
+
+   public FrameBuffer obtainFrameBuffer() {
+      return obtainFrameBuffer(width, height);
+   }
+
+   /**
+    * Leases a frame buffer of the given size. The content of the buffer is undefined.
+    *
+    * @return the frame buffer or null in case the factory is unable to provide one of that size
+    */
+   public FrameBuffer obtainFrameBuffer(int width, int height) {
+      final long key = keyOf(width, height);
+      Array<Target> free = freeTargets.get(key);
+      Target target;
+      if (free != null && free.size > 0) {
+         target = free.pop();
+      } else {
+         FrameBuffer buffer = factory.create(width, height);
+         if (buffer == null) {
+            return null;
+         }
+         target = new Target(buffer, key);
+         targets.put(buffer, target);
+      }
+      target.leased = true;
+      target.lastLeasedFrame = frame;
+      leasedTargets.add(target);
+      return target.buffer;
+   }
+
+   /**
+    * Hands back a frame buffer which has been obtained from this pool.
+    */
+   public void free(FrameBuffer buffer) {
+      Target target = targets.get(buffer);
+      if (target == null) {
+         throw new GdxRuntimeException("Unable to free frame buffer which has not been obtained from this pool.");
+      }
+      if (target.leased) {
+         leasedTargets.removeValue(target, true);
+         release(target);
+      }
+   }
+
+   public PingPongBuffer obtainPingPongBuffer() {
+      return obtainPingPongBuffer(width, height);
+   }
+
+   /**
+    * Leases a ping pong buffer which consists of two frame buffers of the given size.
+    *
+    * @return the ping pong buffer or null in case the factory is unable to provide buffers of that size
+    */
+   public PingPongBuffer obtainPingPongBuffer(int width, int height) {
+      FrameBuffer first = obtainFrameBuffer(width, height);
+      if (first == null) {
+         return null;
+      }
+      FrameBuffer second = obtainFrameBuffer(width, height);
+      if (second == null) {
+         free(first);
+         return null;
+      }
+      PingPongBuffer buffer;
+      if (freePingPongBuffers.size > 0) {
+         buffer = freePingPongBuffers.pop();
+         buffer.set(first, second);
+      } else {
+         buffer = new PingPongBuffer(first, second);
+      }
+      leasedPingPongBuffers.add(buffer);
+      return buffer;
+   }
+
+   /**
+    * Hands back a ping pong buffer which has been obtained from this pool.
+    */
+   public void free(PingPongBuffer buffer) {
+      if (leasedPingPongBuffers.removeValue(buffer, true)) {
+         free(buffer.buffer1);
+         free(buffer.buffer2);
+         freePingPongBuffers.add(buffer);
+      }
+   }
+
+   /**
+    * Takes back all buffers which are still leased and disposes buffers which
+    * have not been used for a while.
+    */
+   public void endFrame() {
+      freePingPongBuffers.addAll(leasedPingPongBuffers);
+      leasedPingPongBuffers.clear();
+      for (int i = 0; i < leasedTargets.size; ++i) {
+         release(leasedTargets.get(i));
+      }
+      leasedTargets.clear();
+      frame++;
+      for (Array<Target> free : freeTargets.values()) {
+         for (int i = free.size - 1; i >= 0; --i) {
+            Target target = free.get(i);
+            if (frame - target.lastLeasedFrame > EVICTION_FRAMES) {
+               free.removeIndex(i);
+               targets.remove(target.buffer);
+               target.buffer.dispose();
+            }
+         }
+      }
+   }
+
+   /**
+    * @return the number of frame buffers currently allocated by this pool
+    */
+   public int getAllocatedCount() {
+      return targets.size;
+   }
+
+   /**
+    * @return the number of frame buffers currently leased from this pool
+    */
+   public int getLeasedCount() {
+      return leasedTargets.size;
+   }
+
+   @Override
+   public void dispose() {
+      for (Target target : targets.values()) {
+         target.buffer.dispose();
+      }
+      targets.clear();
+      freeTargets.clear();
+      leasedTargets.clear();
+      leasedPingPongBuffers.clear();
+      freePingPongBuffers.clear();
+   }
+
+   private void release(Target target) {
+      target.leased = false;
+      Array<Target> free = freeTargets.get(target.key);
+      if (free == null) {
+         free = new Array<Target>(false, 4);
+         freeTargets.put(target.key, free);
+      }
+      free.add(target);
+   }
+
+   private static long keyOf(int width, int height) {
+      return ((long) width << 32) | (height & 0xFFFFFFFFL);
+   }
+
+   private static class Target {
+
+      final FrameBuffer buffer;
+      final long key;
+      boolean leased;
+      long lastLeasedFrame;
+
+      Target(FrameBuffer buffer, long key) {
+         this.buffer = buffer;
+         this.key = key;
+      }
+   }
+}
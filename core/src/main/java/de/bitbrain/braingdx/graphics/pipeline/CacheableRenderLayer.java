@@ -0,0 +1,20 @@
+package de.bitbrain.braingdx.graphics.pipeline;
+
+/**
+ * A render layer which reports whether it has changed since it has been rendered the last
+ * time. Only such layers are considered for caching by the {@link CombinedRenderPipeline},
+ * any other layer is rendered every frame.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public interface CacheableRenderLayer<BatchType> extends RenderLayer<BatchType> {
+
+   /**
+    * Layers which are not dirty have not changed since they have been rendered the last time.
+    * Their output might be taken from a cache instead of rendering them again.
+    *
+    * @return true if the layer has to be rendered again
+    */
+   boolean isDirty();
+}
@@ -15,12 +15,16 @@
 
 package de.bitbrain.braingdx.graphics.pipeline;
 
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import de.bitbrain.braingdx.graphics.BatchResolver;
+import de.bitbrain.braingdx.graphics.RenderTargetPool;
 import de.bitbrain.braingdx.graphics.postprocessing.PostProcessor;
 import de.bitbrain.braingdx.graphics.postprocessing.PostProcessorEffect;
+import de.bitbrain.braingdx.graphics.postprocessing.PostProcessorEffectListener;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusedProgramCache;
 import de.bitbrain.braingdx.util.Resizeable;
 
 import java.util.Map;
@@ -31,15 +35,20 @@ class CombinedRenderPipe implements RenderPipe, Resizeable {
 
    private final PostProcessor batchPostProcessor;
    private final SpriteBatch batch;
+   private final OrthographicCamera camera;
    private boolean enabled = true;
+   private boolean changed = true;
 
    private final Map<Class<?>, BatchResolver<?>> batchResolverMap;
 
-   public CombinedRenderPipe(RenderLayer layer, PostProcessor processor, SpriteBatch batch, Map<Class<?>, BatchResolver<?>> batchResolverMap,
-                             PostProcessorEffect... effects) {
+   public CombinedRenderPipe(RenderLayer layer, RenderTargetPool pool, FusedProgramCache fusedProgramCache,
+                             SpriteBatch batch, OrthographicCamera camera,
+                             Map<Class<?>, BatchResolver<?>> batchResolverMap, PostProcessorEffect... effects) {
       this.layer = layer;
-      this.batchPostProcessor = new PostProcessor(effects);
+      this.batchPostProcessor = new PostProcessor(pool, effects);
+      batchPostProcessor.setFusedProgramCache(fusedProgramCache);
       this.batch = batch;
+      this.camera = camera;
       this.batchResolverMap = batchResolverMap;
    }
 
@@ -50,6 +59,9 @@ class CombinedRenderPipe implements RenderPipe, Resizeable {
 
    @Override
    public void setEnabled(boolean enabled) {
+      if (this.enabled != enabled) {
+         changed = true;
+      }
       this.enabled = enabled;
    }
 
@@ -69,6 +81,37 @@ class CombinedRenderPipe implements RenderPipe, Resizeable {
       return batchPostProcessor.hasEffects();
    }
 
+   /**
+    * @return true if the output of this pipe can be taken from a cache, since it has no
+    * effects and its layer has not changed since it has been rendered the last time
+    */
+   boolean isCacheable() {
+      return !batchPostProcessor.hasEffects() && (!enabled
+            || layer instanceof CacheableRenderLayer && !((CacheableRenderLayer<?>) layer).isDirty());
+   }
+
+   /**
+    * @return true if this pipe has been enabled or disabled since {@link #setChanged(boolean)}
+    */
+   boolean isChanged() {
+      return changed;
+   }
+
+   void setChanged(boolean changed) {
+      this.changed = changed;
+   }
+
+   /**
+    * @return the batch resolver of the layer or null if there is none
+    */
+   BatchResolver<?> getBatchResolver() {
+      return batchResolverMap.get(layer.getBatchCass());
+   }
+
+   void setEffectListener(PostProcessorEffectListener listener) {
+      batchPostProcessor.setEffectListener(listener);
+   }
+
    @Override
    public RenderLayer<?> getLayer() {
       return layer;
@@ -81,25 +124,38 @@ class CombinedRenderPipe implements RenderPipe, Resizeable {
 
    @Override
    public void render(float delta, FrameBuffer buffer) {
+      render(delta, buffer, buffer);
+   }
+
+   /**
+    * Renders the layer on top of the source and writes the result into the target.
+    *
+    * @param source the buffer containing all previous layers or null
+    * @param target the buffer to render into or null to render to screen
+    */
+   void render(float delta, FrameBuffer source, FrameBuffer target) {
       if (isEnabled()) {
-         BatchResolver<?> batchResolver = batchResolverMap.get(layer.getBatchCass());
+         BatchResolver<?> batchResolver = getBatchResolver();
          if (batchResolver == null) {
             throw new GdxRuntimeException("No batch resolver defined for type=" + layer.getBatchCass());
          }
          Object batch = batchResolver.getBatch();
-         if (buffer == null) {
-            layer.render(batch, delta);
-         } else if (batchPostProcessor.hasEffects()) {
+         if (batchPostProcessor.hasEffects()) {
             batchPostProcessor.begin();
-            this.batch.begin();
-            this.batch.draw(buffer.getColorBufferTexture(), 0f, 0f);
-            this.batch.end();
+            if (source != null) {
+               this.batch.begin();
+               // the source might be of lower resolution than the screen
+               this.batch.draw(source.getColorBufferTexture(), 0f, 0f, camera.viewportWidth, camera.viewportHeight);
+               this.batch.end();
+            }
+            layer.render(batch, delta);
+            batchPostProcessor.end(target);
+         } else if (target == null) {
             layer.render(batch, delta);
-            batchPostProcessor.end(buffer);
          } else {
-            buffer.begin();
+            target.begin();
             layer.render(batch, delta);
-            buffer.end();
+            target.end();
          }
       }
    }
@@ -26,8 +26,11 @@ import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.math.Rectangle;
 import de.bitbrain.braingdx.graphics.BatchResolver;
 import de.bitbrain.braingdx.graphics.FrameBufferFactory;
+import de.bitbrain.braingdx.graphics.ProfilingBatchResolver;
+import de.bitbrain.braingdx.graphics.RenderTargetPool;
 import de.bitbrain.braingdx.graphics.postprocessing.PostProcessor;
 import de.bitbrain.braingdx.graphics.postprocessing.PostProcessorEffect;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusedProgramCache;
 import de.bitbrain.braingdx.graphics.shader.ShaderConfig;
 import de.bitbrain.braingdx.util.ShaderLoader;
 import org.apache.commons.collections.map.ListOrderedMap;
@@ -41,6 +44,24 @@ import java.util.*;
  * <pre>
  * <code>{layer1}{layer2}{layer3}{end-layer3}{end-layer2}{end-layer1}</code>
  * </pre>
+ * <p>
+ * Layers are composed within a single buffer which is only required up to the last layer with
+ * effects. That layer renders its effects directly to screen, all further layers are rendered
+ * to screen without intermediate copies. Buffers are leased from a {@link RenderTargetPool}
+ * which is shared by all layers, so they are reused from one layer to the next.
+ * <p>
+ * With a render scale other than 1 (see {@link #setRenderScale(float)}) layers are composed at
+ * scaled resolution and only get scaled to screen size when composed onto the screen. Layers after the last
+ * layer with effects are rendered at full resolution, unless there are no effects at all.
+ * <p>
+ * Leading layers without effects which are not dirty (see {@link CacheableRenderLayer#isDirty()}) are
+ * composed into a retained buffer once. As long as they stay clean, this buffer is reused
+ * instead of rendering these layers again.
+ * <p>
+ * Adjacent fusible effects of a pipe are rendered within a single pass, see
+ * {@link PostProcessor#setFusedProgramCache(FusedProgramCache)}.
+ * <p>
+ * Each pipe can be profiled, see {@link #setProfilingEnabled(boolean)}.
  *
  * @author Miguel Gonzalez Sanchez
  * @version 1.0.0
@@ -51,46 +72,34 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
 
    private final ListOrderedMap orderedPipes = new ListOrderedMap();
    private final List<CombinedRenderPipe> pipes = new ArrayList<CombinedRenderPipe>();
+   private final List<String> pipeIds = new ArrayList<String>();
 
    private final PostProcessor processor;
 
+   private final RenderTargetPool pool;
+   private final FusedProgramCache fusedProgramCache = new FusedProgramCache();
    private final FrameBufferFactory bufferFactory;
+   private FrameBuffer cache;
+   private int cacheWidth;
+   private int cacheHeight;
+   private int cachedPipeCount;
+   private final RenderPipelineProfiler profiler = new RenderPipelineProfiler();
+   private boolean profilingEnabled;
 
    private final ShaderConfig config;
    private final SpriteBatch internalBatch;
-   private FrameBuffer buffer;
    private OrthographicCamera camera;
-   private boolean hasEffects;
-   private int bufferWidth;
-   private int bufferHeight;
+   private float renderScale = 1f;
+   private int width;
+   private int height;
    private final Map<Class<?>, BatchResolver<?>> batchResolverMap = new HashMap<Class<?>, BatchResolver<?>>();
 
    CombinedRenderPipeline(ShaderConfig config, SpriteBatch internalBatch, OrthographicCamera camera, BatchResolver[] batchResolvers) {
-      this(config, new PostProcessor(true, true, isDesktop), new FrameBufferFactory() {
-
-         @Override
-         public FrameBuffer create(int width, int height) {
-            if (width < 1 || height < 1) {
-               return null;
-            }
-            return new FrameBuffer(Format.RGBA8888, Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), false);
-         }
-
-      }, internalBatch, camera, batchResolvers);
+      this(config, new PostProcessor(true, isDesktop), new ScreenFrameBufferFactory(), internalBatch, camera, batchResolvers);
    }
 
    public CombinedRenderPipeline(ShaderConfig config, BatchResolver[] batchResolvers) {
-      this(config, new PostProcessor(true, true, isDesktop), new FrameBufferFactory() {
-
-         @Override
-         public FrameBuffer create(int width, int height) {
-            if (width < 1 || height < 1) {
-               return null;
-            }
-            return new FrameBuffer(Format.RGBA8888, Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), false);
-         }
-
-      }, new SpriteBatch(), new OrthographicCamera(), batchResolvers);
+      this(config, new PostProcessor(true, isDesktop), new ScreenFrameBufferFactory(), new SpriteBatch(), new OrthographicCamera(), batchResolvers);
    }
 
    CombinedRenderPipeline(ShaderConfig config, PostProcessor processor, FrameBufferFactory factory,
@@ -99,17 +108,21 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
       ShaderLoader.BasePath = this.config.basePath;
       ShaderLoader.PathResolver = this.config.pathResolver;
       this.processor = processor;
+      this.pool = new RenderTargetPool(factory);
       this.bufferFactory = factory;
       this.internalBatch = internalBatch;
       this.camera = camera;
       for (BatchResolver resolver : batchResolvers) {
-         batchResolverMap.put(resolver.getBatchClass(), resolver);
+         batchResolverMap.put(resolver.getBatchClass(), new ProfilingBatchResolver(resolver));
       }
    }
 
    @Override
    public void dispose() {
       processor.dispose();
+      pool.dispose();
+      fusedProgramCache.dispose();
+      disposeCache();
    }
 
    @SuppressWarnings("unchecked")
@@ -119,21 +132,54 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
          pipes.get(i).resize(width, height);
       }
       processor.setViewport(new Rectangle(0f, 0f, width, height));
-      if (buffer != null) {
-         buffer.dispose();
-      }
-      this.bufferWidth = width;
-      this.bufferHeight = height;
+      this.width = width;
+      this.height = height;
+      pool.setSize(scale(width), scale(height));
       camera.setToOrtho(true, width, height);
+      cachedPipeCount = 0;
+   }
+
+   /**
+    * Sets the resolution at which layers are composed, relative to the screen. Effects
+    * should be created for the same resolution, see {@link de.bitbrain.braingdx.graphics.GraphicsSettings#getScaledRenderWidth()}.
+    *
+    * @param renderScale the scale of the composition, 1 by default
+    */
+   public void setRenderScale(float renderScale) {
+      if (renderScale <= 0f) {
+         throw new IllegalArgumentException("Render scale has to be greater than 0 but was " + renderScale);
+      }
+      this.renderScale = renderScale;
+      pool.setSize(scale(width), scale(height));
+   }
+
+   public float getRenderScale() {
+      return renderScale;
+   }
+
+   /**
+    * Records statistics of each pipe per frame, see {@link #getProfiler()}. Disabled by default.
+    */
+   public void setProfilingEnabled(boolean profilingEnabled) {
+      this.profilingEnabled = profilingEnabled;
+      for (int i = 0; i < pipes.size(); ++i) {
+         pipes.get(i).setEffectListener(profilingEnabled ? profiler : null);
+      }
+   }
+
+   public boolean isProfilingEnabled() {
+      return profilingEnabled;
+   }
+
+   public RenderPipelineProfiler getProfiler() {
+      return profiler;
    }
 
    @Override
    public void put(String id, RenderLayer layer, PostProcessorEffect... effects) {
-      CombinedRenderPipe pipe = new CombinedRenderPipe(layer, processor, internalBatch, batchResolverMap, effects);
+      CombinedRenderPipe pipe = new CombinedRenderPipe(layer, pool, fusedProgramCache, internalBatch, camera, batchResolverMap, effects);
       orderedPipes.put(id, pipe);
-      this.hasEffects = hasEffects || effects.length > 0;
-      pipes.clear();
-      pipes.addAll(orderedPipes.valueList());
+      refreshPipes();
    }
 
    @Override
@@ -143,10 +189,8 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
          Gdx.app.error("FATAL", "Unable add layer '" + id + "'!");
          return;
       }
-      orderedPipes.put(index + 1, id, new CombinedRenderPipe(layer, processor, internalBatch, batchResolverMap, effects));
-      this.hasEffects = hasEffects || effects.length > 0;
-      pipes.clear();
-      pipes.addAll(orderedPipes.valueList());
+      orderedPipes.put(index + 1, id, new CombinedRenderPipe(layer, pool, fusedProgramCache, internalBatch, camera, batchResolverMap, effects));
+      refreshPipes();
    }
 
    @Override
@@ -156,10 +200,8 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
          Gdx.app.error("FATAL", "Unable add layer '" + id + "'!");
          return;
       }
-      orderedPipes.put(index, id, new CombinedRenderPipe(layer, processor, internalBatch, batchResolverMap, effects));
-      this.hasEffects = hasEffects || effects.length > 0;
-      pipes.clear();
-      pipes.addAll(orderedPipes.valueList());
+      orderedPipes.put(index, id, new CombinedRenderPipe(layer, pool, fusedProgramCache, internalBatch, camera, batchResolverMap, effects));
+      refreshPipes();
    }
 
    @Override
@@ -170,15 +212,7 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
          return;
       }
       orderedPipes.remove(existingSourceId);
-      for (Object o : orderedPipes.valueList()) {
-         CombinedRenderPipe pipe = (CombinedRenderPipe) o;
-         if (pipe.hasEffects()) {
-            return;
-         }
-      }
-      this.hasEffects = false;
-      pipes.clear();
-      pipes.addAll(orderedPipes.valueList());
+      refreshPipes();
    }
 
    @Override
@@ -190,8 +224,7 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
       }
       getPipe(existingSourceId).setEffects(effects);
       orderedPipes.remove(existingSourceId);
-      pipes.clear();
-      pipes.addAll(orderedPipes.valueList());
+      refreshPipes();
    }
 
    @Override
@@ -209,8 +242,7 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
       remove(existingSourceId);
       int index = orderedPipes.indexOf(existingTargetId);
       orderedPipes.put(index, existingSourceId, sourcePipe);
-      pipes.clear();
-      pipes.addAll(orderedPipes.valueList());
+      refreshPipes();
    }
 
    @Override
@@ -228,8 +260,7 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
       remove(existingSourceId);
       int index = orderedPipes.indexOf(existingTargetId);
       orderedPipes.put(index + 1, existingSourceId, sourcePipe);
-      pipes.clear();
-      pipes.addAll(orderedPipes.valueList());
+      refreshPipes();
    }
 
    @Override
@@ -237,7 +268,6 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
       RenderPipe pipe = getPipe(existingSourceId);
       if (pipe != null) {
          pipe.addEffects(effects);
-         this.hasEffects = hasEffects || effects.length > 0;
       }
    }
 
@@ -255,28 +285,171 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
    @SuppressWarnings("unchecked")
    @Override
    public void render(float delta) {
-      if (buffer == null && hasEffects) {
-         buffer = bufferFactory.create(this.bufferWidth, this.bufferHeight);
-      } else if (buffer != null && !hasEffects) {
-         buffer.dispose();
-         buffer = null;
+      for (int i = 0; i < pipes.size(); ++i) {
+         pipes.get(i).beforeRender();
+      }
+      internalBatch.setProjectionMatrix(camera.combined);
+      internalBatch.setColor(Color.WHITE);
+      final int cachedPipes = updateCache(delta);
+      final boolean scaled = renderScale != 1f;
+      int lastComposedPipe = indexOfLastEffectPipe();
+      if (lastComposedPipe < 0 && scaled) {
+         lastComposedPipe = indexOfLastEnabledPipe();
+      }
+      if (lastComposedPipe < cachedPipes) {
+         // the cache already contains everything which needs to be composed
+         lastComposedPipe = -1;
+      }
+      // layers with effects render to screen on their own, others need to be copied
+      final boolean copyToScreen = lastComposedPipe >= 0 && !pipes.get(lastComposedPipe).hasEffects();
+      FrameBuffer buffer = null;
+      // the first layer with effects has nothing to compose with
+      if (lastComposedPipe > 0 || copyToScreen) {
+         buffer = pool.obtainFrameBuffer();
+         if (cachedPipes > 0) {
+            copyBuffer(cache, buffer);
+         } else {
+            clearBuffer(buffer);
+         }
+      } else if (cachedPipes > 0) {
+         drawBuffer(cache);
+      }
+      for (int i = cachedPipes; i < pipes.size(); ++i) {
+         if (i < lastComposedPipe || (i == lastComposedPipe && copyToScreen)) {
+            renderPipe(i, delta, buffer, buffer);
+         } else if (i == lastComposedPipe) {
+            renderPipe(i, delta, buffer, null);
+         } else {
+            renderPipe(i, delta, null, null);
+         }
+         if (i == lastComposedPipe && copyToScreen && buffer != null) {
+            drawBuffer(buffer);
+         }
       }
-      clearBuffer();
+      if (buffer != null) {
+         pool.free(buffer);
+      }
+      pool.endFrame();
+      if (profilingEnabled) {
+         profiler.endFrame(pipeIds);
+      }
+   }
+
+   /**
+    * @return the pool which provides buffers to all layers of this pipeline
+    */
+   public RenderTargetPool getRenderTargetPool() {
+      return pool;
+   }
+
+   /**
+    * Composes all leading pipes which are cacheable into the cache, unless it
+    * is still up to date.
+    *
+    * @return the number of pipes which are contained in the cache
+    */
+   private int updateCache(float delta) {
+      int count = 0;
+      while (count < pipes.size() && pipes.get(count).isCacheable()) {
+         count++;
+      }
+      if (count == 0) {
+         disposeCache();
+         return 0;
+      }
+      if (cache == null || cacheWidth != pool.getWidth() || cacheHeight != pool.getHeight()) {
+         disposeCache();
+         cache = bufferFactory.create(pool.getWidth(), pool.getHeight());
+         if (cache == null) {
+            return 0;
+         }
+         cacheWidth = pool.getWidth();
+         cacheHeight = pool.getHeight();
+      }
+      boolean upToDate = cachedPipeCount == count;
+      for (int i = 0; i < count && upToDate; ++i) {
+         upToDate = !pipes.get(i).isChanged();
+      }
+      if (!upToDate) {
+         clearBuffer(cache);
+         for (int i = 0; i < count; ++i) {
+            renderPipe(i, delta, cache, cache);
+            pipes.get(i).setChanged(false);
+         }
+         cachedPipeCount = count;
+      }
+      return count;
+   }
+
+   private void renderPipe(int index, float delta, FrameBuffer source, FrameBuffer target) {
+      CombinedRenderPipe pipe = pipes.get(index);
+      if (profilingEnabled) {
+         profiler.beginPipe(pipeIds.get(index), pipe.getBatchResolver());
+         pipe.render(delta, source, target);
+         profiler.endPipe(pipe.getBatchResolver());
+      } else {
+         pipe.render(delta, source, target);
+      }
+   }
+
+   private void disposeCache() {
+      if (cache != null) {
+         cache.dispose();
+         cache = null;
+      }
+      cachedPipeCount = 0;
+   }
+
+   @SuppressWarnings("unchecked")
+   private void refreshPipes() {
+      pipes.clear();
+      pipes.addAll(orderedPipes.valueList());
+      pipeIds.clear();
+      pipeIds.addAll(orderedPipes.keyList());
       for (int i = 0; i < pipes.size(); ++i) {
+         pipes.get(i).setEffectListener(profilingEnabled ? profiler : null);
+      }
+      cachedPipeCount = 0;
+   }
+
+   private int indexOfLastEffectPipe() {
+      for (int i = pipes.size() - 1; i >= 0; --i) {
          CombinedRenderPipe pipe = pipes.get(i);
-         pipe.beforeRender();
-         pipe.render(delta, buffer);
+         if (pipe.isEnabled() && pipe.hasEffects()) {
+            return i;
+         }
       }
-      if (hasEffects) {
-         internalBatch.setProjectionMatrix(camera.combined);
-         internalBatch.begin();
-         internalBatch.setColor(Color.WHITE);
-         internalBatch.draw(buffer.getColorBufferTexture(), 0f, 0f);
-         internalBatch.end();
+      return -1;
+   }
+
+   private int indexOfLastEnabledPipe() {
+      for (int i = pipes.size() - 1; i >= 0; --i) {
+         if (pipes.get(i).isEnabled()) {
+            return i;
+         }
       }
+      return -1;
    }
 
-   private void clearBuffer() {
+   private int scale(int size) {
+      return Math.max(1, (int) Math.floor(size * renderScale));
+   }
+
+   private void drawBuffer(FrameBuffer buffer) {
+      internalBatch.begin();
+      internalBatch.draw(buffer.getColorBufferTexture(), 0f, 0f, camera.viewportWidth, camera.viewportHeight);
+      internalBatch.end();
+   }
+
+   private void copyBuffer(FrameBuffer source, FrameBuffer target) {
+      target.begin();
+      internalBatch.disableBlending();
+      drawBuffer(source);
+      internalBatch.enableBlending();
+      target.end();
+   }
+
+   private void clearBuffer(FrameBuffer buffer) {
       if (buffer != null) {
          buffer.begin();
          Gdx.gl.glClearColor(0f, 0f, 0f, 0f);
@@ -288,4 +461,18 @@ public class CombinedRenderPipeline implements InternalRenderPipeline {
    private RenderPipe getPipe(String id) {
       return (RenderPipe) (orderedPipes.containsKey(id) ? orderedPipes.get(id) : null);
    }
+
+   /**
+    * Creates frame buffers of the requested size.
+    */
+   private static class ScreenFrameBufferFactory implements FrameBufferFactory {
+
+      @Override
+      public FrameBuffer create(int width, int height) {
+         if (width < 1 || height < 1) {
+            return null;
+         }
+         return new FrameBuffer(Format.RGBA8888, width, height, false);
+      }
+   }
 }
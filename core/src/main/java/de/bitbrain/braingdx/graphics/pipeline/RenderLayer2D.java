@@ -2,7 +2,7 @@ package de.bitbrain.braingdx.graphics.pipeline;
 
 import com.badlogic.gdx.graphics.g2d.Batch;
 
-public abstract class RenderLayer2D implements RenderLayer<Batch> {
+public abstract class RenderLayer2D implements CacheableRenderLayer<Batch> {
 
    @Override
    public void beforeRender() {
@@ -13,4 +13,13 @@ public abstract class RenderLayer2D implements RenderLayer<Batch> {
    public Class<Batch> getBatchCass() {
       return Batch.class;
    }
+
+   /**
+    * Layers are dirty by default, since they might change every frame. Subclasses which
+    * know when their output changes can override this to allow caching.
+    */
+   @Override
+   public boolean isDirty() {
+      return true;
+   }
 }
@@ -2,10 +2,19 @@ package de.bitbrain.braingdx.graphics.pipeline;
 
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
 
-public abstract class RenderLayer3D implements RenderLayer<ModelBatch> {
+public abstract class RenderLayer3D implements CacheableRenderLayer<ModelBatch> {
 
    @Override
    public Class<ModelBatch> getBatchCass() {
       return ModelBatch.class;
    }
+
+   /**
+    * Layers are dirty by default, since they might change every frame. Subclasses which
+    * know when their output changes can override this to allow caching.
+    */
+   @Override
+   public boolean isDirty() {
+      return true;
+   }
 }
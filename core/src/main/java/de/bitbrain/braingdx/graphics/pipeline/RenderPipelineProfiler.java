@@ -0,0 +1,419 @@
+package de.bitbrain.braingdx.graphics.pipeline;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.graphics.glutils.GLVersion;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectFloatMap;
+import com.badlogic.gdx.utils.OrderedMap;
+import de.bitbrain.braingdx.graphics.BatchResolver;
+import de.bitbrain.braingdx.graphics.ProfilingBatchResolver;
+import de.bitbrain.braingdx.graphics.postprocessing.AutoReloadPostProcessorEffect;
+import de.bitbrain.braingdx.graphics.postprocessing.PostProcessorEffect;
+import de.bitbrain.braingdx.graphics.postprocessing.PostProcessorEffectListener;
+import de.bitbrain.braingdx.util.RollingPercentiles;
+
+import java.nio.IntBuffer;
+import java.util.List;
+
+/**
+ * Records statistics of every pipe of a {@link CombinedRenderPipeline} per frame and keeps
+ * them over a rolling window of frames:
+ * <ul>
+ * <li>the CPU time of each pipe and each of its effects in milliseconds</li>
+ * <li>the number of flushes of the batch of each pipe (see {@link ProfilingBatchResolver})</li>
+ * <li>draw calls and texture bindings, in case a {@link GLProfiler} is enabled</li>
+ * </ul>
+ * Pipes which are not rendered within a frame, e.g. since they are cached, record zero.
+ * <p>
+ * GL commands are executed asynchronously, so CPU time only covers their submission. On GL30
+ * contexts which support timer queries the time the GPU needs for each pipe can be measured as
+ * well, see {@link #setGpuTimingEnabled(boolean)}.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class RenderPipelineProfiler implements PostProcessorEffectListener {
+
+   public interface Listener {
+
+      /**
+       * Called once per frame after all pipes have been profiled.
+       */
+      void onFrameProfiled(RenderPipelineProfiler profiler);
+   }
+
+   public static final int DEFAULT_WINDOW_SIZE = 120;
+
+   private static final float NANOS_PER_MILLI = 1000000f;
+   // GL_EXT_disjoint_timer_query / GL_ARB_timer_query / GL 3.3, not part of GLES 3.0
+   private static final int GL_TIME_ELAPSED = 0x88BF;
+
+   private final int windowSize;
+   private final OrderedMap<String, PipeStatistics> statistics = new OrderedMap<String, PipeStatistics>();
+   private final Array<Listener> listeners = new Array<Listener>(false, 4);
+   private final ObjectFloatMap<String> frameEffectTimes = new ObjectFloatMap<String>();
+   private final GpuQueries[] gpuQueries = new GpuQueries[]{new GpuQueries(), new GpuQueries()};
+   private GLProfiler glProfiler;
+   private boolean gpuTimingEnabled;
+   private int currentGpuQueries;
+   private boolean gpuQueryActive;
+   private Boolean gpuTimingSupported;
+
+   private PipeStatistics current;
+   private long pipeStartTime;
+   private long effectStartTime;
+   private int startFlushes;
+   private int startDrawCalls;
+   private int startTextureBindings;
+
+   public RenderPipelineProfiler() {
+      this(DEFAULT_WINDOW_SIZE);
+   }
+
+   /**
+    * @param windowSize the number of most recent frames statistics are kept for
+    */
+   public RenderPipelineProfiler(int windowSize) {
+      this.windowSize = windowSize;
+   }
+
+   public void addListener(Listener listener) {
+      listeners.add(listener);
+   }
+
+   public void removeListener(Listener listener) {
+      listeners.removeValue(listener, true);
+   }
+
+   /**
+    * Sets the profiler which provides draw calls and texture bindings. It has to be
+    * enabled separately, since it intercepts all GL calls.
+    */
+   public void setGLProfiler(GLProfiler glProfiler) {
+      this.glProfiler = glProfiler;
+   }
+
+   public GLProfiler getGLProfiler() {
+      return glProfiler;
+   }
+
+   /**
+    * Measures the GPU time of each pipe with timer queries, see {@link PipeStatistics#getGpuTime()}.
+    * Results are read one frame later, so the pipeline never waits for the GPU. Has no effect
+    * unless timer queries are supported, see {@link #isGpuTimingSupported()}.
+    */
+   public void setGpuTimingEnabled(boolean gpuTimingEnabled) {
+      if (this.gpuTimingEnabled && !gpuTimingEnabled && isGpuTimingSupported()) {
+         gpuQueries[0].dispose();
+         gpuQueries[1].dispose();
+      }
+      this.gpuTimingEnabled = gpuTimingEnabled;
+   }
+
+   public boolean isGpuTimingEnabled() {
+      return gpuTimingEnabled;
+   }
+
+   /**
+    * @return true on GL30 contexts which provide timer queries, which are neither part of GLES
+    * 3.0 nor WebGL2: via GL_EXT_disjoint_timer_query, GL_ARB_timer_query or desktop GL 3.3
+    */
+   public boolean isGpuTimingSupported() {
+      if (gpuTimingSupported == null) {
+         gpuTimingSupported = Gdx.gl30 != null && (Gdx.graphics.supportsExtension("GL_EXT_disjoint_timer_query")
+               || Gdx.graphics.supportsExtension("GL_ARB_timer_query")
+               || isDesktopGL(Gdx.graphics.getGLVersion(), 3, 3));
+      }
+      return gpuTimingSupported;
+   }
+
+   /**
+    * @return the ids of all pipes which have been profiled, in render order
+    */
+   public Array<String> getPipeIds() {
+      return statistics.orderedKeys();
+   }
+
+   /**
+    * @return the statistics of the given pipe or null if it has not been profiled
+    */
+   public PipeStatistics getStatistics(String pipeId) {
+      return statistics.get(pipeId);
+   }
+
+   @Override
+   public void beforeEffect(PostProcessorEffect effect) {
+      if (current != null) {
+         effectStartTime = System.nanoTime();
+      }
+   }
+
+   @Override
+   public void afterEffect(PostProcessorEffect effect) {
+      if (current != null) {
+         final float time = (System.nanoTime() - effectStartTime) / NANOS_PER_MILLI;
+         frameEffectTimes.getAndIncrement(nameOf(effect), 0f, time);
+      }
+   }
+
+   void beginPipe(String pipeId, BatchResolver<?> resolver) {
+      current = obtainStatistics(pipeId);
+      frameEffectTimes.clear();
+      startFlushes = flushesOf(resolver);
+      if (isGLProfiling()) {
+         startDrawCalls = glProfiler.getDrawCalls();
+         startTextureBindings = glProfiler.getTextureBindings();
+      }
+      if (isGpuTiming()) {
+         // effects are part of the pipe, since timer queries can not be nested
+         Gdx.gl30.glBeginQuery(GL_TIME_ELAPSED, gpuQueries[currentGpuQueries].obtain(current));
+         gpuQueryActive = true;
+      }
+      pipeStartTime = System.nanoTime();
+   }
+
+   void endPipe(BatchResolver<?> resolver) {
+      final float time = (System.nanoTime() - pipeStartTime) / NANOS_PER_MILLI;
+      if (gpuQueryActive) {
+         Gdx.gl30.glEndQuery(GL_TIME_ELAPSED);
+         gpuQueryActive = false;
+      }
+      if (current == null) {
+         return;
+      }
+      // pipes rendered more than once per frame record their total
+      current.frameCpuTime += time;
+      current.frameFlushes += flushesOf(resolver) - startFlushes;
+      if (isGLProfiling()) {
+         current.frameDrawCalls += glProfiler.getDrawCalls() - startDrawCalls;
+         current.frameTextureBindings += glProfiler.getTextureBindings() - startTextureBindings;
+      }
+      for (ObjectFloatMap.Entry<String> entry : frameEffectTimes) {
+         current.frameEffectTimes.getAndIncrement(entry.key, 0f, entry.value);
+      }
+      current = null;
+   }
+
+   /**
+    * Records the statistics of the current frame and notifies all listeners.
+    *
+    * @param pipeIds the ids of all pipes of the pipeline, in render order
+    */
+   void endFrame(List<String> pipeIds) {
+      if (isGpuTiming()) {
+         // queries of the previous frame are usually done by now, the ones of this frame are not
+         currentGpuQueries = 1 - currentGpuQueries;
+         gpuQueries[currentGpuQueries].collect();
+      }
+      for (int i = statistics.size - 1; i >= 0; --i) {
+         String pipeId = statistics.orderedKeys().get(i);
+         if (!pipeIds.contains(pipeId)) {
+            statistics.remove(pipeId);
+         }
+      }
+      final Array<String> orderedIds = statistics.orderedKeys();
+      for (int i = 0; i < pipeIds.size(); ++i) {
+         obtainStatistics(pipeIds.get(i)).record();
+         // keep statistics in render order, even after pipes have been moved
+         if (!orderedIds.get(i).equals(pipeIds.get(i))) {
+            orderedIds.removeValue(pipeIds.get(i), false);
+            orderedIds.insert(i, pipeIds.get(i));
+         }
+      }
+      for (int i = 0; i < listeners.size; ++i) {
+         listeners.get(i).onFrameProfiled(this);
+      }
+   }
+
+   private PipeStatistics obtainStatistics(String pipeId) {
+      PipeStatistics pipeStatistics = statistics.get(pipeId);
+      if (pipeStatistics == null) {
+         pipeStatistics = new PipeStatistics(pipeId, windowSize);
+         statistics.put(pipeId, pipeStatistics);
+      }
+      return pipeStatistics;
+   }
+
+   private boolean isGLProfiling() {
+      return glProfiler != null && glProfiler.isEnabled();
+   }
+
+   private boolean isGpuTiming() {
+      return gpuTimingEnabled && isGpuTimingSupported();
+   }
+
+   private static boolean isDesktopGL(GLVersion version, int major, int minor) {
+      return version != null && version.getType() == GLVersion.Type.OpenGL
+            && version.isVersionEqualToOrHigher(major, minor);
+   }
+
+   private static int flushesOf(BatchResolver<?> resolver) {
+      if (resolver instanceof ProfilingBatchResolver) {
+         return ((ProfilingBatchResolver<?>) resolver).getFlushCount();
+      }
+      return 0;
+   }
+
+   private static String nameOf(PostProcessorEffect effect) {
+      if (effect instanceof AutoReloadPostProcessorEffect) {
+         return nameOf(((AutoReloadPostProcessorEffect<?>) effect).getEffect());
+      }
+      return effect.getClass().getSimpleName();
+   }
+
+   /**
+    * Statistics of a single pipe over the most recent frames.
+    */
+   public static class PipeStatistics {
+
+      private final String pipeId;
+      private final int windowSize;
+      private final RollingPercentiles cpuTime;
+      private final RollingPercentiles gpuTime;
+      private final RollingPercentiles flushes;
+      private final RollingPercentiles drawCalls;
+      private final RollingPercentiles textureBindings;
+      private final OrderedMap<String, RollingPercentiles> effectTimes = new OrderedMap<String, RollingPercentiles>();
+
+      private float frameCpuTime;
+      private float frameGpuTime;
+      private boolean frameGpuTimed;
+      private int frameFlushes;
+      private int frameDrawCalls;
+      private int frameTextureBindings;
+      private final ObjectFloatMap<String> frameEffectTimes = new ObjectFloatMap<String>();
+
+      PipeStatistics(String pipeId, int windowSize) {
+         this.pipeId = pipeId;
+         this.windowSize = windowSize;
+         this.cpuTime = new RollingPercentiles(windowSize);
+         this.gpuTime = new RollingPercentiles(windowSize);
+         this.flushes = new RollingPercentiles(windowSize);
+         this.drawCalls = new RollingPercentiles(windowSize);
+         this.textureBindings = new RollingPercentiles(windowSize);
+      }
+
+      public String getPipeId() {
+         return pipeId;
+      }
+
+      /**
+       * @return the time in milliseconds the pipe took per frame, including its effects
+       */
+      public RollingPercentiles getCpuTime() {
+         return cpuTime;
+      }
+
+      /**
+       * @return the time in milliseconds the GPU took for the pipe per frame, including its
+       * effects. Lags one frame behind and stays empty unless GPU timing is enabled and supported,
+       * see {@link RenderPipelineProfiler#setGpuTimingEnabled(boolean)}.
+       */
+      public RollingPercentiles getGpuTime() {
+         return gpuTime;
+      }
+
+      public RollingPercentiles getFlushes() {
+         return flushes;
+      }
+
+      public RollingPercentiles getDrawCalls() {
+         return drawCalls;
+      }
+
+      public RollingPercentiles getTextureBindings() {
+         return textureBindings;
+      }
+
+      /**
+       * @return the time in milliseconds per frame of each effect of the pipe, by effect name
+       */
+      public OrderedMap<String, RollingPercentiles> getEffectTimes() {
+         return effectTimes;
+      }
+
+      private void record() {
+         cpuTime.add(frameCpuTime);
+         if (frameGpuTimed) {
+            gpuTime.add(frameGpuTime);
+         }
+         flushes.add(frameFlushes);
+         drawCalls.add(frameDrawCalls);
+         textureBindings.add(frameTextureBindings);
+         for (ObjectFloatMap.Entry<String> entry : frameEffectTimes) {
+            RollingPercentiles times = effectTimes.get(entry.key);
+            if (times == null) {
+               times = new RollingPercentiles(windowSize);
+               effectTimes.put(entry.key, times);
+            }
+            times.add(entry.value);
+         }
+         frameCpuTime = 0f;
+         frameGpuTime = 0f;
+         frameGpuTimed = false;
+         frameFlushes = 0;
+         frameDrawCalls = 0;
+         frameTextureBindings = 0;
+         frameEffectTimes.clear();
+      }
+   }
+
+   /**
+    * Timer queries issued within a single frame, together with the pipes they measure.
+    */
+   private static class GpuQueries {
+
+      private final IntArray ids = new IntArray();
+      private final Array<PipeStatistics> owners = new Array<PipeStatistics>();
+      private final IntBuffer buffer = BufferUtils.newIntBuffer(1);
+      private int used;
+
+      int obtain(PipeStatistics owner) {
+         if (used == ids.size) {
+            buffer.clear();
+            Gdx.gl30.glGenQueries(1, buffer);
+            ids.add(buffer.get(0));
+            owners.add(null);
+         }
+         owners.set(used, owner);
+         return ids.get(used++);
+      }
+
+      /**
+       * Adds the results of all finished queries to their pipes and releases all queries.
+       * Unfinished queries are dropped instead of waiting for them.
+       */
+      void collect() {
+         for (int i = 0; i < used; ++i) {
+            final int id = ids.get(i);
+            buffer.clear();
+            Gdx.gl30.glGetQueryObjectuiv(id, GL30.GL_QUERY_RESULT_AVAILABLE, buffer);
+            if (buffer.get(0) != 0) {
+               buffer.clear();
+               Gdx.gl30.glGetQueryObjectuiv(id, GL30.GL_QUERY_RESULT, buffer);
+               final PipeStatistics owner = owners.get(i);
+               // the result is an unsigned amount of nanoseconds
+               owner.frameGpuTime += (buffer.get(0) & 0xFFFFFFFFL) / NANOS_PER_MILLI;
+               owner.frameGpuTimed = true;
+            }
+            owners.set(i, null);
+         }
+         used = 0;
+      }
+
+      void dispose() {
+         for (int i = 0; i < ids.size; ++i) {
+            buffer.clear();
+            buffer.put(ids.get(i)).flip();
+            Gdx.gl30.glDeleteQueries(1, buffer);
+         }
+         ids.clear();
+         owners.clear();
+         used = 0;
+      }
+   }
+}
@@ -16,6 +16,10 @@ public class ColoredRenderLayer extends RenderLayer2D implements Disposable, Res
 
    private Color color = Color.WHITE;
 
+   private final Color renderedColor = new Color();
+
+   private boolean dirty = true;
+
    private Texture texture;
 
    private SpriteBatch batch;
@@ -38,6 +42,11 @@ public class ColoredRenderLayer extends RenderLayer2D implements Disposable, Res
       this.color = color;
    }
 
+   @Override
+   public boolean isDirty() {
+      return dirty || !renderedColor.equals(color);
+   }
+
    @Override
    public void render(Batch batch, float delta) {
       this.batch.setColor(color);
@@ -45,6 +54,8 @@ public class ColoredRenderLayer extends RenderLayer2D implements Disposable, Res
       this.batch.begin();
       this.batch.draw(texture, 0f, 0f, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
       this.batch.end();
+      renderedColor.set(color);
+      dirty = false;
    }
 
    @Override
@@ -55,5 +66,6 @@ public class ColoredRenderLayer extends RenderLayer2D implements Disposable, Res
    @Override
    public void resize(int width, int height) {
       camera.setToOrtho(false, width, height);
+      dirty = true;
    }
 }
@@ -1,20 +1,76 @@
 package de.bitbrain.braingdx.graphics.pipeline.layers;
 
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Event;
+import com.badlogic.gdx.scenes.scene2d.EventListener;
+import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.SnapshotArray;
 import de.bitbrain.braingdx.graphics.pipeline.RenderLayer2D;
 
 public class StageRenderLayer extends RenderLayer2D {
 
    private final Stage stage;
+   private boolean cachingEnabled;
+   private boolean dirty = true;
 
    public StageRenderLayer(Stage stage) {
       this.stage = stage;
+      stage.addCaptureListener(new EventListener() {
+         @Override
+         public boolean handle(Event event) {
+            dirty = true;
+            return false;
+         }
+      });
+   }
+
+   /**
+    * Allows the pipeline to cache the stage while it is idle. The stage counts as idle as long as
+    * none of its actors have actions and no events are fired. Any other change to the
+    * stage requires a call to {@link #invalidate()}. Disabled by default.
+    */
+   public void setCachingEnabled(boolean cachingEnabled) {
+      this.cachingEnabled = cachingEnabled;
+      this.dirty = true;
+   }
+
+   public boolean isCachingEnabled() {
+      return cachingEnabled;
+   }
+
+   /**
+    * Forces the stage to be rendered again.
+    */
+   public void invalidate() {
+      dirty = true;
+   }
+
+   @Override
+   public boolean isDirty() {
+      return !cachingEnabled || dirty || hasActions(stage.getRoot());
    }
 
    @Override
    public void render(Batch batch, float delta) {
       stage.draw();
+      dirty = false;
+   }
+
+   private static boolean hasActions(Actor actor) {
+      if (actor.hasActions()) {
+         return true;
+      }
+      if (actor instanceof Group) {
+         SnapshotArray<Actor> children = ((Group) actor).getChildren();
+         for (int i = 0; i < children.size; ++i) {
+            if (hasActions(children.get(i))) {
+               return true;
+            }
+         }
+      }
+      return false;
    }
 
 }
@@ -10,6 +10,7 @@ public class TextureRenderLayer extends RenderLayer2D {
 
    private final Batch batch;
    private final Texture texture;
+   private boolean dirty = true;
 
    public TextureRenderLayer(Texture texture) {
       this.batch = new SpriteBatch();
@@ -21,6 +22,19 @@ public class TextureRenderLayer extends RenderLayer2D {
       this.batch.begin();
       this.batch.draw(texture, 0f, 0f, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
       this.batch.end();
+      dirty = false;
+   }
+
+   /**
+    * Forces the layer to be rendered again, e.g. after the content of the texture has changed.
+    */
+   public void invalidate() {
+      dirty = true;
+   }
+
+   @Override
+   public boolean isDirty() {
+      return dirty;
    }
 
 }
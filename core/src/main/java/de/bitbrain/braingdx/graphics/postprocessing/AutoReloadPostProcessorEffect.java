@@ -23,6 +23,13 @@ public class AutoReloadPostProcessorEffect<T extends PostProcessorEffect> extend
       effect = factory.create(null, settings.getScaledRenderWidth(), settings.getScaledRenderHeight(), settings);
    }
 
+   /**
+    * @return the current effect, which gets replaced once graphics settings change
+    */
+   public T getEffect() {
+      return effect;
+   }
+
    public void mutate(Mutator<T> mutator) {
       if (mutator != null) {
          mutator.mutate(effect);
@@ -32,8 +39,10 @@ public class AutoReloadPostProcessorEffect<T extends PostProcessorEffect> extend
    @Override
    public void onEvent(GraphicsSettingsChangeEvent event) {
       Gdx.app.debug("AutoReloadPostProcessorEffect", "graphic settings have changed, recalculating shader of type " + effect.getClass());
-      effect.dispose();
-      effect = factory.create(effect, settings.getScaledRenderWidth(), settings.getScaledRenderHeight(), settings);
+      // the new effect is created first, so it obtains the cached programs of the previous one
+      T previous = effect;
+      effect = factory.create(previous, settings.getScaledRenderWidth(), settings.getScaledRenderHeight(), settings);
+      previous.dispose();
    }
 
    @Override
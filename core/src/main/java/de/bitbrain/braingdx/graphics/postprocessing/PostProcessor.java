@@ -25,6 +25,11 @@ import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import de.bitbrain.braingdx.graphics.RenderTargetPool;
+import de.bitbrain.braingdx.graphics.postprocessing.effects.FusedEffect;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusedProgramCache;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusibleEffect;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusibleStage;
 import de.bitbrain.braingdx.graphics.postprocessing.utils.PingPongBuffer;
 import de.bitbrain.braingdx.util.ItemsManager;
 
@@ -51,6 +56,7 @@ public class PostProcessor implements Disposable {
    private static Rectangle viewport = new Rectangle();
    private static boolean hasViewport = false;
    private PingPongBuffer composite;
+   private RenderTargetPool pool;
    private final ItemsManager<PostProcessorEffect> effectsManager = new ItemsManager<PostProcessorEffect>();
    private final Color clearColor = Color.CLEAR;
    private TextureWrap compositeWrapU;
@@ -65,10 +71,17 @@ public class PostProcessor implements Disposable {
    private List<PostProcessorEffect> effects;
 
    private PostProcessorListener listener = null;
+   private PostProcessorEffectListener effectListener = null;
 
    // maintains a per-frame updated list of enabled effects
    private Array<PostProcessorEffect> enabledEffects = new Array<PostProcessorEffect>(5);
 
+   // enabled effects, adjacent fusible effects replaced by a fused effect
+   private final Array<PostProcessorEffect> fusedEnabledEffects = new Array<PostProcessorEffect>(5);
+   private final Array<FusedEffect> fusedEffects = new Array<FusedEffect>(2);
+   private final Array<FusibleStage> fusedStages = new Array<FusibleStage>();
+   private FusedProgramCache fusedProgramCache;
+
    /**
     * Construct a new PostProcessor with FBO dimensions set to the size of the screen
     */
@@ -109,6 +122,26 @@ public class PostProcessor implements Disposable {
       addEffects(effects);
    }
 
+   /**
+    * Construct a new PostProcessor which leases its buffers from the given pool while
+    * capturing and hands them back once the effect chain has been rendered
+    */
+   public PostProcessor(RenderTargetPool pool, PostProcessorEffect... effects) {
+      this(effects);
+      this.pool = pool;
+   }
+
+   /**
+    * Construct a new PostProcessor without buffers of its own which only configures the
+    * framebuffer format for effects
+    */
+   public PostProcessor(boolean useAlphaChannel, boolean use32Bits) {
+      this.effects = new ArrayList<PostProcessorEffect>();
+      fbFormat = formatOf(useAlphaChannel, use32Bits);
+      pipelineState = new PipelineState();
+      setViewport(null);
+   }
+
    public void addEffects(PostProcessorEffect... effects) {
       for (PostProcessorEffect effect : effects) {
          this.effects.add(effect);
@@ -153,6 +186,24 @@ public class PostProcessor implements Disposable {
          effect.dispose();
       }
       effects.clear();
+      disposeFusedEffects(0);
+   }
+
+   /**
+    * Renders adjacent enabled {@link FusibleEffect}s within a single pass, with programs of the
+    * given cache. A {@link FusibleStage#isSourceStage() source stage} always starts a new pass.
+    *
+    * @param fusedProgramCache the cache or null in order to render each effect on its own
+    */
+   public void setFusedProgramCache(FusedProgramCache fusedProgramCache) {
+      this.fusedProgramCache = fusedProgramCache;
+      if (fusedProgramCache == null) {
+         disposeFusedEffects(0);
+      }
+   }
+
+   public FusedProgramCache getFusedProgramCache() {
+      return fusedProgramCache;
    }
 
    /**
@@ -160,19 +211,7 @@ public class PostProcessor implements Disposable {
     */
    public PostProcessor(int fboWidth, int fboHeight, boolean useDepth, boolean useAlphaChannel, boolean use32Bits,
                         TextureWrap u, TextureWrap v) {
-      if (use32Bits) {
-         if (useAlphaChannel) {
-            fbFormat = Format.RGBA8888;
-         } else {
-            fbFormat = Format.RGB888;
-         }
-      } else {
-         if (useAlphaChannel) {
-            fbFormat = Format.RGBA4444;
-         } else {
-            fbFormat = Format.RGB565;
-         }
-      }
+      fbFormat = formatOf(useAlphaChannel, use32Bits);
 
       composite = newPingPongBuffer(fboWidth, fboHeight, fbFormat, useDepth);
       setBufferTextureWrap(u, v);
@@ -190,6 +229,13 @@ public class PostProcessor implements Disposable {
       setViewport(null);
    }
 
+   private static Format formatOf(boolean useAlphaChannel, boolean use32Bits) {
+      if (use32Bits) {
+         return useAlphaChannel ? Format.RGBA8888 : Format.RGB888;
+      }
+      return useAlphaChannel ? Format.RGBA4444 : Format.RGB565;
+   }
+
    /**
     * Creates and returns a managed PingPongBuffer buffer, just create and forget. If rebind() is
     * called on context loss, managed PingPongBuffers will be rebound for you.
@@ -264,8 +310,13 @@ public class PostProcessor implements Disposable {
       if (enabledEffects != null) {
          enabledEffects.clear();
       }
+      fusedEnabledEffects.clear();
+      disposeFusedEffects(0);
 
-      pipelineState.dispose();
+      releaseComposite();
+      if (pipelineState != null) {
+         pipelineState.dispose();
+      }
    }
 
    /**
@@ -312,6 +363,13 @@ public class PostProcessor implements Disposable {
       this.listener = listener;
    }
 
+   /**
+    * Sets the listener that will be notified before and after each effect is rendered.
+    */
+   public void setEffectListener(PostProcessorEffectListener effectListener) {
+      this.effectListener = effectListener;
+   }
+
    /**
     * Adds the specified effect to the effect chain and transfer ownership to the PostProcessor, it
     * will manage cleaning it up for you. The order of the inserted effects IS important, since
@@ -360,8 +418,10 @@ public class PostProcessor implements Disposable {
       compositeWrapU = u;
       compositeWrapV = v;
 
-      composite.texture1.setWrap(compositeWrapU, compositeWrapV);
-      composite.texture2.setWrap(compositeWrapU, compositeWrapV);
+      if (composite != null) {
+         composite.texture1.setWrap(compositeWrapU, compositeWrapV);
+         composite.texture2.setWrap(compositeWrapU, compositeWrapV);
+      }
    }
 
    /**
@@ -381,6 +441,9 @@ public class PostProcessor implements Disposable {
             // "No post-processor effects enabled" );
             return false;
          }
+         if (!obtainComposite()) {
+            return false;
+         }
 
          capturing = true;
          composite.begin();
@@ -414,6 +477,9 @@ public class PostProcessor implements Disposable {
             // "No post-processor effects enabled" );
             return false;
          }
+         if (!obtainComposite()) {
+            return false;
+         }
 
          capturing = true;
          composite.begin();
@@ -443,10 +509,11 @@ public class PostProcessor implements Disposable {
    }
 
    /**
-    * After a capture/captureEnd action, returns the just captured buffer
+    * After a capture/captureEnd action, returns the just captured buffer. Pooled buffers are
+    * only available until the effect chain has been rendered.
     */
    public FrameBuffer captured() {
-      if (enabled && hasCaptured) {
+      if (enabled && hasCaptured && composite != null) {
          return composite.getResultBuffer();
       }
 
@@ -457,8 +524,10 @@ public class PostProcessor implements Disposable {
     * Regenerates and/or rebinds owned resources when needed, eg. when the OpenGL context is lost.
     */
    public void rebind() {
-      composite.texture1.setWrap(compositeWrapU, compositeWrapV);
-      composite.texture2.setWrap(compositeWrapU, compositeWrapV);
+      if (composite != null) {
+         composite.texture1.setWrap(compositeWrapU, compositeWrapV);
+         composite.texture2.setWrap(compositeWrapU, compositeWrapV);
+      }
 
       for (int i = 0; i < buffers.size; i++) {
          buffers.get(i).rebind();
@@ -481,7 +550,7 @@ public class PostProcessor implements Disposable {
       }
 
       // Array<PostProcessorEffect> items = manager.items;
-      Array<PostProcessorEffect> items = enabledEffects;
+      Array<PostProcessorEffect> items = fuseEnabledEffects();
 
       int count = items.size;
       if (count > 0) {
@@ -496,7 +565,7 @@ public class PostProcessor implements Disposable {
 
                composite.capture();
                {
-                  e.render(composite.getSourceBuffer(), composite.getResultBuffer());
+                  renderEffect(e, composite.getSourceBuffer(), composite.getResultBuffer());
                }
             }
 
@@ -509,13 +578,24 @@ public class PostProcessor implements Disposable {
          }
 
          // render with null dest (to screen)
-         items.get(count - 1).render(composite.getResultBuffer(), dest);
+         renderEffect(items.get(count - 1), composite.getResultBuffer(), dest);
 
          // ensure default texture unit #0 is active
          Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0);
       } else {
          Gdx.app.log("PostProcessor", "No post-processor effects enabled, aborting render");
       }
+      releaseComposite();
+   }
+
+   private void renderEffect(PostProcessorEffect effect, FrameBuffer src, FrameBuffer dest) {
+      if (effectListener != null) {
+         effectListener.beforeEffect(effect);
+      }
+      effect.render(src, dest);
+      if (effectListener != null) {
+         effectListener.afterEffect(effect);
+      }
    }
 
    /**
@@ -525,6 +605,95 @@ public class PostProcessor implements Disposable {
       render(null);
    }
 
+   /**
+    * Leases the composite buffer from the pool, if there is one.
+    *
+    * @return true if a composite buffer is available
+    */
+   private boolean obtainComposite() {
+      if (composite == null && pool != null) {
+         composite = pool.obtainPingPongBuffer();
+         if (composite != null && compositeWrapU != null) {
+            setBufferTextureWrap(compositeWrapU, compositeWrapV);
+         }
+      }
+      return composite != null;
+   }
+
+   private void releaseComposite() {
+      if (pool != null && composite != null) {
+         pool.free(composite);
+         composite = null;
+      }
+   }
+
+   private Array<PostProcessorEffect> fuseEnabledEffects() {
+      if (fusedProgramCache == null) {
+         return enabledEffects;
+      }
+      fusedEnabledEffects.clear();
+      int fusedCount = 0;
+      int start = 0;
+      while (start < enabledEffects.size) {
+         int end = start + 1;
+         if (fusibleOf(enabledEffects.get(start)) != null) {
+            while (end < enabledEffects.size && fusibleOf(enabledEffects.get(end)) != null
+                  && !fusibleOf(enabledEffects.get(end)).getStages().first().isSourceStage()) {
+               end++;
+            }
+         }
+         if (end - start < 2) {
+            fusedEnabledEffects.add(enabledEffects.get(start));
+         } else {
+            fusedStages.clear();
+            for (int i = start; i < end; ++i) {
+               fusedStages.addAll(fusibleOf(enabledEffects.get(i)).getStages());
+            }
+            fusedEnabledEffects.add(obtainFusedEffect(fusedCount++));
+         }
+         start = end;
+      }
+      disposeFusedEffects(fusedCount);
+      return fusedEnabledEffects;
+   }
+
+   /**
+    * @return the fused effect of the current {@link #fusedStages}, reused from the previous frame if possible
+    */
+   private FusedEffect obtainFusedEffect(int index) {
+      if (index < fusedEffects.size) {
+         Array<FusibleStage> stages = fusedEffects.get(index).getStages();
+         boolean equal = stages.size == fusedStages.size;
+         for (int i = 0; equal && i < stages.size; ++i) {
+            equal = stages.get(i) == fusedStages.get(i);
+         }
+         if (equal) {
+            return fusedEffects.get(index);
+         }
+         fusedEffects.get(index).dispose();
+      }
+      FusedEffect effect = new FusedEffect(fusedProgramCache, fusedStages.<FusibleStage>toArray(FusibleStage.class));
+      if (index < fusedEffects.size) {
+         fusedEffects.set(index, effect);
+      } else {
+         fusedEffects.add(effect);
+      }
+      return effect;
+   }
+
+   private void disposeFusedEffects(int keep) {
+      while (fusedEffects.size > keep) {
+         fusedEffects.pop().dispose();
+      }
+   }
+
+   private static FusibleEffect fusibleOf(PostProcessorEffect effect) {
+      if (effect instanceof AutoReloadPostProcessorEffect) {
+         return fusibleOf(((AutoReloadPostProcessorEffect<?>) effect).getEffect());
+      }
+      return effect instanceof FusibleEffect ? (FusibleEffect) effect : null;
+   }
+
    private int buildEnabledEffectsList() {
       enabledEffects.clear();
       for (PostProcessorEffect e : effectsManager) {
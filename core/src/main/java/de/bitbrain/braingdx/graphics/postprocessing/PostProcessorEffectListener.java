@@ -0,0 +1,14 @@
+package de.bitbrain.braingdx.graphics.postprocessing;
+
+/**
+ * Receives events before and after each {@link PostProcessorEffect} of a {@link PostProcessor} is rendered.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public interface PostProcessorEffectListener {
+
+   void beforeEffect(PostProcessorEffect effect);
+
+   void afterEffect(PostProcessorEffect effect);
+}
@@ -1,23 +1,30 @@
 package de.bitbrain.braingdx.graphics.postprocessing;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Disposable;
 import de.bitbrain.braingdx.event.GameEventManager;
 import de.bitbrain.braingdx.graphics.GraphicsSettings;
 import de.bitbrain.braingdx.graphics.event.GraphicsSettingsChangeEvent;
 import de.bitbrain.braingdx.graphics.postprocessing.effects.Bloom;
+import de.bitbrain.braingdx.graphics.postprocessing.effects.FusedEffect;
 import de.bitbrain.braingdx.graphics.postprocessing.effects.Fxaa;
 import de.bitbrain.braingdx.graphics.postprocessing.effects.Vignette;
 import de.bitbrain.braingdx.graphics.postprocessing.effects.Zoomer;
+import de.bitbrain.braingdx.graphics.postprocessing.filters.DualKawaseBlur;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusedProgramCache;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusibleStage;
 import de.bitbrain.braingdx.graphics.shader.ShaderConfig;
+import de.bitbrain.braingdx.util.ShaderLoader;
 
 /**
  * Provides factory methods to create a variety of shaders.
  */
-public class ShaderManager {
+public class ShaderManager implements Disposable {
 
    private final GameEventManager gameEventManager;
    private final GraphicsSettings settings;
    private final ShaderConfig config;
+   private final FusedProgramCache fusedProgramCache = new FusedProgramCache();
 
    public ShaderManager(ShaderConfig config, GameEventManager gameEventManager, GraphicsSettings settings) {
       this.config = config;
@@ -46,13 +53,43 @@ public class ShaderManager {
     * Creates a bloom effect which blurs light parts and darkens dark parts.
     */
    public AutoReloadPostProcessorEffect<Bloom> createBloomEffect() {
+      return createBloomEffect(1f);
+   }
+
+   /**
+    * Creates a bloom effect which blurs light parts and darkens dark parts.
+    *
+    * @param resolutionScale scale of the blur passes relative to the render resolution,
+    *                        e.g. 0.5 to blur at half resolution
+    */
+   public AutoReloadPostProcessorEffect<Bloom> createBloomEffect(float resolutionScale) {
+      return createBloomEffect(resolutionScale, Bloom.BlurMode.Gaussian);
+   }
+
+   /**
+    * Creates a bloom effect which blurs light parts and darkens dark parts.
+    * {@link Bloom.BlurMode#MipChain} blur follows {@link GraphicsSettings#getBloomQuality()}.
+    */
+   public AutoReloadPostProcessorEffect<Bloom> createBloomEffect(Bloom.BlurMode blurMode) {
+      return createBloomEffect(1f, blurMode);
+   }
+
+   /**
+    * Creates a bloom effect which blurs light parts and darkens dark parts.
+    * {@link Bloom.BlurMode#MipChain} blur follows {@link GraphicsSettings#getBloomQuality()}.
+    *
+    * @param resolutionScale scale of the blur passes relative to the render resolution,
+    *                        e.g. 0.5 to blur at half resolution
+    */
+   public AutoReloadPostProcessorEffect<Bloom> createBloomEffect(final float resolutionScale, final Bloom.BlurMode blurMode) {
       return createEffect(new EffectFactory<Bloom>() {
          @Override
          public Bloom create(Bloom original, int newWidth, int newHeight, GraphicsSettings settings) {
+            DualKawaseBlur.Quality quality = blurMode == Bloom.BlurMode.MipChain ? settings.getBloomQuality() : null;
             if (original != null) {
-               return new Bloom(original, newWidth, newHeight);
+               return new Bloom(original, newWidth, newHeight, quality);
             }
-            return new Bloom(newWidth, newHeight);
+            return new Bloom(newWidth, newHeight, resolutionScale, quality);
          }
       });
    }
@@ -99,6 +136,58 @@ public class ShaderManager {
       });
    }
 
+   /**
+    * Creates an effect which renders the given per-pixel stages within a single pass, e.g. a
+    * {@link de.bitbrain.braingdx.graphics.postprocessing.fusion.VignetteStage} after a
+    * {@link de.bitbrain.braingdx.graphics.postprocessing.fusion.CrtStage}. Programs are
+    * compiled once per combination of stages.
+    */
+   public AutoReloadPostProcessorEffect<FusedEffect> createFusedEffect(final FusibleStage... stages) {
+      return createEffect(new EffectFactory<FusedEffect>() {
+         @Override
+         public FusedEffect create(FusedEffect original, int newWidth, int newHeight, GraphicsSettings settings) {
+            if (original != null) {
+               return new FusedEffect(original);
+            }
+            return new FusedEffect(fusedProgramCache, stages);
+         }
+      });
+   }
+
+   /**
+    * Compiles the programs of all effects this manager provides for the current graphics settings,
+    * e.g. while a loading screen is shown. Compilation happens right away, this call blocks until
+    * all programs are compiled. Use {@link ShaderLoader#queueWarmUp(String, String, String)} and
+    * {@link ShaderLoader#updateWarmUp()} in order to spread compilation across frames instead.
+    * Effects created afterwards, also when they are re-created after graphics settings have
+    * changed, obtain the cached programs instead. Programs stay cached until
+    * {@link ShaderLoader#dispose()} is called.
+    */
+   public void warmUp() {
+      final int width = settings.getScaledRenderWidth();
+      final int height = settings.getScaledRenderHeight();
+      ShaderLoader.BasePath = config.basePath;
+      ShaderLoader.PathResolver = config.pathResolver;
+      ShaderLoader.beginWarmUp();
+      try {
+         new Fxaa(width, height).dispose();
+         new Bloom(width, height).dispose();
+         new Bloom(width, height, 1f, settings.getBloomQuality()).dispose();
+         new Vignette(width, height, false).dispose();
+         new Zoomer(width, height, settings.getRadialBlurQuality(), settings.getRenderScale()).dispose();
+      } finally {
+         ShaderLoader.endWarmUp();
+      }
+   }
+
+   /**
+    * Disposes the programs of all fused effects created by this manager.
+    */
+   @Override
+   public void dispose() {
+      fusedProgramCache.dispose();
+   }
+
    private <T extends PostProcessorEffect> AutoReloadPostProcessorEffect<T> createEffect(EffectFactory<T> factory) {
       AutoReloadPostProcessorEffect<T> effect = new AutoReloadPostProcessorEffect<T>(factory, settings);
       gameEventManager.register(effect, GraphicsSettingsChangeEvent.class);
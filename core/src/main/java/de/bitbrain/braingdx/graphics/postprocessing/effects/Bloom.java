@@ -19,51 +19,107 @@ package de.bitbrain.braingdx.graphics.postprocessing.effects;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import de.bitbrain.braingdx.graphics.postprocessing.PostProcessor;
 import de.bitbrain.braingdx.graphics.postprocessing.PostProcessorEffect;
 import de.bitbrain.braingdx.graphics.postprocessing.filters.Blur;
 import de.bitbrain.braingdx.graphics.postprocessing.filters.Combine;
+import de.bitbrain.braingdx.graphics.postprocessing.filters.DualKawaseBlur;
 import de.bitbrain.braingdx.graphics.postprocessing.filters.Threshold;
 import de.bitbrain.braingdx.graphics.postprocessing.utils.PingPongBuffer;
 
 public final class Bloom extends PostProcessorEffect {
+
+   /**
+    * How the bright parts of the scene are blurred.
+    */
+   public enum BlurMode {
+      /**
+       * Gaussian blur passes at a fixed resolution, see {@link Blur}
+       */
+      Gaussian,
+      /**
+       * Downsampling and upsampling along a chain of buffers, see {@link DualKawaseBlur}.
+       * Produces wider blur at a fraction of the fill cost.
+       */
+      MipChain
+   }
+
    private PingPongBuffer pingPongBuffer;
    private Blur blur;
+   private FrameBuffer thresholdBuffer;
+   private DualKawaseBlur mipChain;
+   private DualKawaseBlur.Quality mipChainQuality;
    private Threshold threshold;
    private Combine combine;
    private Settings settings;
    private boolean blending = false;
    private int sfactor, dfactor;
+   private float resolutionScale;
 
    public Bloom(int fboWidth, int fboHeight) {
-      pingPongBuffer = PostProcessor.newPingPongBuffer(fboWidth, fboHeight, PostProcessor.getFramebufferFormat(),
-            false);
+      this(fboWidth, fboHeight, 1f);
+   }
 
-      blur = new Blur(fboWidth, fboHeight);
-      threshold = new Threshold();
-      combine = new Combine();
+   /**
+    * @param resolutionScale scale of the threshold and blur passes relative to the given size,
+    *                        e.g. 0.5 to blur at half resolution
+    */
+   public Bloom(int fboWidth, int fboHeight, float resolutionScale) {
+      this(fboWidth, fboHeight, resolutionScale, null);
+   }
 
+   /**
+    * @param resolutionScale scale of the threshold and blur passes relative to the given size
+    * @param mipChainQuality quality of the {@link BlurMode#MipChain} blur or null to use {@link BlurMode#Gaussian} blur
+    */
+   public Bloom(int fboWidth, int fboHeight, float resolutionScale, DualKawaseBlur.Quality mipChainQuality) {
+      init(fboWidth, fboHeight, resolutionScale, mipChainQuality);
       setSettings(new Settings("default", 2, 0.277f, 1f, .85f, 1.1f, .85f));
    }
 
    public Bloom(Bloom original, int fboWidth, int fboHeight) {
-      pingPongBuffer = PostProcessor.newPingPongBuffer(fboWidth, fboHeight, PostProcessor.getFramebufferFormat(),
-            false);
+      this(original, fboWidth, fboHeight, original.getMipChainQuality());
+   }
+
+   public Bloom(Bloom original, int fboWidth, int fboHeight, DualKawaseBlur.Quality mipChainQuality) {
+      init(fboWidth, fboHeight, original.getResolutionScale(), mipChainQuality);
+      setSettings(new Settings("default", original.getBlurPasses(), original.getThreshold(), original.getBaseIntensity(), original.getBaseSaturation(), original.getBloomIntensity(), original.getBloomSaturation()));
+   }
 
-      blur = new Blur(fboWidth, fboHeight);
+   private void init(int fboWidth, int fboHeight, float resolutionScale, DualKawaseBlur.Quality mipChainQuality) {
+      if (resolutionScale <= 0f) {
+         throw new IllegalArgumentException("Resolution scale has to be greater than 0 but was " + resolutionScale);
+      }
+      this.resolutionScale = resolutionScale;
+      final int width = Math.max(1, (int) (fboWidth * resolutionScale));
+      final int height = Math.max(1, (int) (fboHeight * resolutionScale));
+      this.mipChainQuality = mipChainQuality;
+      if (mipChainQuality != null) {
+         thresholdBuffer = new FrameBuffer(PostProcessor.getFramebufferFormat(), width, height, false);
+         thresholdBuffer.getColorBufferTexture().setFilter(TextureFilter.Linear, TextureFilter.Linear);
+         mipChain = new DualKawaseBlur(width, height, mipChainQuality);
+      } else {
+         pingPongBuffer = PostProcessor.newPingPongBuffer(width, height, PostProcessor.getFramebufferFormat(),
+               false);
+         blur = new Blur(width, height);
+      }
       threshold = new Threshold();
       combine = new Combine();
-
-      setSettings(new Settings("default", original.getBlurPasses(), original.getThreshold(), original.getBaseIntensity(), original.getBaseSaturation(), original.getBloomIntensity(), original.getBloomSaturation()));
    }
 
    @Override
    public void dispose() {
       combine.dispose();
       threshold.dispose();
-      blur.dispose();
-      pingPongBuffer.dispose();
+      if (mipChain != null) {
+         mipChain.dispose();
+         thresholdBuffer.dispose();
+      } else {
+         blur.dispose();
+         pingPongBuffer.dispose();
+      }
    }
 
    public void setBaseIntesity(float intensity) {
@@ -84,6 +140,21 @@ public final class Bloom extends PostProcessorEffect {
       this.blending = false;
    }
 
+   public float getResolutionScale() {
+      return resolutionScale;
+   }
+
+   public BlurMode getBlurMode() {
+      return mipChain != null ? BlurMode.MipChain : BlurMode.Gaussian;
+   }
+
+   /**
+    * @return the quality of the {@link BlurMode#MipChain} blur or null in case of {@link BlurMode#Gaussian} blur
+    */
+   public DualKawaseBlur.Quality getMipChainQuality() {
+      return mipChainQuality;
+   }
+
    public float getThreshold() {
       return threshold.getThreshold();
    }
@@ -129,11 +200,13 @@ public final class Bloom extends PostProcessorEffect {
    }
 
    public Blur.BlurType getBlurType() {
-      return blur.getType();
+      return blur != null ? blur.getType() : settings.blurType;
    }
 
    public void setBlurType(Blur.BlurType type) {
-      blur.setType(type);
+      if (blur != null) {
+         blur.setType(type);
+      }
    }
 
    public Settings getSettings() {
@@ -159,19 +232,27 @@ public final class Bloom extends PostProcessorEffect {
    }
 
    public int getBlurPasses() {
-      return blur.getPasses();
+      return blur != null ? blur.getPasses() : settings.blurPasses;
    }
 
+   /**
+    * Sets the number of Gaussian blur passes. Has no effect on {@link BlurMode#MipChain} blur,
+    * which is configured by its quality.
+    */
    public void setBlurPasses(int passes) {
-      blur.setPasses(passes);
+      if (blur != null) {
+         blur.setPasses(passes);
+      }
    }
 
    public float getBlurAmount() {
-      return blur.getAmount();
+      return blur != null ? blur.getAmount() : settings.blurAmount;
    }
 
    public void setBlurAmount(float amount) {
-      blur.setAmount(amount);
+      if (blur != null) {
+         blur.setAmount(amount);
+      }
    }
 
    @Override
@@ -181,16 +262,23 @@ public final class Bloom extends PostProcessorEffect {
       boolean blendingWasEnabled = PostProcessor.isStateEnabled(GL20.GL_BLEND);
       Gdx.gl.glDisable(GL20.GL_BLEND);
 
-      pingPongBuffer.begin();
-      {
-         // threshold / high-pass filter
-         // only areas with pixels >= threshold are blit to smaller fbo
-         threshold.setInput(texsrc).setOutput(pingPongBuffer.getSourceBuffer()).render();
-
-         // blur pass
-         blur.render(pingPongBuffer);
+      Texture bloom;
+      if (mipChain != null) {
+         threshold.setInput(texsrc).setOutput(thresholdBuffer).render();
+         bloom = mipChain.render(thresholdBuffer.getColorBufferTexture());
+      } else {
+         pingPongBuffer.begin();
+         {
+            // threshold / high-pass filter
+            // only areas with pixels >= threshold are blit to smaller fbo
+            threshold.setInput(texsrc).setOutput(pingPongBuffer.getSourceBuffer()).render();
+
+            // blur pass
+            blur.render(pingPongBuffer);
+         }
+         pingPongBuffer.end();
+         bloom = pingPongBuffer.getResultTexture();
       }
-      pingPongBuffer.end();
 
       if (blending || blendingWasEnabled) {
          Gdx.gl.glEnable(GL20.GL_BLEND);
@@ -206,15 +294,20 @@ public final class Bloom extends PostProcessorEffect {
 
       // mix original scene and blurred threshold, modulate via
       // set(Base|Bloom)(Saturation|Intensity)
-      combine.setOutput(dest).setInput(texsrc, pingPongBuffer.getResultTexture()).render();
+      combine.setOutput(dest).setInput(texsrc, bloom).render();
    }
 
    @Override
    public void rebind() {
-      blur.rebind();
       threshold.rebind();
       combine.rebind();
-      pingPongBuffer.rebind();
+      if (mipChain != null) {
+         mipChain.rebind();
+         thresholdBuffer.getColorBufferTexture().setFilter(TextureFilter.Linear, TextureFilter.Linear);
+      } else {
+         blur.rebind();
+         pingPongBuffer.rebind();
+      }
    }
 
    public static class Settings {
@@ -0,0 +1,106 @@
+package de.bitbrain.braingdx.graphics.postprocessing.effects;
+
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Array;
+import de.bitbrain.braingdx.graphics.postprocessing.PostProcessorEffect;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusedProgramCache;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusedShaderBuilder;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusibleEffect;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusibleStage;
+import de.bitbrain.braingdx.graphics.postprocessing.utils.FullscreenQuad;
+
+/**
+ * Renders a chain of per-pixel {@link FusibleStage} instances within a single full screen pass,
+ * instead of one pass per effect. The program is obtained from a {@link FusedProgramCache}, so
+ * effects with equal stages share it. Adjacent fused effects are fused with each other, see
+ * {@link FusibleEffect}.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public final class FusedEffect extends PostProcessorEffect implements FusibleEffect {
+
+   private final FusedProgramCache cache;
+   private final Array<FusibleStage> stages;
+   private final String[] prefixes;
+   private final ShaderProgram program;
+   private final FullscreenQuad quad;
+
+   public FusedEffect(FusedProgramCache cache, FusibleStage... stages) {
+      this(cache, new Array<FusibleStage>(stages));
+   }
+
+   /**
+    * Creates a new effect with the stages of the given effect, e.g. after the screen has been resized.
+    */
+   public FusedEffect(FusedEffect original) {
+      this(original.cache, original.stages);
+      setEnabled(original.isEnabled());
+   }
+
+   private FusedEffect(FusedProgramCache cache, Array<FusibleStage> stages) {
+      FusedShaderBuilder.validate(stages);
+      this.cache = cache;
+      this.stages = stages;
+      this.prefixes = new String[stages.size];
+      for (int i = 0; i < stages.size; ++i) {
+         prefixes[i] = FusedShaderBuilder.prefixOf(i);
+      }
+      this.program = cache.obtain(stages);
+      this.quad = new FullscreenQuad();
+   }
+
+   @Override
+   public Array<FusibleStage> getStages() {
+      return stages;
+   }
+
+   /**
+    * @return the first stage of the given type or null
+    */
+   public <T extends FusibleStage> T getStage(Class<T> type) {
+      for (int i = 0; i < stages.size; ++i) {
+         if (type.isInstance(stages.get(i))) {
+            return type.cast(stages.get(i));
+         }
+      }
+      return null;
+   }
+
+   @Override
+   public void rebind() {
+      // uniforms are applied on every render
+   }
+
+   @Override
+   public void render(FrameBuffer src, FrameBuffer dest) {
+      restoreViewport(dest);
+      if (dest != null) {
+         dest.begin();
+      }
+      program.begin();
+      int textureUnit = 1;
+      for (int i = 0; i < stages.size; ++i) {
+         FusibleStage stage = stages.get(i);
+         stage.apply(program, prefixes[i], textureUnit);
+         textureUnit += stage.getTextureCount();
+      }
+      // bound last, so texture unit #0 remains active
+      src.getColorBufferTexture().bind(0);
+      program.setUniformi("u_texture0", 0);
+      quad.render(program);
+      program.end();
+      if (dest != null) {
+         dest.end();
+      }
+   }
+
+   /**
+    * Disposes the quad of this effect, the program is owned by the cache.
+    */
+   @Override
+   public void dispose() {
+      quad.dispose();
+   }
+}
@@ -18,11 +18,16 @@ package de.bitbrain.braingdx.graphics.postprocessing.effects;
 
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.utils.Array;
 import de.bitbrain.braingdx.graphics.postprocessing.PostProcessorEffect;
 import de.bitbrain.braingdx.graphics.postprocessing.filters.Vignetting;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusibleEffect;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.FusibleStage;
+import de.bitbrain.braingdx.graphics.postprocessing.fusion.VignetteStage;
 
-public final class Vignette extends PostProcessorEffect {
+public final class Vignette extends PostProcessorEffect implements FusibleEffect {
    private Vignetting vignetting;
+   private Array<FusibleStage> stages;
    private boolean controlSaturation;
    private float oneOnW, oneOnH;
 
@@ -133,6 +138,24 @@ public final class Vignette extends PostProcessorEffect {
       return vignetting.isGradientMappingEnabled();
    }
 
+   @Override
+   public Array<FusibleStage> getStages() {
+      if (stages == null) {
+         stages = new Array<FusibleStage>(new FusibleStage[]{new VignetteStage(controlSaturation)});
+      }
+      VignetteStage stage = (VignetteStage) stages.first();
+      stage.setCoords(vignetting.getX(), vignetting.getY());
+      stage.setCenter(vignetting.getCenterX(), vignetting.getCenterY());
+      stage.setIntensity(vignetting.getIntensity());
+      stage.setSaturation(vignetting.getSaturation());
+      stage.setSaturationMul(vignetting.getSaturationMul());
+      stage.setLut(vignetting.getLut());
+      stage.setLutIndices(vignetting.getLutIndexVal(0), vignetting.getLutIndexVal(1));
+      stage.setLutIndexOffset(vignetting.getLutIndexOffset());
+      stage.setLutIntensity(vignetting.getLutIntensity());
+      return stages;
+   }
+
    @Override
    public void rebind() {
       vignetting.rebind();
@@ -34,18 +34,7 @@ public final class CrtScreen extends Filter<CrtScreen> {
    private RgbMode mode;
 
    public CrtScreen(boolean barrelDistortion, RgbMode mode, int effectsSupport) {
-      // @off
-      super(ShaderLoader.fromFile("screenspace", "crt-screen",
-            (barrelDistortion ? "#define ENABLE_BARREL_DISTORTION\n" : "")
-                  + (mode == RgbMode.RgbShift ? "#define ENABLE_RGB_SHIFT\n" : "")
-                  + (mode == RgbMode.ChromaticAberrations ? "#define ENABLE_CHROMATIC_ABERRATIONS\n" : "")
-                  + (isSet(Effect.TweakContrast.v, effectsSupport) ? "#define ENABLE_TWEAK_CONTRAST\n" : "")
-                  + (isSet(Effect.Vignette.v, effectsSupport) ? "#define ENABLE_VIGNETTE\n" : "")
-                  + (isSet(Effect.Tint.v, effectsSupport) ? "#define ENABLE_TINT\n" : "")
-                  + (isSet(Effect.Scanlines.v, effectsSupport) ? "#define ENABLE_SCANLINES\n" : "")
-                  + (isSet(Effect.PhosphorVibrance.v, effectsSupport) ? "#define ENABLE_PHOSPHOR_VIBRANCE\n" : "")
-                  + (isSet(Effect.ScanDistortion.v, effectsSupport) ? "#define ENABLE_SCAN_DISTORTION\n" : "")));
-      // @on
+      super(ShaderLoader.fromFile("screenspace", "crt-screen", ShaderDefines.crtScreen(barrelDistortion, mode, effectsSupport)));
 
       dodistortion = barrelDistortion;
 
@@ -74,10 +63,6 @@ public final class CrtScreen extends Filter<CrtScreen> {
       }
    }
 
-   private static boolean isSet(int flag, int flags) {
-      return (flags & flag) == flag;
-   }
-
    public void setColorOffset(float offset) {
       this.offset = offset;
       if (mode == RgbMode.RgbShift) {
@@ -0,0 +1,153 @@
+package de.bitbrain.braingdx.graphics.postprocessing.filters;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.Texture.TextureWrap;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import de.bitbrain.braingdx.graphics.postprocessing.PostProcessor;
+
+/**
+ * Blurs by downsampling the input along a chain of buffers of half resolution each and
+ * upsampling it again (dual filtering). Every level doubles the blur radius while the
+ * cost of a level is only a quarter of the previous one, so wide blur comes at a fraction
+ * of the fill cost of repeated full resolution passes.
+ * <p>
+ * The result has half the resolution of the input and relies on bilinear filtering
+ * when being upscaled.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public final class DualKawaseBlur {
+
+   public enum Quality {
+      VeryHigh(6), High(5), Normal(4), Medium(3), Low(2);
+
+      final int levels;
+
+      private Quality(int levels) {
+         this.levels = levels;
+      }
+
+      public int getLevels() {
+         return levels;
+      }
+   }
+
+   private final KawaseSample downsample;
+   private final KawaseSample upsample;
+   private final FrameBuffer[] mips;
+   private final int width;
+   private final int height;
+
+   /**
+    * @param width  width of the input
+    * @param height height of the input
+    */
+   public DualKawaseBlur(int width, int height, Quality quality) {
+      this(width, height, quality.levels);
+   }
+
+   /**
+    * @param width  width of the input
+    * @param height height of the input
+    * @param levels number of downsampling steps, limited by the size of the input
+    */
+   public DualKawaseBlur(int width, int height, int levels) {
+      this.width = width;
+      this.height = height;
+      this.mips = new FrameBuffer[clampLevels(width, height, levels)];
+      for (int i = 0; i < mips.length; ++i) {
+         mips[i] = new FrameBuffer(PostProcessor.getFramebufferFormat(), mipSize(width, i + 1), mipSize(height, i + 1), false);
+         Texture texture = mips[i].getColorBufferTexture();
+         texture.setFilter(TextureFilter.Linear, TextureFilter.Linear);
+         texture.setWrap(TextureWrap.ClampToEdge, TextureWrap.ClampToEdge);
+      }
+      downsample = new KawaseSample(KawaseSample.Direction.Down);
+      upsample = new KawaseSample(KawaseSample.Direction.Up);
+   }
+
+   public int getLevels() {
+      return mips.length;
+   }
+
+   public float getOffset() {
+      return downsample.getOffset();
+   }
+
+   /**
+    * Scales the distance of samples of each pass, 1 by default.
+    */
+   public void setOffset(float offset) {
+      downsample.setOffset(offset);
+      upsample.setOffset(offset);
+   }
+
+   /**
+    * Blurs the given input, which is expected to be of the size this blur has been created with.
+    *
+    * @return the blurred texture at half the resolution of the input
+    */
+   public Texture render(Texture input) {
+      boolean blendingWasEnabled = PostProcessor.isStateEnabled(GL20.GL_BLEND);
+      Gdx.gl.glDisable(GL20.GL_BLEND);
+      Texture source = input;
+      int sourceWidth = width;
+      int sourceHeight = height;
+      for (int i = 0; i < mips.length; ++i) {
+         downsample.setInputSize(sourceWidth, sourceHeight).setInput(source).setOutput(mips[i]).render();
+         source = mips[i].getColorBufferTexture();
+         sourceWidth = mips[i].getWidth();
+         sourceHeight = mips[i].getHeight();
+      }
+      for (int i = mips.length - 1; i > 0; --i) {
+         upsample.setInputSize(sourceWidth, sourceHeight).setInput(source).setOutput(mips[i - 1]).render();
+         source = mips[i - 1].getColorBufferTexture();
+         sourceWidth = mips[i - 1].getWidth();
+         sourceHeight = mips[i - 1].getHeight();
+      }
+      if (blendingWasEnabled) {
+         Gdx.gl.glEnable(GL20.GL_BLEND);
+      }
+      return source;
+   }
+
+   public void rebind() {
+      downsample.rebind();
+      upsample.rebind();
+      for (FrameBuffer mip : mips) {
+         Texture texture = mip.getColorBufferTexture();
+         texture.setFilter(TextureFilter.Linear, TextureFilter.Linear);
+         texture.setWrap(TextureWrap.ClampToEdge, TextureWrap.ClampToEdge);
+      }
+   }
+
+   public void dispose() {
+      downsample.dispose();
+      upsample.dispose();
+      for (FrameBuffer mip : mips) {
+         mip.dispose();
+      }
+   }
+
+   /**
+    * @return the size of the given mip level of an input of the given size, at least 1
+    */
+   static int mipSize(int size, int level) {
+      return Math.max(1, size >> level);
+   }
+
+   /**
+    * Limits the number of levels, so the smallest level is at least 1 pixel wide and high,
+    * while keeping at least a single level.
+    */
+   static int clampLevels(int width, int height, int levels) {
+      int maxLevels = 1;
+      while ((Math.min(width, height) >> (maxLevels + 1)) >= 1) {
+         maxLevels++;
+      }
+      return Math.max(1, Math.min(levels, maxLevels));
+   }
+}
@@ -23,10 +23,16 @@ import com.badlogic.gdx.math.Matrix3;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.ObjectMap;
 import de.bitbrain.braingdx.graphics.postprocessing.utils.FullscreenQuad;
+import de.bitbrain.braingdx.util.ShaderLoader;
 
 /**
  * The base class for any single-pass filter.
+ * <p>
+ * Programs obtained via {@link ShaderLoader#fromFile(String, String, String)} are shared between
+ * filters, so a filter re-uploads all of its parameters via {@link #rebind()} before rendering in
+ * case another filter has changed the parameters of its program.
  */
 
 @SuppressWarnings("unchecked")
@@ -37,10 +43,13 @@ public abstract class Filter<T> {
    protected static final int u_texture1 = 1;
    protected static final int u_texture2 = 2;
    protected static final int u_texture3 = 3;
+   // the filter whose parameters are currently set on a program
+   private static final ObjectMap<ShaderProgram, Filter<?>> programOwners = new ObjectMap<ShaderProgram, Filter<?>>();
    protected Texture inputTexture = null;
    protected FrameBuffer outputBuffer = null;
    protected ShaderProgram program = null;
    private boolean programBegan = false;
+
    public Filter(ShaderProgram program) {
       this.program = program;
    }
@@ -60,7 +69,10 @@ public abstract class Filter<T> {
    }
 
    public void dispose() {
-      program.dispose();
+      if (programOwners.get(program) == this) {
+         programOwners.remove(program);
+      }
+      ShaderLoader.release(program);
    }
 
    /**
@@ -70,7 +82,7 @@ public abstract class Filter<T> {
 
    // int
    protected void setParam(Parameter param, int value) {
-      program.begin();
+      beginParam();
       program.setUniformi(param.mnemonic(), value);
       program.end();
    }
@@ -83,28 +95,28 @@ public abstract class Filter<T> {
 
    // float
    protected void setParam(Parameter param, float value) {
-      program.begin();
+      beginParam();
       program.setUniformf(param.mnemonic(), value);
       program.end();
    }
 
    // vec2
    protected void setParam(Parameter param, Vector2 value) {
-      program.begin();
+      beginParam();
       program.setUniformf(param.mnemonic(), value);
       program.end();
    }
 
    // vec3
    protected void setParam(Parameter param, Vector3 value) {
-      program.begin();
+      beginParam();
       program.setUniformf(param.mnemonic(), value);
       program.end();
    }
 
    // mat3
    protected T setParam(Parameter param, Matrix3 value) {
-      program.begin();
+      beginParam();
       program.setUniformMatrix(param.mnemonic(), value);
       program.end();
       return (T) this;
@@ -112,7 +124,7 @@ public abstract class Filter<T> {
 
    // mat4
    protected T setParam(Parameter param, Matrix4 value) {
-      program.begin();
+      beginParam();
       program.setUniformMatrix(param.mnemonic(), value);
       program.end();
       return (T) this;
@@ -120,7 +132,7 @@ public abstract class Filter<T> {
 
    // float[], vec2[], vec3[], vec4[]
    protected T setParamv(Parameter param, float[] values, int offset, int length) {
-      program.begin();
+      beginParam();
 
       switch (param.arrayElementSize()) {
          case 4:
@@ -151,7 +163,7 @@ public abstract class Filter<T> {
    protected T setParams(Parameter param, float value) {
       if (!programBegan) {
          programBegan = true;
-         program.begin();
+         beginParam();
       }
       program.setUniformf(param.mnemonic(), value);
       return (T) this;
@@ -161,7 +173,7 @@ public abstract class Filter<T> {
    protected T setParams(Parameter param, int value) {
       if (!programBegan) {
          programBegan = true;
-         program.begin();
+         beginParam();
       }
       program.setUniformi(param.mnemonic(), value);
       return (T) this;
@@ -171,7 +183,7 @@ public abstract class Filter<T> {
    protected T setParams(Parameter param, Vector2 value) {
       if (!programBegan) {
          programBegan = true;
-         program.begin();
+         beginParam();
       }
       program.setUniformf(param.mnemonic(), value);
       return (T) this;
@@ -181,7 +193,7 @@ public abstract class Filter<T> {
    protected T setParams(Parameter param, Vector3 value) {
       if (!programBegan) {
          programBegan = true;
-         program.begin();
+         beginParam();
       }
       program.setUniformf(param.mnemonic(), value);
       return (T) this;
@@ -191,7 +203,7 @@ public abstract class Filter<T> {
    protected T setParams(Parameter param, Matrix3 value) {
       if (!programBegan) {
          programBegan = true;
-         program.begin();
+         beginParam();
       }
       program.setUniformMatrix(param.mnemonic(), value);
       return (T) this;
@@ -201,7 +213,7 @@ public abstract class Filter<T> {
    protected T setParams(Parameter param, Matrix4 value) {
       if (!programBegan) {
          programBegan = true;
-         program.begin();
+         beginParam();
       }
       program.setUniformMatrix(param.mnemonic(), value);
       return (T) this;
@@ -211,7 +223,7 @@ public abstract class Filter<T> {
    protected T setParamsv(Parameter param, float[] values, int offset, int length) {
       if (!programBegan) {
          programBegan = true;
-         program.begin();
+         beginParam();
       }
 
       switch (param.arrayElementSize()) {
@@ -259,6 +271,10 @@ public abstract class Filter<T> {
    }
 
    private void realRender() {
+      if (programOwners.get(program) != this) {
+         rebind();
+         programOwners.put(program, this);
+      }
       // gives a chance to filters to perform needed operations just before the rendering
       // operation take place.
       onBeforeRender();
@@ -268,6 +284,14 @@ public abstract class Filter<T> {
       program.end();
    }
 
+   private void beginParam() {
+      if (programOwners.get(program) != this) {
+         // the program holds parameters of another filter as well now
+         programOwners.remove(program);
+      }
+      program.begin();
+   }
+
    public interface Parameter {
       String mnemonic();
 
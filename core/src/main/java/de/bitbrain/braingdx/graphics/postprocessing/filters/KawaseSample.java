@@ -0,0 +1,89 @@
+package de.bitbrain.braingdx.graphics.postprocessing.filters;
+
+import com.badlogic.gdx.math.Vector2;
+import de.bitbrain.braingdx.util.ShaderLoader;
+
+/**
+ * Single pass of a dual filtering blur (see {@link DualKawaseBlur}) which either halves
+ * or doubles the resolution of its input.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public final class KawaseSample extends Filter<KawaseSample> {
+
+   public enum Direction {
+      Down("kawase-downsample"), Up("kawase-upsample");
+
+      private final String fragment;
+
+      private Direction(String fragment) {
+         this.fragment = fragment;
+      }
+   }
+
+   private final Vector2 halfPixel = new Vector2();
+   private float offset = 1f;
+
+   public KawaseSample(Direction direction) {
+      super(ShaderLoader.fromFile("screenspace", direction.fragment));
+      rebind();
+   }
+
+   /**
+    * Sets the size of the input, which determines the distance of the samples.
+    */
+   public KawaseSample setInputSize(int width, int height) {
+      halfPixel.set(0.5f / width, 0.5f / height);
+      setParams(Param.HalfPixel, halfPixel).endParams();
+      return this;
+   }
+
+   public float getOffset() {
+      return offset;
+   }
+
+   /**
+    * Scales the distance of the samples, 1 by default. Larger offsets result in wider blur.
+    */
+   public void setOffset(float offset) {
+      this.offset = offset;
+      setParam(Param.Offset, offset);
+   }
+
+   @Override
+   protected void onBeforeRender() {
+      inputTexture.bind(u_texture0);
+   }
+
+   @Override
+   public void rebind() {
+      setParams(Param.Texture, u_texture0);
+      setParams(Param.HalfPixel, halfPixel);
+      setParams(Param.Offset, offset).endParams();
+   }
+
+   public enum Param implements Parameter {
+      // @formatter:off
+      Texture("u_texture0", 0), HalfPixel("halfPixel", 2), Offset("offset", 0);
+      // @formatter:on
+
+      private final String mnemonic;
+      private final int elementSize;
+
+      private Param(String mnemonic, int elementSize) {
+         this.mnemonic = mnemonic;
+         this.elementSize = elementSize;
+      }
+
+      @Override
+      public String mnemonic() {
+         return this.mnemonic;
+      }
+
+      @Override
+      public int arrayElementSize() {
+         return this.elementSize;
+      }
+   }
+}
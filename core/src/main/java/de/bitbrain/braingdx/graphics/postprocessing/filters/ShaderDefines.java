@@ -0,0 +1,45 @@
+package de.bitbrain.braingdx.graphics.postprocessing.filters;
+
+import de.bitbrain.braingdx.graphics.postprocessing.filters.CrtScreen.Effect;
+import de.bitbrain.braingdx.graphics.postprocessing.filters.CrtScreen.RgbMode;
+
+/**
+ * Defines of configurable filter shaders, shared with the fusible stages generated from the
+ * same shaders (see {@link de.bitbrain.braingdx.graphics.postprocessing.fusion.ShaderSourceStage}).
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public final class ShaderDefines {
+
+   private ShaderDefines() {
+   }
+
+   /**
+    * @return the defines of the crt-screen shader, see {@link CrtScreen}
+    */
+   public static String crtScreen(boolean barrelDistortion, RgbMode mode, int effectsSupport) {
+      // @off
+      return (barrelDistortion ? "#define ENABLE_BARREL_DISTORTION\n" : "")
+            + (mode == RgbMode.RgbShift ? "#define ENABLE_RGB_SHIFT\n" : "")
+            + (mode == RgbMode.ChromaticAberrations ? "#define ENABLE_CHROMATIC_ABERRATIONS\n" : "")
+            + (isSet(Effect.TweakContrast.v, effectsSupport) ? "#define ENABLE_TWEAK_CONTRAST\n" : "")
+            + (isSet(Effect.Vignette.v, effectsSupport) ? "#define ENABLE_VIGNETTE\n" : "")
+            + (isSet(Effect.Tint.v, effectsSupport) ? "#define ENABLE_TINT\n" : "")
+            + (isSet(Effect.Scanlines.v, effectsSupport) ? "#define ENABLE_SCANLINES\n" : "")
+            + (isSet(Effect.PhosphorVibrance.v, effectsSupport) ? "#define ENABLE_PHOSPHOR_VIBRANCE\n" : "")
+            + (isSet(Effect.ScanDistortion.v, effectsSupport) ? "#define ENABLE_SCAN_DISTORTION\n" : "");
+      // @on
+   }
+
+   /**
+    * @return the defines of the vignetting shader, see {@link Vignetting}
+    */
+   public static String vignetting(boolean controlSaturation) {
+      return controlSaturation ? "#define CONTROL_SATURATION\n#define ENABLE_GRADIENT_MAPPING" : "#define ENABLE_GRADIENT_MAPPING";
+   }
+
+   private static boolean isSet(int flag, int flags) {
+      return (flags & flag) == flag;
+   }
+}
@@ -32,8 +32,7 @@ public final class Vignetting extends Filter<Vignetting> {
    private float centerX, centerY;
 
    public Vignetting(boolean controlSaturation) {
-      super(ShaderLoader.fromFile("screenspace", "vignetting", (controlSaturation
-            ? "#define CONTROL_SATURATION\n#define ENABLE_GRADIENT_MAPPING" : "#define ENABLE_GRADIENT_MAPPING")));
+      super(ShaderLoader.fromFile("screenspace", "vignetting", ShaderDefines.vignetting(controlSaturation)));
       dolut = false;
       dosat = controlSaturation;
 
@@ -77,6 +76,10 @@ public final class Vignetting extends Filter<Vignetting> {
       setParam(Param.LutIndexOffset, lutIndexOffset);
    }
 
+   public float getLutIndexOffset() {
+      return lutIndexOffset;
+   }
+
    /**
     * Specify the center, in normalized screen coordinates.
     */
@@ -0,0 +1,73 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+
+/**
+ * Fusible equivalent of {@link de.bitbrain.braingdx.graphics.postprocessing.filters.Combine},
+ * generated from its shader, which combines the current color (source 1) with a second
+ * texture (source 2), e.g. the result of a blur which has been rendered beforehand.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class CombineStage extends ShaderSourceStage {
+
+   private Texture texture;
+   private float s1i = 1f, s1s = 1f, s2i = 1f, s2s = 1f;
+
+   public CombineStage(Texture texture) {
+      super("combine", "");
+      this.texture = texture;
+   }
+
+   public Texture getTexture() {
+      return texture;
+   }
+
+   public void setTexture(Texture texture) {
+      this.texture = texture;
+   }
+
+   public float getSource1Intensity() {
+      return s1i;
+   }
+
+   public void setSource1Intensity(float intensity) {
+      s1i = intensity;
+   }
+
+   public float getSource2Intensity() {
+      return s2i;
+   }
+
+   public void setSource2Intensity(float intensity) {
+      s2i = intensity;
+   }
+
+   public float getSource1Saturation() {
+      return s1s;
+   }
+
+   public void setSource1Saturation(float saturation) {
+      s1s = saturation;
+   }
+
+   public float getSource2Saturation() {
+      return s2s;
+   }
+
+   public void setSource2Saturation(float saturation) {
+      s2s = saturation;
+   }
+
+   @Override
+   public void apply(ShaderProgram program, String prefix, int firstTextureUnit) {
+      texture.bind(firstTextureUnit);
+      setUniformi(program, prefix + "u_texture1", firstTextureUnit);
+      setUniformf(program, prefix + "Src1Intensity", s1i);
+      setUniformf(program, prefix + "Src1Saturation", s1s);
+      setUniformf(program, prefix + "Src2Intensity", s2i);
+      setUniformf(program, prefix + "Src2Saturation", s2s);
+   }
+}
@@ -0,0 +1,98 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import de.bitbrain.braingdx.graphics.postprocessing.filters.CrtScreen;
+import de.bitbrain.braingdx.graphics.postprocessing.filters.CrtScreen.RgbMode;
+import de.bitbrain.braingdx.graphics.postprocessing.filters.ShaderDefines;
+
+/**
+ * Fusible equivalent of {@link CrtScreen}, generated from its shader. Since the shader samples
+ * the input at distorted coordinates, this is a source stage and has to be the first stage of a
+ * program.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class CrtStage extends ShaderSourceStage {
+
+   private final RgbMode mode;
+   private final Color tint = new Color(1f, 1f, 0.85f, 1f);
+   private float time;
+   private float offset = 0.003f;
+   private float cdRedCyan = -0.1f, cdBlueYellow = -0.1f;
+   private float distortion = 0.3f;
+   private float zoom = 1f;
+
+   /**
+    * @param effectsSupport flags of {@link CrtScreen.Effect} values
+    */
+   public CrtStage(boolean barrelDistortion, RgbMode mode, int effectsSupport) {
+      super("crt-screen", ShaderDefines.crtScreen(barrelDistortion, mode, effectsSupport));
+      this.mode = mode;
+   }
+
+   public RgbMode getRgbMode() {
+      return mode;
+   }
+
+   public float getTime() {
+      return time;
+   }
+
+   public void setTime(float elapsedSecs) {
+      this.time = elapsedSecs;
+   }
+
+   public float getOffset() {
+      return offset;
+   }
+
+   public void setColorOffset(float offset) {
+      this.offset = offset;
+   }
+
+   public void setChromaticDispersion(float redCyan, float blueYellow) {
+      this.cdRedCyan = redCyan;
+      this.cdBlueYellow = blueYellow;
+   }
+
+   public Color getTint() {
+      return tint;
+   }
+
+   public void setTint(float r, float g, float b) {
+      tint.set(r, g, b, 1f);
+   }
+
+   public void setTint(Color color) {
+      tint.set(color);
+   }
+
+   public float getDistortion() {
+      return distortion;
+   }
+
+   public void setDistortion(float distortion) {
+      this.distortion = distortion;
+   }
+
+   public float getZoom() {
+      return zoom;
+   }
+
+   public void setZoom(float zoom) {
+      this.zoom = zoom;
+   }
+
+   @Override
+   public void apply(ShaderProgram program, String prefix, int firstTextureUnit) {
+      setUniformf(program, prefix + "time", time % MathUtils.PI);
+      setUniformf(program, prefix + "tint", tint.r, tint.g, tint.b);
+      setUniformf(program, prefix + "offset", offset);
+      setUniformf(program, prefix + "chromaticDispersion", cdRedCyan, cdBlueYellow);
+      setUniformf(program, prefix + "Distortion", distortion);
+      setUniformf(program, prefix + "zoom", zoom);
+   }
+}
@@ -0,0 +1,77 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+import de.bitbrain.braingdx.util.ShaderLoader;
+
+/**
+ * Compiles the programs of chains of {@link FusibleStage} instances once per signature.
+ * Programs are owned by this cache and disposed together with it.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class FusedProgramCache implements Disposable {
+
+   public interface ProgramFactory {
+      ShaderProgram create(String signature, String fragmentSource);
+   }
+
+   private final ObjectMap<String, ShaderProgram> programs = new ObjectMap<String, ShaderProgram>();
+   private final ProgramFactory factory;
+
+   public FusedProgramCache() {
+      this(new ScreenSpaceProgramFactory());
+   }
+
+   public FusedProgramCache(ProgramFactory factory) {
+      this.factory = factory;
+   }
+
+   /**
+    * @return the program of the given chain of stages, compiled in case it is not cached yet
+    */
+   public ShaderProgram obtain(Array<FusibleStage> stages) {
+      final String signature = FusedShaderBuilder.signatureOf(stages);
+      ShaderProgram program = programs.get(signature);
+      if (program == null) {
+         program = factory.create(signature, FusedShaderBuilder.buildFragmentSource(stages));
+         programs.put(signature, program);
+      }
+      return program;
+   }
+
+   public boolean contains(Array<FusibleStage> stages) {
+      return programs.containsKey(FusedShaderBuilder.signatureOf(stages));
+   }
+
+   /**
+    * @return the number of programs compiled by this cache
+    */
+   public int size() {
+      return programs.size;
+   }
+
+   @Override
+   public void dispose() {
+      for (ShaderProgram program : programs.values()) {
+         program.dispose();
+      }
+      programs.clear();
+   }
+
+   private static class ScreenSpaceProgramFactory implements ProgramFactory {
+
+      private String vertexSource;
+
+      @Override
+      public ShaderProgram create(String signature, String fragmentSource) {
+         if (vertexSource == null) {
+            vertexSource = ShaderLoader.PathResolver.resolve(ShaderLoader.BasePath + "screenspace.vertex").readString();
+         }
+         return ShaderLoader.fromString(vertexSource, fragmentSource, "screenspace", "fused(" + signature + ")");
+      }
+   }
+}
@@ -0,0 +1,84 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Generates the fragment shader source of a chain of {@link FusibleStage} instances.
+ * Programs of chains with equal signatures share the same source.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public final class FusedShaderBuilder {
+
+   private FusedShaderBuilder() {
+   }
+
+   /**
+    * @return the signature of the given chain of stages
+    */
+   public static String signatureOf(Array<FusibleStage> stages) {
+      StringBuilder signature = new StringBuilder();
+      for (int i = 0; i < stages.size; ++i) {
+         if (i > 0) {
+            signature.append(';');
+         }
+         signature.append(stages.get(i).getSignature());
+      }
+      return signature.toString();
+   }
+
+   /**
+    * @return the prefix of all declarations of the stage at the given index
+    */
+   public static String prefixOf(int index) {
+      return "s" + index + "_";
+   }
+
+   /**
+    * @throws IllegalArgumentException in case the chain is empty or a source stage is not the first stage
+    */
+   public static void validate(Array<FusibleStage> stages) {
+      if (stages.size == 0) {
+         throw new IllegalArgumentException("At least one stage is required.");
+      }
+      for (int i = 1; i < stages.size; ++i) {
+         if (stages.get(i).isSourceStage()) {
+            throw new IllegalArgumentException("Stage " + stages.get(i).getSignature()
+                  + " samples its input and has to be the first stage.");
+         }
+      }
+   }
+
+   public static String buildFragmentSource(Array<FusibleStage> stages) {
+      validate(stages);
+      StringBuilder source = new StringBuilder();
+      source.append("#ifdef GL_ES\n");
+      source.append("\t#define PRECISION mediump\n");
+      source.append("\tprecision PRECISION float;\n");
+      source.append("#else\n");
+      source.append("\t#define PRECISION\n");
+      source.append("#endif\n\n");
+      source.append("uniform PRECISION sampler2D u_texture0;\n");
+      source.append("varying vec2 v_texCoords;\n");
+      for (int i = 0; i < stages.size; ++i) {
+         source.append("\n// ").append(stages.get(i).getSignature()).append('\n');
+         stages.get(i).appendDeclarations(source, prefixOf(i));
+      }
+      source.append("\nvoid main() {\n");
+      source.append("\tvec2 uv = v_texCoords;\n");
+      if (stages.first().isSourceStage()) {
+         source.append("\tvec4 color = vec4(0.0);\n");
+      } else {
+         source.append("\tvec4 color = texture2D(u_texture0, uv);\n");
+      }
+      for (int i = 0; i < stages.size; ++i) {
+         source.append("\t{\n");
+         stages.get(i).appendBody(source, prefixOf(i));
+         source.append("\t}\n");
+      }
+      source.append("\tgl_FragColor = color;\n");
+      source.append("}\n");
+      return source.toString();
+   }
+}
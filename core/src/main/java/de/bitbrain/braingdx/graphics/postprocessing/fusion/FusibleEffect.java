@@ -0,0 +1,21 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A {@link de.bitbrain.braingdx.graphics.postprocessing.PostProcessorEffect} which can be
+ * rendered by {@link FusibleStage}s instead. The
+ * {@link de.bitbrain.braingdx.graphics.postprocessing.PostProcessor} renders adjacent fusible
+ * effects within a single pass.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public interface FusibleEffect {
+
+   /**
+    * @return the stages which render this effect, up to date with the current parameters of the
+    * effect. The same stage instances have to be returned as long as the effect exists.
+    */
+   Array<FusibleStage> getStages();
+}
@@ -0,0 +1,50 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+
+/**
+ * A per-pixel effect which can be fused with other stages into a single shader program
+ * via {@link FusedShaderBuilder}. Stages operate on a <code>vec4 color</code> at the screen
+ * coordinate <code>vec2 uv</code> and must not depend on neighbouring pixels of the color
+ * computed by previous stages.
+ * <p>
+ * All uniforms and functions a stage declares have to be prefixed with the given prefix,
+ * so stages of the same type can occur more than once within a program.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public interface FusibleStage {
+
+   /**
+    * @return identifies the generated source of this stage. Stages which generate different
+    * source code must return different signatures, uniform values are not part of it.
+    */
+   String getSignature();
+
+   /**
+    * @return true if this stage samples the input texture <code>u_texture0</code> itself,
+    * e.g. at distorted coordinates. Such a stage can only be the first stage of a program.
+    */
+   boolean isSourceStage();
+
+   /**
+    * @return the number of additional textures this stage binds
+    */
+   int getTextureCount();
+
+   void appendDeclarations(StringBuilder source, String prefix);
+
+   /**
+    * Appends the statements which update <code>color</code>. Source stages have to
+    * assign <code>color</code> from <code>u_texture0</code>.
+    */
+   void appendBody(StringBuilder source, String prefix);
+
+   /**
+    * Sets the uniforms of this stage and binds its textures. The program has already begun.
+    *
+    * @param firstTextureUnit the first texture unit this stage may bind textures to
+    */
+   void apply(ShaderProgram program, String prefix, int firstTextureUnit);
+}
@@ -0,0 +1,102 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import de.bitbrain.braingdx.util.ShaderLoader;
+
+import java.util.Arrays;
+
+/**
+ * A stage which is generated from the fragment shader of an existing filter, so the fused
+ * program computes exactly what the filter computes. The shader is read via {@link ShaderLoader}
+ * once the stage is first used. All global names of the shader get prefixed, e.g. the uniform
+ * <code>tint</code> has to be set as <code>prefix + "tint"</code>.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public abstract class ShaderSourceStage implements FusibleStage {
+
+   private final String fragmentFileName;
+   private final String defines;
+   private final String signature;
+   private StageSource source;
+
+   /**
+    * @param fragmentFileName the fragment shader, as passed to {@link ShaderLoader#fromFile(String, String, String)}
+    * @param defines          the defines of the filter, as passed to {@link ShaderLoader#fromFile(String, String, String)}
+    */
+   protected ShaderSourceStage(String fragmentFileName, String defines) {
+      this.fragmentFileName = fragmentFileName;
+      this.defines = defines;
+      final String names = defines.replace("#define", "").trim();
+      if (names.isEmpty()) {
+         this.signature = fragmentFileName;
+      } else {
+         String[] sorted = names.split("\\s+");
+         Arrays.sort(sorted);
+         StringBuilder signature = new StringBuilder(fragmentFileName).append('(');
+         for (int i = 0; i < sorted.length; ++i) {
+            signature.append(i > 0 ? "," : "").append(sorted[i]);
+         }
+         this.signature = signature.append(')').toString();
+      }
+   }
+
+   @Override
+   public String getSignature() {
+      return signature;
+   }
+
+   @Override
+   public boolean isSourceStage() {
+      return source().isSourceStage();
+   }
+
+   @Override
+   public int getTextureCount() {
+      return source().getTextureCount();
+   }
+
+   @Override
+   public void appendDeclarations(StringBuilder source, String prefix) {
+      source().appendDeclarations(source, prefix);
+   }
+
+   @Override
+   public void appendBody(StringBuilder source, String prefix) {
+      source().appendBody(source, prefix);
+   }
+
+   // uniforms which are unused for the current defines are removed by the compiler
+
+   protected static void setUniformf(ShaderProgram program, String name, float value) {
+      if (program.hasUniform(name)) {
+         program.setUniformf(name, value);
+      }
+   }
+
+   protected static void setUniformf(ShaderProgram program, String name, float x, float y) {
+      if (program.hasUniform(name)) {
+         program.setUniformf(name, x, y);
+      }
+   }
+
+   protected static void setUniformf(ShaderProgram program, String name, float x, float y, float z) {
+      if (program.hasUniform(name)) {
+         program.setUniformf(name, x, y, z);
+      }
+   }
+
+   protected static void setUniformi(ShaderProgram program, String name, int value) {
+      if (program.hasUniform(name)) {
+         program.setUniformi(name, value);
+      }
+   }
+
+   private StageSource source() {
+      if (source == null) {
+         source = StageSource.parse(ShaderLoader.fragmentSourceOf(fragmentFileName), defines);
+      }
+      return source;
+   }
+}
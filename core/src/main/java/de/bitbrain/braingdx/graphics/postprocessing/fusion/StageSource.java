@@ -0,0 +1,236 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns the source of a screen space fragment shader into a {@link FusibleStage}:
+ * <ul>
+ * <li>conditional blocks are resolved for the given defines, the <code>GL_ES</code> precision
+ * block is dropped since the fused program declares it once</li>
+ * <li>the declarations of <code>u_texture0</code> and <code>v_texCoords</code> are shared</li>
+ * <li>all global uniforms, constants and functions get prefixed</li>
+ * <li><code>main</code> becomes a prefixed function which reads and writes the fused color
+ * instead of <code>gl_FragColor</code></li>
+ * </ul>
+ * Shaders which only sample <code>u_texture0</code> at <code>v_texCoords</code> read the fused
+ * color instead. Any other shader samples its input itself and is a source stage.
+ * <p>
+ * Only <code>#ifdef</code>, <code>#ifndef</code>, <code>#else</code> and <code>#endif</code> are
+ * supported, defines must not have values.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+final class StageSource {
+
+   private static final String QUALIFIER = "(?:(?:lowp|mediump|highp|PRECISION)\\s+)?";
+   private static final Pattern BLOCK_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+   private static final Pattern LINE_COMMENT = Pattern.compile("//[^\\n]*");
+   private static final Pattern DIRECTIVE = Pattern.compile("^\\s*#\\s*(\\w+)\\s*(\\w*).*$");
+   private static final Pattern SHARED = Pattern.compile("(?:uniform|varying)\\s+" + QUALIFIER
+         + "\\w+\\s+(?:u_texture0|v_texCoords)\\s*;");
+   private static final Pattern UNIFORM = Pattern.compile("\\buniform\\s+" + QUALIFIER + "(\\w+)\\s+(\\w+)\\s*;");
+   private static final Pattern CONSTANT = Pattern.compile("\\bconst\\s+" + QUALIFIER + "\\w+\\s+(\\w+)\\s*=");
+   private static final Pattern FUNCTION = Pattern.compile("\\b\\w+\\s+(\\w+)\\s*\\([^(){};]*\\)\\s*\\{");
+   private static final Pattern MAIN = Pattern.compile("\\bvoid\\s+main\\s*\\(\\s*(?:void)?\\s*\\)\\s*\\{");
+   private static final Pattern INPUT = Pattern.compile("texture2D\\s*\\(\\s*u_texture0\\s*,\\s*v_texCoords\\s*\\)");
+   private static final Pattern OUTPUT = Pattern.compile("\\bgl_FragColor\\b");
+   private static final Pattern SAMPLES_INPUT = Pattern.compile("\\bu_texture0\\b");
+
+   private final String globals;
+   private final String main;
+   private final Array<String> names;
+   private final int textureCount;
+   private final boolean sourceStage;
+
+   private StageSource(String globals, String main, Array<String> names, int textureCount, boolean sourceStage) {
+      this.globals = globals;
+      this.main = main;
+      this.names = names;
+      this.textureCount = textureCount;
+      this.sourceStage = sourceStage;
+   }
+
+   /**
+    * @param source  the source of the fragment shader
+    * @param defines defines as passed to {@link de.bitbrain.braingdx.util.ShaderLoader}, e.g.
+    *                <code>"#define A\n#define B"</code>
+    * @throws IllegalArgumentException in case the source is not supported
+    */
+   static StageSource parse(String source, String defines) {
+      source = LINE_COMMENT.matcher(BLOCK_COMMENT.matcher(source).replaceAll(" ")).replaceAll("");
+      source = SHARED.matcher(preprocess(source, namesOf(defines))).replaceAll("");
+      final String topLevel = topLevelOf(source);
+      Matcher mainMatcher = MAIN.matcher(topLevel);
+      if (!mainMatcher.find()) {
+         throw new IllegalArgumentException("Fragment shader has no main function.");
+      }
+      final int bodyStart = mainMatcher.end();
+      final int bodyEnd = closingBraceOf(source, bodyStart - 1);
+      final String globals = source.substring(0, mainMatcher.start()) + source.substring(bodyEnd + 1);
+      String main = source.substring(bodyStart, bodyEnd);
+
+      final Array<String> names = new Array<String>();
+      int textureCount = 0;
+      final String globalTopLevel = topLevel.substring(0, mainMatcher.start()) + topLevel.substring(bodyEnd + 1);
+      Matcher matcher = UNIFORM.matcher(globalTopLevel);
+      while (matcher.find()) {
+         names.add(matcher.group(2));
+         if (matcher.group(1).startsWith("sampler")) {
+            textureCount++;
+         }
+      }
+      matcher = CONSTANT.matcher(globalTopLevel);
+      while (matcher.find()) {
+         names.add(matcher.group(1));
+      }
+      matcher = FUNCTION.matcher(globalTopLevel);
+      while (matcher.find()) {
+         names.add(matcher.group(1));
+      }
+
+      final String pointwiseMain = INPUT.matcher(main).replaceAll("\\$input");
+      final boolean sourceStage = SAMPLES_INPUT.matcher(globals).find()
+            || SAMPLES_INPUT.matcher(pointwiseMain).find();
+      if (!sourceStage) {
+         main = pointwiseMain;
+      }
+      return new StageSource(globals, main, names, textureCount, sourceStage);
+   }
+
+   boolean isSourceStage() {
+      return sourceStage;
+   }
+
+   /**
+    * @return the number of textures the shader declares besides <code>u_texture0</code>
+    */
+   int getTextureCount() {
+      return textureCount;
+   }
+
+   void appendDeclarations(StringBuilder source, String prefix) {
+      source.append(rename(globals, prefix).trim()).append('\n');
+      final String color = prefix + "fragColor";
+      source.append("void ").append(prefix).append("main(inout vec4 ").append(color).append(") {\n");
+      if (!sourceStage) {
+         source.append("\tvec4 ").append(prefix).append("inputColor = ").append(color).append(";\n");
+      }
+      String body = OUTPUT.matcher(rename(main, prefix)).replaceAll(color);
+      body = body.replace("$input", prefix + "inputColor");
+      source.append(body.trim()).append("\n}\n");
+   }
+
+   void appendBody(StringBuilder source, String prefix) {
+      source.append("\t\t").append(prefix).append("main(color);\n");
+   }
+
+   private String rename(String source, String prefix) {
+      if (names.size == 0) {
+         return source;
+      }
+      StringBuilder alternatives = new StringBuilder();
+      for (int i = 0; i < names.size; ++i) {
+         if (i > 0) {
+            alternatives.append('|');
+         }
+         alternatives.append(Pattern.quote(names.get(i)));
+      }
+      // members and swizzles are never renamed
+      return Pattern.compile("(?<![\\w.])(" + alternatives + ")(?!\\w)").matcher(source)
+            .replaceAll(Matcher.quoteReplacement(prefix) + "$1");
+   }
+
+   private static Set<String> namesOf(String defines) {
+      Set<String> names = new HashSet<String>();
+      for (String line : defines.split("\n")) {
+         String[] parts = line.trim().split("\\s+");
+         if (parts.length == 1 && parts[0].length() == 0) {
+            continue;
+         }
+         if (parts.length != 2 || !parts[0].equals("#define")) {
+            throw new IllegalArgumentException("Unsupported define \"" + line + "\"");
+         }
+         names.add(parts[1]);
+      }
+      return names;
+   }
+
+   private static String preprocess(String source, Set<String> defines) {
+      final int kept = 0, skipped = 1, dropped = 2;
+      StringBuilder result = new StringBuilder();
+      IntArray blocks = new IntArray();
+      for (String line : source.split("\n")) {
+         Matcher directive = DIRECTIVE.matcher(line);
+         boolean keep = true;
+         for (int i = 0; i < blocks.size; ++i) {
+            keep &= blocks.get(i) == kept;
+         }
+         if (!directive.matches()) {
+            if (keep) {
+               result.append(line).append('\n');
+            }
+            continue;
+         }
+         final String name = directive.group(1);
+         final String argument = directive.group(2);
+         if (name.equals("ifdef") || name.equals("ifndef")) {
+            if (argument.equals("GL_ES")) {
+               blocks.add(dropped);
+            } else {
+               blocks.add(defines.contains(argument) == name.equals("ifdef") ? kept : skipped);
+            }
+         } else if (name.equals("else") && blocks.size > 0) {
+            final int block = blocks.pop();
+            blocks.add(block == dropped ? dropped : block == kept ? skipped : kept);
+         } else if (name.equals("endif") && blocks.size > 0) {
+            blocks.pop();
+         } else if (keep) {
+            throw new IllegalArgumentException("Unsupported directive \"" + line.trim() + "\"");
+         }
+      }
+      if (blocks.size > 0) {
+         throw new IllegalArgumentException("Missing #endif");
+      }
+      return result.toString();
+   }
+
+   /**
+    * @return the source with the content of all blocks blanked out, so only global declarations remain
+    */
+   private static String topLevelOf(String source) {
+      StringBuilder topLevel = new StringBuilder(source);
+      int depth = 0;
+      for (int i = 0; i < topLevel.length(); ++i) {
+         final char c = topLevel.charAt(i);
+         if (c == '}') {
+            depth--;
+         }
+         if (depth > 0 && c != '\n') {
+            topLevel.setCharAt(i, ' ');
+         }
+         if (c == '{') {
+            depth++;
+         }
+      }
+      return topLevel.toString();
+   }
+
+   private static int closingBraceOf(String source, int openingBrace) {
+      int depth = 0;
+      for (int i = openingBrace; i < source.length(); ++i) {
+         if (source.charAt(i) == '{') {
+            depth++;
+         } else if (source.charAt(i) == '}' && --depth == 0) {
+            return i;
+         }
+      }
+      throw new IllegalArgumentException("Unbalanced braces in fragment shader.");
+   }
+}
@@ -0,0 +1,159 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import de.bitbrain.braingdx.graphics.postprocessing.filters.ShaderDefines;
+import de.bitbrain.braingdx.graphics.postprocessing.filters.Vignetting;
+
+/**
+ * Fusible equivalent of {@link Vignetting}, generated from its shader, including the gradient
+ * mapping via a lookup texture. Each row of the lookup texture is a gradient, the result is
+ * mixed between the gradients of two rows.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class VignetteStage extends ShaderSourceStage {
+
+   private final boolean controlSaturation;
+   private float x = 0.8f, y = 0.25f;
+   private float centerX = 0.5f, centerY = 0.5f;
+   private float intensity = 1f;
+   private float saturation, saturationMul;
+   private Texture lut;
+   private int lutIndex = -1, lutIndex2 = -1;
+   private float lutIndexOffset;
+   private float lutIntensity = 1f;
+
+   public VignetteStage(boolean controlSaturation) {
+      super("vignetting", ShaderDefines.vignetting(controlSaturation));
+      this.controlSaturation = controlSaturation;
+   }
+
+   public boolean doesSaturationControl() {
+      return controlSaturation;
+   }
+
+   public void setCoords(float x, float y) {
+      this.x = x;
+      this.y = y;
+   }
+
+   public float getX() {
+      return x;
+   }
+
+   public float getY() {
+      return y;
+   }
+
+   /**
+    * Specify the center, in normalized screen coordinates.
+    */
+   public void setCenter(float x, float y) {
+      this.centerX = x;
+      this.centerY = y;
+   }
+
+   public float getCenterX() {
+      return centerX;
+   }
+
+   public float getCenterY() {
+      return centerY;
+   }
+
+   public float getIntensity() {
+      return intensity;
+   }
+
+   public void setIntensity(float intensity) {
+      this.intensity = intensity;
+   }
+
+   public float getSaturation() {
+      return saturation;
+   }
+
+   public void setSaturation(float saturation) {
+      this.saturation = saturation;
+   }
+
+   public float getSaturationMul() {
+      return saturationMul;
+   }
+
+   public void setSaturationMul(float saturationMul) {
+      this.saturationMul = saturationMul;
+   }
+
+   public Texture getLut() {
+      return lut;
+   }
+
+   /**
+    * Sets the texture with which gradient mapping will be performed.
+    */
+   public void setLut(Texture lut) {
+      this.lut = lut;
+   }
+
+   /**
+    * Sets the rows of the lookup texture to mix between. Gradient mapping is disabled as long
+    * as the first index is negative.
+    */
+   public void setLutIndices(int index, int index2) {
+      this.lutIndex = index;
+      this.lutIndex2 = index2;
+   }
+
+   public int getLutIndex() {
+      return lutIndex;
+   }
+
+   public int getLutIndex2() {
+      return lutIndex2;
+   }
+
+   /**
+    * @param lutIndexOffset mix between the gradient of the first (0) and the second (1) row
+    */
+   public void setLutIndexOffset(float lutIndexOffset) {
+      this.lutIndexOffset = lutIndexOffset;
+   }
+
+   public float getLutIndexOffset() {
+      return lutIndexOffset;
+   }
+
+   public float getLutIntensity() {
+      return lutIntensity;
+   }
+
+   public void setLutIntensity(float lutIntensity) {
+      this.lutIntensity = lutIntensity;
+   }
+
+   @Override
+   public void apply(ShaderProgram program, String prefix, int firstTextureUnit) {
+      setUniformf(program, prefix + "VignetteIntensity", intensity);
+      setUniformf(program, prefix + "VignetteX", x);
+      setUniformf(program, prefix + "VignetteY", y);
+      setUniformf(program, prefix + "CenterX", centerX);
+      setUniformf(program, prefix + "CenterY", centerY);
+      setUniformf(program, prefix + "Saturation", saturation);
+      setUniformf(program, prefix + "SaturationMul", saturationMul);
+      final boolean enabled = lut != null;
+      if (enabled) {
+         lut.bind(firstTextureUnit);
+      }
+      final float step = enabled ? 1f / lut.getHeight() : 0f;
+      setUniformi(program, prefix + "u_texture1", firstTextureUnit);
+      setUniformi(program, prefix + "LutIndex", enabled ? lutIndex : -1);
+      setUniformi(program, prefix + "LutIndex2", lutIndex2);
+      setUniformf(program, prefix + "LutIndexOffset", lutIndexOffset);
+      setUniformf(program, prefix + "LutIntensity", lutIntensity);
+      setUniformf(program, prefix + "LutStep", step);
+      setUniformf(program, prefix + "LutStepOffset", step / 2f);
+   }
+}
@@ -2,8 +2,16 @@ package de.bitbrain.braingdx.math;
 
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.Pool;
 import de.bitbrain.braingdx.world.GameObject;
 
+/**
+ * Persistent quad tree of game objects. Objects are inserted once and relocated via
+ * {@link #update(GameObject)} whenever they move. Nodes are pooled: they get split
+ * when they exceed their capacity and merged again once their subtree holds at most half of
+ * it, so objects moving back and forth at the capacity do not split and merge nodes every time.
+ */
 public class QuadTree {
 
    private static final int SOUTH_EAST = 0;
@@ -12,24 +20,47 @@ public class QuadTree {
    private static final int NORTH_EAST = 3;
 
    private int level;
-   private Array<GameObject> objects;
-   private Rectangle bounds;
-   private QuadTree[] nodes;
+   private final Array<GameObject> objects;
+   private final Rectangle bounds;
+   private final QuadTree[] nodes;
    private final int maxObjects;
    private final int maxLevel;
+   private QuadTree parent;
 
-   private final GameObject tmp = new GameObject();
+   private final QuadTree root;
+   private final IdentityMap<GameObject, QuadTree> locations;
+   private final Pool<QuadTree> nodePool;
+   private final Array<GameObject> buffer;
 
    public QuadTree(int maxObjects, int maxLevel, int level, Rectangle bounds) {
       this.maxObjects = maxObjects;
       this.maxLevel = maxLevel;
       this.level = level;
-      this.bounds = bounds;
-      objects = new Array<GameObject>();
-      nodes = new QuadTree[4];
-      tmp.setType("ROOT");
+      this.bounds = new Rectangle(bounds);
+      this.objects = new Array<GameObject>();
+      this.nodes = new QuadTree[4];
+      this.root = this;
+      this.locations = new IdentityMap<GameObject, QuadTree>();
+      this.buffer = new Array<GameObject>();
+      this.nodePool = new Pool<QuadTree>() {
+         @Override
+         protected QuadTree newObject() {
+            return new QuadTree(root);
+         }
+      };
    }
 
+   private QuadTree(QuadTree root) {
+      this.maxObjects = root.maxObjects;
+      this.maxLevel = root.maxLevel;
+      this.bounds = new Rectangle();
+      this.objects = new Array<GameObject>();
+      this.nodes = new QuadTree[4];
+      this.root = root;
+      this.locations = root.locations;
+      this.nodePool = root.nodePool;
+      this.buffer = root.buffer;
+   }
 
    public void getZones(Array<Rectangle> allZones) {
       allZones.add(bounds);
@@ -41,26 +72,151 @@ public class QuadTree {
       }
    }
 
+   /**
+    * Changes the bounds of this tree. All objects are re-inserted if the bounds differ.
+    */
+   public void setBounds(Rectangle bounds) {
+      if (root.bounds.equals(bounds)) {
+         return;
+      }
+      buffer.clear();
+      for (GameObject object : locations.keys()) {
+         buffer.add(object);
+      }
+      root.clear();
+      root.bounds.set(bounds);
+      for (int i = 0; i < buffer.size; ++i) {
+         root.insertInternally(buffer.get(i));
+      }
+      buffer.clear();
+   }
+
    public void clear() {
       objects.clear();
       for (int i = 0; i < nodes.length; i++) {
          if (nodes[i] != null) {
             nodes[i].clear();
+            nodePool.free(nodes[i]);
             nodes[i] = null;
          }
       }
+      if (this == root) {
+         locations.clear();
+      }
+   }
+
+   /**
+    * @return the number of objects within this tree
+    */
+   public int size() {
+      return locations.size;
+   }
+
+   public boolean contains(GameObject object) {
+      return locations.containsKey(object);
+   }
+
+   public void insert(GameObject object) {
+      if (locations.containsKey(object)) {
+         update(object);
+      } else {
+         root.insertInternally(object);
+      }
+   }
+
+   /**
+    * Removes the given object from this tree and merges underfull nodes.
+    *
+    * @return true when the object was part of this tree
+    */
+   public boolean remove(GameObject object) {
+      QuadTree node = locations.remove(object);
+      if (node == null) {
+         return false;
+      }
+      node.objects.removeValue(object, true);
+      node.merge();
+      return true;
+   }
+
+   /**
+    * Relocates the given object in case it does not belong to its current node anymore.
+    * Objects which are not part of this tree yet get inserted.
+    */
+   public void update(GameObject object) {
+      QuadTree current = locations.get(object);
+      if (current == null) {
+         root.insertInternally(object);
+         return;
+      }
+      QuadTree target = root.locate(object);
+      if (target == current) {
+         return;
+      }
+      current.objects.removeValue(object, true);
+      locations.remove(object);
+      target.insertInternally(object);
+      current.merge();
+   }
+
+   public Array<GameObject> retrieve(Array<GameObject> list, Rectangle area) {
+      int index = getIndex(area.getX(), area.getY(), area.getWidth(), area.getHeight());
+
+      if (index != -1 & nodes[0] != null) {
+         nodes[index].retrieve(list, area);
+      } else if (nodes[0] != null) {
+         // children hold objects by half-plane, so objects beyond the bounds are found as well
+         float verticalMidpoint = bounds.getX() + (bounds.getWidth() * 0.5f);
+         float horizontalMidpoint = bounds.getY() + (bounds.getHeight() * 0.5f);
+         boolean west = area.getX() < verticalMidpoint;
+         boolean east = area.getX() + area.getWidth() > verticalMidpoint;
+         boolean south = area.getY() < horizontalMidpoint;
+         boolean north = area.getY() + area.getHeight() > horizontalMidpoint;
+         if (east && south) {
+            nodes[SOUTH_EAST].retrieve(list, area);
+         }
+         if (west && south) {
+            nodes[SOUTH_WEST].retrieve(list, area);
+         }
+         if (west && north) {
+            nodes[NORTH_WEST].retrieve(list, area);
+         }
+         if (east && north) {
+            nodes[NORTH_EAST].retrieve(list, area);
+         }
+      }
+
+      list.addAll(objects);
+
+      return list;
+   }
+
+   public Array<GameObject> retrieveFast(Array<GameObject> list, Rectangle area) {
+      int index = getIndex(area.getX(), area.getY(), area.getWidth(), area.getHeight());
+
+      if (index != -1 & nodes[0] != null) {
+         nodes[index].retrieveFast(list, area);
+      }
+
+      //  This if(..) is configurable: only process elements in MAX_LEVEL and MAX_LEVEL-1
+      if (level == maxLevel || level == maxLevel - 1) {
+         list.addAll(objects);
+      }
+
+      return list;
    }
 
-   public void insert(GameObject rect) {
+   private void insertInternally(GameObject object) {
       if (nodes[0] != null) {
-         int index = getIndex(rect);
+         int index = getIndex(object);
          if (index != -1) {
-            nodes[index].insert(rect);
+            nodes[index].insertInternally(object);
             return;
          }
       }
 
-      objects.add(rect);
+      objects.add(object);
+      locations.put(object, this);
 
       if (objects.size > maxObjects && level < maxLevel) {
          if (nodes[0] == null) {
@@ -71,7 +227,7 @@ public class QuadTree {
          while (i < objects.size) {
             int index = getIndex(objects.get(i));
             if (index != -1) {
-               nodes[index].insert(objects.removeIndex(i));
+               nodes[index].insertInternally(objects.removeIndex(i));
             } else {
                i++;
             }
@@ -79,43 +235,55 @@ public class QuadTree {
       }
    }
 
-   public Array<GameObject> retrieve(Array<GameObject> list, Rectangle area) {
-      tmp.setPosition(area.getX(), area.getY());
-      tmp.setDimensions(area.getWidth(), area.getHeight());
-
-      int index = getIndex(tmp);
+   private QuadTree locate(GameObject object) {
+      QuadTree node = this;
+      while (node.nodes[0] != null) {
+         int index = node.getIndex(object);
+         if (index == -1) {
+            break;
+         }
+         node = node.nodes[index];
+      }
+      return node;
+   }
 
-      if (index != -1 & nodes[0] != null) {
-         nodes[index].retrieve(list, area);
-      } else {
-         for (QuadTree node : nodes) {
-            if (node != null && fitsInside(area, node)) {
-               node.retrieve(list, area);
+   private void merge() {
+      QuadTree node = this;
+      while (node != null) {
+         if (node.nodes[0] != null) {
+            if (!node.isUnderfull()) {
+               return;
             }
+            node.collapse();
          }
+         node = node.parent;
       }
-
-      list.addAll(objects);
-
-      return list;
    }
 
-   public Array<GameObject> retrieveFast(Array<GameObject> list, Rectangle area) {
-      tmp.setPosition(area.getX(), area.getY());
-      tmp.setDimensions(area.getWidth(), area.getHeight());
-
-      int index = getIndex(tmp);
-
-      if (index != -1 & nodes[0] != null) {
-         nodes[index].retrieveFast(list, area);
+   private boolean isUnderfull() {
+      int count = objects.size;
+      for (QuadTree node : nodes) {
+         if (node.nodes[0] != null) {
+            return false;
+         }
+         count += node.objects.size;
       }
+      return count <= maxObjects / 2;
+   }
 
-      //  This if(..) is configurable: only process elements in MAX_LEVEL and MAX_LEVEL-1
-      if (level == maxLevel || level == maxLevel - 1) {
-         list.addAll(objects);
+   private void collapse() {
+      for (int i = 0; i < nodes.length; ++i) {
+         QuadTree node = nodes[i];
+         for (int j = 0; j < node.objects.size; ++j) {
+            GameObject object = node.objects.get(j);
+            objects.add(object);
+            locations.put(object, this);
+         }
+         node.objects.clear();
+         node.parent = null;
+         nodePool.free(node);
+         nodes[i] = null;
       }
-
-      return list;
    }
 
    private void split() {
@@ -124,32 +292,39 @@ public class QuadTree {
       float x = bounds.getX();
       float y = bounds.getY();
 
-      nodes[SOUTH_EAST] = new QuadTree(maxObjects, maxLevel, level + 1, new Rectangle(x + subWidth, y, subWidth, subHeight));
-      nodes[SOUTH_WEST] = new QuadTree(maxObjects, maxLevel, level + 1, new Rectangle(x, y, subWidth, subHeight));
-      nodes[NORTH_WEST] = new QuadTree(maxObjects, maxLevel, level + 1, new Rectangle(x, y + subHeight, subWidth, subHeight));
-      nodes[NORTH_EAST] = new QuadTree(maxObjects, maxLevel, level + 1, new Rectangle(x + subWidth, y + subHeight, subWidth, subHeight));
+      nodes[SOUTH_EAST] = obtainNode(x + subWidth, y, subWidth, subHeight);
+      nodes[SOUTH_WEST] = obtainNode(x, y, subWidth, subHeight);
+      nodes[NORTH_WEST] = obtainNode(x, y + subHeight, subWidth, subHeight);
+      nodes[NORTH_EAST] = obtainNode(x + subWidth, y + subHeight, subWidth, subHeight);
+   }
 
+   private QuadTree obtainNode(float x, float y, float width, float height) {
+      QuadTree node = nodePool.obtain();
+      node.parent = this;
+      node.level = level + 1;
+      node.bounds.set(x, y, width, height);
+      return node;
    }
 
-   private boolean fitsInside(Rectangle area, QuadTree node) {
-      return area.contains(node.bounds) || area.overlaps(node.bounds);
+   private int getIndex(GameObject object) {
+      return getIndex(object.getLeft(), object.getTop(), object.getWidth(), object.getHeight());
    }
 
-   private int getIndex(GameObject pRect) {
+   private int getIndex(float left, float top, float width, float height) {
       int index = -1;
       float verticalMidpoint = bounds.getX() + (bounds.getWidth() * 0.5f);
       float horizontalMidpoint = bounds.getY() + (bounds.getHeight() * 0.5f);
 
-      boolean topQuadrant = pRect.getTop() > horizontalMidpoint;
-      boolean bottomQuadrant = pRect.getTop() + pRect.getHeight() < horizontalMidpoint;
+      boolean topQuadrant = top > horizontalMidpoint;
+      boolean bottomQuadrant = top + height < horizontalMidpoint;
 
-      if (pRect.getLeft() < verticalMidpoint && pRect.getLeft() + pRect.getWidth() < verticalMidpoint) {
+      if (left < verticalMidpoint && left + width < verticalMidpoint) {
          if (topQuadrant) {
             index = NORTH_WEST;
          } else if (bottomQuadrant) {
             index = SOUTH_WEST;
          }
-      } else if (pRect.getLeft() > verticalMidpoint) {
+      } else if (left > verticalMidpoint) {
          if (topQuadrant) {
             index = NORTH_EAST;
          } else if (bottomQuadrant) {
@@ -158,4 +333,4 @@ public class QuadTree {
       }
       return index;
    }
-}
\ No newline at end of file
+}
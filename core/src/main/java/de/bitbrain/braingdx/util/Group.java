@@ -2,25 +2,36 @@ package de.bitbrain.braingdx.util;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
 
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Provides basic grouping functionality.
+ * Provides basic grouping functionality. Every element remembers its index within its
+ * group and within {@link #getAll()}, so removal is done in constant time by swapping
+ * the last element into the freed position. Therefore, removal does not preserve order.
  */
 public class Group<K, T> {
 
    private Map<K, Array<T>> map = new HashMap<K, Array<T>>();
    private Map<T, K> sourceToKeyMap = new HashMap<T, K>();
+   private Map<K, ObjectIntMap<T>> groupIndices = new HashMap<K, ObjectIntMap<T>>();
+   private ObjectIntMap<T> allIndices = new ObjectIntMap<T>();
+   private ObjectIntMap<T> memberships = new ObjectIntMap<T>();
    private Array<T> all = new Array<T>();
    private Array<K> groupKeys = new Array<K>();
 
    public void addToGroup(K groupKey, T object) {
       Array<T> list = getGroup(groupKey);
-      if (!list.contains(object, false)) {
+      ObjectIntMap<T> indices = groupIndices.get(groupKey);
+      if (!indices.containsKey(object)) {
+         indices.put(object, list.size);
          list.add(object);
-         all.add(object);
+         if (memberships.getAndIncrement(object, 0, 1) == 0) {
+            allIndices.put(object, all.size);
+            all.add(object);
+         }
          sourceToKeyMap.put(object, groupKey);
       } else {
          Gdx.app.error("GROUP", "Unable to add " + object + " to group " + groupKey + ": already exists!");
@@ -44,9 +55,9 @@ public class Group<K, T> {
 
    public void removeFromGroup(K groupKey, T object) {
       Array<T> list = getGroup(groupKey);
-      list.removeValue(object, false);
-      all.removeValue(object, false);
-      sourceToKeyMap.remove(object);
+      if (swapRemove(list, groupIndices.get(groupKey), object)) {
+         leave(object);
+      }
    }
 
    public Array<T> getGroup(K groupKey) {
@@ -54,6 +65,7 @@ public class Group<K, T> {
       if (group == null) {
          group = new Array<T>(200);
          map.put(groupKey, group);
+         groupIndices.put(groupKey, new ObjectIntMap<T>());
          groupKeys.add(groupKey);
       }
       return group;
@@ -62,7 +74,11 @@ public class Group<K, T> {
    public void clearGroup(K groupKey) {
       Array<T> list = map.get(groupKey);
       if (list != null) {
+         for (int i = 0; i < list.size; ++i) {
+            leave(list.get(i));
+         }
          list.clear();
+         groupIndices.get(groupKey).clear();
       }
    }
 
@@ -71,5 +87,29 @@ public class Group<K, T> {
       groupKeys.clear();
       all.clear();
       sourceToKeyMap.clear();
+      groupIndices.clear();
+      allIndices.clear();
+      memberships.clear();
+   }
+
+   private void leave(T object) {
+      sourceToKeyMap.remove(object);
+      if (memberships.getAndIncrement(object, 0, -1) <= 1) {
+         memberships.remove(object, 0);
+         swapRemove(all, allIndices, object);
+      }
+   }
+
+   private boolean swapRemove(Array<T> list, ObjectIntMap<T> indices, T object) {
+      int index = indices.remove(object, -1);
+      if (index == -1) {
+         return false;
+      }
+      T last = list.pop();
+      if (index < list.size) {
+         list.set(index, last);
+         indices.put(last, index);
+      }
+      return true;
    }
 }
@@ -0,0 +1,87 @@
+package de.bitbrain.braingdx.util;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent samples of a value and provides percentiles over them.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class RollingPercentiles {
+
+   private final float[] samples;
+   private final float[] sorted;
+   private int index;
+   private int size;
+   private boolean sortRequired;
+
+   /**
+    * @param windowSize the number of most recent samples to keep
+    */
+   public RollingPercentiles(int windowSize) {
+      if (windowSize < 1) {
+         throw new IllegalArgumentException("Window size has to be at least 1 but was " + windowSize);
+      }
+      this.samples = new float[windowSize];
+      this.sorted = new float[windowSize];
+   }
+
+   public void add(float sample) {
+      samples[index] = sample;
+      index = (index + 1) % samples.length;
+      size = Math.min(size + 1, samples.length);
+      sortRequired = true;
+   }
+
+   /**
+    * @param percentile the percentile between 0 and 100
+    * @return the sample at the given percentile (nearest rank) or 0 if there are no samples
+    */
+   public float getPercentile(float percentile) {
+      if (percentile < 0f || percentile > 100f) {
+         throw new IllegalArgumentException("Percentile has to be within [0, 100] but was " + percentile);
+      }
+      if (size == 0) {
+         return 0f;
+      }
+      if (sortRequired) {
+         System.arraycopy(samples, 0, sorted, 0, size);
+         Arrays.sort(sorted, 0, size);
+         sortRequired = false;
+      }
+      final int rank = (int) Math.ceil(percentile / 100f * size);
+      return sorted[Math.max(0, rank - 1)];
+   }
+
+   public float getAverage() {
+      if (size == 0) {
+         return 0f;
+      }
+      float sum = 0f;
+      for (int i = 0; i < size; ++i) {
+         sum += samples[i];
+      }
+      return sum / size;
+   }
+
+   /**
+    * @return the most recent sample or 0 if there are no samples
+    */
+   public float getLatest() {
+      if (size == 0) {
+         return 0f;
+      }
+      return samples[(index - 1 + samples.length) % samples.length];
+   }
+
+   public int size() {
+      return size;
+   }
+
+   public void clear() {
+      index = 0;
+      size = 0;
+      sortRequired = false;
+   }
+}
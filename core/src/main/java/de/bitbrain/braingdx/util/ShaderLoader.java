@@ -19,12 +19,44 @@ package de.bitbrain.braingdx.util;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Queue;
 
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Loads shader programs from files. Programs loaded via {@link #fromFile(String, String, String)}
+ * are compiled once per combination of vertex shader, fragment shader and defines and shared
+ * between all callers. Shared programs are reference counted: they have to be handed back via
+ * {@link #release(ShaderProgram)} instead of being disposed.
+ * <p>
+ * Programs can be compiled ahead of time, e.g. during a loading screen, via
+ * {@link #warmUp(String, String, String)} or {@link #beginWarmUp()}. Both compile right away and
+ * block until the programs are compiled. In order to spread compilation across frames, programs
+ * can be queued via {@link #queueWarmUp(String, String, String)} and compiled one per frame via
+ * {@link #updateWarmUp()}. Warmed up programs stay cached even if they are not referenced, until
+ * {@link #dispose()} is called.
+ */
 public final class ShaderLoader {
 
    public static String BasePath = "";
    public static boolean Pedantic = true;
    public static PathResolver PathResolver = new InternalPathResolver();
+
+   static ProgramCompiler Compiler = new ProgramCompiler();
+
+   private static final String PROGRAM_ENTRY_SUFFIX = ".program";
+
+   private static final ObjectMap<String, CachedProgram> programs = new ObjectMap<String, CachedProgram>();
+   private static final ObjectMap<ShaderProgram, CachedProgram> cachedPrograms = new ObjectMap<ShaderProgram, CachedProgram>();
+   private static final ObjectMap<String, String> sources = new ObjectMap<String, String>();
+   private static final Queue<QueuedProgram> warmUpQueue = new Queue<QueuedProgram>();
+   private static FileHandle programCacheDirectory;
+   private static int warmUpDepth;
+
    private ShaderLoader() {
    }
 
@@ -32,38 +64,315 @@ public final class ShaderLoader {
       return ShaderLoader.fromFile(vertexFileName, fragmentFileName, "");
    }
 
+   /**
+    * Obtains the shared program of the given files and defines, it is compiled in case it is not cached yet.
+    *
+    * @throws GdxRuntimeException in case the program does not compile
+    */
    public static ShaderProgram fromFile(String vertexFileName, String fragmentFileName, String defines) {
-      String log = "\"" + vertexFileName + "/" + fragmentFileName + "\"";
-      if (defines.length() > 0) {
-         log += " w/ (" + defines.replace("\n", ", ") + ")";
+      final String vertexPath = BasePath + vertexFileName + ".vertex";
+      final String fragmentPath = BasePath + fragmentFileName + ".fragment";
+      final String key = keyOf(vertexFileName, fragmentFileName, defines);
+      CachedProgram cached = programs.get(key);
+      if (cached == null) {
+         String log = "\"" + vertexFileName + "/" + fragmentFileName + "\"";
+         if (defines.length() > 0) {
+            log += " w/ (" + defines.replace("\n", ", ") + ")";
+         }
+         log += "...";
+         Gdx.app.log("ShaderLoader", "Compiling " + log);
+         String vpSrc = readSource(vertexPath);
+         String fpSrc = readSource(fragmentPath);
+
+         ShaderProgram program = Compiler.compile(vpSrc, fpSrc, vertexFileName, fragmentFileName, defines);
+         cached = new CachedProgram(key, program);
+         programs.put(key, cached);
+         cachedPrograms.put(program, cached);
+         storeProgramEntry(vertexFileName, fragmentFileName, defines, contentHashOf(vpSrc, fpSrc, defines));
+      }
+      cached.references++;
+      if (warmUpDepth > 0) {
+         cached.warm = true;
+      }
+      return cached.program;
+   }
+
+   /**
+    * Hands back a program. Shared programs are disposed once they are no longer referenced and
+    * have not been warmed up, any other program is disposed right away.
+    */
+   public static void release(ShaderProgram program) {
+      CachedProgram cached = cachedPrograms.get(program);
+      if (cached == null) {
+         program.dispose();
+         return;
+      }
+      cached.references = Math.max(0, cached.references - 1);
+      if (cached.references == 0 && !cached.warm) {
+         programs.remove(cached.key);
+         cachedPrograms.remove(program);
+         program.dispose();
+      }
+   }
+
+   /**
+    * Compiles the program of the given files and defines ahead of time.
+    *
+    * @throws GdxRuntimeException in case the program does not compile
+    */
+   public static void warmUp(String vertexFileName, String fragmentFileName, String defines) {
+      beginWarmUp();
+      try {
+         release(fromFile(vertexFileName, fragmentFileName, defines));
+      } finally {
+         endWarmUp();
+      }
+   }
+
+   /**
+    * All programs obtained until {@link #endWarmUp()} is called stay cached, e.g. while effects
+    * are created and disposed in order to compile their programs.
+    */
+   public static void beginWarmUp() {
+      warmUpDepth++;
+   }
+
+   public static void endWarmUp() {
+      warmUpDepth = Math.max(0, warmUpDepth - 1);
+   }
+
+   /**
+    * Queues the program of the given files and defines, it is compiled by a subsequent call of
+    * {@link #updateWarmUp()}.
+    */
+   public static void queueWarmUp(String vertexFileName, String fragmentFileName, String defines) {
+      warmUpQueue.addLast(new QueuedProgram(vertexFileName, fragmentFileName, defines, null));
+   }
+
+   /**
+    * Compiles the next queued program which is not cached yet, e.g. once per frame while a
+    * loading screen is shown. Queued programs which are already cached are warmed up without
+    * being compiled again.
+    *
+    * @return true in case no queued programs are left
+    * @throws GdxRuntimeException in case the program does not compile
+    */
+   public static boolean updateWarmUp() {
+      while (warmUpQueue.size > 0) {
+         QueuedProgram queued = warmUpQueue.removeFirst();
+         if (queued.contentHash != null && !isCurrent(queued)) {
+            continue;
+         }
+         final boolean compile = !programs.containsKey(keyOf(queued.vertexFileName, queued.fragmentFileName, queued.defines));
+         warmUp(queued.vertexFileName, queued.fragmentFileName, queued.defines);
+         if (compile) {
+            break;
+         }
+      }
+      return warmUpQueue.size == 0;
+   }
+
+   /**
+    * @return the number of queued programs which have not been warmed up yet
+    */
+   public static int getQueuedWarmUpCount() {
+      return warmUpQueue.size;
+   }
+
+   /**
+    * Sets a directory which records every program compiled via {@link #fromFile(String, String, String)}.
+    * Entries are keyed by a content hash of the vertex shader, the fragment shader and the defines,
+    * so programs can be compiled ahead of time on subsequent runs via {@link #queueCachedPrograms()}
+    * (also programs which are only created at runtime, e.g. after graphics settings have changed).
+    * Entries whose shader files have changed since no longer match their hash and are removed
+    * instead of being compiled.
+    *
+    * @param directory the directory or null in order to not record programs
+    */
+   public static void setProgramCacheDirectory(FileHandle directory) {
+      programCacheDirectory = directory;
+   }
+
+   public static FileHandle getProgramCacheDirectory() {
+      return programCacheDirectory;
+   }
+
+   /**
+    * Queues all programs recorded in the program cache directory, see
+    * {@link #setProgramCacheDirectory(FileHandle)}. They are compiled via {@link #updateWarmUp()}.
+    */
+   public static void queueCachedPrograms() {
+      if (programCacheDirectory == null || !programCacheDirectory.exists()) {
+         return;
       }
-      log += "...";
-      Gdx.app.log("ShaderLoader", "Compiling " + log);
-      String vpSrc = PathResolver.resolve(BasePath + vertexFileName + ".vertex").readString();
-      String fpSrc = PathResolver.resolve(BasePath + fragmentFileName + ".fragment").readString();
+      for (FileHandle entry : programCacheDirectory.list(PROGRAM_ENTRY_SUFFIX)) {
+         String[] names = entry.readString("UTF-8").split("\n", 3);
+         if (names.length < 2) {
+            entry.delete();
+            continue;
+         }
+         warmUpQueue.addLast(new QueuedProgram(names[0], names[1], names.length > 2 ? names[2] : "",
+               entry.nameWithoutExtension()));
+      }
+   }
+
+   /**
+    * @return the number of programs currently cached
+    */
+   public static int getCachedProgramCount() {
+      return programs.size;
+   }
 
-      ShaderProgram program = ShaderLoader.fromString(vpSrc, fpSrc, vertexFileName, fragmentFileName, defines);
-      return program;
+   /**
+    * @return the number of references to the given program or 0 if it is not cached
+    */
+   public static int getReferenceCount(ShaderProgram program) {
+      CachedProgram cached = cachedPrograms.get(program);
+      return cached != null ? cached.references : 0;
+   }
+
+   /**
+    * Disposes all cached programs, regardless of their references.
+    */
+   public static void dispose() {
+      for (CachedProgram cached : programs.values()) {
+         cached.program.dispose();
+      }
+      programs.clear();
+      cachedPrograms.clear();
+      sources.clear();
+      warmUpQueue.clear();
+   }
+
+   /**
+    * @return the source of the given fragment shader file, e.g. in order to generate other shaders from it
+    */
+   public static String fragmentSourceOf(String fragmentFileName) {
+      return readSource(BasePath + fragmentFileName + ".fragment");
    }
 
    public static ShaderProgram fromString(String vertex, String fragment, String vertexName, String fragmentName) {
       return ShaderLoader.fromString(vertex, fragment, vertexName, fragmentName, "");
    }
 
+   /**
+    * Compiles a new program which is not cached.
+    *
+    * @throws GdxRuntimeException in case the program does not compile
+    */
    public static ShaderProgram fromString(String vertex, String fragment, String vertexName, String fragmentName,
                                           String defines) {
       ShaderProgram.pedantic = ShaderLoader.Pedantic;
       ShaderProgram shader = new ShaderProgram(defines + "\n" + vertex, defines + "\n" + fragment);
 
       if (!shader.isCompiled()) {
-         Gdx.app.error("ShaderLoader", shader.getLog());
-         System.exit(-1);
+         final String log = shader.getLog();
+         shader.dispose();
+         throw new GdxRuntimeException("Unable to compile shader \"" + vertexName + "/" + fragmentName + "\": " + log);
       }
 
       return shader;
    }
 
+   private static String readSource(String path) {
+      String source = sources.get(path);
+      if (source == null) {
+         source = PathResolver.resolve(path).readString();
+         sources.put(path, source);
+      }
+      return source;
+   }
+
+   private static String keyOf(String vertexFileName, String fragmentFileName, String defines) {
+      return BasePath + vertexFileName + ".vertex|" + BasePath + fragmentFileName + ".fragment|" + defines;
+   }
+
+   private static boolean isCurrent(QueuedProgram queued) {
+      final FileHandle entry = programCacheDirectory.child(queued.contentHash + PROGRAM_ENTRY_SUFFIX);
+      try {
+         final String vpSrc = readSource(BasePath + queued.vertexFileName + ".vertex");
+         final String fpSrc = readSource(BasePath + queued.fragmentFileName + ".fragment");
+         if (queued.contentHash.equals(contentHashOf(vpSrc, fpSrc, queued.defines))) {
+            return true;
+         }
+      } catch (GdxRuntimeException e) {
+         Gdx.app.error("ShaderLoader", "Unable to read shader sources of " + entry.name(), e);
+      }
+      entry.delete();
+      return false;
+   }
+
+   private static void storeProgramEntry(String vertexFileName, String fragmentFileName, String defines, String contentHash) {
+      if (programCacheDirectory == null) {
+         return;
+      }
+      final FileHandle entry = programCacheDirectory.child(contentHash + PROGRAM_ENTRY_SUFFIX);
+      if (entry.exists()) {
+         return;
+      }
+      try {
+         entry.writeString(vertexFileName + "\n" + fragmentFileName + "\n" + defines, false, "UTF-8");
+      } catch (GdxRuntimeException e) {
+         Gdx.app.error("ShaderLoader", "Unable to cache program " + vertexFileName + "/" + fragmentFileName, e);
+      }
+   }
+
+   static String contentHashOf(String vertex, String fragment, String defines) {
+      try {
+         MessageDigest digest = MessageDigest.getInstance("SHA-1");
+         digest.update(vertex.getBytes("UTF-8"));
+         digest.update((byte) 0);
+         digest.update(fragment.getBytes("UTF-8"));
+         digest.update((byte) 0);
+         digest.update(defines.getBytes("UTF-8"));
+         StringBuilder hash = new StringBuilder();
+         for (byte b : digest.digest()) {
+            hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+         }
+         return hash.toString();
+      } catch (NoSuchAlgorithmException e) {
+         throw new GdxRuntimeException(e);
+      } catch (UnsupportedEncodingException e) {
+         throw new GdxRuntimeException(e);
+      }
+   }
+
    public static interface ShaderPathResolver {
       FileHandle load(String path);
    }
+
+   static class ProgramCompiler {
+
+      ShaderProgram compile(String vertex, String fragment, String vertexName, String fragmentName, String defines) {
+         return fromString(vertex, fragment, vertexName, fragmentName, defines);
+      }
+   }
+
+   private static class QueuedProgram {
+
+      final String vertexFileName;
+      final String fragmentFileName;
+      final String defines;
+      final String contentHash;
+
+      QueuedProgram(String vertexFileName, String fragmentFileName, String defines, String contentHash) {
+         this.vertexFileName = vertexFileName;
+         this.fragmentFileName = fragmentFileName;
+         this.defines = defines;
+         this.contentHash = contentHash;
+      }
+   }
+
+   private static class CachedProgram {
+
+      final String key;
+      final ShaderProgram program;
+      int references;
+      boolean warm;
+
+      CachedProgram(String key, ShaderProgram program) {
+         this.key = key;
+         this.program = program;
+      }
+   }
 }
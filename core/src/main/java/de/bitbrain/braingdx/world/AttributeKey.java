@@ -0,0 +1,170 @@
+package de.bitbrain.braingdx.world;
+
+/**
+ * Typed key for attributes of a {@link GameObject}. Every key is assigned a fixed slot
+ * when created, so attributes stored by key are backed by plain arrays on the object
+ * rather than by a map. Keys are meant to be created once and kept as constants.
+ * <p>
+ * Primitive values should use {@link IntKey}, {@link FloatKey} or {@link BooleanKey}
+ * which avoid boxing entirely.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class AttributeKey<T> {
+
+   private static int slotCount;
+
+   private final int slot;
+   private final String name;
+   private final Class<T> type;
+
+   private AttributeKey(String name, Class<T> type) {
+      this.slot = nextSlot();
+      this.name = name;
+      this.type = type;
+   }
+
+   public static <T> AttributeKey<T> create(String name, Class<T> type) {
+      return new AttributeKey<T>(name, type);
+   }
+
+   public static IntKey createInt(String name, int defaultValue) {
+      return new IntKey(name, defaultValue);
+   }
+
+   public static FloatKey createFloat(String name, float defaultValue) {
+      return new FloatKey(name, defaultValue);
+   }
+
+   public static BooleanKey createBoolean(String name, boolean defaultValue) {
+      return new BooleanKey(name, defaultValue);
+   }
+
+   public String getName() {
+      return name;
+   }
+
+   public Class<T> getType() {
+      return type;
+   }
+
+   int getSlot() {
+      return slot;
+   }
+
+   @Override
+   public String toString() {
+      return "AttributeKey [name=" + name + ", type=" + type.getSimpleName() + ", slot=" + slot + "]";
+   }
+
+   /**
+    * @return the number of slots assigned so far
+    */
+   static synchronized int getSlotCount() {
+      return slotCount;
+   }
+
+   private static synchronized int nextSlot() {
+      return slotCount++;
+   }
+
+   /**
+    * Key for int attributes.
+    */
+   public static final class IntKey {
+
+      private final int slot;
+      private final String name;
+      private final int defaultValue;
+
+      private IntKey(String name, int defaultValue) {
+         this.slot = nextSlot();
+         this.name = name;
+         this.defaultValue = defaultValue;
+      }
+
+      public String getName() {
+         return name;
+      }
+
+      public int getDefaultValue() {
+         return defaultValue;
+      }
+
+      int getSlot() {
+         return slot;
+      }
+
+      @Override
+      public String toString() {
+         return "IntKey [name=" + name + ", slot=" + slot + "]";
+      }
+   }
+
+   /**
+    * Key for float attributes.
+    */
+   public static final class FloatKey {
+
+      private final int slot;
+      private final String name;
+      private final float defaultValue;
+
+      private FloatKey(String name, float defaultValue) {
+         this.slot = nextSlot();
+         this.name = name;
+         this.defaultValue = defaultValue;
+      }
+
+      public String getName() {
+         return name;
+      }
+
+      public float getDefaultValue() {
+         return defaultValue;
+      }
+
+      int getSlot() {
+         return slot;
+      }
+
+      @Override
+      public String toString() {
+         return "FloatKey [name=" + name + ", slot=" + slot + "]";
+      }
+   }
+
+   /**
+    * Key for boolean attributes.
+    */
+   public static final class BooleanKey {
+
+      private final int slot;
+      private final String name;
+      private final boolean defaultValue;
+
+      private BooleanKey(String name, boolean defaultValue) {
+         this.slot = nextSlot();
+         this.name = name;
+         this.defaultValue = defaultValue;
+      }
+
+      public String getName() {
+         return name;
+      }
+
+      public boolean getDefaultValue() {
+         return defaultValue;
+      }
+
+      int getSlot() {
+         return slot;
+      }
+
+      @Override
+      public String toString() {
+         return "BooleanKey [name=" + name + ", slot=" + slot + "]";
+      }
+   }
+}
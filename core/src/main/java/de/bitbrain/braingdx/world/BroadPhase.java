@@ -0,0 +1,31 @@
+package de.bitbrain.braingdx.world;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Broad-phase stage of the {@link GameWorld} which narrows down the pairs of objects
+ * passed to {@link GameWorld.GameWorldListener#onUpdate(GameObject, GameObject, float)}.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public interface BroadPhase {
+
+   /**
+    * Prepares this broad-phase for the given objects. Called once per frame
+    * before any candidates are retrieved.
+    *
+    * @param objects all currently updateable objects
+    */
+   void update(Array<GameObject> objects);
+
+   /**
+    * Adds all candidates which might interact with the given object to the result.
+    * The object itself might be part of the result.
+    *
+    * @param object the source object
+    * @param result the array to add the candidates to
+    * @return the result array
+    */
+   Array<GameObject> retrieve(GameObject object, Array<GameObject> result);
+}
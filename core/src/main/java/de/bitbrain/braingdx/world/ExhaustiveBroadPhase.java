@@ -0,0 +1,28 @@
+package de.bitbrain.braingdx.world;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Broad-phase which considers every updateable object as a candidate of every other
+ * updateable object, regardless of their distance.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class ExhaustiveBroadPhase implements BroadPhase {
+
+   private Array<GameObject> objects;
+
+   @Override
+   public void update(Array<GameObject> objects) {
+      this.objects = objects;
+   }
+
+   @Override
+   public Array<GameObject> retrieve(GameObject object, Array<GameObject> result) {
+      if (objects != null) {
+         result.addAll(objects);
+      }
+      return result;
+   }
+}
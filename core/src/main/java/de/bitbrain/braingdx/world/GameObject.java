@@ -19,13 +19,19 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Bits;
 import com.badlogic.gdx.utils.Pool;
+import de.bitbrain.braingdx.world.AttributeKey.BooleanKey;
+import de.bitbrain.braingdx.world.AttributeKey.FloatKey;
+import de.bitbrain.braingdx.world.AttributeKey.IntKey;
 import de.bitbrain.braingdx.util.Factory;
 import de.bitbrain.braingdx.util.Mutator;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Simple game object implementation which can be pooled
@@ -36,42 +42,66 @@ import java.util.UUID;
  */
 public class GameObject implements Pool.Poolable {
 
-    private final Vector2 position, dimensions, lastPosition, offset, origin, tmp;
-    private final Vector2 scale;
+    private static final AtomicInteger INDEX_COUNTER = new AtomicInteger();
+
+    private final Vector2 lastPosition, tmp;
+    private final int index;
+    private int generation;
     private String id;
     private Object type;
     private Color color = Color.WHITE.cpy();
-    private float rotation;
-
-    private float zIndex;
 
     private Map<Object, Object> attributes;
 
+    private Object[] objectSlots = new Object[0];
+    private int[] intSlots = new int[0];
+    private float[] floatSlots = new float[0];
+    private boolean[] booleanSlots = new boolean[0];
+    private final Bits assignedSlots = new Bits();
+
     private boolean active;
 
     private boolean persistent;
 
     private Rectangle rect = new Rectangle();
 
+    /**
+     * internal slot of this object within its {@link GameWorld}, -1 if not part of any world
+     */
+    int slot = -1;
+
+    /**
+     * the world this object is currently part of
+     */
+    GameWorld world;
+
+    /**
+     * transform of this object while it is not attached to the store of its world
+     */
+    private float left, top, lastLeft, lastTop, width, height, offsetX, offsetY;
+    private float scaleX = 1f, scaleY = 1f;
+    private float originX, originY, rotation, zIndex;
+
+    /**
+     * store of the world this object is attached to, stored at {@link #transformIndex}.
+     * Null while the transform lives in the fields of this object.
+     */
+    TransformStore transforms;
+    int transformIndex;
+
     private final Mutator<GameObject> mutator = new Mutator<GameObject>() {
         @Override
         public void mutate(GameObject target) {
-            target.lastPosition.x = lastPosition.x;
-            target.lastPosition.y = lastPosition.y;
-            target.position.x = position.x;
-            target.position.y = position.y;
-            target.dimensions.x = dimensions.x;
-            target.dimensions.y = dimensions.y;
-            target.offset.x = offset.x;
-            target.offset.y = offset.y;
-            target.zIndex = zIndex;
-            target.scale.set(scale.x, scale.y);
+            copyTransform(target);
             target.color = color.cpy();
             target.attributes.putAll(attributes);
+            target.objectSlots = Arrays.copyOf(objectSlots, objectSlots.length);
+            target.intSlots = Arrays.copyOf(intSlots, intSlots.length);
+            target.floatSlots = Arrays.copyOf(floatSlots, floatSlots.length);
+            target.booleanSlots = Arrays.copyOf(booleanSlots, booleanSlots.length);
+            target.assignedSlots.clear();
+            target.assignedSlots.or(assignedSlots);
             target.active = active;
-            target.rotation = rotation;
-            target.origin.x = origin.x;
-            target.origin.y = origin.y;
             target.type = type;
             target.persistent = persistent;
         }
@@ -79,14 +109,9 @@ public class GameObject implements Pool.Poolable {
 
     public GameObject() {
         attributes = new HashMap<Object, Object>();
-        position = new Vector2();
-        dimensions = new Vector2();
         lastPosition = new Vector2();
-        offset = new Vector2();
-        scale = new Vector2(1f, 1f);
-        origin = new Vector2();
         tmp = new Vector2();
-        id = UUID.randomUUID().toString();
+        index = INDEX_COUNTER.incrementAndGet();
         active = true;
     }
 
@@ -109,59 +134,102 @@ public class GameObject implements Pool.Poolable {
     }
 
     public void setDimensions(float width, float height) {
-        this.dimensions.x = width;
-        this.dimensions.y = height;
+        if (transforms != null) {
+            transforms.width[transformIndex] = width;
+            transforms.height[transformIndex] = height;
+        } else {
+            this.width = width;
+            this.height = height;
+        }
+        onBoundsChange();
     }
 
     public void move(float x, float y) {
-        setPosition(this.position.x + x, this.position.y + y);
+        setPosition(getLeft() + x, getTop() + y);
     }
 
     public void setPosition(float x, float y) {
-        setLastPosition(this.position.x, this.position.y);
-        this.position.x = x;
-        this.position.y = y;
+        setLastPosition(getLeft(), getTop());
+        if (transforms != null) {
+            transforms.x[transformIndex] = x;
+            transforms.y[transformIndex] = y;
+        } else {
+            left = x;
+            top = y;
+        }
+        onBoundsChange();
     }
 
     public void setLastPosition(float x, float y) {
-        this.lastPosition.x = this.position.x;
-        this.lastPosition.y = this.position.y;
+        if (transforms != null) {
+            transforms.lastX[transformIndex] = getLeft();
+            transforms.lastY[transformIndex] = getTop();
+        } else {
+            lastLeft = getLeft();
+            lastTop = getTop();
+        }
     }
 
     public void setLeft(float x) {
-        this.position.x = x;
+        if (transforms != null) {
+            transforms.x[transformIndex] = x;
+        } else {
+            left = x;
+        }
+        onBoundsChange();
     }
 
     public void setTop(float y) {
-        this.position.y = y;
+        if (transforms != null) {
+            transforms.y[transformIndex] = y;
+        } else {
+            top = y;
+        }
+        onBoundsChange();
     }
 
     public void setRight(float x) {
-        this.position.x = x - getWidth();
+        if (transforms != null) {
+            transforms.x[transformIndex] = x - getWidth();
+        } else {
+            left = x - getWidth();
+        }
+        onBoundsChange();
     }
 
     public void setBottom(float y) {
-        this.position.y = y - getHeight();
+        if (transforms != null) {
+            transforms.y[transformIndex] = y - getHeight();
+        } else {
+            top = y - getHeight();
+        }
+        onBoundsChange();
     }
 
     public void setOrigin(float x, float y) {
-        this.origin.set(x, y);
+        if (transforms != null) {
+            transforms.originX[transformIndex] = x;
+            transforms.originY[transformIndex] = y;
+        } else {
+            originX = x;
+            originY = y;
+        }
     }
 
     public float getOriginX() {
-        return origin.x;
+        return transforms != null ? transforms.originX[transformIndex] : originX;
     }
 
     public float getOriginY() {
-        return origin.y;
+        return transforms != null ? transforms.originY[transformIndex] : originY;
     }
 
     public float getLeft() {
-        return this.position.x;
+        return transforms != null ? transforms.x[transformIndex] : left;
     }
 
     public float getTop() {
-        return this.position.y;
+        return transforms != null ? transforms.y[transformIndex] : top;
     }
 
     public float getRight() {
@@ -173,31 +241,55 @@ public class GameObject implements Pool.Poolable {
     }
 
     public float getWidth() {
-        return this.dimensions.x;
+        return transforms != null ? transforms.width[transformIndex] : width;
     }
 
     public float getHeight() {
-        return this.dimensions.y;
+        return transforms != null ? transforms.height[transformIndex] : height;
     }
 
     public float getLastLeft() {
-        return lastPosition.x;
+        return transforms != null ? transforms.lastX[transformIndex] : lastLeft;
     }
 
     public float getLastTop() {
-        return lastPosition.y;
+        return transforms != null ? transforms.lastY[transformIndex] : lastTop;
     }
 
+    /**
+     * @return the last position of this object. The returned vector is reused
+     * and only reflects the last position at the time of this call.
+     */
     public Vector2 getLastPosition() {
-        return lastPosition;
+        return lastPosition.set(getLastLeft(), getLastTop());
     }
 
     public Vector2 getPosition() {
-        tmp.set(position.x, position.y);
+        tmp.set(getLeft(), getTop());
         return tmp.cpy();
     }
 
+    /**
+     * Provides a compact handle of this object. The handle is unique for the current lifetime of
+     * this object and changes whenever the object gets reset (e.g. when it is returned to a pool).
+     * A valid handle is never 0.
+     *
+     * @return the handle of this object
+     */
+    public long getHandle() {
+        return ((long) generation << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Provides the string id of this object. The id is created lazily on first access
+     * unless it has been assigned explicitly.
+     *
+     * @return the id of this object
+     */
     public String getId() {
+        if (id == null) {
+            assignId(UUID.randomUUID().toString());
+        }
         return id;
     }
 
@@ -206,7 +298,22 @@ public class GameObject implements Pool.Poolable {
             Gdx.app.log("ERROR", "Unable to assign id=" + id + " to game object " + toString() + ": invalid ID!");
             return;
         }
+        assignId(id);
+    }
+
+    /**
+     * @return true if this object has a string id
+     */
+    public boolean hasId() {
+        return id != null;
+    }
+
+    private void assignId(String id) {
+        String previousId = this.id;
         this.id = id;
+        if (world != null) {
+            world.onIdChange(this, previousId);
+        }
     }
 
     public Color getColor() {
@@ -222,41 +329,65 @@ public class GameObject implements Pool.Poolable {
     }
 
     public float getScaleX() {
-        return scale.x;
+        return transforms != null ? transforms.scaleX[transformIndex] : scaleX;
     }
 
     public float getScaleY() {
-        return scale.y;
+        return transforms != null ? transforms.scaleY[transformIndex] : scaleY;
     }
 
     public void scale(float scale) {
-        this.scale.scl(scale);
+        if (transforms != null) {
+            transforms.scaleX[transformIndex] *= scale;
+            transforms.scaleY[transformIndex] *= scale;
+        } else {
+            scaleX *= scale;
+            scaleY *= scale;
+        }
     }
 
     public void setScaleX(float scaleX) {
-        this.scale.x = scaleX;
+        if (transforms != null) {
+            transforms.scaleX[transformIndex] = scaleX;
+        } else {
+            this.scaleX = scaleX;
+        }
     }
 
     public void setScaleY(float scaleY) {
-        this.scale.y = scaleY;
+        if (transforms != null) {
+            transforms.scaleY[transformIndex] = scaleY;
+        } else {
+            this.scaleY = scaleY;
+        }
     }
 
     public void setScale(float scale) {
-        this.scale.x = scale;
-        this.scale.y = scale;
+        if (transforms != null) {
+            transforms.scaleX[transformIndex] = scale;
+            transforms.scaleY[transformIndex] = scale;
+        } else {
+            this.scaleX = scale;
+            this.scaleY = scale;
+        }
     }
 
     public float getOffsetX() {
-        return offset.x;
+        return transforms != null ? transforms.offsetX[transformIndex] : offsetX;
     }
 
     public float getOffsetY() {
-        return offset.y;
+        return transforms != null ? transforms.offsetY[transformIndex] : offsetY;
     }
 
     public void setOffset(float x, float y) {
-        offset.x = x;
-        offset.y = y;
+        if (transforms != null) {
+            transforms.offsetX[transformIndex] = x;
+            transforms.offsetY[transformIndex] = y;
+        } else {
+            offsetX = x;
+            offsetY = y;
+        }
     }
 
     public void setAttribute(Object key, Object attribute) {
@@ -313,12 +444,112 @@ public class GameObject implements Pool.Poolable {
         return value;
     }
 
+    public <T> T getAttribute(AttributeKey<T> key) {
+        final int slot = key.getSlot();
+        return slot < objectSlots.length ? (T) objectSlots[slot] : null;
+    }
+
+    public <T> void setAttribute(AttributeKey<T> key, T value) {
+        if (value == null) {
+            removeAttribute(key);
+            return;
+        }
+        final int slot = key.getSlot();
+        if (slot >= objectSlots.length) {
+            objectSlots = Arrays.copyOf(objectSlots, AttributeKey.getSlotCount());
+        }
+        objectSlots[slot] = value;
+        assignedSlots.set(slot);
+    }
+
+    public int getAttribute(IntKey key) {
+        final int slot = key.getSlot();
+        return assignedSlots.get(slot) ? intSlots[slot] : key.getDefaultValue();
+    }
+
+    public void setAttribute(IntKey key, int value) {
+        final int slot = key.getSlot();
+        if (slot >= intSlots.length) {
+            intSlots = Arrays.copyOf(intSlots, AttributeKey.getSlotCount());
+        }
+        intSlots[slot] = value;
+        assignedSlots.set(slot);
+    }
+
+    public float getAttribute(FloatKey key) {
+        final int slot = key.getSlot();
+        return assignedSlots.get(slot) ? floatSlots[slot] : key.getDefaultValue();
+    }
+
+    public void setAttribute(FloatKey key, float value) {
+        final int slot = key.getSlot();
+        if (slot >= floatSlots.length) {
+            floatSlots = Arrays.copyOf(floatSlots, AttributeKey.getSlotCount());
+        }
+        floatSlots[slot] = value;
+        assignedSlots.set(slot);
+    }
+
+    public boolean getAttribute(BooleanKey key) {
+        final int slot = key.getSlot();
+        return assignedSlots.get(slot) ? booleanSlots[slot] : key.getDefaultValue();
+    }
+
+    public void setAttribute(BooleanKey key, boolean value) {
+        final int slot = key.getSlot();
+        if (slot >= booleanSlots.length) {
+            booleanSlots = Arrays.copyOf(booleanSlots, AttributeKey.getSlotCount());
+        }
+        booleanSlots[slot] = value;
+        assignedSlots.set(slot);
+    }
+
+    public boolean hasAttribute(AttributeKey<?> key) {
+        return assignedSlots.get(key.getSlot());
+    }
+
+    public boolean hasAttribute(IntKey key) {
+        return assignedSlots.get(key.getSlot());
+    }
+
+    public boolean hasAttribute(FloatKey key) {
+        return assignedSlots.get(key.getSlot());
+    }
+
+    public boolean hasAttribute(BooleanKey key) {
+        return assignedSlots.get(key.getSlot());
+    }
+
+    public void removeAttribute(AttributeKey<?> key) {
+        final int slot = key.getSlot();
+        if (slot < objectSlots.length) {
+            objectSlots[slot] = null;
+        }
+        assignedSlots.clear(slot);
+    }
+
+    public void removeAttribute(IntKey key) {
+        assignedSlots.clear(key.getSlot());
+    }
+
+    public void removeAttribute(FloatKey key) {
+        assignedSlots.clear(key.getSlot());
+    }
+
+    public void removeAttribute(BooleanKey key) {
+        assignedSlots.clear(key.getSlot());
+    }
+
     public float getZIndex() {
-        return this.zIndex;
+        return transforms != null ? transforms.zIndex[transformIndex] : zIndex;
     }
 
     public void setZIndex(float zIndex) {
-        this.zIndex = zIndex;
+        if (transforms != null) {
+            transforms.zIndex[transformIndex] = zIndex;
+        } else {
+            this.zIndex = zIndex;
+        }
     }
 
     public boolean isActive() {
@@ -338,19 +569,27 @@ public class GameObject implements Pool.Poolable {
     }
 
     public float getRotation() {
-        return this.rotation;
+        return transforms != null ? transforms.rotation[transformIndex] : rotation;
     }
 
     public void setRotation(float rotation) {
-        this.rotation = rotation;
+        if (transforms != null) {
+            transforms.rotation[transformIndex] = rotation;
+        } else {
+            this.rotation = rotation;
+        }
     }
 
     public void rotate(float delta) {
-        this.rotation += delta;
+        if (transforms != null) {
+            transforms.rotation[transformIndex] += delta;
+        } else {
+            rotation += delta;
+        }
     }
 
     public boolean hasMoved() {
-        return position.x != lastPosition.x || position.y != lastPosition.y;
+        return getLeft() != getLastLeft() || getTop() != getLastTop();
     }
 
     public boolean collidesWith(GameObject gameObject) {
@@ -361,32 +600,109 @@ public class GameObject implements Pool.Poolable {
 
     @Override
     public void reset() {
-        lastPosition.x = 0;
-        lastPosition.y = 0;
-        position.x = 0;
-        position.y = 0;
-        dimensions.x = 0;
-        dimensions.y = 0;
-        offset.x = 0;
-        offset.y = 0;
-        zIndex = 0;
-        id = UUID.randomUUID().toString();
-        scale.set(1f, 1f);
+        if (transforms != null) {
+            transforms.reset(transformIndex);
+        } else {
+            left = top = lastLeft = lastTop = 0f;
+            width = height = offsetX = offsetY = 0f;
+            scaleX = scaleY = 1f;
+            originX = originY = rotation = zIndex = 0f;
+        }
+        generation++;
+        id = null;
         color = Color.WHITE.cpy();
         attributes.clear();
+        Arrays.fill(objectSlots, null);
+        assignedSlots.clear();
         active = true;
-        rotation = 0f;
-        origin.x = 0f;
-        origin.y = 0f;
         type = null;
         persistent = false;
     }
 
+    private void onBoundsChange() {
+        if (world != null) {
+            world.onBoundsChange(this);
+        }
+    }
+
+    /**
+     * Moves the transform of this object into the given store. Passing null moves the
+     * transform back into the fields of this object.
+     */
+    void attachTransform(TransformStore store, int index) {
+        if (store == transforms && (store == null || index == transformIndex)) {
+            return;
+        }
+        if (store == null) {
+            left = transforms.x[transformIndex];
+            top = transforms.y[transformIndex];
+            lastLeft = transforms.lastX[transformIndex];
+            lastTop = transforms.lastY[transformIndex];
+            width = transforms.width[transformIndex];
+            height = transforms.height[transformIndex];
+            offsetX = transforms.offsetX[transformIndex];
+            offsetY = transforms.offsetY[transformIndex];
+            scaleX = transforms.scaleX[transformIndex];
+            scaleY = transforms.scaleY[transformIndex];
+            originX = transforms.originX[transformIndex];
+            originY = transforms.originY[transformIndex];
+            rotation = transforms.rotation[transformIndex];
+            zIndex = transforms.zIndex[transformIndex];
+        } else if (transforms != null) {
+            transforms.copy(transformIndex, store, index);
+        } else {
+            writeTransform(store, index);
+        }
+        transforms = store;
+        transformIndex = store != null ? index : 0;
+    }
+
+    private void copyTransform(GameObject target) {
+        if (target.transforms == null) {
+            target.left = getLeft();
+            target.top = getTop();
+            target.lastLeft = getLastLeft();
+            target.lastTop = getLastTop();
+            target.width = getWidth();
+            target.height = getHeight();
+            target.offsetX = getOffsetX();
+            target.offsetY = getOffsetY();
+            target.scaleX = getScaleX();
+            target.scaleY = getScaleY();
+            target.originX = getOriginX();
+            target.originY = getOriginY();
+            target.rotation = getRotation();
+            target.zIndex = getZIndex();
+        } else if (transforms != null) {
+            transforms.copy(transformIndex, target.transforms, target.transformIndex);
+        } else {
+            writeTransform(target.transforms, target.transformIndex);
+        }
+    }
+
+    private void writeTransform(TransformStore store, int index) {
+        store.x[index] = left;
+        store.y[index] = top;
+        store.lastX[index] = lastLeft;
+        store.lastY[index] = lastTop;
+        store.width[index] = width;
+        store.height[index] = height;
+        store.offsetX[index] = offsetX;
+        store.offsetY[index] = offsetY;
+        store.scaleX[index] = scaleX;
+        store.scaleY[index] = scaleY;
+        store.originX[index] = originX;
+        store.originY[index] = originY;
+        store.rotation[index] = rotation;
+        store.zIndex[index] = zIndex;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((id == null) ? 0 : id.hashCode());
+        result = prime * result + index;
+        result = prime * result + generation;
         return result;
     }
 
@@ -401,19 +717,12 @@ public class GameObject implements Pool.Poolable {
        if (getClass() != obj.getClass()) {
           return false;
        }
-        GameObject other = (GameObject) obj;
-        if (id == null) {
-           if (other.id != null) {
-              return false;
-           }
-        } else if (!id.equals(other.id)) {
-           return false;
-        }
-        return true;
+       GameObject other = (GameObject) obj;
+       return getHandle() == other.getHandle();
     }
 
     @Override
     public String toString() {
-        return "GameObject [position=" + position + ", dimensions=" + dimensions + ", lastPosition=" + lastPosition + ", id=" + id + ", type=" + type + ", color=" + color + ", zIndex=" + zIndex + ", active=" + active + "]";
+        return "GameObject [position=(" + getLeft() + "," + getTop() + "), dimensions=(" + getWidth() + "," + getHeight() + "), lastPosition=(" + getLastLeft() + "," + getLastTop() + "), handle=" + getHandle() + ", id=" + id + ", type=" + type + ", color=" + color + ", zIndex=" + getZIndex() + ", active=" + active + "]";
     }
 }
@@ -19,12 +19,18 @@ import com.badlogic.gdx.Application;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Bits;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.LongArray;
 import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Sort;
 import de.bitbrain.braingdx.graphics.GameCamera;
 import de.bitbrain.braingdx.math.QuadTree;
 import de.bitbrain.braingdx.util.Group;
 import de.bitbrain.braingdx.util.Mutator;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
@@ -45,14 +51,43 @@ public class GameWorld {
     */
    public static final int DEFAULT_CACHE_SIZE = 512;
    private static final int QUADTREE_ENABLED_THRESHOLD = 50;
+   private static final float NEAREST_INITIAL_RADIUS = 64f;
    private final Group<Object, GameObject> objects = new Group<Object, GameObject>();
    private final Map<String, GameObject> identityMap = new HashMap<String, GameObject>();
+   private final IntMap<GameObject> handleMap = new IntMap<GameObject>();
    private final Pool<GameObject> pool;
    private final Array<GameWorldListener> listeners = new Array<GameWorldListener>();
    final QuadTree quadTree;
    private final Rectangle boundsRectangle, tmp;
    private GameCamera gameCamera;
    private final Array<GameObject> updateableObjects = new Array<GameObject>(200);
+   private final Array<GameObject> candidates = new Array<GameObject>(false, 64);
+   private final Array<GameObject> inBoundsObjects = new Array<GameObject>(200);
+   private BroadPhase broadPhase = new UniformGridBroadPhase();
+   private final Array<GameObject> slots = new Array<GameObject>(200);
+   private final IntArray freeSlots = new IntArray();
+   private Bits updateableSlots = new Bits();
+   private Bits nextUpdateableSlots = new Bits();
+   private TransformStore transformStore;
+   private float[] indexedBounds = new float[200 * 4];
+   private final Bits movedSlots = new Bits();
+   private final Array<ConcurrentChanges> concurrentChanges = new Array<ConcurrentChanges>();
+   private final ThreadLocal<ConcurrentChanges> localChanges = new ThreadLocal<ConcurrentChanges>() {
+      @Override
+      protected ConcurrentChanges initialValue() {
+         ConcurrentChanges changes = new ConcurrentChanges();
+         synchronized (concurrentChanges) {
+            concurrentChanges.add(changes);
+         }
+         return changes;
+      }
+   };
+   private volatile Thread updateThread;
+   private final Array<GameObject> queryBuffer = new Array<GameObject>(false, 64);
+   private final Rectangle queryRectangle = new Rectangle();
+   private final DistanceComparator distanceComparator = new DistanceComparator();
+   private final LongArray pendingRemovals = new LongArray();
+   private final Array<String> pendingIdRemovals = new Array<String>();
    private WorldBounds bounds = new WorldBounds() {
 
       @Override
@@ -127,6 +162,30 @@ public class GameWorld {
       this.bounds = bounds;
    }
 
+   /**
+    * Provides the broad-phase which determines the pairs of objects passed
+    * to {@link GameWorldListener#onUpdate(GameObject, GameObject, float)}.
+    *
+    * @return the currently active broad-phase
+    */
+   public BroadPhase getBroadPhase() {
+      return broadPhase;
+   }
+
+   /**
+    * Sets the broad-phase of the world. By default, a {@link UniformGridBroadPhase} is used
+    * which only pairs nearby objects. Use {@link ExhaustiveBroadPhase} to pair every
+    * updateable object with every other updateable object.
+    *
+    * @param broadPhase the new broad-phase implementation
+    */
+   public void setBroadPhase(BroadPhase broadPhase) {
+      if (broadPhase == null) {
+         throw new IllegalArgumentException("Broad-phase must not be null!");
+      }
+      this.broadPhase = broadPhase;
+   }
+
    /**
     * Adds a new game object to the game world and provides it.
     *
@@ -202,12 +261,12 @@ public class GameWorld {
          Gdx.app.debug("DEBUG", "GameWorld - obtaining new object...");
       }
       final GameObject object = pool.obtain();
-      GameObject object1 = getGameObject(object);
-      if (object1 != null) return object1;
       if (addObjectParameters.getMutator() != null) {
          addObjectParameters.getMutator().mutate(object);
       }
-      identityMap.put(object.getId(), object);
+      GameObject object1 = getGameObject(object);
+      if (object1 != null) return object1;
+      register(object);
       if (addObjectParameters.isLazy()) {
          extracted1(addObjectParameters, object);
       } else {
@@ -217,7 +276,7 @@ public class GameWorld {
    }
 
    private GameObject getGameObject(GameObject object) {
-      if (identityMap.containsKey(object.getId())) {
+      if (object.hasId() && identityMap.containsKey(object.getId())) {
          Gdx.app.error("FATAL", String.format(
                "GameWorld - game object %s already exists. Unable to add new object %s",
                  object,
@@ -237,6 +296,8 @@ public class GameWorld {
          @Override
          public void run() {
             objects.addToGroup(addObjectParameters.getGroup(), object);
+            quadTree.insert(object);
+            assignSlot(object);
             for (int i = 0; i < listeners.size; ++i) {
                listeners.get(i).onAdd(object);
             }
@@ -249,6 +310,8 @@ public class GameWorld {
          Gdx.app.debug("DEBUG", String.format("GameWorld - added new game object %s", object));
       }
       objects.addToGroup(addObjectParameters.getGroup(), object);
+      quadTree.insert(object);
+      assignSlot(object);
       for (int i = 0; i < listeners.size; ++i) {
          listeners.get(i).onAdd(object);
       }
@@ -260,21 +323,35 @@ public class GameWorld {
     * @param delta frame delta
     */
    public void update(float delta) {
+      updateThread = Thread.currentThread();
+      processRemovals();
       updateUpdatableObjects();
+      broadPhase.update(updateableObjects);
+      inBoundsObjects.clear();
       for (int i = 0; i < updateableObjects.size; ++i) {
          GameObject object = updateableObjects.get(i);
          if (!bounds.isInBounds(object) && !object.isPersistent()) {
             Gdx.app.debug("DEBUG", String.format("GameWorld - object %s is out of bounds! Remove...", object));
             remove(object);
-            continue;
+         } else {
+            inBoundsObjects.add(object);
          }
+      }
+      for (int listenerIndex = 0; listenerIndex < listeners.size; ++listenerIndex) {
+         listeners.get(listenerIndex).onUpdateAll(inBoundsObjects, delta);
+      }
+      mergeConcurrentChanges();
+      for (int i = 0; i < inBoundsObjects.size; ++i) {
+         GameObject object = inBoundsObjects.get(i);
          for (int listenerIndex = 0; listenerIndex < listeners.size; ++listenerIndex) {
             listeners.get(listenerIndex).onUpdate(object, delta);
          }
          if (object.isActive()) {
-            for (int otherObjIndex = 0; otherObjIndex < updateableObjects.size; ++otherObjIndex) {
-               GameObject other = updateableObjects.get(otherObjIndex);
-               if (other.isActive() && !object.getId().equals(other.getId())) {
+            candidates.clear();
+            broadPhase.retrieve(object, candidates);
+            for (int otherObjIndex = 0; otherObjIndex < candidates.size; ++otherObjIndex) {
+               GameObject other = candidates.get(otherObjIndex);
+               if (other.isActive() && object != other) {
                   for (int listenerIndex = 0; listenerIndex < listeners.size; ++listenerIndex) {
                      listeners.get(listenerIndex).onUpdate(object, other, delta);
                   }
@@ -288,9 +365,136 @@ public class GameWorld {
     * Gets an object by id
     */
    public GameObject getObjectById(String id) {
+      mergeConcurrentChanges();
       return identityMap.get(id);
    }
 
+   /**
+    * Gets an object by its handle
+    *
+    * @param handle the handle as provided by {@link GameObject#getHandle()}
+    * @return the object or null if no object with this handle is part of this world
+    */
+   public GameObject getObjectByHandle(long handle) {
+      GameObject object = handleMap.get((int) handle);
+      if (object != null && object.getHandle() == handle) {
+         return object;
+      }
+      return null;
+   }
+
+   /**
+    * Finds all objects whose bounds overlap the given rectangle. Candidates are taken from
+    * the spatial index of this world. Objects moved via their setters are relocated before
+    * every query, changes written directly into the {@link TransformStore} are picked up
+    * with the next {@link #update(float)}. The result is not cleared beforehand.
+    *
+    * @param x      left of the rectangle
+    * @param y      top of the rectangle
+    * @param width  width of the rectangle
+    * @param height height of the rectangle
+    * @param result the array to add the objects to
+    * @return the result array
+    */
+   public Array<GameObject> queryRect(float x, float y, float width, float height, Array<GameObject> result) {
+      retrieveCandidates(x, y, width, height);
+      for (int i = 0; i < queryBuffer.size; ++i) {
+         GameObject object = queryBuffer.get(i);
+         if (overlaps(object, x, y, x + width, y + height)) {
+            result.add(object);
+         }
+      }
+      queryBuffer.clear();
+      return result;
+   }
+
+   /**
+    * Finds all objects whose bounds intersect the given circle. The result is not cleared beforehand.
+    *
+    * @param x      center x of the circle
+    * @param y      center y of the circle
+    * @param radius radius of the circle
+    * @param result the array to add the objects to
+    * @return the result array
+    */
+   public Array<GameObject> queryRadius(float x, float y, float radius, Array<GameObject> result) {
+      retrieveCandidates(x - radius, y - radius, radius * 2f, radius * 2f);
+      final float radiusSquared = radius * radius;
+      for (int i = 0; i < queryBuffer.size; ++i) {
+         GameObject object = queryBuffer.get(i);
+         if (distanceSquared(object, x, y) <= radiusSquared) {
+            result.add(object);
+         }
+      }
+      queryBuffer.clear();
+      return result;
+   }
+
+   /**
+    * Finds the k objects closest to the given point, measured to their bounds. The objects
+    * are added to the result in ascending order of distance. The result is not cleared beforehand.
+    *
+    * @param x      x of the point
+    * @param y      y of the point
+    * @param k      the maximum number of objects to find
+    * @param result the array to add the objects to
+    * @return the result array
+    */
+   public Array<GameObject> nearest(float x, float y, int k, Array<GameObject> result) {
+      if (k <= 0 || quadTree.size() == 0) {
+         return result;
+      }
+      final int start = result.size;
+      float radius = NEAREST_INITIAL_RADIUS;
+      while (true) {
+         retrieveCandidates(x - radius, y - radius, radius * 2f, radius * 2f);
+         final boolean complete = queryBuffer.size >= quadTree.size();
+         final float radiusSquared = radius * radius;
+         for (int i = 0; i < queryBuffer.size; ++i) {
+            GameObject object = queryBuffer.get(i);
+            if (complete || distanceSquared(object, x, y) <= radiusSquared) {
+               result.add(object);
+            }
+         }
+         queryBuffer.clear();
+         if (complete || result.size - start >= k) {
+            break;
+         }
+         result.truncate(start);
+         radius *= 2f;
+      }
+      distanceComparator.set(x, y);
+      Sort.instance().sort(result.items, distanceComparator, start, result.size);
+      result.truncate(Math.min(result.size, start + k));
+      return result;
+   }
+
+   /**
+    * Finds all objects whose bounds are hit by the given line segment. The objects are added
+    * to the result in the order they are hit. The result is not cleared beforehand.
+    *
+    * @param startX x of the start of the ray
+    * @param startY y of the start of the ray
+    * @param endX   x of the end of the ray
+    * @param endY   y of the end of the ray
+    * @param result the array to add the objects to
+    * @return the result array
+    */
+   public Array<GameObject> raycast(float startX, float startY, float endX, float endY, Array<GameObject> result) {
+      final int start = result.size;
+      retrieveCandidates(Math.min(startX, endX), Math.min(startY, endY), Math.abs(endX - startX), Math.abs(endY - startY));
+      for (int i = 0; i < queryBuffer.size; ++i) {
+         GameObject object = queryBuffer.get(i);
+         if (hitFraction(object, startX, startY, endX, endY) >= 0f) {
+            result.add(object);
+         }
+      }
+      queryBuffer.clear();
+      distanceComparator.set(startX, startY, endX, endY);
+      Sort.instance().sort(result.items, distanceComparator, start, result.size);
+      return result;
+   }
+
    /**
     * Returns a list of all objects within this world.
     */
@@ -319,13 +523,72 @@ public class GameWorld {
       return result;
    }
 
+   /**
+    * Enables or disables the shared transform store of this world. When enabled, the
+    * transforms of all objects within this world are kept in contiguous columns of a
+    * single {@link TransformStore}, indexed by slot. Disabled by default.
+    *
+    * @param enabled true to keep transforms within a shared store
+    */
+   public void setTransformStoreEnabled(boolean enabled) {
+      if (enabled == (transformStore != null)) {
+         return;
+      }
+      transformStore = enabled ? new TransformStore(Math.max(slots.size, 64)) : null;
+      for (int slot = 0; slot < slots.size; ++slot) {
+         GameObject object = slots.get(slot);
+         if (object != null) {
+            object.attachTransform(transformStore, slot);
+         }
+      }
+   }
+
+   public boolean isTransformStoreEnabled() {
+      return transformStore != null;
+   }
+
+   /**
+    * Provides the shared transform store of this world. Columns are indexed by slot,
+    * use {@link #getSlotCount()} and {@link #getObjectAtSlot(int)} to iterate them.
+    *
+    * @return the transform store or null if not enabled
+    */
+   public TransformStore getTransformStore() {
+      return transformStore;
+   }
+
+   /**
+    * @return the upper bound (exclusive) of slots currently in use
+    */
+   public int getSlotCount() {
+      return slots.size;
+   }
+
+   /**
+    * @param slot the slot to look up
+    * @return the object within the given slot or null if the slot is free
+    */
+   public GameObject getObjectAtSlot(int slot) {
+      return slots.get(slot);
+   }
+
+   /**
+    * Determines whether this world is large enough to retrieve objects by area via its
+    * spatial index. Smaller worlds are cheaper to iterate as a whole.
+    *
+    * @return true if area lookups should use the spatial index
+    */
+   public boolean isSpatialIndexEnabled() {
+      return objects.getAll().size >= QUADTREE_ENABLED_THRESHOLD;
+   }
+
    /**
     * Number of active objects in the world
     *
     * @return
     */
    public int size() {
-      return identityMap.size();
+      return handleMap.size;
    }
 
    /**
@@ -334,7 +597,21 @@ public class GameWorld {
    public void clear() {
       pool.clear();
       objects.clear();
+      quadTree.clear();
+      for (GameObject object : handleMap.values()) {
+         object.attachTransform(null, 0);
+         object.slot = -1;
+         object.world = null;
+      }
+      handleMap.clear();
+      slots.clear();
+      freeSlots.clear();
+      updateableSlots.clear();
+      nextUpdateableSlots.clear();
       identityMap.clear();
+      discardConcurrentChanges();
+      pendingRemovals.clear();
+      pendingIdRemovals.clear();
       for (GameWorldListener l : listeners) {
          l.onClear();
       }
@@ -346,7 +623,7 @@ public class GameWorld {
       if (group != null) {
          group = new Array<GameObject>(group);
          for (int i = 0; i < group.size; i++) {
-            removeInternally(group.get(i).getId());
+            removeInternally(group.get(i));
          }
          objects.clearGroup(groupKey);
       }
@@ -356,84 +633,321 @@ public class GameWorld {
       return objects.getGroup(groupKey);
    }
 
+   /**
+    * Requests removal of the given game object. Removals are queued and
+    * carried out at the beginning of the next {@link #update(float)}.
+    *
+    * @param object the object to remove
+    */
+   public void remove(GameObject object) {
+      if (Gdx.app.getLogLevel() == Application.LOG_DEBUG) {
+         Gdx.app.debug("DEBUG", String.format("GameWorld - requested removal of game object %s", object));
+      }
+      pendingRemovals.add(object.getHandle());
+   }
+
    /**
     * Removes the given game objects from this world
     *
     * @param objects
     */
-   public void remove(final GameObject... objects) {
-      Gdx.app.postRunnable(new Runnable() {
-         @Override
-         public void run() {
-            for (final GameObject object : objects) {
-               if (Gdx.app.getLogLevel() == Application.LOG_DEBUG) {
-                  Gdx.app.debug("DEBUG", String.format("GameWorld - requested removal of game object %s", object));
-               }
-               removeInternally(object.getId());
-            }
-         }
-      });
+   public void remove(GameObject... objects) {
+      for (int i = 0; i < objects.length; ++i) {
+         remove(objects[i]);
+      }
    }
 
-   public void remove(final String... ids) {
-      Gdx.app.postRunnable(new Runnable() {
-         @Override
-         public void run() {
-            for (final String id : ids) {
-               if (Gdx.app.getLogLevel() == Application.LOG_DEBUG) {
-                  Gdx.app.debug("DEBUG", String.format("GameWorld - requested removal of game object with id %s", id));
-               }
-               removeInternally(id);
-            }
+   /**
+    * Requests removal of the game object with the given id. Removals are queued and
+    * carried out at the beginning of the next {@link #update(float)}.
+    *
+    * @param id the id of the object to remove
+    */
+   public void remove(String id) {
+      if (Gdx.app.getLogLevel() == Application.LOG_DEBUG) {
+         Gdx.app.debug("DEBUG", String.format("GameWorld - requested removal of game object with id %s", id));
+      }
+      pendingIdRemovals.add(id);
+   }
+
+   public void remove(String... ids) {
+      for (int i = 0; i < ids.length; ++i) {
+         remove(ids[i]);
+      }
+   }
+
+   /**
+    * Carries out all pending removals. Objects which were requested by handle are
+    * looked up again, so objects which got freed and reused in the meantime stay untouched.
+    */
+   private void processRemovals() {
+      for (int i = 0; i < pendingRemovals.size; ++i) {
+         GameObject object = getObjectByHandle(pendingRemovals.get(i));
+         if (object != null) {
+            removeInternally(object);
          }
-      });
+      }
+      pendingRemovals.clear();
+      for (int i = 0; i < pendingIdRemovals.size; ++i) {
+         removeInternally(pendingIdRemovals.get(i));
+      }
+      pendingIdRemovals.clear();
    }
 
    private void removeInternally(String id) {
       if (Gdx.app.getLogLevel() == Application.LOG_DEBUG) {
          Gdx.app.debug("DEBUG", String.format("%s - GameWorld - removing game object with id %s", System.nanoTime(), id));
       }
-      GameObject object = identityMap.remove(id);
+      GameObject object = identityMap.get(id);
       if (object == null) {
          Gdx.app.debug("DEBUG", String.format("%s - GameWorld - game object with id %s does not exist any longer.", System.nanoTime(), id));
          return;
       }
+      removeInternally(object);
+   }
+
+   private void removeInternally(GameObject object) {
+      if (object.world != this || handleMap.get((int) object.getHandle()) != object) {
+         Gdx.app.debug("DEBUG", String.format("%s - GameWorld - game object %s does not exist any longer.", System.nanoTime(), object));
+         return;
+      }
+      handleMap.remove((int) object.getHandle());
+      if (object.hasId() && identityMap.get(object.getId()) == object) {
+         identityMap.remove(object.getId());
+      }
       for (int i = 0; i < listeners.size; ++i) {
          listeners.get(i).onRemove(object);
       }
       objects.remove(object);
+      quadTree.remove(object);
+      releaseSlot(object);
+      object.world = null;
       pool.free(object);
    }
 
+   private void register(GameObject object) {
+      object.world = this;
+      handleMap.put((int) object.getHandle(), object);
+      if (object.hasId()) {
+         identityMap.put(object.getId(), object);
+      }
+   }
+
+   /**
+    * Keeps the id lookup in sync whenever the string id of an object has been assigned or changed.
+    * Like bounds changes, id changes made on other threads are merged on the update thread.
+    */
+   void onIdChange(GameObject object, String previousId) {
+      final Thread thread = updateThread;
+      if (thread != null && thread != Thread.currentThread()) {
+         ConcurrentChanges changes = localChanges.get();
+         changes.idChanges.add(object);
+         changes.previousIds.add(previousId);
+         return;
+      }
+      updateId(object, previousId);
+   }
+
+   private void updateId(GameObject object, String previousId) {
+      if (previousId != null && identityMap.get(previousId) == object) {
+         identityMap.remove(previousId);
+      }
+      identityMap.put(object.getId(), object);
+   }
+
+   /**
+    * Determines if the given object has been updateable within the last frame.
+    *
+    * @param object the object to check
+    * @return true if the object is part of this world and updateable
+    */
+   public boolean isUpdateable(GameObject object) {
+      return object.slot != -1 && slots.get(object.slot) == object && updateableSlots.get(object.slot);
+   }
+
+   private void assignSlot(GameObject object) {
+      if (freeSlots.size > 0) {
+         object.slot = freeSlots.pop();
+         slots.set(object.slot, object);
+      } else {
+         object.slot = slots.size;
+         slots.add(object);
+      }
+      if (transformStore != null) {
+         transformStore.ensureCapacity(object.slot);
+         object.attachTransform(transformStore, object.slot);
+      }
+      if (object.slot * 4 + 4 > indexedBounds.length) {
+         indexedBounds = Arrays.copyOf(indexedBounds, Math.max(object.slot * 4 + 4, indexedBounds.length * 2));
+      }
+      storeIndexedBounds(object.slot, object.getLeft(), object.getTop(), object.getWidth(), object.getHeight());
+      // also makes sure the bits are large enough, so marking objects never allocates
+      movedSlots.set(object.slot);
+      // newly added objects are considered updateable until proven otherwise
+      updateableSlots.set(object.slot);
+   }
+
+   private void releaseSlot(GameObject object) {
+      if (object.slot == -1 || slots.get(object.slot) != object) {
+         return;
+      }
+      updateableSlots.clear(object.slot);
+      nextUpdateableSlots.clear(object.slot);
+      object.attachTransform(null, 0);
+      slots.set(object.slot, null);
+      freeSlots.add(object.slot);
+      object.slot = -1;
+   }
+
+   private void notifyStatusChanges() {
+      nextUpdateableSlots.clear();
+      for (int i = 0; i < updateableObjects.size; ++i) {
+         GameObject object = updateableObjects.get(i);
+         if (object.slot == -1) {
+            continue;
+         }
+         nextUpdateableSlots.set(object.slot);
+         if (!updateableSlots.get(object.slot)) {
+            for (int listenerIndex = 0; listenerIndex < listeners.size; ++listenerIndex) {
+               listeners.get(listenerIndex).onStatusChange(object, true);
+            }
+         }
+      }
+      for (int slot = updateableSlots.nextSetBit(0); slot != -1; slot = updateableSlots.nextSetBit(slot + 1)) {
+         if (!nextUpdateableSlots.get(slot)) {
+            GameObject object = slots.get(slot);
+            for (int listenerIndex = 0; listenerIndex < listeners.size; ++listenerIndex) {
+               listeners.get(listenerIndex).onStatusChange(object, false);
+            }
+         }
+      }
+      Bits previous = updateableSlots;
+      updateableSlots = nextUpdateableSlots;
+      nextUpdateableSlots = previous;
+   }
+
    private void updateUpdatableObjects() {
       boundsRectangle.set(bounds.getWorldOffsetX(), bounds.getWorldOffsetY(), bounds.getWorldWidth(), bounds.getWorldHeight());
       Array<GameObject> allObjects = objects.getAll();
+      quadTree.setBounds(boundsRectangle);
+      movedSlots.clear();
+      if (transformStore != null) {
+         updateIndexFromTransformStore();
+      } else {
+         for (int slot = 0; slot < slots.size; ++slot) {
+            GameObject o = slots.get(slot);
+            if (o != null) {
+               updateIndex(slot, o, o.getLeft(), o.getTop(), o.getWidth(), o.getHeight());
+            }
+         }
+      }
 
-      if (allObjects.size < QUADTREE_ENABLED_THRESHOLD) {
-         updateableObjects.clear();
+      updateableObjects.clear();
+      if (!isSpatialIndexEnabled()) {
          updateableObjects.addAll(allObjects);
+      } else {
+         retrieveVisibleObjects();
+      }
+      notifyStatusChanges();
+   }
+
+   /**
+    * Relocates every object within the spatial index, reading the bounds from the transform store.
+    */
+   private void updateIndexFromTransformStore() {
+      final float[] x = transformStore.x;
+      final float[] y = transformStore.y;
+      final float[] width = transformStore.width;
+      final float[] height = transformStore.height;
+      for (int slot = 0; slot < slots.size; ++slot) {
+         GameObject o = slots.get(slot);
+         if (o != null) {
+            updateIndex(slot, o, x[slot], y[slot], width[slot], height[slot]);
+         }
+      }
+   }
+
+   /**
+    * Marks the given object for relocation within the spatial index before the next query.
+    * Changes made on any other thread than the one updating this world (e.g. by parallel
+    * behaviors) are recorded per thread and merged on the update thread instead.
+    */
+   void onBoundsChange(GameObject object) {
+      if (object.slot == -1) {
          return;
       }
-      quadTree.clear();
-      for (GameObject o : allObjects) {
-         final boolean wasUpdateable = updateableObjects.contains(o, false);
-         if (!wasUpdateable && o.getAttribute("updateable", false)) {
-            for (GameWorldListener listener : listeners) {
-               listener.onStatusChange(o, false);
+      final Thread thread = updateThread;
+      if (thread == null || thread == Thread.currentThread()) {
+         movedSlots.set(object.slot);
+      } else {
+         localChanges.get().moves.add(object.slot);
+      }
+   }
+
+   /**
+    * Applies all bounds and id changes which have been made on other threads. Must only be
+    * called on the update thread while no other thread modifies objects of this world, e.g.
+    * after all partitions of a parallel update have finished.
+    */
+   private void mergeConcurrentChanges() {
+      synchronized (concurrentChanges) {
+         for (int i = 0; i < concurrentChanges.size; ++i) {
+            ConcurrentChanges changes = concurrentChanges.get(i);
+            for (int j = 0; j < changes.moves.size; ++j) {
+               movedSlots.set(changes.moves.get(j));
             }
-         } else if (wasUpdateable && !o.getAttribute("updateable", false)) {
-            for (GameWorldListener listener : listeners) {
-               listener.onStatusChange(o, true);
+            for (int j = 0; j < changes.idChanges.size; ++j) {
+               GameObject object = changes.idChanges.get(j);
+               if (object.world == this) {
+                  updateId(object, changes.previousIds.get(j));
+               }
             }
+            changes.clear();
          }
-         if (!o.hasAttribute("updateable")) {
-            o.setAttribute("updateable", true);
-         } else {
-            o.setAttribute("updateable", wasUpdateable);
+      }
+   }
+
+   private void discardConcurrentChanges() {
+      synchronized (concurrentChanges) {
+         for (int i = 0; i < concurrentChanges.size; ++i) {
+            concurrentChanges.get(i).clear();
          }
-         quadTree.insert(o);
       }
-      updateableObjects.clear();
+   }
+
+   private void updateMovedObjects() {
+      mergeConcurrentChanges();
+      for (int slot = movedSlots.nextSetBit(0); slot != -1; slot = movedSlots.nextSetBit(slot + 1)) {
+         GameObject o = slots.get(slot);
+         if (o != null) {
+            updateIndex(slot, o, o.getLeft(), o.getTop(), o.getWidth(), o.getHeight());
+         }
+      }
+      movedSlots.clear();
+   }
+
+   /**
+    * Relocates the given object within the spatial index in case its bounds changed
+    * since it has been indexed the last time.
+    */
+   private void updateIndex(int slot, GameObject object, float left, float top, float width, float height) {
+      final int offset = slot * 4;
+      if (indexedBounds[offset] != left || indexedBounds[offset + 1] != top
+            || indexedBounds[offset + 2] != width || indexedBounds[offset + 3] != height) {
+         quadTree.update(object);
+         storeIndexedBounds(slot, left, top, width, height);
+      }
+   }
+
+   private void storeIndexedBounds(int slot, float left, float top, float width, float height) {
+      final int offset = slot * 4;
+      indexedBounds[offset] = left;
+      indexedBounds[offset + 1] = top;
+      indexedBounds[offset + 2] = width;
+      indexedBounds[offset + 3] = height;
+   }
+
+   private void retrieveVisibleObjects() {
       float paddingPercentage = 0.1f;
       tmp.set(
             gameCamera.getLeft() - gameCamera.getScaledCameraWidth() * paddingPercentage,
@@ -475,6 +989,104 @@ public class GameWorld {
       float getWorldOffsetY();
    }
 
+   private void retrieveCandidates(float x, float y, float width, float height) {
+      updateMovedObjects();
+      queryBuffer.clear();
+      queryRectangle.set(x, y, width, height);
+      quadTree.retrieve(queryBuffer, queryRectangle);
+   }
+
+   private static boolean overlaps(GameObject object, float left, float top, float right, float bottom) {
+      return object.getLeft() <= right && object.getRight() >= left
+            && object.getTop() <= bottom && object.getBottom() >= top;
+   }
+
+   private static float distanceSquared(GameObject object, float x, float y) {
+      final float dx = Math.max(Math.max(object.getLeft() - x, 0f), x - object.getRight());
+      final float dy = Math.max(Math.max(object.getTop() - y, 0f), y - object.getBottom());
+      return dx * dx + dy * dy;
+   }
+
+   /**
+    * Computes the fraction of the given segment at which it enters the bounds of the object.
+    *
+    * @return the fraction between 0 and 1 or -1 if the segment misses the object
+    */
+   private static float hitFraction(GameObject object, float startX, float startY, float endX, float endY) {
+      float near = 0f;
+      float far = 1f;
+      final float dx = endX - startX;
+      final float dy = endY - startY;
+      if (dx == 0f) {
+         if (startX < object.getLeft() || startX > object.getRight()) {
+            return -1f;
+         }
+      } else {
+         float t1 = (object.getLeft() - startX) / dx;
+         float t2 = (object.getRight() - startX) / dx;
+         near = Math.max(near, Math.min(t1, t2));
+         far = Math.min(far, Math.max(t1, t2));
+      }
+      if (dy == 0f) {
+         if (startY < object.getTop() || startY > object.getBottom()) {
+            return -1f;
+         }
+      } else {
+         float t1 = (object.getTop() - startY) / dy;
+         float t2 = (object.getBottom() - startY) / dy;
+         near = Math.max(near, Math.min(t1, t2));
+         far = Math.min(far, Math.max(t1, t2));
+      }
+      return near <= far ? near : -1f;
+   }
+
+   /**
+    * Orders objects by their distance to a point or by the fraction a ray hits them.
+    */
+   private static class DistanceComparator implements Comparator<GameObject> {
+
+      private float x, y, endX, endY;
+      private boolean ray;
+
+      void set(float x, float y) {
+         this.x = x;
+         this.y = y;
+         this.ray = false;
+      }
+
+      void set(float startX, float startY, float endX, float endY) {
+         this.x = startX;
+         this.y = startY;
+         this.endX = endX;
+         this.endY = endY;
+         this.ray = true;
+      }
+
+      @Override
+      public int compare(GameObject o1, GameObject o2) {
+         if (ray) {
+            return Float.compare(hitFraction(o1, x, y, endX, endY), hitFraction(o2, x, y, endX, endY));
+         }
+         return Float.compare(distanceSquared(o1, x, y), distanceSquared(o2, x, y));
+      }
+   }
+
+   /**
+    * Changes made to objects of this world on a thread other than the update thread.
+    * Only ever written by a single thread.
+    */
+   private static class ConcurrentChanges {
+      final IntArray moves = new IntArray();
+      final Array<GameObject> idChanges = new Array<GameObject>();
+      final Array<String> previousIds = new Array<String>();
+
+      void clear() {
+         moves.clear();
+         idChanges.clear();
+         previousIds.clear();
+      }
+   }
+
    /**
     * Listens to GameWorld events.
     */
@@ -493,6 +1105,13 @@ public class GameWorld {
       public void onUpdate(GameObject object, float delta) {
       }
 
+      /**
+       * Is called once per frame with all updateable objects, before they get updated
+       * individually. The given array must not be modified.
+       */
+      public void onUpdateAll(Array<GameObject> objects, float delta) {
+      }
+
       public void onUpdate(GameObject object, GameObject other, float delta) {
       }
 
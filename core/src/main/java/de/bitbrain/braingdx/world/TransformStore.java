@@ -0,0 +1,118 @@
+package de.bitbrain.braingdx.world;
+
+import java.util.Arrays;
+
+/**
+ * Structure-of-arrays storage for the transforms of game objects. Every field lives
+ * in its own contiguous column, indexed by the slot of an object.
+ * <p>
+ * A {@link GameWorld} can own a shared store for all of its objects (see
+ * {@link GameWorld#setTransformStoreEnabled(boolean)}) which allows bulk systems
+ * to iterate over the columns directly. Columns might be re-allocated when the
+ * store grows, so references to them should not be kept across frames.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class TransformStore {
+
+   public float[] x, y;
+   public float[] lastX, lastY;
+   public float[] width, height;
+   public float[] offsetX, offsetY;
+   public float[] scaleX, scaleY;
+   public float[] originX, originY;
+   public float[] rotation;
+   public float[] zIndex;
+
+   private int capacity;
+
+   public TransformStore(int capacity) {
+      this.capacity = Math.max(1, capacity);
+      x = new float[this.capacity];
+      y = new float[this.capacity];
+      lastX = new float[this.capacity];
+      lastY = new float[this.capacity];
+      width = new float[this.capacity];
+      height = new float[this.capacity];
+      offsetX = new float[this.capacity];
+      offsetY = new float[this.capacity];
+      scaleX = new float[this.capacity];
+      scaleY = new float[this.capacity];
+      originX = new float[this.capacity];
+      originY = new float[this.capacity];
+      rotation = new float[this.capacity];
+      zIndex = new float[this.capacity];
+      Arrays.fill(scaleX, 1f);
+      Arrays.fill(scaleY, 1f);
+   }
+
+   public int getCapacity() {
+      return capacity;
+   }
+
+   /**
+    * Makes sure the given index fits into this store.
+    */
+   public void ensureCapacity(int index) {
+      if (index < capacity) {
+         return;
+      }
+      int newCapacity = Math.max(index + 1, (int) (capacity * 1.75f));
+      x = Arrays.copyOf(x, newCapacity);
+      y = Arrays.copyOf(y, newCapacity);
+      lastX = Arrays.copyOf(lastX, newCapacity);
+      lastY = Arrays.copyOf(lastY, newCapacity);
+      width = Arrays.copyOf(width, newCapacity);
+      height = Arrays.copyOf(height, newCapacity);
+      offsetX = Arrays.copyOf(offsetX, newCapacity);
+      offsetY = Arrays.copyOf(offsetY, newCapacity);
+      scaleX = Arrays.copyOf(scaleX, newCapacity);
+      scaleY = Arrays.copyOf(scaleY, newCapacity);
+      originX = Arrays.copyOf(originX, newCapacity);
+      originY = Arrays.copyOf(originY, newCapacity);
+      rotation = Arrays.copyOf(rotation, newCapacity);
+      zIndex = Arrays.copyOf(zIndex, newCapacity);
+      capacity = newCapacity;
+   }
+
+   /**
+    * Copies the transform at the given source index into the target store.
+    */
+   public void copy(int sourceIndex, TransformStore target, int targetIndex) {
+      target.x[targetIndex] = x[sourceIndex];
+      target.y[targetIndex] = y[sourceIndex];
+      target.lastX[targetIndex] = lastX[sourceIndex];
+      target.lastY[targetIndex] = lastY[sourceIndex];
+      target.width[targetIndex] = width[sourceIndex];
+      target.height[targetIndex] = height[sourceIndex];
+      target.offsetX[targetIndex] = offsetX[sourceIndex];
+      target.offsetY[targetIndex] = offsetY[sourceIndex];
+      target.scaleX[targetIndex] = scaleX[sourceIndex];
+      target.scaleY[targetIndex] = scaleY[sourceIndex];
+      target.originX[targetIndex] = originX[sourceIndex];
+      target.originY[targetIndex] = originY[sourceIndex];
+      target.rotation[targetIndex] = rotation[sourceIndex];
+      target.zIndex[targetIndex] = zIndex[sourceIndex];
+   }
+
+   /**
+    * Resets the transform at the given index to its defaults.
+    */
+   public void reset(int index) {
+      x[index] = 0f;
+      y[index] = 0f;
+      lastX[index] = 0f;
+      lastY[index] = 0f;
+      width[index] = 0f;
+      height[index] = 0f;
+      offsetX[index] = 0f;
+      offsetY[index] = 0f;
+      scaleX[index] = 1f;
+      scaleY[index] = 1f;
+      originX[index] = 0f;
+      originY[index] = 0f;
+      rotation[index] = 0f;
+      zIndex[index] = 0f;
+   }
+}
@@ -0,0 +1,181 @@
+package de.bitbrain.braingdx.world;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Broad-phase which buckets objects into a uniform grid. Only objects whose bounds overlap
+ * or are within the configured margin of each other are considered candidates.
+ * <p>
+ * The grid is rebuilt once per frame, so the margin should cover the distance objects
+ * are expected to travel within a single frame.
+ *
+ * @author Miguel Gonzalez Sanchez
+ * @since 1.0.0
+ */
+public class UniformGridBroadPhase implements BroadPhase {
+
+   public static final float DEFAULT_CELL_SIZE = 64f;
+   public static final float DEFAULT_MARGIN = 16f;
+
+   /**
+    * objects covering more cells than this are not bucketed but tested against everything
+    */
+   private static final int MAX_CELLS_PER_OBJECT = 64;
+
+   /**
+    * Cells holding the indices of the objects they contain
+    */
+   private final LongMap<IntArray> cells = new LongMap<IntArray>();
+   private final Array<IntArray> usedCells = new Array<IntArray>();
+   private final Array<IntArray> freeCells = new Array<IntArray>();
+   private final Array<GameObject> oversized = new Array<GameObject>();
+   private final float cellSize;
+   private float margin;
+   private Array<GameObject> objects;
+   /**
+    * The first cell each object has been inserted into, since objects may move until the next
+    * update
+    */
+   private int[] firstCellsX = new int[0];
+   private int[] firstCellsY = new int[0];
+
+   public UniformGridBroadPhase() {
+      this(DEFAULT_CELL_SIZE, DEFAULT_MARGIN);
+   }
+
+   public UniformGridBroadPhase(float cellSize, float margin) {
+      if (cellSize <= 0f) {
+         throw new IllegalArgumentException("Cell size has to be greater than 0 but was " + cellSize);
+      }
+      this.cellSize = cellSize;
+      this.margin = margin;
+   }
+
+   public float getCellSize() {
+      return cellSize;
+   }
+
+   public float getMargin() {
+      return margin;
+   }
+
+   /**
+    * Sets the distance in which objects are still considered candidates of each other.
+    *
+    * @param margin the margin in world units
+    */
+   public void setMargin(float margin) {
+      this.margin = margin;
+   }
+
+   @Override
+   public void update(Array<GameObject> objects) {
+      this.objects = objects;
+      for (int i = 0; i < usedCells.size; ++i) {
+         IntArray cell = usedCells.get(i);
+         cell.clear();
+         freeCells.add(cell);
+      }
+      usedCells.clear();
+      cells.clear();
+      oversized.clear();
+      if (firstCellsX.length < objects.size) {
+         firstCellsX = new int[objects.size];
+         firstCellsY = new int[objects.size];
+      }
+      for (int i = 0; i < objects.size; ++i) {
+         insert(i);
+      }
+   }
+
+   @Override
+   public Array<GameObject> retrieve(GameObject object, Array<GameObject> result) {
+      if (objects == null) {
+         return result;
+      }
+      final float left = object.getLeft() - margin;
+      final float top = object.getTop() - margin;
+      final float right = object.getRight() + margin;
+      final float bottom = object.getBottom() + margin;
+      final int minX = cell(left);
+      final int minY = cell(top);
+      final int maxX = cell(right);
+      final int maxY = cell(bottom);
+      if ((long) (maxX - minX + 1) * (maxY - minY + 1) > MAX_CELLS_PER_OBJECT) {
+         for (int i = 0; i < objects.size; ++i) {
+            GameObject other = objects.get(i);
+            if (overlaps(other, left, top, right, bottom)) {
+               result.add(other);
+            }
+         }
+         return result;
+      }
+      for (int x = minX; x <= maxX; ++x) {
+         for (int y = minY; y <= maxY; ++y) {
+            IntArray cell = cells.get(key(x, y));
+            if (cell == null) {
+               continue;
+            }
+            for (int i = 0; i < cell.size; ++i) {
+               final int index = cell.get(i);
+               // objects spanning multiple cells are only reported by the first shared cell
+               if (x != Math.max(firstCellsX[index], minX) || y != Math.max(firstCellsY[index], minY)) {
+                  continue;
+               }
+               GameObject other = objects.get(index);
+               if (overlaps(other, left, top, right, bottom)) {
+                  result.add(other);
+               }
+            }
+         }
+      }
+      for (int i = 0; i < oversized.size; ++i) {
+         GameObject other = oversized.get(i);
+         if (overlaps(other, left, top, right, bottom)) {
+            result.add(other);
+         }
+      }
+      return result;
+   }
+
+   private void insert(int index) {
+      final GameObject object = objects.get(index);
+      final int minX = cell(object.getLeft());
+      final int minY = cell(object.getTop());
+      final int maxX = cell(object.getRight());
+      final int maxY = cell(object.getBottom());
+      if ((long) (maxX - minX + 1) * (maxY - minY + 1) > MAX_CELLS_PER_OBJECT) {
+         oversized.add(object);
+         return;
+      }
+      firstCellsX[index] = minX;
+      firstCellsY[index] = minY;
+      for (int x = minX; x <= maxX; ++x) {
+         for (int y = minY; y <= maxY; ++y) {
+            final long key = key(x, y);
+            IntArray cell = cells.get(key);
+            if (cell == null) {
+               cell = freeCells.size > 0 ? freeCells.pop() : new IntArray(false, 16);
+               cells.put(key, cell);
+               usedCells.add(cell);
+            }
+            cell.add(index);
+         }
+      }
+   }
+
+   private boolean overlaps(GameObject other, float left, float top, float right, float bottom) {
+      return other.getLeft() <= right && other.getRight() >= left
+            && other.getTop() <= bottom && other.getBottom() >= top;
+   }
+
+   private int cell(float value) {
+      return (int) Math.floor(value / cellSize);
+   }
+
+   private static long key(int x, int y) {
+      return ((long) x << 32) | (y & 0xFFFFFFFFL);
+   }
+}
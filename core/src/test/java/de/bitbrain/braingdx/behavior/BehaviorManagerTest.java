@@ -1,5 +1,6 @@
 package de.bitbrain.braingdx.behavior;
 
+import com.badlogic.gdx.utils.Array;
 import de.bitbrain.braingdx.graphics.GameCamera;
 import de.bitbrain.braingdx.util.GdxUtils;
 import de.bitbrain.braingdx.util.Updateable;
@@ -12,6 +13,13 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -45,6 +53,7 @@ public class BehaviorManagerTest {
       manager.update(1f);
       inOrder(mockBehavior).verify(mockBehavior, Mockito.calls(1)).update(1f);
       world.remove(mockObject);
+      world.update(0f);
       manager.update(2f);
       inOrder(mockBehavior).verify(mockBehavior, Mockito.never()).update(2f);
    }
@@ -147,4 +156,92 @@ public class BehaviorManagerTest {
          inOrder(mockBehavior).verify(mockBehavior, Mockito.calls(1)).onStatusChange(o, true);
       }
    }
+
+   @Test
+   public void testParallelUpdate_DefersMutations() {
+      GameCamera camera = mock(GameCamera.class);
+      when(camera.getScaledCameraWidth()).thenReturn(2000f);
+      when(camera.getScaledCameraHeight()).thenReturn(2000f);
+      world.setCamera(camera);
+      ExecutorService executor = Executors.newFixedThreadPool(3);
+      try {
+         manager.enableParallelUpdates(executor, 4);
+         final AtomicInteger updates = new AtomicInteger();
+         final AtomicInteger sequentialUpdates = new AtomicInteger();
+         ParallelBehavior parallelBehavior = new ParallelBehaviorAdapter() {
+            @Override
+            public void update(final GameObject source, float delta) {
+               updates.incrementAndGet();
+               source.move(1f, 0f);
+               if (source.getLeft() > 1f) {
+                  manager.defer(new Runnable() {
+                     @Override
+                     public void run() {
+                        world.remove(source);
+                     }
+                  });
+               }
+            }
+         };
+         manager.apply(parallelBehavior);
+         manager.apply(new BehaviorAdapter() {
+            @Override
+            public void update(GameObject source, float delta) {
+               sequentialUpdates.incrementAndGet();
+            }
+         });
+         for (int i = 0; i < 100; ++i) {
+            GameObject object = world.addObject();
+            object.setPosition(i < 10 ? 1f : 0f, i * 10f);
+            object.setDimensions(5, 5);
+         }
+         world.update(1f);
+         assertThat(updates.get()).isEqualTo(100);
+         assertThat(sequentialUpdates.get()).isEqualTo(100);
+         world.update(1f);
+         assertThat(world.size()).isEqualTo(90);
+         assertThat(updates.get()).isEqualTo(190);
+      } finally {
+         manager.disableParallelUpdates();
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void testParallelUpdate_MergesWorldChanges() {
+      GameCamera camera = mock(GameCamera.class);
+      when(camera.getScaledCameraWidth()).thenReturn(2000f);
+      when(camera.getScaledCameraHeight()).thenReturn(2000f);
+      world.setCamera(camera);
+      ExecutorService executor = Executors.newFixedThreadPool(3);
+      try {
+         manager.enableParallelUpdates(executor, 4);
+         final Map<GameObject, String> ids = new ConcurrentHashMap<GameObject, String>();
+         manager.apply(new ParallelBehaviorAdapter() {
+            @Override
+            public void update(GameObject source, float delta) {
+               ids.put(source, source.getId());
+               source.setPosition(source.getLeft() + 1000f, source.getTop());
+            }
+         });
+         for (int i = 0; i < 100; ++i) {
+            GameObject object = world.addObject();
+            object.setPosition(0f, i * 10f);
+            object.setDimensions(5, 5);
+         }
+         world.update(1f);
+         assertThat(ids).hasSize(100);
+         for (Map.Entry<GameObject, String> entry : ids.entrySet()) {
+            assertThat(world.getObjectById(entry.getValue())).isSameAs(entry.getKey());
+         }
+         assertThat(world.queryRect(0, 0, 500, 1000, new Array<GameObject>())).isEmpty();
+         assertThat(world.queryRect(1000, 0, 5, 1000, new Array<GameObject>())).hasSize(100);
+      } finally {
+         manager.disableParallelUpdates();
+         executor.shutdown();
+      }
+   }
+
+   private abstract class ParallelBehaviorAdapter extends BehaviorAdapter implements ParallelBehavior {
+   }
 }
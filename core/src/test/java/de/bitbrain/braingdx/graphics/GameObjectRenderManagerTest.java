@@ -0,0 +1,277 @@
+package de.bitbrain.braingdx.graphics;
+
+import com.badlogic.gdx.utils.Array;
+import de.bitbrain.braingdx.graphics.GameObjectRenderManager.GameObjectRenderer;
+import de.bitbrain.braingdx.util.GdxUtils;
+import de.bitbrain.braingdx.world.GameObject;
+import de.bitbrain.braingdx.world.GameWorld;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GameObjectRenderManagerTest {
+
+   private GameWorld world;
+   private GameObjectRenderManager renderManager;
+   private RecordingRenderer renderer;
+
+   @Before
+   public void beforeTest() {
+      GdxUtils.mockApplicationContext();
+      world = new GameWorld();
+      renderManager = new GameObjectRenderManager(world, new ObjectBatchResolver());
+      renderer = new RecordingRenderer();
+      renderManager.register("type", renderer);
+   }
+
+   @Test
+   public void testRender_SortsByZIndex() {
+      GameObject a = object(3f);
+      GameObject b = object(1f);
+      GameObject c = object(2f);
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(renderer.rendered).containsExactly(b, c, a);
+   }
+
+   @Test
+   public void testRender_KeepsWorldOrder() {
+      GameObject a = object(3f);
+      GameObject b = object(1f);
+      GameObject c = object(2f);
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(world.getObjects(null, true)).containsExactly(a, b, c);
+   }
+
+   @Test
+   public void testRender_ReordersOnZIndexChange() {
+      GameObject a = object(1f);
+      GameObject b = object(2f);
+      GameObject c = object(3f);
+      world.update(0f);
+      renderManager.render(0f);
+      a.setZIndex(5f);
+      renderer.rendered.clear();
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(renderer.rendered).containsExactly(b, c, a);
+   }
+
+   @Test
+   public void testRender_TracksAddedAndRemovedObjects() {
+      GameObject a = object(1f);
+      GameObject b = object(2f);
+      world.update(0f);
+      renderManager.render(0f);
+      world.remove(a);
+      GameObject c = object(0f);
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(renderManager.getRenderList()).containsExactly(c, b);
+   }
+
+   @Test
+   public void testRender_TextureBatching() {
+      KeyedRenderer keyed = new KeyedRenderer();
+      renderManager.register("keyed", keyed);
+      renderManager.setTextureBatchingEnabled(true);
+      GameObject a1 = keyedObject("a", 1f);
+      GameObject b1 = keyedObject("b", 1f);
+      GameObject a2 = keyedObject("a", 1f);
+      GameObject b2 = keyedObject("b", 1f);
+      GameObject a3 = keyedObject("a", 2f);
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(keyed.rendered).containsExactly(a1, a2, b1, b2, a3);
+      assertThat(renderManager.getRenderedCount()).isEqualTo(5);
+      assertThat(renderManager.getBatchSwitches()).isEqualTo(2);
+   }
+
+   @Test
+   public void testRender_WithoutTextureBatching() {
+      KeyedRenderer keyed = new KeyedRenderer();
+      renderManager.register("keyed", keyed);
+      GameObject a1 = keyedObject("a", 1f);
+      GameObject b1 = keyedObject("b", 1f);
+      GameObject a2 = keyedObject("a", 1f);
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(keyed.rendered).containsExactly(a1, b1, a2);
+      assertThat(renderManager.getBatchSwitches()).isEqualTo(2);
+   }
+
+   @Test
+   public void testRender_CullsObjectsOutsideOfCamera() {
+      renderManager.setCamera(camera(0f, 0f, 100f, 100f));
+      renderManager.setCullingEnabled(true);
+      GameObject visible = positionedObject(10f, 10f);
+      positionedObject(200f, 10f);
+      positionedObject(10f, -50f);
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(renderer.rendered).containsExactly(visible);
+      assertThat(renderManager.getRenderedCount()).isEqualTo(1);
+      assertThat(renderManager.getCulledCount()).isEqualTo(2);
+   }
+
+   @Test
+   public void testRender_CullsByRenderedBounds() {
+      renderManager.setCamera(camera(0f, 0f, 100f, 100f));
+      renderManager.setCullingEnabled(true);
+      GameObject offset = positionedObject(110f, 10f);
+      offset.setOffset(-20f, 0f);
+      GameObject scaled = positionedObject(10f, 96f);
+      scaled.setScale(0.25f);
+      GameObject rotated = positionedObject(-32f, 50f);
+      rotated.setDimensions(40f, 4f);
+      rotated.setRotation(90f);
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(renderer.rendered).containsExactly(offset);
+      assertThat(renderManager.getCulledCount()).isEqualTo(2);
+   }
+
+   @Test
+   public void testRender_CullsLargeWorldViaSpatialIndex() {
+      GameCamera camera = camera(0f, 0f, 100f, 100f);
+      world.setCamera(camera);
+      renderManager.setCamera(camera);
+      renderManager.setCullingEnabled(true);
+      GameObject visible = positionedObject(50f, 50f);
+      for (int i = 0; i < 60; ++i) {
+         positionedObject(200f + i * 20f, 300f);
+      }
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(renderer.rendered).containsExactly(visible);
+      assertThat(renderManager.getCulledCount()).isEqualTo(60);
+   }
+
+   @Test
+   public void testRender_CullingPadding() {
+      renderManager.setCamera(camera(0f, 0f, 100f, 100f));
+      renderManager.setCullingEnabled(true);
+      renderManager.setCullingPadding(20f);
+      GameObject object = positionedObject(110f, 10f);
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(renderer.rendered).containsExactly(object);
+   }
+
+   @Test
+   public void testRender_ObjectEntersAndLeavesCamera() {
+      renderManager.setCamera(camera(0f, 0f, 100f, 100f));
+      renderManager.setCullingEnabled(true);
+      GameObject object = positionedObject(200f, 10f);
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(renderer.rendered).isEmpty();
+      object.setPosition(50f, 10f);
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(renderer.rendered).containsExactly(object);
+      object.setPosition(-50f, 10f);
+      renderer.rendered.clear();
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(renderer.rendered).isEmpty();
+      assertThat(renderManager.getRenderList()).isEmpty();
+   }
+
+   @Test
+   public void testRender_CullingDisabledByDefault() {
+      renderManager.setCamera(camera(0f, 0f, 100f, 100f));
+      assertThat(renderManager.isCullingEnabled()).isFalse();
+      GameObject a = positionedObject(10f, 10f);
+      GameObject b = positionedObject(200f, 10f);
+      world.update(0f);
+      renderManager.render(0f);
+      assertThat(renderer.rendered).containsExactly(a, b);
+      assertThat(renderManager.getCulledCount()).isZero();
+   }
+
+   private GameCamera camera(float left, float top, float width, float height) {
+      GameCamera camera = mock(GameCamera.class);
+      when(camera.getLeft()).thenReturn(left);
+      when(camera.getTop()).thenReturn(top);
+      when(camera.getScaledCameraWidth()).thenReturn(width);
+      when(camera.getScaledCameraHeight()).thenReturn(height);
+      return camera;
+   }
+
+   private GameObject positionedObject(float x, float y) {
+      GameObject object = object(0f);
+      object.setPosition(x, y);
+      object.setDimensions(16f, 16f);
+      return object;
+   }
+
+   private GameObject object(float zIndex) {
+      GameObject object = world.addObject();
+      object.setType("type");
+      object.setZIndex(zIndex);
+      return object;
+   }
+
+   private GameObject keyedObject(String key, float zIndex) {
+      GameObject object = world.addObject();
+      object.setType("keyed");
+      object.setAttribute("key", key);
+      object.setZIndex(zIndex);
+      return object;
+   }
+
+   private static class KeyedRenderer extends RecordingRenderer implements GameObjectRenderManager.BatchKeyProvider {
+
+      @Override
+      public Object getBatchKey(GameObject object) {
+         return object.getAttribute("key");
+      }
+   }
+
+   private static class RecordingRenderer implements GameObjectRenderer<Object> {
+
+      final Array<GameObject> rendered = new Array<GameObject>();
+
+      @Override
+      public Class<Object> getBatchClass() {
+         return Object.class;
+      }
+
+      @Override
+      public void render(GameObject object, Object batch, float delta) {
+         rendered.add(object);
+      }
+   }
+
+   private static class ObjectBatchResolver implements BatchResolver<Object> {
+
+      private final Object batch = new Object();
+
+      @Override
+      public void beforeRender() {
+      }
+
+      @Override
+      public Class<Object> getBatchClass() {
+         return Object.class;
+      }
+
+      @Override
+      public Object getBatch() {
+         return batch;
+      }
+
+      @Override
+      public void begin() {
+      }
+
+      @Override
+      public void end() {
+      }
+   }
+}
@@ -0,0 +1,101 @@
+package de.bitbrain.braingdx.graphics;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import de.bitbrain.braingdx.graphics.postprocessing.utils.PingPongBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RenderTargetPoolTest {
+
+   private RenderTargetPool pool;
+
+   @Before
+   public void beforeTest() {
+      FrameBufferFactory factory = mock(FrameBufferFactory.class);
+      when(factory.create(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new Answer<FrameBuffer>() {
+         @Override
+         public FrameBuffer answer(InvocationOnMock invocation) {
+            FrameBuffer buffer = mock(FrameBuffer.class);
+            when(buffer.getColorBufferTexture()).thenReturn(mock(Texture.class));
+            return buffer;
+         }
+      });
+      pool = new RenderTargetPool(factory);
+      pool.setSize(100, 100);
+   }
+
+   @Test
+   public void testObtain_ReusesFreedBuffer() {
+      FrameBuffer first = pool.obtainFrameBuffer();
+      pool.free(first);
+      FrameBuffer second = pool.obtainFrameBuffer();
+      assertThat(second).isSameAs(first);
+      assertThat(pool.getAllocatedCount()).isEqualTo(1);
+   }
+
+   @Test
+   public void testObtain_LeasedBuffersAreNotShared() {
+      FrameBuffer first = pool.obtainFrameBuffer();
+      FrameBuffer second = pool.obtainFrameBuffer();
+      assertThat(second).isNotSameAs(first);
+      assertThat(pool.getLeasedCount()).isEqualTo(2);
+   }
+
+   @Test
+   public void testObtain_KeyedBySize() {
+      FrameBuffer full = pool.obtainFrameBuffer();
+      pool.free(full);
+      FrameBuffer half = pool.obtainFrameBuffer(50, 50);
+      assertThat(half).isNotSameAs(full);
+      assertThat(pool.getAllocatedCount()).isEqualTo(2);
+   }
+
+   @Test
+   public void testPingPongBuffer_ReusesFrameBuffers() {
+      PingPongBuffer first = pool.obtainPingPongBuffer();
+      FrameBuffer buffer1 = first.buffer1;
+      FrameBuffer buffer2 = first.buffer2;
+      pool.free(first);
+      PingPongBuffer second = pool.obtainPingPongBuffer();
+      assertThat(second).isSameAs(first);
+      assertThat(second.buffer1).isIn(buffer1, buffer2);
+      assertThat(second.buffer2).isIn(buffer1, buffer2);
+      assertThat(pool.getAllocatedCount()).isEqualTo(2);
+   }
+
+   @Test
+   public void testEndFrame_ReleasesLeasedBuffers() {
+      pool.obtainFrameBuffer();
+      pool.obtainPingPongBuffer();
+      pool.endFrame();
+      assertThat(pool.getLeasedCount()).isZero();
+      pool.obtainFrameBuffer();
+      pool.obtainPingPongBuffer();
+      assertThat(pool.getAllocatedCount()).isEqualTo(3);
+   }
+
+   @Test
+   public void testEndFrame_DisposesUnusedBuffers() {
+      FrameBuffer buffer = pool.obtainFrameBuffer();
+      for (int i = 0; i <= RenderTargetPool.EVICTION_FRAMES; ++i) {
+         pool.endFrame();
+      }
+      assertThat(pool.getAllocatedCount()).isZero();
+      verify(buffer).dispose();
+   }
+
+   @Test(expected = GdxRuntimeException.class)
+   public void testFree_UnknownBuffer() {
+      pool.free(mock(FrameBuffer.class));
+   }
+}
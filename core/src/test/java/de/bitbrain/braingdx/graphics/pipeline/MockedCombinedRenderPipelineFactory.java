@@ -9,24 +9,39 @@ import de.bitbrain.braingdx.graphics.FrameBufferFactory;
 import de.bitbrain.braingdx.graphics.postprocessing.PostProcessor;
 import de.bitbrain.braingdx.graphics.shader.ShaderConfig;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 public class MockedCombinedRenderPipelineFactory implements RenderPipelineFactory {
 
+   /**
+    * The frame buffer factory of the pipeline which has been created last
+    */
+   public FrameBufferFactory bufferFactory;
+
    @Override
    public InternalRenderPipeline create() {
+      return create(new BatchResolver[]{
+            mock(BatchResolver.class)
+      });
+   }
+
+   public CombinedRenderPipeline create(BatchResolver[] batchResolvers) {
       ShaderConfig config = mock(ShaderConfig.class);
       PostProcessor processorMock = mock(PostProcessor.class);
       FrameBufferFactory factory = mock(FrameBufferFactory.class);
-      FrameBuffer buffer = mock(FrameBuffer.class);
-      Texture mockTexture = mock(Texture.class);
-      when(factory.create(Mockito.anyInt(), Mockito.anyInt())).thenReturn(buffer);
-      when(buffer.getColorBufferTexture()).thenReturn(mockTexture);
-      BatchResolver[] batchResolvers = new BatchResolver[]{
-        mock(BatchResolver.class)
-      };
+      when(factory.create(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new Answer<FrameBuffer>() {
+         @Override
+         public FrameBuffer answer(InvocationOnMock invocation) {
+            FrameBuffer buffer = mock(FrameBuffer.class);
+            when(buffer.getColorBufferTexture()).thenReturn(mock(Texture.class));
+            return buffer;
+         }
+      });
+      bufferFactory = factory;
       return new CombinedRenderPipeline(
             config,
             processorMock,
@@ -0,0 +1,253 @@
+package de.bitbrain.braingdx.graphics.pipeline;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.GLVersion;
+import de.bitbrain.braingdx.graphics.BatchResolver;
+import de.bitbrain.braingdx.graphics.postprocessing.PostProcessorEffect;
+import de.bitbrain.braingdx.graphics.pipeline.RenderPipelineProfiler.PipeStatistics;
+import de.bitbrain.braingdx.util.GdxUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.nio.IntBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyFloat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RenderPipelineProfilerTest {
+
+   private CombinedRenderPipeline pipeline;
+   private SpriteBatch batch;
+   private final int[] queries = new int[1];
+   private Graphics graphics;
+
+   @Before
+   public void beforeTest() {
+      GdxUtils.mockApplicationContext();
+      Gdx.gl = mock(GL20.class);
+      graphics = Gdx.graphics;
+      batch = mock(SpriteBatch.class);
+      BatchResolver resolver = mock(BatchResolver.class);
+      when(resolver.getBatchClass()).thenReturn(Batch.class);
+      when(resolver.getBatch()).thenReturn(batch);
+      pipeline = new MockedCombinedRenderPipelineFactory().create(new BatchResolver[]{resolver});
+      pipeline.resize(100, 100);
+   }
+
+   @After
+   public void afterTest() {
+      Gdx.gl30 = null;
+      Gdx.graphics = graphics;
+   }
+
+   @Test
+   public void testProfiling_DisabledByDefault() {
+      pipeline.put("a", flushingLayer(1, true));
+      pipeline.render(0f);
+      assertThat(pipeline.isProfilingEnabled()).isFalse();
+      assertThat(pipeline.getProfiler().getPipeIds()).isEmpty();
+   }
+
+   @Test
+   public void testProfiling_RecordsFlushesPerPipe() {
+      pipeline.put("a", flushingLayer(2, true));
+      pipeline.put("b", flushingLayer(5, true));
+      pipeline.setProfilingEnabled(true);
+      for (int i = 0; i < 3; ++i) {
+         pipeline.render(0f);
+      }
+      RenderPipelineProfiler profiler = pipeline.getProfiler();
+      assertThat(profiler.getPipeIds()).containsExactly("a", "b");
+      assertThat(profiler.getStatistics("a").getFlushes().getPercentile(50)).isEqualTo(2f);
+      assertThat(profiler.getStatistics("b").getFlushes().getPercentile(50)).isEqualTo(5f);
+      assertThat(profiler.getStatistics("b").getCpuTime().size()).isEqualTo(3);
+   }
+
+   @Test
+   public void testProfiling_CachedPipesRecordZero() {
+      pipeline.put("a", flushingLayer(2, false));
+      pipeline.setProfilingEnabled(true);
+      pipeline.render(0f);
+      pipeline.render(0f);
+      PipeStatistics statistics = pipeline.getProfiler().getStatistics("a");
+      assertThat(statistics.getFlushes().getPercentile(100)).isEqualTo(2f);
+      assertThat(statistics.getFlushes().getLatest()).isZero();
+   }
+
+   @Test
+   public void testProfiling_RecordsEffects() {
+      pipeline.put("a", flushingLayer(1, true), new NoopEffect());
+      pipeline.setProfilingEnabled(true);
+      pipeline.render(0f);
+      PipeStatistics statistics = pipeline.getProfiler().getStatistics("a");
+      assertThat(statistics.getEffectTimes().keys().toArray()).containsExactly("NoopEffect");
+      assertThat(statistics.getEffectTimes().get("NoopEffect").size()).isEqualTo(1);
+   }
+
+   @Test
+   public void testProfiling_NotifiesListenerAndRemovesPipes() {
+      final int[] frames = new int[1];
+      pipeline.put("a", flushingLayer(1, true));
+      pipeline.put("b", flushingLayer(1, true));
+      pipeline.setProfilingEnabled(true);
+      pipeline.getProfiler().addListener(new RenderPipelineProfiler.Listener() {
+         @Override
+         public void onFrameProfiled(RenderPipelineProfiler profiler) {
+            frames[0]++;
+         }
+      });
+      pipeline.render(0f);
+      pipeline.remove("a");
+      pipeline.render(0f);
+      assertThat(frames[0]).isEqualTo(2);
+      assertThat(pipeline.getProfiler().getPipeIds()).containsExactly("b");
+   }
+
+   @Test
+   public void testProfiling_KeepsRenderOrder() {
+      pipeline.put("a", flushingLayer(1, true));
+      pipeline.put("b", flushingLayer(1, true));
+      pipeline.setProfilingEnabled(true);
+      pipeline.render(0f);
+      pipeline.moveBefore("b", "a");
+      pipeline.render(0f);
+      assertThat(pipeline.getProfiler().getPipeIds()).containsExactly("b", "a");
+   }
+
+   @Test
+   public void testGpuTiming_ReadsQueriesOfPreviousFrame() {
+      final GL30 gl30 = mock(GL30.class);
+      Gdx.gl30 = gl30;
+      mockGraphics("OpenGL ES 3.0", "GL_EXT_disjoint_timer_query");
+      Mockito.doAnswer(new Answer<Void>() {
+         @Override
+         public Void answer(InvocationOnMock invocation) {
+            IntBuffer ids = (IntBuffer) invocation.getArguments()[1];
+            ids.put(0, ++queries[0]);
+            return null;
+         }
+      }).when(gl30).glGenQueries(anyInt(), any(IntBuffer.class));
+      Mockito.doAnswer(new Answer<Void>() {
+         @Override
+         public Void answer(InvocationOnMock invocation) {
+            IntBuffer result = (IntBuffer) invocation.getArguments()[2];
+            // available, 2ms
+            result.put(0, (Integer) invocation.getArguments()[1] == GL30.GL_QUERY_RESULT ? 2000000 : 1);
+            return null;
+         }
+      }).when(gl30).glGetQueryObjectuiv(anyInt(), anyInt(), any(IntBuffer.class));
+      pipeline.put("a", flushingLayer(1, true));
+      pipeline.setProfilingEnabled(true);
+      pipeline.getProfiler().setGpuTimingEnabled(true);
+
+      pipeline.render(0f);
+      PipeStatistics statistics = pipeline.getProfiler().getStatistics("a");
+      assertThat(statistics.getGpuTime().size()).isZero();
+      verify(gl30, never()).glGetQueryObjectuiv(anyInt(), anyInt(), any(IntBuffer.class));
+
+      pipeline.render(0f);
+      pipeline.render(0f);
+      assertThat(statistics.getGpuTime().size()).isEqualTo(2);
+      assertThat(statistics.getGpuTime().getLatest()).isEqualTo(2f);
+      // one query per frame in flight
+      assertThat(queries[0]).isEqualTo(2);
+      verify(gl30, never()).glFinish();
+
+      pipeline.getProfiler().setGpuTimingEnabled(false);
+      verify(gl30, Mockito.times(2)).glDeleteQueries(eq(1), any(IntBuffer.class));
+   }
+
+   @Test
+   public void testGpuTiming_UnsupportedWithoutGL30() {
+      pipeline.put("a", flushingLayer(1, true));
+      pipeline.setProfilingEnabled(true);
+      pipeline.getProfiler().setGpuTimingEnabled(true);
+      pipeline.render(0f);
+      pipeline.render(0f);
+      assertThat(pipeline.getProfiler().isGpuTimingSupported()).isFalse();
+      assertThat(pipeline.getProfiler().getStatistics("a").getGpuTime().size()).isZero();
+      assertThat(pipeline.getProfiler().getStatistics("a").getCpuTime().size()).isEqualTo(2);
+   }
+
+   @Test
+   public void testGpuTiming_UnsupportedWithoutTimerQueries() {
+      final GL30 gl30 = mock(GL30.class);
+      Gdx.gl30 = gl30;
+      mockGraphics("OpenGL ES 3.0");
+      pipeline.put("a", flushingLayer(1, true));
+      pipeline.setProfilingEnabled(true);
+      pipeline.getProfiler().setGpuTimingEnabled(true);
+      pipeline.render(0f);
+      pipeline.render(0f);
+      assertThat(pipeline.getProfiler().isGpuTimingSupported()).isFalse();
+      verify(gl30, never()).glBeginQuery(anyInt(), anyInt());
+      assertThat(pipeline.getProfiler().getStatistics("a").getCpuTime().size()).isEqualTo(2);
+   }
+
+   @Test
+   public void testGpuTiming_SupportedOnDesktopGL33() {
+      Gdx.gl30 = mock(GL30.class);
+      mockGraphics("3.3.0 NVIDIA");
+      assertThat(pipeline.getProfiler().isGpuTimingSupported()).isTrue();
+   }
+
+   private void mockGraphics(String version, String... extensions) {
+      Gdx.graphics = mock(Graphics.class);
+      final boolean gles = version.startsWith("OpenGL ES");
+      when(Gdx.graphics.getGLVersion()).thenReturn(new GLVersion(gles ? Application.ApplicationType.Android
+            : Application.ApplicationType.Desktop, version, "vendor", "renderer"));
+      for (String extension : extensions) {
+         when(Gdx.graphics.supportsExtension(extension)).thenReturn(true);
+      }
+   }
+
+   /**
+    * Creates a layer which flushes the sprite batch the given number of times per render.
+    */
+   private RenderLayer flushingLayer(final int flushes, boolean dirty) {
+      CacheableRenderLayer layer = mock(CacheableRenderLayer.class);
+      when(layer.getBatchCass()).thenReturn(Batch.class);
+      when(layer.isDirty()).thenReturn(dirty);
+      Mockito.doAnswer(new Answer<Void>() {
+         @Override
+         public Void answer(InvocationOnMock invocation) {
+            batch.totalRenderCalls += flushes;
+            return null;
+         }
+      }).when(layer).render(any(Object.class), anyFloat());
+      return layer;
+   }
+
+   private static class NoopEffect extends PostProcessorEffect {
+
+      @Override
+      public void rebind() {
+      }
+
+      @Override
+      public void render(FrameBuffer src, FrameBuffer dest) {
+      }
+
+      @Override
+      public void dispose() {
+      }
+   }
+}
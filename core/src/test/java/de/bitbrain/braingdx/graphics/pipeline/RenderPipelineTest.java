@@ -3,6 +3,8 @@ package de.bitbrain.braingdx.graphics.pipeline;
 import com.badlogic.gdx.Application.ApplicationType;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import de.bitbrain.braingdx.graphics.postprocessing.PostProcessorEffect;
 import de.bitbrain.braingdx.util.GdxUtils;
 import org.assertj.core.api.iterable.Extractor;
 import org.junit.Before;
@@ -87,6 +89,146 @@ public class RenderPipelineTest {
       order.verify(layerC, Mockito.calls(1)).render(any(Object.class), eq(0f));
    }
 
+   @Test
+   public void testRender_SharesBuffersBetweenEffectLayers() {
+      pipeline.put("a", mock(RenderLayer.class), new NoopEffect());
+      pipeline.put("b", mock(RenderLayer.class), new NoopEffect());
+      pipeline.put("c", mock(RenderLayer.class), new NoopEffect());
+      pipeline.resize(100, 100);
+      for (int i = 0; i < 3; ++i) {
+         pipeline.render(0f);
+      }
+      // one composite buffer and a single ping pong buffer for all effect layers
+      Mockito.verify(pipelineFactory.bufferFactory, Mockito.times(3)).create(100, 100);
+   }
+
+   @Test
+   public void testRender_WithoutEffects_NoBuffers() {
+      pipeline.put("a", dirtyLayer());
+      pipeline.put("b", dirtyLayer());
+      pipeline.resize(100, 100);
+      pipeline.render(0f);
+      Mockito.verify(pipelineFactory.bufferFactory, Mockito.never()).create(Mockito.anyInt(), Mockito.anyInt());
+   }
+
+   @Test
+   public void testRender_LayersAfterEffectsRenderToScreen() {
+      RenderLayer layerA = dirtyLayer();
+      RenderLayer layerB = dirtyLayer();
+      RenderLayer layerC = dirtyLayer();
+      pipeline.put("a", layerA);
+      pipeline.put("b", layerB, new NoopEffect());
+      pipeline.put("c", layerC);
+      pipeline.resize(100, 100);
+      pipeline.render(0f);
+      // composite buffer for layer a plus the ping pong buffer of layer b
+      Mockito.verify(pipelineFactory.bufferFactory, Mockito.times(3)).create(100, 100);
+      InOrder order = Mockito.inOrder(layerA, layerB, layerC);
+      order.verify(layerA, Mockito.calls(1)).render(any(Object.class), eq(0f));
+      order.verify(layerB, Mockito.calls(1)).render(any(Object.class), eq(0f));
+      order.verify(layerC, Mockito.calls(1)).render(any(Object.class), eq(0f));
+   }
+
+   @Test
+   public void testRender_RenderScale_ComposesAtScaledResolution() {
+      ((CombinedRenderPipeline) pipeline).setRenderScale(0.5f);
+      pipeline.put("a", mock(RenderLayer.class), new NoopEffect());
+      pipeline.put("b", mock(RenderLayer.class), new NoopEffect());
+      pipeline.resize(100, 100);
+      pipeline.render(0f);
+      Mockito.verify(pipelineFactory.bufferFactory, Mockito.times(3)).create(50, 50);
+      Mockito.verify(pipelineFactory.bufferFactory, Mockito.never()).create(100, 100);
+   }
+
+   @Test
+   public void testRender_RenderScale_WithoutEffects() {
+      RenderLayer layerA = dirtyLayer();
+      RenderLayer layerB = dirtyLayer();
+      pipeline.put("a", layerA);
+      pipeline.put("b", layerB);
+      pipeline.resize(100, 100);
+      ((CombinedRenderPipeline) pipeline).setRenderScale(0.25f);
+      pipeline.render(0f);
+      // all layers are composed into a single buffer which gets upscaled
+      Mockito.verify(pipelineFactory.bufferFactory, Mockito.times(1)).create(25, 25);
+      Mockito.verify(layerA).render(any(Object.class), eq(0f));
+      Mockito.verify(layerB).render(any(Object.class), eq(0f));
+   }
+
+   @Test
+   public void testRender_CachesCleanLayers() {
+      CacheableRenderLayer layerA = cleanLayer();
+      CacheableRenderLayer layerB = cleanLayer();
+      RenderLayer layerC = dirtyLayer();
+      pipeline.put("a", layerA);
+      pipeline.put("b", layerB);
+      pipeline.put("c", layerC);
+      pipeline.resize(100, 100);
+      for (int i = 0; i < 3; ++i) {
+         pipeline.render(0f);
+      }
+      Mockito.verify(layerA, Mockito.times(1)).render(any(Object.class), eq(0f));
+      Mockito.verify(layerB, Mockito.times(1)).render(any(Object.class), eq(0f));
+      Mockito.verify(layerC, Mockito.times(3)).render(any(Object.class), eq(0f));
+      Mockito.verify(pipelineFactory.bufferFactory, Mockito.times(1)).create(100, 100);
+   }
+
+   @Test
+   public void testRender_DirtyLayerInvalidatesCache() {
+      CacheableRenderLayer layerA = cleanLayer();
+      CacheableRenderLayer layerB = cleanLayer();
+      pipeline.put("a", layerA);
+      pipeline.put("b", layerB);
+      pipeline.resize(100, 100);
+      pipeline.render(0f);
+      when(layerB.isDirty()).thenReturn(true);
+      pipeline.render(0f);
+      pipeline.render(0f);
+      // layer a gets cached again on its own
+      Mockito.verify(layerA, Mockito.times(2)).render(any(Object.class), eq(0f));
+      Mockito.verify(layerB, Mockito.times(3)).render(any(Object.class), eq(0f));
+   }
+
+   @Test
+   public void testRender_DisabledPipeInvalidatesCache() {
+      CacheableRenderLayer layerA = cleanLayer();
+      CacheableRenderLayer layerB = cleanLayer();
+      pipeline.put("a", layerA);
+      pipeline.put("b", layerB);
+      pipeline.resize(100, 100);
+      pipeline.render(0f);
+      pipeline.getPipes().iterator().next().setEnabled(false);
+      pipeline.render(0f);
+      pipeline.render(0f);
+      Mockito.verify(layerA, Mockito.times(1)).render(any(Object.class), eq(0f));
+      Mockito.verify(layerB, Mockito.times(2)).render(any(Object.class), eq(0f));
+   }
+
+   @Test
+   public void testRender_LayersWithEffectsAreNotCached() {
+      RenderLayer layerA = mock(RenderLayer.class);
+      pipeline.put("a", layerA, new NoopEffect());
+      pipeline.resize(100, 100);
+      pipeline.render(0f);
+      pipeline.render(0f);
+      Mockito.verify(layerA, Mockito.times(2)).render(any(Object.class), eq(0f));
+   }
+
+   @Test
+   public void testRender_PlainLayersAreNotCached() {
+      RenderLayer layerA = mock(RenderLayer.class);
+      pipeline.put("a", layerA);
+      pipeline.resize(100, 100);
+      pipeline.render(0f);
+      pipeline.render(0f);
+      Mockito.verify(layerA, Mockito.times(2)).render(any(Object.class), eq(0f));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testSetRenderScale_Invalid() {
+      ((CombinedRenderPipeline) pipeline).setRenderScale(0f);
+   }
+
    @Test
    public void testGetPipeIds() {
       pipeline.put("a", mock(RenderLayer.class));
@@ -156,6 +298,14 @@ public class RenderPipelineTest {
       assertThat(pipeline.getPipeIds()).containsExactly("c");
    }
 
+   @Test
+   public void testRemove_WithEffects() {
+      pipeline.put("a", mock(RenderLayer.class), new NoopEffect());
+      pipeline.put("b", mock(RenderLayer.class));
+      pipeline.remove("b");
+      assertThat(pipeline.getPipes()).hasSize(1);
+   }
+
    @Test
    public void testReplace_Existing() {
       RenderLayer<?> expectedLayerA = mock(RenderLayer.class);
@@ -177,4 +327,29 @@ public class RenderPipelineTest {
       }).containsExactly(expectedLayerANew, expectedLayerD, expectedLayerC, expectedLayerB);
    }
 
+   private static RenderLayer dirtyLayer() {
+      CacheableRenderLayer layer = mock(CacheableRenderLayer.class);
+      when(layer.isDirty()).thenReturn(true);
+      return layer;
+   }
+
+   private static CacheableRenderLayer cleanLayer() {
+      return mock(CacheableRenderLayer.class);
+   }
+
+   private static class NoopEffect extends PostProcessorEffect {
+
+      @Override
+      public void rebind() {
+      }
+
+      @Override
+      public void render(FrameBuffer src, FrameBuffer dest) {
+      }
+
+      @Override
+      public void dispose() {
+      }
+   }
+
 }
@@ -0,0 +1,35 @@
+package de.bitbrain.braingdx.graphics.postprocessing.filters;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DualKawaseBlurTest {
+
+   @Test
+   public void testMipSize() {
+      assertThat(DualKawaseBlur.mipSize(1920, 1)).isEqualTo(960);
+      assertThat(DualKawaseBlur.mipSize(1920, 4)).isEqualTo(120);
+      assertThat(DualKawaseBlur.mipSize(3, 4)).isEqualTo(1);
+   }
+
+   @Test
+   public void testClampLevels_LargeInput() {
+      assertThat(DualKawaseBlur.clampLevels(1920, 1080, DualKawaseBlur.Quality.VeryHigh.getLevels())).isEqualTo(6);
+   }
+
+   @Test
+   public void testClampLevels_SmallInput() {
+      // 16 -> 8 -> 4 -> 2 -> 1
+      assertThat(DualKawaseBlur.clampLevels(64, 16, 6)).isEqualTo(4);
+      assertThat(DualKawaseBlur.clampLevels(1, 1, 6)).isEqualTo(1);
+   }
+
+   @Test
+   public void testQuality_MoreLevelsForHigherQuality() {
+      DualKawaseBlur.Quality[] qualities = DualKawaseBlur.Quality.values();
+      for (int i = 1; i < qualities.length; ++i) {
+         assertThat(qualities[i].getLevels()).isLessThan(qualities[i - 1].getLevels());
+      }
+   }
+}
@@ -0,0 +1,39 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.files.FileHandle;
+import de.bitbrain.braingdx.util.PathResolver;
+import de.bitbrain.braingdx.util.ShaderLoader;
+
+import java.io.File;
+import java.net.URISyntaxException;
+
+/**
+ * Reads the shaders of this library via {@link ShaderLoader} without a Gdx backend.
+ */
+class ClasspathShaders {
+
+   private String previousBasePath;
+   private PathResolver previousResolver;
+
+   void use() {
+      previousBasePath = ShaderLoader.BasePath;
+      previousResolver = ShaderLoader.PathResolver;
+      ShaderLoader.BasePath = "postprocessing/shaders/";
+      ShaderLoader.PathResolver = new PathResolver() {
+         @Override
+         public FileHandle resolve(String path) {
+            try {
+               return new FileHandle(new File(ClasspathShaders.class.getResource("/" + path).toURI()));
+            } catch (URISyntaxException e) {
+               throw new IllegalStateException(e);
+            }
+         }
+      };
+   }
+
+   void restore() {
+      ShaderLoader.dispose();
+      ShaderLoader.BasePath = previousBasePath;
+      ShaderLoader.PathResolver = previousResolver;
+   }
+}
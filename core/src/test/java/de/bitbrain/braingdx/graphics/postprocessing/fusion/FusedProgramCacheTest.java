@@ -0,0 +1,75 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Array;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class FusedProgramCacheTest {
+
+   private final ClasspathShaders shaders = new ClasspathShaders();
+   private FusedProgramCache.ProgramFactory factory;
+   private FusedProgramCache cache;
+
+   @Before
+   public void beforeTest() {
+      shaders.use();
+      factory = mock(FusedProgramCache.ProgramFactory.class);
+      when(factory.create(anyString(), anyString())).thenAnswer(new Answer<ShaderProgram>() {
+         @Override
+         public ShaderProgram answer(InvocationOnMock invocation) {
+            return mock(ShaderProgram.class);
+         }
+      });
+      cache = new FusedProgramCache(factory);
+   }
+
+   @After
+   public void afterTest() {
+      shaders.restore();
+   }
+
+   @Test
+   public void testObtain_CompilesOncePerSignature() {
+      ShaderProgram first = cache.obtain(stages(new VignetteStage(false)));
+      ShaderProgram second = cache.obtain(stages(new VignetteStage(false)));
+      assertThat(second).isSameAs(first);
+      assertThat(cache.size()).isEqualTo(1);
+      verify(factory, times(1)).create(eq("vignetting(ENABLE_GRADIENT_MAPPING)"), anyString());
+   }
+
+   @Test
+   public void testObtain_DifferentSignatures() {
+      ShaderProgram first = cache.obtain(stages(new VignetteStage(false)));
+      ShaderProgram second = cache.obtain(stages(new VignetteStage(true)));
+      assertThat(second).isNotSameAs(first);
+      assertThat(cache.size()).isEqualTo(2);
+   }
+
+   @Test
+   public void testContains() {
+      assertThat(cache.contains(stages(new VignetteStage(false)))).isFalse();
+      cache.obtain(stages(new VignetteStage(false)));
+      assertThat(cache.contains(stages(new VignetteStage(false)))).isTrue();
+   }
+
+   @Test
+   public void testDispose_DisposesPrograms() {
+      ShaderProgram program = cache.obtain(stages(new VignetteStage(false)));
+      cache.dispose();
+      verify(program).dispose();
+      assertThat(cache.size()).isZero();
+   }
+
+   private static Array<FusibleStage> stages(FusibleStage... stages) {
+      return new Array<FusibleStage>(stages);
+   }
+}
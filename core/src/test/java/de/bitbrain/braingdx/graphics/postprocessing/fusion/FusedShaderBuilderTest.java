@@ -0,0 +1,92 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+import de.bitbrain.braingdx.graphics.postprocessing.filters.CrtScreen;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class FusedShaderBuilderTest {
+
+   private final ClasspathShaders shaders = new ClasspathShaders();
+
+   @Before
+   public void beforeTest() {
+      shaders.use();
+   }
+
+   @After
+   public void afterTest() {
+      shaders.restore();
+   }
+
+   @Test
+   public void testSignature_EqualForEqualStages() {
+      Array<FusibleStage> first = stages(new VignetteStage(true), new CombineStage(mock(Texture.class)));
+      Array<FusibleStage> second = stages(new VignetteStage(true), new CombineStage(mock(Texture.class)));
+      ((VignetteStage) second.first()).setIntensity(0.3f);
+      assertThat(FusedShaderBuilder.signatureOf(first)).isEqualTo(FusedShaderBuilder.signatureOf(second));
+   }
+
+   @Test
+   public void testSignature_DiffersForDifferentSource() {
+      assertThat(FusedShaderBuilder.signatureOf(stages(new VignetteStage(true))))
+            .isNotEqualTo(FusedShaderBuilder.signatureOf(stages(new VignetteStage(false))));
+      assertThat(FusedShaderBuilder.signatureOf(stages(new VignetteStage(false), new CombineStage(null))))
+            .isNotEqualTo(FusedShaderBuilder.signatureOf(stages(new CombineStage(null), new VignetteStage(false))));
+   }
+
+   @Test
+   public void testBuildFragmentSource_SamplesInputOnceWithoutSourceStage() {
+      String source = FusedShaderBuilder.buildFragmentSource(stages(new VignetteStage(false), new CombineStage(null)));
+      assertThat(source).contains("vec4 color = texture2D(u_texture0, uv);");
+      assertThat(source).contains("uniform float s0_VignetteIntensity;");
+      assertThat(source).contains("uniform PRECISION sampler2D s0_u_texture1;");
+      assertThat(source).contains("uniform PRECISION sampler2D s1_u_texture1;");
+      assertThat(source).contains("gl_FragColor = color;");
+      assertThat(source.indexOf("s0_main(color);")).isLessThan(source.indexOf("s1_main(color);"));
+      // declared and sampled once by the fused program only
+      assertThat(source.split("u_texture0", -1).length - 1).isEqualTo(2);
+   }
+
+   @Test
+   public void testBuildFragmentSource_SourceStageSamplesInput() {
+      CrtStage crt = new CrtStage(true, CrtScreen.RgbMode.RgbShift, CrtScreen.Effect.Tint.v);
+      String source = FusedShaderBuilder.buildFragmentSource(stages(crt, new VignetteStage(false)));
+      assertThat(crt.isSourceStage()).isTrue();
+      assertThat(source).doesNotContain("vec4 color = texture2D(u_texture0, uv);");
+      assertThat(source).contains("uniform float s0_offset;");
+      assertThat(source).contains("uniform vec3 s0_tint;");
+      assertThat(source).contains("s0_barrelDistortion(");
+      assertThat(source).contains("texture2D(u_texture0,");
+      assertThat(source).doesNotContain("s0_chromaticDispersion");
+   }
+
+   @Test
+   public void testBuildFragmentSource_EqualStagesDoNotClash() {
+      String source = FusedShaderBuilder.buildFragmentSource(stages(new CombineStage(null), new CombineStage(null)));
+      assertThat(source).contains("vec3 s0_adjustSaturation(");
+      assertThat(source).contains("vec3 s1_adjustSaturation(");
+      assertThat(source).contains("const vec3 s0_GRAYSCALE");
+      assertThat(source).contains("const vec3 s1_GRAYSCALE");
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testValidate_SourceStageNotFirst() {
+      FusedShaderBuilder.validate(stages(new VignetteStage(false),
+            new CrtStage(false, CrtScreen.RgbMode.None, CrtScreen.Effect.None.v)));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testValidate_NoStages() {
+      FusedShaderBuilder.validate(new Array<FusibleStage>());
+   }
+
+   private static Array<FusibleStage> stages(FusibleStage... stages) {
+      return new Array<FusibleStage>(stages);
+   }
+}
@@ -0,0 +1,78 @@
+package de.bitbrain.braingdx.graphics.postprocessing.fusion;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StageSourceTest {
+
+   private static final String POINTWISE = "#ifdef GL_ES\n"
+         + "\tprecision mediump float;\n"
+         + "#endif\n"
+         + "uniform sampler2D u_texture0;\n"
+         + "varying vec2 v_texCoords;\n"
+         + "uniform float amount; // the amount\n"
+         + "#ifdef INVERT\n"
+         + "\tvec3 apply(vec3 color) { if (amount > 0.0) { return 1.0 - color; } return color; }\n"
+         + "#else\n"
+         + "\tvec3 apply(vec3 color) { return color * amount; }\n"
+         + "#endif\n"
+         + "/* main */\n"
+         + "void main(void) {\n"
+         + "\tvec4 c = texture2D(u_texture0, v_texCoords);\n"
+         + "\tgl_FragColor = vec4(apply(c.rgb), c.a);\n"
+         + "}\n";
+
+   @Test
+   public void testParse_PointwiseShaderReadsFusedColor() {
+      StageSource source = StageSource.parse(POINTWISE, "");
+      assertThat(source.isSourceStage()).isFalse();
+      assertThat(source.getTextureCount()).isZero();
+      StringBuilder builder = new StringBuilder();
+      source.appendDeclarations(builder, "s1_");
+      String declarations = builder.toString();
+      assertThat(declarations).contains("uniform float s1_amount;");
+      assertThat(declarations).contains("vec3 s1_apply(vec3 color) { return color * s1_amount; }");
+      assertThat(declarations).contains("void s1_main(inout vec4 s1_fragColor) {");
+      assertThat(declarations).contains("vec4 c = s1_inputColor;");
+      assertThat(declarations).contains("s1_fragColor = vec4(s1_apply(c.rgb), c.a);");
+      assertThat(declarations).doesNotContain("u_texture0");
+      assertThat(declarations).doesNotContain("v_texCoords");
+      assertThat(declarations).doesNotContain("precision");
+      assertThat(declarations).doesNotContain("the amount");
+   }
+
+   @Test
+   public void testParse_ResolvesDefines() {
+      StringBuilder builder = new StringBuilder();
+      StageSource.parse(POINTWISE, "#define INVERT\n").appendDeclarations(builder, "s0_");
+      assertThat(builder.toString()).contains("if (s0_amount > 0.0) { return 1.0 - color; }");
+      assertThat(builder.toString()).doesNotContain("color * s0_amount");
+   }
+
+   @Test
+   public void testParse_ShaderSamplingElsewhereIsSourceStage() {
+      String shader = "uniform sampler2D u_texture0;\n"
+            + "uniform sampler2D u_texture1;\n"
+            + "varying vec2 v_texCoords;\n"
+            + "void main() {\n"
+            + "\tgl_FragColor = texture2D(u_texture0, v_texCoords * 0.5) + texture2D(u_texture1, v_texCoords);\n"
+            + "}\n";
+      StageSource source = StageSource.parse(shader, "");
+      assertThat(source.isSourceStage()).isTrue();
+      assertThat(source.getTextureCount()).isEqualTo(1);
+      StringBuilder builder = new StringBuilder();
+      source.appendDeclarations(builder, "s0_");
+      assertThat(builder.toString()).contains("texture2D(u_texture0, v_texCoords * 0.5) + texture2D(s0_u_texture1, v_texCoords)");
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testParse_UnsupportedDirective() {
+      StageSource.parse("#define FOO 1\nvoid main() {\n}\n", "");
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testParse_NoMain() {
+      StageSource.parse("uniform float amount;\n", "");
+   }
+}
@@ -0,0 +1,115 @@
+package de.bitbrain.braingdx.math;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import de.bitbrain.braingdx.world.GameObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QuadTreeTest {
+
+   private QuadTree quadTree;
+
+   @Before
+   public void beforeTest() {
+      quadTree = new QuadTree(2, 5, 0, new Rectangle(0, 0, 100, 100));
+   }
+
+   @Test
+   public void testInsertAndRetrieve() {
+      GameObject a = object(10, 10);
+      GameObject b = object(80, 80);
+      quadTree.insert(a);
+      quadTree.insert(b);
+      assertThat(quadTree.size()).isEqualTo(2);
+      assertThat(quadTree.retrieve(new Array<GameObject>(), new Rectangle(0, 0, 100, 100)))
+            .containsExactlyInAnyOrder(a, b);
+   }
+
+   @Test
+   public void testSplitsAndMergesWhenUnderfull() {
+      GameObject a = object(10, 10);
+      GameObject b = object(80, 10);
+      GameObject c = object(10, 80);
+      quadTree.insert(a);
+      quadTree.insert(b);
+      quadTree.insert(c);
+      assertThat(zones()).isEqualTo(5);
+      quadTree.remove(c);
+      // merged only once half of the capacity is left
+      assertThat(zones()).isEqualTo(5);
+      quadTree.remove(b);
+      assertThat(zones()).isEqualTo(1);
+      assertThat(quadTree.size()).isEqualTo(1);
+      assertThat(quadTree.contains(c)).isFalse();
+   }
+
+   @Test
+   public void testUpdateAtCapacityDoesNotSplitAndMergeRepeatedly() {
+      GameObject a = object(5, 5);
+      GameObject b = object(30, 5);
+      GameObject c = object(5, 30);
+      quadTree.insert(a);
+      quadTree.insert(b);
+      quadTree.insert(c);
+      assertThat(zones()).isEqualTo(9);
+      for (int i = 0; i < 4; ++i) {
+         c.setPosition(80, 80);
+         quadTree.update(c);
+         assertThat(zones()).isEqualTo(9);
+         c.setPosition(5, 30);
+         quadTree.update(c);
+         assertThat(zones()).isEqualTo(9);
+      }
+      assertThat(quadTree.retrieve(new Array<GameObject>(), new Rectangle(0, 25, 10, 10))).contains(c);
+   }
+
+   @Test
+   public void testUpdateRelocatesMovedObject() {
+      GameObject a = object(10, 10);
+      GameObject b = object(12, 12);
+      GameObject c = object(14, 14);
+      quadTree.insert(a);
+      quadTree.insert(b);
+      quadTree.insert(c);
+      c.setPosition(80, 80);
+      quadTree.update(c);
+      Array<GameObject> result = quadTree.retrieve(new Array<GameObject>(), new Rectangle(70, 70, 20, 20));
+      assertThat(result).contains(c);
+      assertThat(result).doesNotContain(a, b);
+   }
+
+   @Test
+   public void testSetBoundsReinsertsObjects() {
+      GameObject a = object(150, 150);
+      quadTree.insert(a);
+      quadTree.setBounds(new Rectangle(0, 0, 200, 200));
+      assertThat(quadTree.size()).isEqualTo(1);
+      assertThat(quadTree.retrieve(new Array<GameObject>(), new Rectangle(140, 140, 20, 20))).containsExactly(a);
+   }
+
+   @Test
+   public void testClear() {
+      quadTree.insert(object(10, 10));
+      quadTree.insert(object(80, 10));
+      quadTree.insert(object(10, 80));
+      quadTree.clear();
+      assertThat(quadTree.size()).isEqualTo(0);
+      assertThat(zones()).isEqualTo(1);
+   }
+
+   private int zones() {
+      Array<Rectangle> zones = new Array<Rectangle>();
+      quadTree.getZones(zones);
+      return zones.size;
+   }
+
+   private GameObject object(float x, float y) {
+      GameObject object = new GameObject();
+      object.setPosition(x, y);
+      object.setDimensions(2, 2);
+      return object;
+   }
+}
@@ -36,6 +36,32 @@ public class GroupTest {
       assertThat(group.getGroup("b")).containsExactly("b");
    }
 
+   @Test
+   public void removeSwapsLastElement() {
+      Group<String, String> group = new Group<String, String>();
+      group.addToGroup("a", "b");
+      group.addToGroup("a", "c");
+      group.addToGroup("a", "d");
+      group.remove("b");
+      assertThat(group.getGroup("a")).containsExactly("d", "c");
+      assertThat(group.getAll()).containsExactly("d", "c");
+      group.remove("c");
+      group.remove("d");
+      assertThat(group.getGroup("a")).isEmpty();
+      assertThat(group.getAll()).isEmpty();
+   }
+
+   @Test
+   public void clearGroupKeepsOtherMemberships() {
+      Group<String, String> group = new Group<String, String>();
+      group.addToGroup("a", "b");
+      group.addToGroup("a", "c");
+      group.addToGroup("b", "c");
+      group.clearGroup("a");
+      assertThat(group.getAll()).containsExactly("c");
+      assertThat(group.getGroup("b")).containsExactly("c");
+   }
+
    @Test
    public void clear() {
       Group<String, String> group = new Group<String, String>();
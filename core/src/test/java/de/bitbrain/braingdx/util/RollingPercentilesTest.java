@@ -0,0 +1,47 @@
+package de.bitbrain.braingdx.util;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RollingPercentilesTest {
+
+   @Test
+   public void testPercentile_Empty() {
+      RollingPercentiles percentiles = new RollingPercentiles(10);
+      assertThat(percentiles.getPercentile(50)).isZero();
+      assertThat(percentiles.getAverage()).isZero();
+      assertThat(percentiles.getLatest()).isZero();
+   }
+
+   @Test
+   public void testPercentile() {
+      RollingPercentiles percentiles = new RollingPercentiles(100);
+      for (int i = 100; i > 0; --i) {
+         percentiles.add(i);
+      }
+      assertThat(percentiles.getPercentile(0)).isEqualTo(1f);
+      assertThat(percentiles.getPercentile(50)).isEqualTo(50f);
+      assertThat(percentiles.getPercentile(95)).isEqualTo(95f);
+      assertThat(percentiles.getPercentile(100)).isEqualTo(100f);
+      assertThat(percentiles.getAverage()).isEqualTo(50.5f);
+      assertThat(percentiles.getLatest()).isEqualTo(1f);
+   }
+
+   @Test
+   public void testPercentile_KeepsMostRecentSamples() {
+      RollingPercentiles percentiles = new RollingPercentiles(4);
+      for (int i = 1; i <= 10; ++i) {
+         percentiles.add(i);
+      }
+      assertThat(percentiles.size()).isEqualTo(4);
+      assertThat(percentiles.getPercentile(0)).isEqualTo(7f);
+      assertThat(percentiles.getPercentile(100)).isEqualTo(10f);
+      assertThat(percentiles.getLatest()).isEqualTo(10f);
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testPercentile_Invalid() {
+      new RollingPercentiles(4).getPercentile(101);
+   }
+}
@@ -0,0 +1,170 @@
+package de.bitbrain.braingdx.util;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ShaderLoaderTest {
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   private PathResolver previousResolver;
+   private ShaderLoader.ProgramCompiler previousCompiler;
+   private PathResolver resolver;
+   private int compilations;
+   private String revision = "";
+
+   @Before
+   public void beforeTest() {
+      GdxUtils.mockApplicationContext();
+      previousResolver = ShaderLoader.PathResolver;
+      previousCompiler = ShaderLoader.Compiler;
+      resolver = mock(PathResolver.class);
+      when(resolver.resolve(anyString())).thenAnswer(new Answer<FileHandle>() {
+         @Override
+         public FileHandle answer(InvocationOnMock invocation) {
+            FileHandle handle = mock(FileHandle.class);
+            when(handle.readString()).thenReturn("source of " + invocation.getArguments()[0] + revision);
+            return handle;
+         }
+      });
+      ShaderLoader.PathResolver = resolver;
+      ShaderLoader.Compiler = new ShaderLoader.ProgramCompiler() {
+         @Override
+         ShaderProgram compile(String vertex, String fragment, String vertexName, String fragmentName, String defines) {
+            compilations++;
+            return mock(ShaderProgram.class);
+         }
+      };
+   }
+
+   @After
+   public void afterTest() {
+      ShaderLoader.dispose();
+      ShaderLoader.setProgramCacheDirectory(null);
+      ShaderLoader.PathResolver = previousResolver;
+      ShaderLoader.Compiler = previousCompiler;
+   }
+
+   @Test
+   public void testFromFile_CompilesOncePerKey() {
+      ShaderProgram first = ShaderLoader.fromFile("screenspace", "copy");
+      ShaderProgram second = ShaderLoader.fromFile("screenspace", "copy");
+      ShaderProgram other = ShaderLoader.fromFile("screenspace", "copy", "#define FOO");
+      assertThat(second).isSameAs(first);
+      assertThat(other).isNotSameAs(first);
+      assertThat(compilations).isEqualTo(2);
+      assertThat(ShaderLoader.getReferenceCount(first)).isEqualTo(2);
+   }
+
+   @Test
+   public void testFromFile_ReadsSourcesOnce() {
+      ShaderLoader.fromFile("screenspace", "copy");
+      ShaderLoader.fromFile("screenspace", "copy", "#define FOO");
+      verify(resolver, times(1)).resolve("screenspace.vertex");
+      verify(resolver, times(1)).resolve("copy.fragment");
+   }
+
+   @Test
+   public void testRelease_DisposesUnreferencedProgram() {
+      ShaderProgram program = ShaderLoader.fromFile("screenspace", "copy");
+      ShaderLoader.fromFile("screenspace", "copy");
+      ShaderLoader.release(program);
+      verify(program, never()).dispose();
+      ShaderLoader.release(program);
+      verify(program).dispose();
+      assertThat(ShaderLoader.getCachedProgramCount()).isZero();
+   }
+
+   @Test
+   public void testRelease_DisposesProgramWhichIsNotCached() {
+      ShaderProgram program = mock(ShaderProgram.class);
+      ShaderLoader.release(program);
+      verify(program).dispose();
+   }
+
+   @Test
+   public void testWarmUp_KeepsProgramCached() {
+      ShaderLoader.warmUp("screenspace", "copy", "");
+      assertThat(ShaderLoader.getCachedProgramCount()).isEqualTo(1);
+      ShaderProgram program = ShaderLoader.fromFile("screenspace", "copy");
+      ShaderLoader.release(program);
+      verify(program, never()).dispose();
+      assertThat(compilations).isEqualTo(1);
+   }
+
+   @Test
+   public void testBeginWarmUp_KeepsProgramsObtainedMeanwhile() {
+      ShaderLoader.beginWarmUp();
+      ShaderProgram program = ShaderLoader.fromFile("screenspace", "copy");
+      ShaderLoader.release(program);
+      ShaderLoader.endWarmUp();
+      ShaderProgram other = ShaderLoader.fromFile("screenspace", "bias");
+      ShaderLoader.release(other);
+      verify(program, never()).dispose();
+      verify(other).dispose();
+   }
+
+   @Test
+   public void testUpdateWarmUp_CompilesOneProgramPerCall() {
+      ShaderLoader.fromFile("screenspace", "copy");
+      ShaderLoader.queueWarmUp("screenspace", "copy", "");
+      ShaderLoader.queueWarmUp("screenspace", "bias", "");
+      ShaderLoader.queueWarmUp("screenspace", "combine", "");
+      assertThat(compilations).isEqualTo(1);
+      // the cached program is skipped without counting as a compilation
+      assertThat(ShaderLoader.updateWarmUp()).isFalse();
+      assertThat(compilations).isEqualTo(2);
+      assertThat(ShaderLoader.updateWarmUp()).isTrue();
+      assertThat(compilations).isEqualTo(3);
+      assertThat(ShaderLoader.getQueuedWarmUpCount()).isZero();
+      assertThat(ShaderLoader.getCachedProgramCount()).isEqualTo(3);
+   }
+
+   @Test
+   public void testProgramCacheDirectory_QueuesProgramsOfPreviousRuns() throws Exception {
+      FileHandle directory = new FileHandle(folder.newFolder("shaders"));
+      ShaderLoader.setProgramCacheDirectory(directory);
+      ShaderLoader.fromFile("screenspace", "copy", "#define FOO\n#define BAR");
+      ShaderLoader.fromFile("screenspace", "bias");
+      assertThat(directory.list(".program")).hasSize(2);
+      ShaderLoader.dispose();
+      ShaderLoader.queueCachedPrograms();
+      assertThat(ShaderLoader.getQueuedWarmUpCount()).isEqualTo(2);
+      while (!ShaderLoader.updateWarmUp()) {
+         // one program per frame
+      }
+      assertThat(compilations).isEqualTo(4);
+      ShaderProgram program = ShaderLoader.fromFile("screenspace", "copy", "#define FOO\n#define BAR");
+      ShaderLoader.release(program);
+      verify(program, never()).dispose();
+      assertThat(compilations).isEqualTo(4);
+   }
+
+   @Test
+   public void testProgramCacheDirectory_RemovesEntriesOfChangedSources() throws Exception {
+      FileHandle directory = new FileHandle(folder.newFolder("shaders"));
+      ShaderLoader.setProgramCacheDirectory(directory);
+      ShaderLoader.release(ShaderLoader.fromFile("screenspace", "copy"));
+      ShaderLoader.dispose();
+      revision = " (changed)";
+      ShaderLoader.queueCachedPrograms();
+      assertThat(ShaderLoader.updateWarmUp()).isTrue();
+      assertThat(compilations).isEqualTo(1);
+      assertThat(directory.list(".program")).isEmpty();
+      // the program is recorded again once it is used with its current sources
+      ShaderLoader.fromFile("screenspace", "copy");
+      assertThat(directory.list(".program")).hasSize(1);
+   }
+}
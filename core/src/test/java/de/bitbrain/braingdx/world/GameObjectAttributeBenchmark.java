@@ -0,0 +1,70 @@
+package de.bitbrain.braingdx.world;
+
+import de.bitbrain.braingdx.world.AttributeKey.FloatKey;
+import de.bitbrain.braingdx.world.AttributeKey.IntKey;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares map-backed attributes of {@link GameObject} with typed attribute slots.
+ * <p>
+ * Run via the main method from within the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameObjectAttributeBenchmark {
+
+   private static final String MAP_TILE_X = "lastTileX";
+   private static final String MAP_SPEED = "speed";
+   private static final IntKey TILE_X = AttributeKey.createInt("lastTileX", 0);
+   private static final FloatKey SPEED = AttributeKey.createFloat("speed", 0f);
+
+   private GameObject object;
+   private int counter;
+
+   @Setup
+   public void setup() {
+      object = new GameObject();
+      for (int i = 0; i < 8; ++i) {
+         object.setAttribute("attribute" + i, i);
+      }
+      object.setAttribute(MAP_TILE_X, 0);
+      object.setAttribute(MAP_SPEED, 0f);
+      object.setAttribute(TILE_X, 0);
+      object.setAttribute(SPEED, 0f);
+   }
+
+   @Benchmark
+   public float mapAttributes() {
+      counter++;
+      object.setAttribute(MAP_TILE_X, counter);
+      object.setAttribute(MAP_SPEED, counter * 0.5f);
+      int tileX = (Integer) object.getAttribute(MAP_TILE_X);
+      float speed = (Float) object.getAttribute(MAP_SPEED);
+      return tileX + speed;
+   }
+
+   @Benchmark
+   public float typedAttributes() {
+      counter++;
+      object.setAttribute(TILE_X, counter);
+      object.setAttribute(SPEED, counter * 0.5f);
+      int tileX = object.getAttribute(TILE_X);
+      float speed = object.getAttribute(SPEED);
+      return tileX + speed;
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder()
+            .include(GameObjectAttributeBenchmark.class.getSimpleName())
+            .build()).run();
+   }
+}
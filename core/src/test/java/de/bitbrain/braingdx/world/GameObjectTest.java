@@ -0,0 +1,75 @@
+package de.bitbrain.braingdx.world;
+
+import de.bitbrain.braingdx.world.AttributeKey.BooleanKey;
+import de.bitbrain.braingdx.world.AttributeKey.FloatKey;
+import de.bitbrain.braingdx.world.AttributeKey.IntKey;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GameObjectTest {
+
+   private static final AttributeKey<String> NAME = AttributeKey.create("name", String.class);
+   private static final IntKey COUNT = AttributeKey.createInt("count", -1);
+   private static final FloatKey SPEED = AttributeKey.createFloat("speed", 1f);
+   private static final BooleanKey ENABLED = AttributeKey.createBoolean("enabled", true);
+
+   @Test
+   public void testTypedAttributes_Defaults() {
+      GameObject object = new GameObject();
+      assertThat(object.getAttribute(NAME)).isNull();
+      assertThat(object.getAttribute(COUNT)).isEqualTo(-1);
+      assertThat(object.getAttribute(SPEED)).isEqualTo(1f);
+      assertThat(object.getAttribute(ENABLED)).isTrue();
+      assertThat(object.hasAttribute(COUNT)).isFalse();
+   }
+
+   @Test
+   public void testTypedAttributes_SetAndRemove() {
+      GameObject object = new GameObject();
+      object.setAttribute(NAME, "test");
+      object.setAttribute(COUNT, 5);
+      object.setAttribute(SPEED, 2.5f);
+      object.setAttribute(ENABLED, false);
+      assertThat(object.getAttribute(NAME)).isEqualTo("test");
+      assertThat(object.getAttribute(COUNT)).isEqualTo(5);
+      assertThat(object.getAttribute(SPEED)).isEqualTo(2.5f);
+      assertThat(object.getAttribute(ENABLED)).isFalse();
+      object.removeAttribute(COUNT);
+      object.setAttribute(NAME, null);
+      assertThat(object.hasAttribute(COUNT)).isFalse();
+      assertThat(object.getAttribute(COUNT)).isEqualTo(-1);
+      assertThat(object.hasAttribute(NAME)).isFalse();
+   }
+
+   @Test
+   public void testTypedAttributes_Reset() {
+      GameObject object = new GameObject();
+      object.setAttribute(NAME, "test");
+      object.setAttribute(COUNT, 5);
+      object.reset();
+      assertThat(object.getAttribute(NAME)).isNull();
+      assertThat(object.hasAttribute(COUNT)).isFalse();
+   }
+
+   @Test
+   public void testTypedAttributes_Copy() {
+      GameObject object = new GameObject();
+      object.setAttribute(COUNT, 5);
+      object.setAttribute(NAME, "test");
+      GameObject copy = object.copy();
+      assertThat(copy.getAttribute(COUNT)).isEqualTo(5);
+      assertThat(copy.getAttribute(NAME)).isEqualTo("test");
+      copy.setAttribute(COUNT, 7);
+      assertThat(object.getAttribute(COUNT)).isEqualTo(5);
+   }
+
+   @Test
+   public void testHandle_ChangesOnReset() {
+      GameObject object = new GameObject();
+      long handle = object.getHandle();
+      object.reset();
+      assertThat(object.getHandle()).isNotEqualTo(handle);
+      assertThat(object.getHandle()).isNotEqualTo(0L);
+   }
+}
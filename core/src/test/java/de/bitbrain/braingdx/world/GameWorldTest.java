@@ -146,6 +146,8 @@ public class GameWorldTest {
       GameObject object1 = world.addObject("asdf");
       GameObject object2 = world.addObject("asdf");
       world.remove(object1);
+      assertThat(world.getGroup("asdf")).containsExactly(object1, object2);
+      world.update(0f);
       assertThat(world.getGroup("asdf")).containsExactly(object2);
    }
 
@@ -189,10 +191,243 @@ public class GameWorldTest {
       assertThat(world.getObjects(null, false).size).isEqualTo(60);
    }
 
+   @Test
+   public void shouldOnlyPairNearbyObjects() {
+      GameObject a = world.addObject();
+      a.setDimensions(10, 10);
+      GameObject b = world.addObject();
+      b.setPosition(5, 5);
+      b.setDimensions(10, 10);
+      GameObject far = world.addObject();
+      far.setPosition(5000, 5000);
+      far.setDimensions(10, 10);
+      PairCounter counter = new PairCounter();
+      world.addListener(counter);
+      world.update(1f);
+      assertThat(counter.pairs).isEqualTo(2);
+   }
+
+   @Test
+   public void shouldPairAllObjectsWithExhaustiveBroadPhase() {
+      world.setBroadPhase(new ExhaustiveBroadPhase());
+      GameObject a = world.addObject();
+      a.setDimensions(10, 10);
+      GameObject far = world.addObject();
+      far.setPosition(5000, 5000);
+      far.setDimensions(10, 10);
+      PairCounter counter = new PairCounter();
+      world.addListener(counter);
+      world.update(1f);
+      assertThat(counter.pairs).isEqualTo(2);
+   }
+
+   @Test
+   public void shouldNotifyStatusChangesOnlyOnTransition() {
+      world = new GameWorld(10);
+      GameObject visible = null;
+      for (int i = 0; i < 60; ++i) {
+         GameObject object = world.addObject("asdf2");
+         object.setPosition(500 + i * 2f, 500 + i * 2f);
+         object.setDimensions(2, 2);
+         visible = object;
+      }
+      visible.setPosition(20, 20);
+      GameCamera gameCamera = mock(GameCamera.class);
+      setViewport(gameCamera, 10, 10, 50, 50);
+      world.setCamera(gameCamera);
+      world.setBounds(new SimpleWorldBounds(1000, 1000));
+      StatusCounter counter = new StatusCounter();
+      world.addListener(counter);
+      world.update(1f);
+      world.update(1f);
+      assertThat(counter.disabled).isEqualTo(60 - world.getObjects(null, true).size);
+      assertThat(counter.enabled).isEqualTo(0);
+      assertThat(world.isUpdateable(visible)).isTrue();
+      GameObject other = world.getObjects().get(58);
+      assertThat(world.isUpdateable(other)).isFalse();
+      other.setPosition(22, 22);
+      world.update(1f);
+      world.update(1f);
+      assertThat(counter.enabled).isEqualTo(1);
+      assertThat(world.isUpdateable(other)).isTrue();
+   }
+
+   @Test
+   public void testGetObjectByHandle() {
+      GameObject object = world.addObject();
+      long handle = object.getHandle();
+      assertThat(object.hasId()).isFalse();
+      assertThat(world.getObjectByHandle(handle)).isSameAs(object);
+      world.remove(object);
+      world.update(0f);
+      assertThat(world.getObjectByHandle(handle)).isNull();
+      assertThat(object.getHandle()).isNotEqualTo(handle);
+   }
+
+   @Test
+   public void testGetObjectByLazyId() {
+      GameObject object = world.addObject();
+      String id = object.getId();
+      assertThat(world.getObjectById(id)).isSameAs(object);
+      object.setId("changed");
+      assertThat(world.getObjectById(id)).isNull();
+      assertThat(world.getObjectById("changed")).isSameAs(object);
+      world.remove("changed");
+      world.update(0f);
+      assertThat(world.size()).isEqualTo(0);
+   }
+
+   @Test
+   public void testTransformStore() {
+      GameObject before = world.addObject();
+      before.setPosition(10f, 20f);
+      before.setDimensions(32f, 16f);
+      world.setTransformStoreEnabled(true);
+      GameObject after = world.addObject();
+      after.setPosition(5f, 6f);
+      after.setRotation(45f);
+
+      TransformStore store = world.getTransformStore();
+      assertThat(world.getObjectAtSlot(0)).isSameAs(before);
+      assertThat(store.x[0]).isEqualTo(10f);
+      assertThat(store.width[0]).isEqualTo(32f);
+      assertThat(store.y[1]).isEqualTo(6f);
+      assertThat(store.rotation[1]).isEqualTo(45f);
+      assertThat(store.scaleX[1]).isEqualTo(1f);
+
+      store.x[0] = 50f;
+      assertThat(before.getLeft()).isEqualTo(50f);
+
+      world.setTransformStoreEnabled(false);
+      assertThat(world.getTransformStore()).isNull();
+      assertThat(before.getLeft()).isEqualTo(50f);
+      assertThat(before.getWidth()).isEqualTo(32f);
+      assertThat(after.getRotation()).isEqualTo(45f);
+   }
+
+   @Test
+   public void testTransformStore_ResetOnRemove() {
+      world.setTransformStoreEnabled(true);
+      GameObject object = world.addObject();
+      object.setPosition(10f, 10f);
+      object.setScale(2f);
+      world.remove(object);
+      world.update(0f);
+      assertThat(object.getLeft()).isEqualTo(0f);
+      assertThat(object.getScaleX()).isEqualTo(1f);
+      GameObject reused = world.addObject();
+      assertThat(reused.getLeft()).isEqualTo(0f);
+      assertThat(reused.getScaleY()).isEqualTo(1f);
+   }
+
+   @Test
+   public void testQueryRect() {
+      GameObject a = spatialObject(10, 10);
+      GameObject b = spatialObject(40, 40);
+      spatialObject(500, 500);
+      world.update(0f);
+      assertThat(world.queryRect(0, 0, 45, 45, new Array<GameObject>())).containsExactlyInAnyOrder(a, b);
+      assertThat(world.queryRect(12, 12, 2, 2, new Array<GameObject>())).containsExactly(a);
+   }
+
+   @Test
+   public void testQueryRect_AfterMove() {
+      world.setBounds(new SimpleWorldBounds(1000, 1000));
+      for (int i = 0; i < 100; ++i) {
+         spatialObject(900, 900 - i * 5);
+      }
+      GameObject moving = spatialObject(10, 10);
+      world.update(0f);
+      moving.setPosition(800, 100);
+      assertThat(world.queryRect(790, 90, 30, 30, new Array<GameObject>())).containsExactly(moving);
+      assertThat(world.queryRect(0, 0, 30, 30, new Array<GameObject>())).isEmpty();
+   }
+
+   @Test
+   public void testQueryRect_AfterMoveOnOtherThread() throws InterruptedException {
+      world.setBounds(new SimpleWorldBounds(1000, 1000));
+      for (int i = 0; i < 100; ++i) {
+         spatialObject(900, 900 - i * 5);
+      }
+      final GameObject moving = spatialObject(10, 10);
+      world.update(0f);
+      Thread worker = new Thread(new Runnable() {
+         @Override
+         public void run() {
+            moving.setPosition(800, 100);
+         }
+      });
+      worker.start();
+      worker.join();
+      assertThat(world.queryRect(790, 90, 30, 30, new Array<GameObject>())).containsExactly(moving);
+      assertThat(world.queryRect(0, 0, 30, 30, new Array<GameObject>())).isEmpty();
+   }
+
+   @Test
+   public void testQueryRadius() {
+      GameObject a = spatialObject(10, 10);
+      spatialObject(30, 30);
+      world.update(0f);
+      assertThat(world.queryRadius(0, 0, 15f, new Array<GameObject>())).containsExactly(a);
+   }
+
+   @Test
+   public void testNearest() {
+      GameObject a = spatialObject(10, 0);
+      GameObject b = spatialObject(100, 0);
+      GameObject c = spatialObject(1000, 0);
+      GameObject d = spatialObject(5000, 0);
+      world.update(0f);
+      assertThat(world.nearest(0, 0, 3, new Array<GameObject>())).containsExactly(a, b, c);
+      assertThat(world.nearest(6000, 0, 10, new Array<GameObject>())).containsExactly(d, c, b, a);
+   }
+
+   @Test
+   public void testRaycast() {
+      GameObject first = spatialObject(100, 0);
+      GameObject second = spatialObject(50, 0);
+      spatialObject(50, 100);
+      world.update(0f);
+      assertThat(world.raycast(0, 5, 200, 5, new Array<GameObject>())).containsExactly(second, first);
+      assertThat(world.raycast(200, 5, 0, 5, new Array<GameObject>())).containsExactly(first, second);
+   }
+
+   private GameObject spatialObject(float x, float y) {
+      GameObject object = world.addObject();
+      object.setPosition(x, y);
+      object.setDimensions(10, 10);
+      object.setPersistent(true);
+      return object;
+   }
+
    private void setViewport(GameCamera cameraMock, float x, float y, float width, float height) {
       when(cameraMock.getLeft()).thenReturn(x);
       when(cameraMock.getTop()).thenReturn(y);
       when(cameraMock.getScaledCameraHeight()).thenReturn(x);
       when(cameraMock.getScaledCameraHeight()).thenReturn(y);
    }
+
+   private static class PairCounter extends GameWorld.GameWorldListener {
+
+      int pairs;
+
+      @Override
+      public void onUpdate(GameObject object, GameObject other, float delta) {
+         pairs++;
+      }
+   }
+
+   private static class StatusCounter extends GameWorld.GameWorldListener {
+
+      int enabled, disabled;
+
+      @Override
+      public void onStatusChange(GameObject object, boolean updateable) {
+         if (updateable) {
+            enabled++;
+         } else {
+            disabled++;
+         }
+      }
+   }
 }
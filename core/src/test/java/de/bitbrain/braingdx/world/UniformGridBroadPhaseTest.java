@@ -0,0 +1,91 @@
+package de.bitbrain.braingdx.world;
+
+import com.badlogic.gdx.utils.Array;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UniformGridBroadPhaseTest {
+
+   private UniformGridBroadPhase broadPhase;
+   private Array<GameObject> objects;
+
+   @Before
+   public void beforeTest() {
+      broadPhase = new UniformGridBroadPhase(32f, 8f);
+      objects = new Array<GameObject>();
+   }
+
+   @Test
+   public void testRetrieve_Overlapping() {
+      GameObject a = object(0, 0, 16, 16);
+      GameObject b = object(8, 8, 16, 16);
+      broadPhase.update(objects);
+      assertThat(broadPhase.retrieve(a, new Array<GameObject>())).containsExactlyInAnyOrder(a, b);
+   }
+
+   @Test
+   public void testRetrieve_WithinMargin() {
+      GameObject a = object(0, 0, 16, 16);
+      GameObject b = object(20, 0, 16, 16);
+      broadPhase.update(objects);
+      assertThat(broadPhase.retrieve(a, new Array<GameObject>())).containsExactlyInAnyOrder(a, b);
+   }
+
+   @Test
+   public void testRetrieve_OutsideMargin() {
+      GameObject a = object(0, 0, 16, 16);
+      GameObject b = object(100, 100, 16, 16);
+      broadPhase.update(objects);
+      assertThat(broadPhase.retrieve(a, new Array<GameObject>())).containsExactly(a);
+   }
+
+   @Test
+   public void testRetrieve_SpanningMultipleCells_NoDuplicates() {
+      GameObject a = object(-40, -40, 100, 100);
+      GameObject b = object(0, 0, 50, 50);
+      broadPhase.update(objects);
+      assertThat(broadPhase.retrieve(b, new Array<GameObject>())).containsExactlyInAnyOrder(a, b);
+   }
+
+   @Test
+   public void testRetrieve_Oversized() {
+      GameObject huge = object(0, 0, 10000, 10000);
+      GameObject a = object(5000, 5000, 16, 16);
+      GameObject far = object(20000, 20000, 16, 16);
+      broadPhase.update(objects);
+      assertThat(broadPhase.retrieve(a, new Array<GameObject>())).containsExactlyInAnyOrder(a, huge);
+      assertThat(broadPhase.retrieve(huge, new Array<GameObject>())).containsExactlyInAnyOrder(a, huge);
+      assertThat(broadPhase.retrieve(far, new Array<GameObject>())).containsExactly(far);
+   }
+
+   @Test
+   public void testUpdate_RebuildsGrid() {
+      GameObject a = object(0, 0, 16, 16);
+      GameObject b = object(100, 100, 16, 16);
+      broadPhase.update(objects);
+      b.setPosition(10, 10);
+      broadPhase.update(objects);
+      assertThat(broadPhase.retrieve(a, new Array<GameObject>())).containsExactlyInAnyOrder(a, b);
+   }
+
+   @Test
+   public void testRetrieve_ObjectMovedIntoOtherCellAfterUpdate() {
+      // inserted into the cells 1 and 2, then moved into cell 0 while still overlapping cell 1
+      GameObject moved = object(40, 40, 40, 16);
+      GameObject a = object(20, 40, 16, 16);
+      broadPhase.update(objects);
+      moved.setPosition(30, 40);
+      assertThat(broadPhase.retrieve(a, new Array<GameObject>())).containsExactlyInAnyOrder(a, moved);
+      assertThat(broadPhase.retrieve(moved, new Array<GameObject>())).containsExactlyInAnyOrder(a, moved);
+   }
+
+   private GameObject object(float x, float y, float width, float height) {
+      GameObject object = new GameObject();
+      object.setPosition(x, y);
+      object.setDimensions(width, height);
+      objects.add(object);
+      return object;
+   }
+}